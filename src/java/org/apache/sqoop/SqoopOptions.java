@@ -221,6 +221,7 @@ public String toString() {
   @StoredAsProperty("hdfs.target.dir") private String targetDir;
   @StoredAsProperty("hdfs.append.dir") private boolean append;
   @StoredAsProperty("hdfs.delete-target.dir") private boolean delete;
+  private boolean resume; // not serialized to metastore.
   @StoredAsProperty("hdfs.file.format") private FileLayout layout;
   @StoredAsProperty("direct.import") private boolean direct; // "direct mode."
   @StoredAsProperty("db.batch") private boolean batchMode;
@@ -339,6 +340,12 @@ public String toString() {
   // What was the last-imported value of incrementalTestCol?
   @StoredAsProperty("incremental.last.value")
   private String incrementalLastValue;
+  // Committed delta directories of the target dir, oldest first.
+  @StoredAsProperty("incremental.deltas")
+  private String incrementalDeltas;
+  // Split column bounding values seen by the last run, as JSON.
+  @StoredAsProperty("split.bounds.cache")
+  private String splitBoundsCache;
 
   @StoredAsProperty("hbase.null.incremental.mode")
   private HBaseNullIncrementalMode hbaseNullIncrementalMode;
@@ -1824,6 +1831,18 @@ public boolean isDeleteMode() {
     return this.delete;
   }
 
+  /**
+   * Set whether the import checkpoints its completed split ranges and
+   * resumes from the checkpoint of an earlier failed run.
+   */
+  public void setResume(boolean doResume) {
+    this.resume = doResume;
+  }
+
+  public boolean isResume() {
+    return this.resume;
+  }
+
   /**
    * @return the destination file format
    */
@@ -2373,6 +2392,34 @@ public String getIncrementalLastValue() {
     return this.incrementalLastValue;
   }
 
+  /**
+   * Set the comma separated list of committed delta directories.
+   */
+  public void setIncrementalDeltas(String deltas) {
+    this.incrementalDeltas = deltas;
+  }
+
+  /**
+   * Get the comma separated list of committed delta directories.
+   */
+  public String getIncrementalDeltas() {
+    return this.incrementalDeltas;
+  }
+
+  /**
+   * Set the split column bounding values seen by the last run.
+   */
+  public void setSplitBoundsCache(String bounds) {
+    this.splitBoundsCache = bounds;
+  }
+
+  /**
+   * Get the split column bounding values seen by the last run.
+   */
+  public String getSplitBoundsCache() {
+    return this.splitBoundsCache;
+  }
+
   /**
    * Get HBase null incremental mode to use.
    */
@@ -0,0 +1,325 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.db.decorator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.ShutdownHookManager;
+import org.apache.hadoop.util.StringUtils;
+import org.apache.sqoop.db.JdbcConnectionFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Keeps closed connections of the decorated factory open for reuse, so that
+ * the client side phases of a job do not each pay for a new connection.
+ *
+ * The connections handed out are proxies; closing one rolls back any open
+ * transaction, restores its auto-commit and isolation settings and returns
+ * the underlying connection to the pool. Idle connections are validated
+ * before reuse and closed when they have been idle for too long or when
+ * more than the maximum number would be kept.
+ */
+public class PooledConnectionFactoryDecorator extends JdbcConnectionFactoryDecorator {
+
+  public static final Log LOG = LogFactory.getLog(PooledConnectionFactoryDecorator.class.getName());
+
+  /** Maximum number of idle connections kept; 0 disables pooling. */
+  public static final String MAX_IDLE_KEY = "sqoop.connection.pool.max.idle";
+
+  /** Seconds an idle connection is kept before it is closed. */
+  public static final String MAX_IDLE_TIME_KEY = "sqoop.connection.pool.max.idle.time";
+
+  /** Seconds to wait for an idle connection to validate before reuse. */
+  public static final String VALIDATION_TIMEOUT_KEY = "sqoop.connection.pool.validation.timeout";
+
+  public static final int DEFAULT_MAX_IDLE_TIME = 300;
+
+  public static final int DEFAULT_VALIDATION_TIMEOUT = 5;
+
+  private static final int SHUTDOWN_HOOK_PRIORITY = 10;
+
+  private static final Map<String, PooledConnectionFactoryDecorator> SHARED_POOLS = new HashMap<>();
+
+  private final int maxIdle;
+
+  private final long maxIdleTimeMillis;
+
+  private final int validationTimeout;
+
+  private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+
+  public PooledConnectionFactoryDecorator(JdbcConnectionFactory decorated, int maxIdle, long maxIdleTimeMillis,
+                                          int validationTimeout) {
+    super(decorated);
+    this.maxIdle = maxIdle;
+    this.maxIdleTimeMillis = maxIdleTimeMillis;
+    this.validationTimeout = validationTimeout;
+  }
+
+  /**
+   * @return true if the configuration asks for connections to be pooled.
+   */
+  public static boolean isEnabled(Configuration conf) {
+    return conf.getInt(MAX_IDLE_KEY, 0) > 0;
+  }
+
+  /**
+   * Builds the key of a shared pool from everything that determines the
+   * connections it hands out. The password and the connection properties
+   * are only included as a hash, so that callers connecting with different
+   * credentials or properties never share connections.
+   */
+  public static String getKey(String driverClass, String connectString, String username, String password,
+                              Properties properties) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+    update(digest, password);
+    if (properties != null) {
+      for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+        update(digest, name);
+        update(digest, properties.getProperty(name));
+      }
+    }
+    return driverClass + "|" + connectString + "|" + username + "|"
+        + StringUtils.byteToHexString(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    if (value == null) {
+      digest.update((byte) 0);
+    } else {
+      digest.update((byte) 1);
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      digest.update(new byte[] {(byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+          (byte) (bytes.length >>> 8), (byte) bytes.length});
+      digest.update(bytes);
+    }
+  }
+
+  /**
+   * Returns the pool shared by everything in this JVM that connects with the
+   * same key, creating it around the given factory on first use. Returns the
+   * factory itself if pooling is not enabled.
+   *
+   * @param key identifies the database, user and credentials; see getKey().
+   */
+  public static JdbcConnectionFactory getShared(Configuration conf, String key, JdbcConnectionFactory factory) {
+    if (!isEnabled(conf)) {
+      return factory;
+    }
+    synchronized (SHARED_POOLS) {
+      PooledConnectionFactoryDecorator pool = SHARED_POOLS.get(key);
+      if (pool == null) {
+        if (SHARED_POOLS.isEmpty()) {
+          ShutdownHookManager.get().addShutdownHook(new Runnable() {
+            @Override
+            public void run() {
+              closeShared();
+            }
+          }, SHUTDOWN_HOOK_PRIORITY);
+        }
+        pool = new PooledConnectionFactoryDecorator(factory, conf.getInt(MAX_IDLE_KEY, 0),
+            conf.getInt(MAX_IDLE_TIME_KEY, DEFAULT_MAX_IDLE_TIME) * 1000L,
+            conf.getInt(VALIDATION_TIMEOUT_KEY, DEFAULT_VALIDATION_TIMEOUT));
+        SHARED_POOLS.put(key, pool);
+      }
+      return pool;
+    }
+  }
+
+  /**
+   * Closes the idle connections of every shared pool.
+   */
+  public static void closeShared() {
+    synchronized (SHARED_POOLS) {
+      for (PooledConnectionFactoryDecorator pool : SHARED_POOLS.values()) {
+        pool.close();
+      }
+    }
+  }
+
+  @Override
+  public Connection createConnection() {
+    PooledConnection pooled;
+    while ((pooled = takeIdle()) != null) {
+      if (isValid(pooled)) {
+        LOG.debug("Reusing pooled connection");
+        return pooled.open();
+      }
+      closeQuietly(pooled.physical);
+    }
+
+    Connection physical = decorated.createConnection();
+    try {
+      return new PooledConnection(physical).open();
+    } catch (RuntimeException e) {
+      closeQuietly(physical);
+      throw e;
+    }
+  }
+
+  /**
+   * Closes all idle connections. Connections in use are closed when they are
+   * returned.
+   */
+  public void close() {
+    PooledConnection pooled;
+    while ((pooled = takeIdle()) != null) {
+      closeQuietly(pooled.physical);
+    }
+  }
+
+  public int getIdleCount() {
+    synchronized (idleConnections) {
+      return idleConnections.size();
+    }
+  }
+
+  private PooledConnection takeIdle() {
+    synchronized (idleConnections) {
+      return idleConnections.pollFirst();
+    }
+  }
+
+  private boolean isValid(PooledConnection pooled) {
+    if (System.currentTimeMillis() - pooled.idleSince > maxIdleTimeMillis) {
+      LOG.debug("Closing pooled connection that was idle for too long");
+      return false;
+    }
+    try {
+      return !pooled.physical.isClosed() && pooled.physical.isValid(validationTimeout);
+    } catch (SQLException e) {
+      LOG.debug("Pooled connection failed validation", e);
+      return false;
+    }
+  }
+
+  private void release(PooledConnection pooled) {
+    try {
+      if (pooled.physical.isClosed()) {
+        return;
+      }
+      if (!pooled.physical.getAutoCommit()) {
+        pooled.physical.rollback();
+      }
+      pooled.physical.setAutoCommit(pooled.autoCommit);
+      if (pooled.physical.getTransactionIsolation() != pooled.isolation) {
+        pooled.physical.setTransactionIsolation(pooled.isolation);
+      }
+    } catch (SQLException e) {
+      LOG.debug("Could not reset pooled connection", e);
+      closeQuietly(pooled.physical);
+      return;
+    }
+
+    synchronized (idleConnections) {
+      if (idleConnections.size() < maxIdle) {
+        pooled.idleSince = System.currentTimeMillis();
+        // Most recently used first, so that surplus connections time out.
+        idleConnections.addFirst(pooled);
+        return;
+      }
+    }
+    closeQuietly(pooled.physical);
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      LOG.debug("Could not close pooled connection", e);
+    }
+  }
+
+  /**
+   * A connection of the pool together with its initial settings.
+   */
+  private final class PooledConnection {
+
+    private final Connection physical;
+
+    private final boolean autoCommit;
+
+    private final int isolation;
+
+    private long idleSince;
+
+    private PooledConnection(Connection physical) {
+      this.physical = physical;
+      try {
+        this.autoCommit = physical.getAutoCommit();
+        this.isolation = physical.getTransactionIsolation();
+      } catch (SQLException e) {
+        throw new RuntimeException("Could not read connection settings", e);
+      }
+    }
+
+    /**
+     * @return a new proxy of the connection that returns it to the pool when
+     * it is closed.
+     */
+    private Connection open() {
+      InvocationHandler handler = new InvocationHandler() {
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+          String name = method.getName();
+          if ("close".equals(name)) {
+            if (!closed) {
+              closed = true;
+              release(PooledConnection.this);
+            }
+            return null;
+          } else if ("isClosed".equals(name)) {
+            return closed || physical.isClosed();
+          } else if (closed) {
+            throw new SQLException("Connection is closed");
+          }
+          try {
+            return method.invoke(physical, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        }
+      };
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+          new Class<?>[] {Connection.class}, handler);
+    }
+  }
+}
@@ -33,6 +33,17 @@ public class HiveConfig {
 
   public static final String HIVE_SASL_ENABLED = "hive.metastore.sasl.enabled";
 
+  /**
+   * If true, the imported files are committed straight into the storage
+   * location of the Hive table (or partition) instead of being moved there
+   * by LOAD DATA INPATH.
+   */
+  public static final String HIVE_DIRECT_LOAD = "sqoop.hive.import.direct";
+
+  public static boolean isDirectLoad(Configuration conf) {
+    return conf != null && conf.getBoolean(HIVE_DIRECT_LOAD, false);
+  }
+
   /**
    * Dynamically create hive configuration object.
    * @param conf
@@ -172,7 +172,7 @@ public void importTable(String inputTableName, String outputTableName,
         inputTableName, outputTableName,
         configuration, !debugMode);
     String createTableStr = tableWriter.getCreateTableStmt() + ";\n";
-    String loadDataStmtStr = tableWriter.getLoadDataStmt() + ";\n";
+    String loadDataStmtStr = getLoadStmt(tableWriter);
     Path finalPath = tableWriter.getFinalPath();
 
     if (!isGenerateOnly()) {
@@ -214,7 +214,9 @@ public void importTable(String inputTableName, String outputTableName,
 
         LOG.info("Hive import complete.");
 
-        hiveClientCommon.cleanUp(configuration, finalPath);
+        if (!HiveConfig.isDirectLoad(configuration)) {
+          hiveClientCommon.cleanUp(configuration, finalPath);
+        }
       }
     } finally {
       if (!isGenerateOnly()) {
@@ -228,6 +230,23 @@ public void importTable(String inputTableName, String outputTableName,
     }
   }
 
+  /**
+   * @return the statement making the imported data part of the table. If the
+   * data was committed directly into the table location, this only has to
+   * register the partition (if any) in the metastore.
+   */
+  private String getLoadStmt(TableDefWriter tableWriter) throws IOException {
+    if (!HiveConfig.isDirectLoad(configuration)) {
+      StringBuilder sb = new StringBuilder();
+      for (String loadDataStmt : tableWriter.getLoadDataStmts()) {
+        sb.append(loadDataStmt).append(";\n");
+      }
+      return sb.toString();
+    }
+    String addPartitionStmt = tableWriter.getAddPartitionStmt();
+    return addPartitionStmt == null ? "" : addPartitionStmt + ";\n";
+  }
+
   @SuppressWarnings("unchecked")
   /**
    * Execute the script file via Hive.
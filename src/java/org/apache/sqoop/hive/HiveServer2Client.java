@@ -28,6 +28,7 @@
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Arrays.asList;
@@ -59,8 +60,21 @@ public HiveServer2Client(SqoopOptions sqoopOptions, TableDefWriter tableDefWrite
   public void importTable() throws IOException {
     LOG.info("Loading uploaded data into Hive.");
     String createTableStmt = tableDefWriter.getCreateTableStmt();
-    String loadDataStmt = tableDefWriter.getLoadDataStmt();
-    executeHiveImport(asList(createTableStmt, loadDataStmt));
+    if (HiveConfig.isDirectLoad(sqoopOptions.getConf())) {
+      // The data is already in the table location, only the partition has
+      // to be registered.
+      String addPartitionStmt = tableDefWriter.getAddPartitionStmt();
+      if (addPartitionStmt == null) {
+        executeHiveImport(asList(createTableStmt));
+      } else {
+        executeHiveImport(asList(createTableStmt, addPartitionStmt));
+      }
+    } else {
+      List<String> commands = new ArrayList<>();
+      commands.add(createTableStmt);
+      commands.addAll(tableDefWriter.getLoadDataStmts());
+      executeHiveImport(commands);
+    }
     LOG.info("Hive import complete.");
   }
 
@@ -85,7 +99,9 @@ void executeHiveImport(List<String> commands) throws IOException {
       throw new RuntimeException("Error executing Hive import.", e);
     }
 
-    hiveClientCommon.cleanUp(sqoopOptions.getConf(), finalPath);
+    if (!HiveConfig.isDirectLoad(sqoopOptions.getConf())) {
+      hiveClientCommon.cleanUp(sqoopOptions.getConf(), finalPath);
+    }
   }
 
   void executeCommands(List<String> commands) throws SQLException {
@@ -24,6 +24,7 @@
 import org.apache.sqoop.authentication.KerberosAuthenticator;
 import org.apache.sqoop.db.JdbcConnectionFactory;
 import org.apache.sqoop.db.decorator.KerberizedConnectionFactoryDecorator;
+import org.apache.sqoop.db.decorator.PooledConnectionFactoryDecorator;
 
 import java.io.IOException;
 
@@ -43,6 +44,12 @@ public JdbcConnectionFactory createJdbcConnectionFactory(SqoopOptions sqoopOptio
       KerberosAuthenticator authenticator = createKerberosAuthenticator(sqoopOptions);
       connectionFactory = new KerberizedConnectionFactoryDecorator(connectionFactory, authenticator);
     }
+    if (sqoopOptions.getConf() != null) {
+      connectionFactory = PooledConnectionFactoryDecorator.getShared(sqoopOptions.getConf(),
+          PooledConnectionFactoryDecorator.getKey(HiveServer2ConnectionFactory.class.getName(),
+              sqoopOptions.getHs2Url(), connectionUsername, connectionPassword, null),
+          connectionFactory);
+    }
     return connectionFactory;
   }
 
@@ -36,12 +36,22 @@
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
 import org.apache.sqoop.avro.AvroUtil;
 import org.apache.sqoop.io.CodecMap;
 
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.manager.ConnManager;
+import org.apache.sqoop.mapreduce.DynamicPartitions;
 import org.apache.sqoop.util.FileSystemUtil;
+import org.apache.thrift.TException;
 
 import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_AVRO_SCHEMA_KEY;
 
@@ -57,6 +67,8 @@ public class TableDefWriter {
   public static final Log LOG = LogFactory.getLog(
       TableDefWriter.class.getName());
 
+  private static final String DEFAULT_HIVE_DATABASE = "default";
+
   private SqoopOptions options;
   private ConnManager connManager;
   private Configuration configuration;
@@ -168,11 +180,16 @@ public String getCreateTableStmt() throws IOException {
 
     boolean first = true;
     String partitionKey = options.getHivePartitionKey();
+    String dynamicPartitionColumn = DynamicPartitions.getColumn(configuration);
     for (String col : colNames) {
       if (col.equals(partitionKey)) {
         throw new IllegalArgumentException("Partition key " + col + " cannot "
             + "be a column to import.");
       }
+      if (col.equals(dynamicPartitionColumn)) {
+        // Stored in the partition directory names, not in the data files.
+        continue;
+      }
 
       if (!first) {
         sb.append(", ");
@@ -206,6 +223,10 @@ public String getCreateTableStmt() throws IOException {
       sb.append("PARTITIONED BY (")
         .append(partitionKey)
         .append(" STRING) ");
+     } else if (dynamicPartitionColumn != null) {
+      sb.append("PARTITIONED BY (`")
+        .append(dynamicPartitionColumn)
+        .append("` STRING) ");
      }
 
     if (SqoopOptions.FileLayout.ParquetFile.equals(options.getFileLayout())) {
@@ -296,7 +317,178 @@ public String getLoadDataStmt() throws IOException {
     return sb.toString();
   }
 
+  /**
+   * @return the LOAD DATA statements to import the data in HDFS into hive:
+   * one per partition directory for a dynamically partitioned import,
+   * otherwise the one of {@link #getLoadDataStmt()}.
+   */
+  public List<String> getLoadDataStmts() throws IOException {
+    if (!DynamicPartitions.isEnabled(configuration)) {
+      return Collections.singletonList(getLoadDataStmt());
+    }
+
+    Path finalPath = getFinalPath();
+    String column = DynamicPartitions.getColumn(configuration);
+    List<String> stmts = new ArrayList<>();
+    for (Path partitionPath : DynamicPartitions.listPartitions(
+        finalPath.getFileSystem(configuration), finalPath, column)) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("LOAD DATA INPATH '");
+      sb.append(partitionPath.toString() + "'");
+      if (options.doOverwriteHiveTable()) {
+        sb.append(" OVERWRITE");
+      }
+      sb.append(" INTO TABLE `");
+      if(options.getHiveDatabaseName() != null) {
+        sb.append(options.getHiveDatabaseName()).append("`.`");
+      }
+      sb.append(outputTableName);
+      sb.append("` PARTITION (`").append(column).append("`='")
+        .append(escapeStringLiteral(
+            DynamicPartitions.getPartitionValue(partitionPath.getName())))
+        .append("')");
+
+      LOG.debug("Load statement: " + sb.toString());
+      stmts.add(sb.toString());
+    }
+    return stmts;
+  }
+
+  /**
+   * Escape a value for use in a single quoted HiveQL string literal.
+   */
+  static String escapeStringLiteral(String value) {
+    return value.replace("\\", "\\\\").replace("'", "\\'");
+  }
+
+  /**
+   * @return the statement that registers the imported partition in the
+   * metastore, or null if the import is not partitioned. A dynamically
+   * partitioned import registers all partitions found in the table location.
+   */
+  public String getAddPartitionStmt() {
+    if (DynamicPartitions.isEnabled(configuration)) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("MSCK REPAIR TABLE `");
+      if(options.getHiveDatabaseName() != null) {
+        sb.append(options.getHiveDatabaseName()).append("`.`");
+      }
+      sb.append(getHiveTableName()).append('`');
+      return sb.toString();
+    }
+    if (options.getHivePartitionKey() == null) {
+      return null;
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("ALTER TABLE `");
+    if(options.getHiveDatabaseName() != null) {
+      sb.append(options.getHiveDatabaseName()).append("`.`");
+    }
+    sb.append(getHiveTableName());
+    sb.append("` ADD IF NOT EXISTS PARTITION (")
+      .append(options.getHivePartitionKey())
+      .append("='").append(escapeStringLiteral(options.getHivePartitionValue()))
+      .append("')");
+
+    LOG.debug("Add partition statement: " + sb.toString());
+    return sb.toString();
+  }
+
+  /**
+   * @return the directory where the data of the imported table, or of the
+   * imported partition, is stored by Hive, as recorded in the metastore. For
+   * a table or partition that does not exist yet, this is where Hive will
+   * create it: the external table directory if one was given, otherwise the
+   * table directory in the location of the database.
+   * @throws IOException if the table is transactional; the data of ACID
+   * tables can only be written through Hive.
+   */
+  public Path getTableLocation() throws IOException {
+    String databaseName = options.getHiveDatabaseName();
+    if (databaseName == null) {
+      databaseName = DEFAULT_HIVE_DATABASE;
+    }
+    String tableName = getHiveTableName();
+
+    IMetaStoreClient client;
+    try {
+      client = createMetaStoreClient();
+    } catch (MetaException e) {
+      throw new IOException("Could not connect to the Hive metastore", e);
+    }
+    try {
+      Path tablePath;
+      boolean tableExists = client.tableExists(databaseName, tableName);
+      if (tableExists) {
+        Table table = client.getTable(databaseName, tableName);
+        if (isTransactional(table)) {
+          throw new IOException("Hive table " + databaseName + "."
+              + tableName + " is transactional; its data can not be loaded"
+              + " directly. Unset " + HiveConfig.HIVE_DIRECT_LOAD + ".");
+        }
+        tablePath = new Path(table.getSd().getLocation());
+      } else if (!StringUtils.isBlank(options.getHiveExternalTableDir())) {
+        tablePath = new Path(options.getHiveExternalTableDir());
+      } else {
+        tablePath = new Path(client.getDatabase(databaseName).getLocationUri(),
+            tableName.toLowerCase());
+      }
+
+      String partitionKey = options.getHivePartitionKey();
+      if (partitionKey != null) {
+        String partitionValue = options.getHivePartitionValue();
+        Partition partition = null;
+        if (tableExists) {
+          try {
+            partition = client.getPartition(databaseName, tableName,
+                Collections.singletonList(partitionValue));
+          } catch (NoSuchObjectException e) {
+            LOG.debug("Partition " + partitionKey + "=" + partitionValue
+                + " does not exist yet");
+          }
+        }
+        if (partition != null) {
+          tablePath = new Path(partition.getSd().getLocation());
+        } else {
+          tablePath = new Path(tablePath, DynamicPartitions.getPartitionName(
+              partitionKey, partitionValue));
+        }
+      }
+      return FileSystemUtil.makeQualified(tablePath, configuration);
+    } catch (TException e) {
+      throw new IOException("Could not read the location of Hive table "
+          + databaseName + "." + tableName + " from the metastore", e);
+    } finally {
+      client.close();
+    }
+  }
+
+  /**
+   * @return a client of the metastore configured by the hive-site.xml on
+   * the classpath.
+   */
+  protected IMetaStoreClient createMetaStoreClient() throws MetaException {
+    return new HiveMetaStoreClient(
+        new HiveConf(configuration, TableDefWriter.class));
+  }
+
+  private static boolean isTransactional(Table table) {
+    Map<String, String> parameters = table.getParameters();
+    return parameters != null && "true".equalsIgnoreCase(parameters.get(
+        hive_metastoreConstants.TABLE_IS_TRANSACTIONAL));
+  }
+
+  /**
+   * @return the directory holding the imported data: the table (or partition)
+   * location if the data is loaded directly into it, otherwise the directory
+   * the data is loaded from.
+   */
   public Path getFinalPath() throws IOException {
+    if (HiveConfig.isDirectLoad(configuration)) {
+      return getTableLocation();
+    }
+
     String warehouseDir = options.getWarehouseDir();
     if (null == warehouseDir) {
       warehouseDir = "";
@@ -365,6 +557,10 @@ String getInputTableName() {
     return inputTableName;
   }
 
+  private String getHiveTableName() {
+    return outputTableName != null ? outputTableName : inputTableName;
+  }
+
   String getOutputTableName() {
     return outputTableName;
   }
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.io;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.GzipCodec;
+import org.apache.hadoop.io.compress.SplitCompressionInputStream;
+import org.apache.hadoop.io.compress.SplittableCompressionCodec;
+
+/**
+ * A gzip codec that compresses into BGZF blocks (see
+ * {@link BgzfOutputStream}). The output is ordinary multi-member gzip, so
+ * any gzip reader can decompress it, while splits are read from the first
+ * block at or after their start (see {@link BgzfInputStream}).
+ *
+ * The files get their own .bgz extension, so that Hadoop does not pick the
+ * plain gzip codec for them and reads them with this one.
+ */
+public class BgzfCodec extends GzipCodec
+    implements SplittableCompressionCodec {
+
+  public static final Log LOG = LogFactory.getLog(BgzfCodec.class.getName());
+
+  /** Uncompressed bytes after which a block ends at the next record. */
+  public static final String BLOCK_SIZE_KEY = "sqoop.bgzf.block.size";
+
+  /** If true, a .gzi index of the blocks is written next to each file. */
+  public static final String INDEX_KEY = "sqoop.bgzf.index";
+
+  /** Deflate level of the blocks. */
+  public static final String LEVEL_KEY = "sqoop.bgzf.level";
+
+  /**
+   * Path of the file a split is read from, set by readers that know it so
+   * that the first block of the split is looked up in the block index.
+   */
+  public static final String INPUT_FILE_KEY = "sqoop.bgzf.input.file";
+
+  @Override
+  public String getDefaultExtension() {
+    return ".bgz";
+  }
+
+  @Override
+  public CompressionOutputStream createOutputStream(OutputStream out)
+      throws IOException {
+    Configuration conf = getConf();
+    int blockSize = BgzfOutputStream.MAX_BLOCK_SIZE;
+    int level = Deflater.DEFAULT_COMPRESSION;
+    if (conf != null) {
+      blockSize = conf.getInt(BLOCK_SIZE_KEY, blockSize);
+      level = conf.getInt(LEVEL_KEY, level);
+    }
+    return new BgzfOutputStream(out, blockSize, level);
+  }
+
+  @Override
+  public CompressionOutputStream createOutputStream(OutputStream out,
+      Compressor compressor) throws IOException {
+    // Blocks are deflated by the stream itself.
+    return createOutputStream(out);
+  }
+
+  @Override
+  public SplitCompressionInputStream createInputStream(InputStream seekableIn,
+      Decompressor decompressor, long start, long end, READ_MODE readMode)
+      throws IOException {
+    if (!(seekableIn instanceof Seekable)) {
+      throw new IOException("BGZF splits can only be read from a seekable "
+          + "stream");
+    }
+    // Blocks are inflated by the stream itself.
+    return new BgzfInputStream(seekableIn, start, end,
+        getIndexedBlock(start));
+  }
+
+  /**
+   * @return the offset of the first block at or after start according to
+   * the index of the file named by INPUT_FILE_KEY, or -1 if there is no such
+   * index or block.
+   */
+  private long getIndexedBlock(long start) throws IOException {
+    Configuration conf = getConf();
+    String file = null == conf ? null : conf.get(INPUT_FILE_KEY);
+    if (start == 0 || null == file) {
+      return -1;
+    }
+
+    Path indexPath = BgzfOutputStream.getIndexPath(new Path(file));
+    FileSystem fs = indexPath.getFileSystem(conf);
+    if (!fs.exists(indexPath)) {
+      return -1;
+    }
+    LOG.debug("Looking up block at " + start + " in " + indexPath);
+    DataInputStream in = fs.open(indexPath);
+    try {
+      long count = Long.reverseBytes(in.readLong());
+      for (long i = 0; i < count; i++) {
+        long compressedOffset = Long.reverseBytes(in.readLong());
+        in.readLong();
+        if (compressedOffset >= start) {
+          return compressedOffset;
+        }
+      }
+    } finally {
+      in.close();
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if a block index should be written with the output.
+   */
+  public static boolean isIndexEnabled(Configuration conf) {
+    return conf.getBoolean(INDEX_KEY, true);
+  }
+}
@@ -0,0 +1,276 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.io.compress.SplitCompressionInputStream;
+
+/**
+ * Reads the BGZF blocks written by {@link BgzfOutputStream} from the first
+ * block at or after the start of a split.
+ *
+ * The first block is taken from the block index if one is given and
+ * otherwise found by scanning for a block header that is followed by another
+ * block header (or the end of the file) at the distance given by its size.
+ * Every read returns data of a single block, and the position reported is
+ * the offset of the block being read plus one. A line reader therefore
+ * finishes the line that starts in the first block at or after the end of
+ * its split, while the block starting right at the end belongs to the next
+ * split.
+ */
+public class BgzfInputStream extends SplitCompressionInputStream {
+
+  private final Inflater inflater;
+  private final CRC32 crc;
+  private final byte[] header;
+  private final byte[] compressed;
+  private final byte[] block;
+  private int blockLength;
+  private int blockPos;
+  private long nextBlockOffset;
+  private long pos;
+  private boolean eof;
+
+  /**
+   * @param in the seekable stream of the file.
+   * @param start the offset the split starts at.
+   * @param end the offset the split ends at.
+   * @param indexedBlock the offset of the first block at or after start
+   *     according to the block index, or -1 if it is not known.
+   */
+  public BgzfInputStream(InputStream in, long start, long end,
+      long indexedBlock) throws IOException {
+    super(in, start, end);
+    this.inflater = new Inflater(true);
+    this.crc = new CRC32();
+    this.header = new byte[BgzfOutputStream.HEADER_SIZE];
+    this.compressed = new byte[BgzfOutputStream.MAX_COMPRESSED_BLOCK_SIZE];
+    this.block = new byte[BgzfOutputStream.MAX_BLOCK_SIZE];
+
+    long first = 0;
+    if (start > 0) {
+      first = -1;
+      if (indexedBlock >= start && isBlockAt(indexedBlock)) {
+        first = indexedBlock;
+      }
+      if (first < 0) {
+        first = findBlock(start);
+      }
+    }
+
+    if (first < 0) {
+      // No block starts in or after the split.
+      eof = true;
+      pos = start;
+    } else {
+      setAdjustedStart(first);
+      ((Seekable) in).seek(first);
+      nextBlockOffset = first;
+      pos = first;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (blockPos == blockLength && !readBlock()) {
+      return -1;
+    }
+    int n = Math.min(len, blockLength - blockPos);
+    System.arraycopy(block, blockPos, b, off, n);
+    blockPos += n;
+    return n;
+  }
+
+  @Override
+  public long getPos() throws IOException {
+    return pos;
+  }
+
+  @Override
+  public void resetState() throws IOException {
+    inflater.reset();
+    blockLength = 0;
+    blockPos = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Reads and inflates the next block holding data.
+   * @return false at the end of the file.
+   */
+  private boolean readBlock() throws IOException {
+    while (!eof) {
+      int n = readFully(header, 0, header.length);
+      if (n == 0) {
+        eof = true;
+        break;
+      }
+      if (n < header.length || !isHeader(header, 0)) {
+        throw new IOException("Not a BGZF block at offset " + nextBlockOffset);
+      }
+
+      int blockSize = getBlockSize(header, 0);
+      int dataSize = blockSize - BgzfOutputStream.HEADER_SIZE
+          - BgzfOutputStream.TRAILER_SIZE;
+      int rest = dataSize + BgzfOutputStream.TRAILER_SIZE;
+      if (dataSize < 0 || readFully(compressed, 0, rest) < rest) {
+        throw new IOException("Truncated BGZF block at offset "
+            + nextBlockOffset);
+      }
+      int expectedCrc = getInt(compressed, dataSize);
+      int size = getInt(compressed, dataSize + 4);
+      if (size < 0 || size > block.length) {
+        throw new IOException("Invalid BGZF block size at offset "
+            + nextBlockOffset);
+      }
+
+      inflater.reset();
+      inflater.setInput(compressed, 0, dataSize);
+      int inflated = 0;
+      try {
+        while (inflated < size) {
+          int r = inflater.inflate(block, inflated, size - inflated);
+          if (r == 0 && (inflater.finished() || inflater.needsInput())) {
+            break;
+          }
+          inflated += r;
+        }
+      } catch (DataFormatException dfe) {
+        throw new IOException("Corrupt BGZF block at offset "
+            + nextBlockOffset, dfe);
+      }
+      crc.reset();
+      crc.update(block, 0, inflated);
+      if (inflated != size || (int) crc.getValue() != expectedCrc) {
+        throw new IOException("Corrupt BGZF block at offset "
+            + nextBlockOffset);
+      }
+
+      pos = nextBlockOffset + 1;
+      nextBlockOffset += blockSize;
+      blockLength = size;
+      blockPos = 0;
+      if (size > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if a block header starts at the given offset.
+   */
+  private boolean isBlockAt(long offset) throws IOException {
+    ((Seekable) in).seek(offset);
+    return readFully(header, 0, header.length) == header.length
+        && isHeader(header, 0);
+  }
+
+  /**
+   * Scans for the first block at or after start. A block is at most
+   * MAX_COMPRESSED_BLOCK_SIZE bytes long, so one starts within that many
+   * bytes unless the file ends first.
+   * @return the offset of the block, or -1 if there is none.
+   */
+  private long findBlock(long start) throws IOException {
+    ((Seekable) in).seek(start);
+    byte[] window = new byte[2 * BgzfOutputStream.MAX_COMPRESSED_BLOCK_SIZE
+        + BgzfOutputStream.HEADER_SIZE];
+    int n = readFully(window, 0, window.length);
+    boolean atEnd = n < window.length;
+    for (int p = 0; p < BgzfOutputStream.MAX_COMPRESSED_BLOCK_SIZE
+        && p + BgzfOutputStream.HEADER_SIZE <= n; p++) {
+      if (!isHeader(window, p)) {
+        continue;
+      }
+      int next = p + getBlockSize(window, p);
+      if ((atEnd && next == n) || (next + BgzfOutputStream.HEADER_SIZE <= n
+          && isHeader(window, next))) {
+        return start + p;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the number of bytes read, less than len only at the end of the
+   * stream.
+   */
+  private int readFully(byte[] b, int off, int len) throws IOException {
+    int total = 0;
+    while (total < len) {
+      int n = in.read(b, off + total, len - total);
+      if (n < 0) {
+        break;
+      }
+      total += n;
+    }
+    return total;
+  }
+
+  /**
+   * @return true if b holds, at off, a gzip member header with the single
+   * "BC" extra field of a BGZF block.
+   */
+  private static boolean isHeader(byte[] b, int off) {
+    byte[] expected = BgzfOutputStream.EOF_BLOCK;
+    for (int i = 0; i < 4; i++) {
+      if (b[off + i] != expected[i]) {
+        return false;
+      }
+    }
+    for (int i = 10; i < BgzfOutputStream.HEADER_SIZE - 2; i++) {
+      if (b[off + i] != expected[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int getBlockSize(byte[] b, int off) {
+    return ((b[off + 16] & 0xff) | (b[off + 17] & 0xff) << 8) + 1;
+  }
+
+  private static int getInt(byte[] b, int off) {
+    return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8
+        | (b[off + 2] & 0xff) << 16 | (b[off + 3] & 0xff) << 24;
+  }
+}
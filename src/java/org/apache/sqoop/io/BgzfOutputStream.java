@@ -0,0 +1,271 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+
+/**
+ * Writes BGZF ("blocked gzip") data: a series of independent gzip members,
+ * each holding at most 64 KB of uncompressed data and carrying its own
+ * compressed size in a "BC" extra field. Any gzip reader can decompress the
+ * whole file, while a block-aware reader can start at any block.
+ *
+ * The stream prefers to end blocks at record boundaries signalled with
+ * {@link #endRecord()}, and can write an index of the block offsets in the
+ * .gzi format (the compressed and uncompressed offset of every block after
+ * the first, as little-endian 64-bit integers, preceded by their count).
+ */
+public class BgzfOutputStream extends CompressionOutputStream {
+
+  /** Largest amount of uncompressed data a BGZF block may hold. */
+  public static final int MAX_BLOCK_SIZE = 0xff00;
+
+  /** Size of a block header including the BC extra field. */
+  static final int HEADER_SIZE = 18;
+
+  /** Size of the CRC32 and ISIZE trailer of a block. */
+  static final int TRAILER_SIZE = 8;
+
+  /** Largest compressed size of a block, header and trailer included. */
+  static final int MAX_COMPRESSED_BLOCK_SIZE = 0x10000;
+
+  /** The empty block that marks the end of a BGZF file. */
+  static final byte[] EOF_BLOCK = {
+    0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00,
+    0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43, 0x02, 0x00,
+    0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00,
+    0x00, 0x00, 0x00, 0x00,
+  };
+
+  private final int blockSize;
+  private final byte[] buffer;
+  private final byte[] compressed;
+  private final Deflater deflater;
+  private final Deflater storer;
+  private final CRC32 crc;
+  private final List<long[]> index;
+  private int count;
+  private long compressedOffset;
+  private long uncompressedOffset;
+  private boolean finished;
+  private FileSystem indexFs;
+  private Path indexPath;
+
+  /**
+   * @param out the stream to write the compressed data to.
+   * @param blockSize the amount of uncompressed data after which a block is
+   *     ended at the next record boundary; blocks are always ended at
+   *     {@link #MAX_BLOCK_SIZE}.
+   * @param level the deflate compression level.
+   */
+  public BgzfOutputStream(OutputStream out, int blockSize, int level) {
+    super(out);
+    this.blockSize = Math.max(1, Math.min(blockSize, MAX_BLOCK_SIZE));
+    this.buffer = new byte[MAX_BLOCK_SIZE];
+    this.compressed = new byte[MAX_COMPRESSED_BLOCK_SIZE];
+    this.deflater = new Deflater(level, true);
+    this.storer = new Deflater(Deflater.NO_COMPRESSION, true);
+    this.crc = new CRC32();
+    this.index = new ArrayList<long[]>();
+  }
+
+  public BgzfOutputStream(OutputStream out) {
+    this(out, MAX_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Writes the block index to the given file when the stream is finished.
+   */
+  public void setIndexFile(FileSystem fs, Path path) {
+    this.indexFs = fs;
+    this.indexPath = path;
+  }
+
+  /**
+   * @return the path of the index kept next to a data file. It is hidden so
+   * that it is not read as data.
+   */
+  public static Path getIndexPath(Path dataFile) {
+    return new Path(dataFile.getParent(), "." + dataFile.getName() + ".gzi");
+  }
+
+  /**
+   * Marks the end of a record; ends the current block if it holds at least
+   * the block size.
+   */
+  public void endRecord() throws IOException {
+    if (count >= blockSize) {
+      writeBlock();
+    }
+  }
+
+  /**
+   * @return true if all data written so far is in complete blocks, i.e. the
+   * next byte starts a new block.
+   */
+  public boolean isAtBlockBoundary() {
+    return count == 0;
+  }
+
+  /**
+   * @return the compressed and uncompressed offsets of the blocks written so
+   * far, the first block excluded.
+   */
+  public List<long[]> getIndex() {
+    return index;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    buffer[count++] = (byte) b;
+    if (count == MAX_BLOCK_SIZE) {
+      writeBlock();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = Math.min(len, MAX_BLOCK_SIZE - count);
+      System.arraycopy(b, off, buffer, count, n);
+      count += n;
+      off += n;
+      len -= n;
+      if (count == MAX_BLOCK_SIZE) {
+        writeBlock();
+      }
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    if (compressedOffset > 0) {
+      index.add(new long[] {compressedOffset, uncompressedOffset});
+    }
+
+    int size = deflate(deflater);
+    if (size < 0) {
+      // Incompressible data; stored blocks always fit.
+      size = deflate(storer);
+    }
+
+    crc.reset();
+    crc.update(buffer, 0, count);
+    int blockLength = HEADER_SIZE + size + TRAILER_SIZE;
+    writeHeader(blockLength);
+    out.write(compressed, 0, size);
+    writeInt((int) crc.getValue());
+    writeInt(count);
+
+    compressedOffset += blockLength;
+    uncompressedOffset += count;
+    count = 0;
+  }
+
+  /**
+   * @return the compressed size of the buffered data, or -1 if it does not
+   * fit in a block.
+   */
+  private int deflate(Deflater def) {
+    def.reset();
+    def.setInput(buffer, 0, count);
+    def.finish();
+    int limit = MAX_COMPRESSED_BLOCK_SIZE - HEADER_SIZE - TRAILER_SIZE;
+    int size = 0;
+    while (!def.finished() && size < limit) {
+      size += def.deflate(compressed, size, limit - size);
+    }
+    return def.finished() ? size : -1;
+  }
+
+  private void writeHeader(int blockLength) throws IOException {
+    out.write(EOF_BLOCK, 0, HEADER_SIZE - 2);
+    writeShort(blockLength - 1);
+  }
+
+  private void writeShort(int v) throws IOException {
+    out.write(v & 0xff);
+    out.write((v >>> 8) & 0xff);
+  }
+
+  private void writeInt(int v) throws IOException {
+    writeShort(v);
+    writeShort(v >>> 16);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+    if (count > 0) {
+      writeBlock();
+    }
+    out.write(EOF_BLOCK);
+    finished = true;
+    if (indexPath != null) {
+      writeIndex();
+    }
+  }
+
+  private void writeIndex() throws IOException {
+    DataOutputStream indexOut = indexFs.create(indexPath, true);
+    try {
+      writeLong(indexOut, index.size());
+      for (long[] entry : index) {
+        writeLong(indexOut, entry[0]);
+        writeLong(indexOut, entry[1]);
+      }
+    } finally {
+      indexOut.close();
+    }
+  }
+
+  private static void writeLong(DataOutputStream os, long v)
+      throws IOException {
+    os.writeLong(Long.reverseBytes(v));
+  }
+
+  @Override
+  public void resetState() throws IOException {
+    count = 0;
+    compressedOffset = 0;
+    uncompressedOffset = 0;
+    index.clear();
+    finished = false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      deflater.end();
+      storer.end();
+    }
+  }
+}
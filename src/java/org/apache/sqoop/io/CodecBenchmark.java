@@ -0,0 +1,282 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.manager.ConnManager;
+
+/**
+ * Compresses a sample of the table with each candidate codec and recommends
+ * the one with the best ratio that still reaches a minimum throughput.
+ */
+public final class CodecBenchmark {
+
+  public static final Log LOG = LogFactory.getLog(
+      CodecBenchmark.class.getName());
+
+  /** Size of the sample in MB; 0 disables the benchmark. */
+  public static final String SAMPLE_MB_KEY = "sqoop.compression.benchmark.mb";
+
+  /** Comma separated list of codec names to try. */
+  public static final String CODECS_KEY =
+      "sqoop.compression.benchmark.codecs";
+
+  public static final String DEFAULT_CODECS =
+      "deflate,gzip,bzip2,snappy,lz4,zstd,bgzf";
+
+  /** Minimum compression throughput (MB/s) a recommended codec must reach. */
+  public static final String MIN_THROUGHPUT_KEY =
+      "sqoop.compression.benchmark.min.throughput";
+
+  public static final float DEFAULT_MIN_THROUGHPUT = 50.0f;
+
+  /**
+   * Number of timed passes per codec, after one untimed warm-up pass. The
+   * fastest pass is reported.
+   */
+  public static final String PASSES_KEY =
+      "sqoop.compression.benchmark.passes";
+
+  public static final int DEFAULT_PASSES = 3;
+
+  private static final double MB = 1024.0 * 1024.0;
+
+  private CodecBenchmark() {
+  }
+
+  /**
+   * The outcome of compressing the sample with one codec.
+   */
+  public static class Result {
+    private final String codecName;
+    private final long rawBytes;
+    private final long compressedBytes;
+    private final long nanos;
+
+    public Result(String codecName, long rawBytes, long compressedBytes,
+        long nanos) {
+      this.codecName = codecName;
+      this.rawBytes = rawBytes;
+      this.compressedBytes = compressedBytes;
+      this.nanos = nanos;
+    }
+
+    public String getCodecName() {
+      return codecName;
+    }
+
+    public long getCompressedBytes() {
+      return compressedBytes;
+    }
+
+    /** @return raw size divided by compressed size. */
+    public double getRatio() {
+      return compressedBytes == 0 ? 0.0 : (double) rawBytes / compressedBytes;
+    }
+
+    /** @return compression throughput in MB/s of raw data. */
+    public double getThroughput() {
+      return rawBytes / MB / (Math.max(nanos, 1L) / 1e9);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: ratio %.2f, %.1f MB/s", codecName,
+          getRatio(), getThroughput());
+    }
+  }
+
+  public static boolean isEnabled(Configuration conf) {
+    return conf.getInt(SAMPLE_MB_KEY, 0) > 0;
+  }
+
+  /**
+   * Benchmarks the codecs against the first rows of the table being
+   * imported and logs the results and the recommendation.
+   */
+  public static void run(SqoopOptions options, ConnManager manager)
+      throws IOException {
+    Configuration conf = options.getConf();
+    long maxBytes = conf.getInt(SAMPLE_MB_KEY, 0) * 1024L * 1024L;
+    byte[] sample = readSample(manager, options.getTableName(),
+        options.getColumns(), maxBytes);
+    if (sample.length == 0) {
+      LOG.info("Table " + options.getTableName()
+          + " is empty; skipping the compression benchmark.");
+      return;
+    }
+
+    List<Result> results = benchmark(sample,
+        conf.getTrimmedStrings(CODECS_KEY, DEFAULT_CODECS.split(",")), conf);
+    LOG.info("Compression benchmark on " + sample.length
+        + " bytes of table " + options.getTableName() + ":");
+    for (Result result : results) {
+      LOG.info("  " + result);
+    }
+
+    Result best = recommend(results,
+        conf.getFloat(MIN_THROUGHPUT_KEY, DEFAULT_MIN_THROUGHPUT));
+    if (null != best) {
+      LOG.info("Recommended codec: " + best.getCodecName()
+          + " (--compression-codec " + best.getCodecName() + ")");
+    }
+  }
+
+  /**
+   * Reads up to maxBytes of the table as comma delimited text. If the
+   * table is larger, the query is cancelled before the result set is
+   * closed, so that a streaming driver does not read the remaining rows.
+   */
+  static byte[] readSample(ConnManager manager, String tableName,
+      String[] columns, long maxBytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ResultSet rs = null;
+    boolean exhausted = false;
+    try {
+      rs = manager.readTable(tableName, columns);
+      int numCols = rs.getMetaData().getColumnCount();
+      StringBuilder sb = new StringBuilder();
+      while (out.size() < maxBytes) {
+        if (!rs.next()) {
+          exhausted = true;
+          break;
+        }
+        sb.setLength(0);
+        for (int i = 1; i <= numCols; i++) {
+          if (i > 1) {
+            sb.append(',');
+          }
+          sb.append(rs.getString(i));
+        }
+        sb.append('\n');
+        out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+      }
+    } catch (SQLException sqlE) {
+      throw new IOException("Could not sample table " + tableName, sqlE);
+    } finally {
+      if (null != rs) {
+        if (!exhausted) {
+          cancel(rs);
+        }
+        try {
+          rs.close();
+        } catch (SQLException sqlE) {
+          LOG.warn("Exception closing ResultSet: " + sqlE);
+        }
+      }
+      manager.release();
+    }
+    return out.toByteArray();
+  }
+
+  private static void cancel(ResultSet rs) {
+    try {
+      Statement statement = rs.getStatement();
+      if (null != statement) {
+        statement.cancel();
+      }
+    } catch (SQLException sqlE) {
+      LOG.debug("Could not cancel the sample query: " + sqlE);
+    }
+  }
+
+  /**
+   * Compresses the sample with each codec, once to warm up and then the
+   * configured number of timed passes. Codecs which are unknown or lack
+   * their native libraries are skipped.
+   */
+  static List<Result> benchmark(byte[] sample, String[] codecNames,
+      Configuration conf) {
+    int passes = Math.max(1, conf.getInt(PASSES_KEY, DEFAULT_PASSES));
+    List<Result> results = new ArrayList<Result>();
+    for (String codecName : codecNames) {
+      try {
+        CompressionCodec codec = CodecMap.getCodec(codecName, conf);
+        if (null == codec) {
+          continue;
+        }
+        compress(codecName, codec, sample);
+        Result fastest = null;
+        for (int i = 0; i < passes; i++) {
+          Result result = compress(codecName, codec, sample);
+          if (null == fastest || result.nanos < fastest.nanos) {
+            fastest = result;
+          }
+        }
+        results.add(fastest);
+      } catch (Exception e) {
+        LOG.info("Skipping codec " + codecName + ": " + e.getMessage());
+      } catch (LinkageError e) {
+        LOG.info("Skipping codec " + codecName + ": " + e.getMessage());
+      }
+    }
+    return results;
+  }
+
+  private static Result compress(String codecName, CompressionCodec codec,
+      byte[] sample) throws IOException {
+    CountingOutputStream sink =
+        new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+    long start = System.nanoTime();
+    CompressionOutputStream out = codec.createOutputStream(sink);
+    try {
+      out.write(sample);
+      out.finish();
+    } finally {
+      out.close();
+    }
+    return new Result(codecName, sample.length, sink.getByteCount(),
+        System.nanoTime() - start);
+  }
+
+  /**
+   * @return the codec with the best ratio among those reaching
+   * minThroughput, or the fastest codec if none does.
+   */
+  static Result recommend(List<Result> results, double minThroughput) {
+    Result best = null;
+    Result fastest = null;
+    for (Result result : results) {
+      if (result.getThroughput() >= minThroughput
+          && (null == best || result.getRatio() > best.getRatio())) {
+        best = result;
+      }
+      if (null == fastest || result.getThroughput() > fastest.getThroughput()) {
+        fastest = result;
+      }
+    }
+    return null != best ? best : fastest;
+  }
+}
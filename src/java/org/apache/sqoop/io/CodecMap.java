@@ -40,6 +40,23 @@ public final class CodecMap {
   public static final String DEFLATE = "deflate";
   public static final String LZO = "lzo";
   public static final String LZOP = "lzop";
+  // Sqoop's own block compressed gzip, which Hadoop cannot discover.
+  public static final String BGZF = "bgzf";
+  // Short alias of Hadoop's ZStandardCodec (native libzstd required).
+  public static final String ZSTD = "zstd";
+
+  /**
+   * Compression level applied to the codecs that support one (zstd and
+   * bgzf); the codec's own default is used if unset.
+   */
+  public static final String COMPRESSION_LEVEL_KEY =
+      "sqoop.compression.level";
+
+  /** Hadoop's setting of the zstd compression level. */
+  public static final String ZSTD_LEVEL_KEY = "io.compression.codec.zstd.level";
+
+  private static final String ZSTD_CODEC_CLASS =
+      "org.apache.hadoop.io.compress.ZStandardCodec";
 
   private static Map<String, String> codecNames;
   static {
@@ -50,6 +67,8 @@ public final class CodecMap {
     codecNames.put(DEFLATE, "org.apache.hadoop.io.compress.DefaultCodec");
     codecNames.put(LZO,     "com.hadoop.compression.lzo.LzoCodec");
     codecNames.put(LZOP,    "com.hadoop.compression.lzo.LzopCodec");
+    codecNames.put(BGZF,    BgzfCodec.class.getName());
+    codecNames.put(ZSTD,    ZSTD_CODEC_CLASS);
 
     // add more from Hadoop CompressionCodecFactory
     for (Class<? extends CompressionCodec> cls
@@ -90,6 +109,11 @@ public static String getCodecClassName(String codecName)
    */
   public static CompressionCodec getCodec(String codecName,
     Configuration conf) throws org.apache.sqoop.io.UnsupportedCodecException {
+    if (null != conf.get(COMPRESSION_LEVEL_KEY)) {
+      // Leave the caller's configuration untouched.
+      conf = new Configuration(conf);
+      configureCompressionLevel(codecName, conf);
+    }
     // Try standard Hadoop mechanism first
     CompressionCodec codec = getCodecByName(codecName, conf);
     if (codec != null) {
@@ -114,6 +138,35 @@ public static CompressionCodec getCodec(String codecName,
     }
   }
 
+  /**
+   * Translates {@link #COMPRESSION_LEVEL_KEY} into the level setting of the
+   * given codec, unless that is set explicitly.
+   * @return true if the configuration was changed.
+   */
+  public static boolean configureCompressionLevel(String codecName,
+      Configuration conf) {
+    String level = conf.get(COMPRESSION_LEVEL_KEY);
+    if (null == level || null == codecName) {
+      return false;
+    }
+
+    String levelKey = null;
+    if (ZSTD.equalsIgnoreCase(codecName) || ZSTD_CODEC_CLASS.equals(codecName)
+        || "zstandard".equalsIgnoreCase(codecName)
+        || "zstandardcodec".equalsIgnoreCase(codecName)) {
+      levelKey = ZSTD_LEVEL_KEY;
+    } else if (BGZF.equalsIgnoreCase(codecName)
+        || BgzfCodec.class.getName().equals(codecName)) {
+      levelKey = BgzfCodec.LEVEL_KEY;
+    }
+    if (null == levelKey || null != conf.get(levelKey)) {
+      return false;
+    }
+
+    conf.set(levelKey, level);
+    return true;
+  }
+
   /**
    * Return the set of available codec names.
    */
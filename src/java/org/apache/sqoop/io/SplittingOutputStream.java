@@ -104,6 +104,11 @@ private void openNextFile() throws IOException {
     if (codec != null) {
       // Wrap that in a compressing stream.
       this.writeStream = codec.createOutputStream(this.countingFilterStream);
+      if (writeStream instanceof BgzfOutputStream
+          && BgzfCodec.isIndexEnabled(conf)) {
+        ((BgzfOutputStream) writeStream).setIndexFile(fs,
+            BgzfOutputStream.getIndexPath(destFile));
+      }
     } else {
       // Write to the counting stream directly.
       this.writeStream = this.countingFilterStream;
@@ -111,9 +116,15 @@ private void openNextFile() throws IOException {
   }
 
   /**
-   * @return true if allowSplit() would actually cause a split.
+   * @return true if allowSplit() would actually cause a split. With a block
+   * compressed (BGZF) stream, files are only split between blocks, where
+   * the byte count is exact.
    */
   public boolean wouldSplit() {
+    if (writeStream instanceof BgzfOutputStream
+        && !((BgzfOutputStream) writeStream).isAtBlockBoundary()) {
+      return false;
+    }
     return this.cutoffBytes > 0
         && this.countingFilterStream.getByteCount() >= this.cutoffBytes;
   }
@@ -134,6 +145,10 @@ private void checkForNextFile() throws IOException {
       file; e.g., the end of a record.
     */
   public void allowSplit() throws IOException {
+    if (writeStream instanceof BgzfOutputStream) {
+      // A record ends here, so this is also a good place to end a block.
+      ((BgzfOutputStream) writeStream).endRecord();
+    }
     checkForNextFile();
   }
 
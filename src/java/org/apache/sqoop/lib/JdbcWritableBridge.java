@@ -99,6 +99,35 @@ public static Boolean readBoolean(int colNum, ResultSet r)
     }
   }
 
+  // The *Value readers and writers below are used by record classes
+  // generated with primitive fields. They never box; a SQL NULL is reported
+  // through ResultSet.wasNull() on read and through the isNull flag on write.
+
+  public static int readIntValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getInt(colNum);
+  }
+
+  public static long readLongValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getLong(colNum);
+  }
+
+  public static float readFloatValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getFloat(colNum);
+  }
+
+  public static double readDoubleValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getDouble(colNum);
+  }
+
+  public static boolean readBooleanValue(int colNum, ResultSet r)
+      throws SQLException {
+    return r.getBoolean(colNum);
+  }
+
   public static Time readTime(int colNum, ResultSet r) throws SQLException {
     return r.getTime(colNum);
   }
@@ -250,4 +279,49 @@ public static void writeClobRef(org.apache.sqoop.lib.ClobRef val,
     // TODO: support this.
     throw new RuntimeException("Unsupported: Cannot export CLOB data");
   }
+
+  public static void writeIntValue(int val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setInt(paramIdx, val);
+    }
+  }
+
+  public static void writeLongValue(long val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setLong(paramIdx, val);
+    }
+  }
+
+  public static void writeFloatValue(float val, boolean isNull, int paramIdx,
+      int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setFloat(paramIdx, val);
+    }
+  }
+
+  public static void writeDoubleValue(double val, boolean isNull,
+      int paramIdx, int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setDouble(paramIdx, val);
+    }
+  }
+
+  public static void writeBooleanValue(boolean val, boolean isNull,
+      int paramIdx, int sqlType, PreparedStatement s) throws SQLException {
+    if (isNull) {
+      s.setNull(paramIdx, sqlType);
+    } else {
+      s.setBoolean(paramIdx, val);
+    }
+  }
 }
@@ -59,6 +59,17 @@ public class LargeObjectLoader implements Closeable  {
   public static final String MAX_INLINE_LOB_LEN_KEY =
       "sqoop.inline.lob.length.max";
 
+  /** Compression codec for the segments of external LobFiles. */
+  public static final String LOB_CODEC_KEY = "sqoop.lob.compression.codec";
+
+  /** Overrides {@link #LOB_CODEC_KEY} for BLOB data. */
+  public static final String BLOB_CODEC_KEY =
+      "sqoop.lob.blob.compression.codec";
+
+  /** Overrides {@link #LOB_CODEC_KEY} for CLOB data. */
+  public static final String CLOB_CODEC_KEY =
+      "sqoop.lob.clob.compression.codec";
+
   private Configuration conf;
   private Path workPath;
   private FileSystem fs;
@@ -130,12 +141,27 @@ private Path getNextLobFilePath() throws IOException {
     return p;
   }
 
+  /**
+   * @return the compression codec name for external BLOB or CLOB files,
+   * or null if they are not compressed.
+   */
+  static String getLobCodec(Configuration conf, boolean isCharData) {
+    String codec = conf.get(isCharData ? CLOB_CODEC_KEY : BLOB_CODEC_KEY,
+        conf.get(LOB_CODEC_KEY));
+    if (null == codec || codec.trim().isEmpty()
+        || "none".equalsIgnoreCase(codec.trim())) {
+      return null;
+    }
+    return codec.trim();
+  }
+
   /**
    * @return the current LobFile writer for BLOBs, creating one if necessary.
    */
   private LobFile.Writer getBlobWriter() throws IOException {
     if (null == this.curBlobWriter) {
-      this.curBlobWriter = LobFile.create(getNextLobFilePath(), conf, false);
+      this.curBlobWriter = LobFile.create(getNextLobFilePath(), conf, false,
+          getLobCodec(conf, false));
     }
 
     return this.curBlobWriter;
@@ -146,7 +172,8 @@ private LobFile.Writer getBlobWriter() throws IOException {
    */
   private LobFile.Writer getClobWriter() throws IOException {
     if (null == this.curClobWriter) {
-      this.curClobWriter = LobFile.create(getNextLobFilePath(), conf, true);
+      this.curClobWriter = LobFile.create(getNextLobFilePath(), conf, true,
+          getLobCodec(conf, true));
     }
 
     return this.curClobWriter;
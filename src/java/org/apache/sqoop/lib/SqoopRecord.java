@@ -154,4 +154,23 @@ public void setField(String fieldName, Object fieldVal) {
         + "Regenerate your record class.");
   }
 
+  /**
+   * Returns the position of the named field, for use with
+   * {@link #setField(int, Object)}, or -1 if the field does not exist or
+   * the record class was generated before positional access was added.
+   */
+  public int getFieldIndex(String fieldName) {
+    return -1;
+  }
+
+  /**
+   * Sets the field at the position returned by {@link #getFieldIndex}.
+   * This avoids the name lookup of {@link #setField(String, Object)} when
+   * the same fields are set for every record.
+   */
+  public void setField(int fieldIndex, Object fieldVal) {
+    throw new RuntimeException("This SqoopRecord does not support "
+        + "positional setField(). Regenerate your record class.");
+  }
+
 }
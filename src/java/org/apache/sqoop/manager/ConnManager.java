@@ -46,6 +46,7 @@
 import org.apache.sqoop.lib.BlobRef;
 import org.apache.sqoop.lib.ClobRef;
 import org.apache.sqoop.mapreduce.parquet.ParquetJobConfiguratorFactory;
+import org.apache.sqoop.mapreduce.db.PhysicalSplits;
 import org.apache.sqoop.util.ExportException;
 import org.apache.sqoop.util.ImportException;
 
@@ -92,6 +93,20 @@ public abstract class ConnManager {
     return null;
   }
 
+  /**
+   * Discard any cached column metadata for the given table, so that the
+   * next metadata request goes back to the database. Must be called after
+   * the table definition is changed through this ConnManager.
+   */
+  public void invalidateMetadataCache(String tableName) {
+  }
+
+  /**
+   * Discard all cached column metadata held by this ConnManager.
+   */
+  public void invalidateMetadataCache() {
+  }
+
   /**
    * Return the name of the primary key for a table, or null if there is none.
    */
@@ -535,6 +550,27 @@ public void migrateData(String fromTable, String toTable)
       throw new UnsupportedOperationException();
   }
 
+  /**
+   * Applies all records of the given <tt>fromTable</tt> to the target
+   * <tt>toTable</tt> with set-based statements, updating rows whose key
+   * columns match and, if <tt>allowInsert</tt> is set, inserting the rest.
+   * This is the last step of an update-mode export run where a staging
+   * table is used; the staging table is emptied in the same transaction.
+   * @param fromTable the name of the staging table
+   * @param toTable the name of the target table
+   * @param keyColumns the update key columns
+   * @param columns all columns present in the staging table
+   * @param allowInsert true to insert rows which have no match in toTable
+   * @throws SQLException if an error occurs during execution
+   * @throws UnsupportedOperationException if the connection manager does not
+   * support this operation.
+   */
+  public void mergeStagingTable(String fromTable, String toTable,
+      String [] keyColumns, String [] columns, boolean allowInsert)
+      throws SQLException {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Return an unordered mapping from colname to sqltype for
    * all columns in a query.
@@ -810,6 +846,34 @@ public String getInputBoundsQuery(String splitByCol, String sanitizedQuery) {
       return null;
   }
 
+  /**
+   * Approximate minimum and maximum values of a table column, taken from
+   * statistics the database already maintains rather than from scanning the
+   * table. Used as split bounding values when the user allows it.
+   * @param tableName the table to look up.
+   * @param columnName the (unescaped) column to look up.
+   * @return a two element array of {min, max} in a form accepted by
+   * the splitter for the column type, or <tt>null</tt> if no statistics
+   * are available.
+   */
+  public String[] getSplitColumnBounds(String tableName, String columnName)
+      throws SQLException {
+    return null;
+  }
+
+  /**
+   * Splits that divide a table by its physical storage instead of by the
+   * values of a split column, so that each mapper scans a contiguous part
+   * of the table. Used when the user sets sqoop.split.physical.
+   * @param tableName the table to split.
+   * @return the physical splits of the table, or <tt>null</tt> if the
+   * database or table does not support them.
+   */
+  public PhysicalSplits getPhysicalSplits(String tableName)
+      throws SQLException {
+    return null;
+  }
+
   /**
    * This method allows the ConnManager to override the generation of ORM
    * classes if the SQOOP generated classes are not used by it.
@@ -39,6 +39,7 @@
 import org.apache.sqoop.cli.RelatedOptions;
 import org.apache.sqoop.mapreduce.ExportInputFormat;
 import org.apache.sqoop.mapreduce.postgresql.PostgreSQLCopyExportJob;
+import org.apache.sqoop.mapreduce.postgresql.PostgreSQLTaskStaging;
 import org.apache.sqoop.util.PostgreSQLUtils;
 import org.apache.sqoop.util.SubstitutionUtils;
 
@@ -73,6 +74,10 @@
   public static final String BOOLEAN_FALSE_STRING = "boolean-false-string";
   public static final String DEFAULT_BOOLEAN_FALSE_STRING = "FALSE";
 
+  public static final String BINARY_COPY = "binary-copy";
+
+  public static final String TASK_STAGING = "task-staging";
+
   public DirectPostgresqlManager(final SqoopOptions opts) {
     super(opts);
 
@@ -559,6 +564,16 @@ protected void applyExtraArguments(CommandLine cmdLine) {
       LOG.info("Loaded FALSE encoding string " + arg);
       this.booleanFalseString = arg;
     }
+    if (cmdLine.hasOption(BINARY_COPY)) {
+      LOG.info("Export will use the binary COPY format");
+      options.getConf().setBoolean(PostgreSQLCopyExportJob.BINARY_COPY_KEY,
+          true);
+    }
+    if (cmdLine.hasOption(TASK_STAGING)) {
+      LOG.info("Export will stage rows in per-task UNLOGGED tables");
+      options.getConf().setBoolean(PostgreSQLTaskStaging.TASK_STAGING_KEY,
+          true);
+    }
   }
 
   /** {@inheritDoc}. */
@@ -575,6 +590,14 @@ protected RelatedOptions getExtraOptions() {
       .withDescription("String to encode FALSE value")
       .withLongOpt(BOOLEAN_FALSE_STRING).create());
 
+    extraOptions.addOption(OptionBuilder
+      .withDescription("Export using the binary COPY format")
+      .withLongOpt(BINARY_COPY).create());
+
+    extraOptions.addOption(OptionBuilder
+      .withDescription("Stage rows in per-task UNLOGGED tables")
+      .withLongOpt(TASK_STAGING).create());
+
     return extraOptions;
   }
 
@@ -20,6 +20,7 @@
 
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+import org.apache.sqoop.mapreduce.db.PhysicalSplits;
 import org.apache.sqoop.SqoopOptions;
 
 import org.apache.hadoop.conf.Configuration;
@@ -38,6 +39,7 @@ public class ImportJobContext {
   private Class<? extends InputFormat> inputFormatClass;
   private Path destination;
   private ConnManager manager;
+  private PhysicalSplits physicalSplits;
 
   public ImportJobContext(final String table, final String jar,
       final SqoopOptions opts, final Path destination) {
@@ -103,5 +105,21 @@ public ConnManager getConnManager() {
     return this.manager;
   }
 
+  /**
+   * Remember the physical splits the ConnManager found while validating
+   * the import, so that the import job does not look them up again.
+   */
+  public void setPhysicalSplits(PhysicalSplits splits) {
+    this.physicalSplits = splits;
+  }
+
+  /**
+   * @return the physical splits found while validating the import, or null
+   * if they were not looked up.
+   */
+  public PhysicalSplits getPhysicalSplits() {
+    return this.physicalSplits;
+  }
+
 }
 
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sqoop.util.SqlTypeMap;
+
+/**
+ * Caches the result set metadata returned by the zero-row probe statements
+ * ("SELECT ... WHERE 1=0") that SqlManager issues to discover column names
+ * and types. A single import asks for the same metadata from codegen,
+ * the import tool, Hive/HCatalog table definition and validation; the cache
+ * lets all of them share one round-trip to the database.
+ *
+ * Entries are keyed by the exact statement text. Callers always receive
+ * copies, so mutating a returned map or array never affects the cache.
+ */
+public class MetadataCache {
+
+  public static final Log LOG = LogFactory.getLog(
+      MetadataCache.class.getName());
+
+  /**
+   * Configuration key used to disable the cache, e.g. when the table
+   * definitions are expected to change while the ConnManager is open.
+   */
+  public static final String METADATA_CACHE_ENABLED_KEY =
+      "sqoop.metadata.cache.enabled";
+
+  public static final boolean DEFAULT_METADATA_CACHE_ENABLED = true;
+
+  private final Map<String, String[]> columnNames =
+      new HashMap<String, String[]>();
+
+  private final Map<String, Map<String, List<Integer>>> columnInfo =
+      new HashMap<String, Map<String, List<Integer>>>();
+
+  private final Map<String, Map<String, String>> columnTypeNames =
+      new HashMap<String, Map<String, String>>();
+
+  /**
+   * @return the cached column names for the statement or null if the
+   * statement has not been probed yet.
+   */
+  public synchronized String[] getColumnNames(String stmt) {
+    String[] names = columnNames.get(stmt);
+    if (null == names) {
+      return null;
+    }
+    LOG.debug("Using cached column names for statement: " + stmt);
+    return names.clone();
+  }
+
+  public synchronized void putColumnNames(String stmt, String[] names) {
+    if (null != names) {
+      columnNames.put(stmt, names.clone());
+    }
+  }
+
+  /**
+   * @return the cached (type, precision, scale) information for the
+   * statement or null if the statement has not been probed yet.
+   */
+  public synchronized Map<String, List<Integer>> getColumnInfo(String stmt) {
+    Map<String, List<Integer>> info = columnInfo.get(stmt);
+    if (null == info) {
+      return null;
+    }
+    LOG.debug("Using cached column info for statement: " + stmt);
+    return copyColumnInfo(info);
+  }
+
+  public synchronized void putColumnInfo(String stmt,
+      Map<String, List<Integer>> info) {
+    if (null != info) {
+      columnInfo.put(stmt, copyColumnInfo(info));
+    }
+  }
+
+  /**
+   * @return the cached database specific type names for the statement or
+   * null if the statement has not been probed yet.
+   */
+  public synchronized Map<String, String> getColumnTypeNames(String stmt) {
+    Map<String, String> typeNames = columnTypeNames.get(stmt);
+    if (null == typeNames) {
+      return null;
+    }
+    LOG.debug("Using cached column type names for statement: " + stmt);
+    return new HashMap<String, String>(typeNames);
+  }
+
+  public synchronized void putColumnTypeNames(String stmt,
+      Map<String, String> typeNames) {
+    if (null != typeNames) {
+      columnTypeNames.put(stmt, new HashMap<String, String>(typeNames));
+    }
+  }
+
+  /**
+   * Discard every cached entry that was produced by the given statement.
+   */
+  public synchronized void invalidate(String stmt) {
+    columnNames.remove(stmt);
+    columnInfo.remove(stmt);
+    columnTypeNames.remove(stmt);
+  }
+
+  /**
+   * Discard all cached entries.
+   */
+  public synchronized void invalidateAll() {
+    columnNames.clear();
+    columnInfo.clear();
+    columnTypeNames.clear();
+  }
+
+  private static Map<String, List<Integer>> copyColumnInfo(
+      Map<String, List<Integer>> info) {
+    Map<String, List<Integer>> copy = new SqlTypeMap<String, List<Integer>>();
+    for (Map.Entry<String, List<Integer>> entry : info.entrySet()) {
+      copy.put(entry.getKey(), new ArrayList<Integer>(entry.getValue()));
+    }
+    return copy;
+  }
+}
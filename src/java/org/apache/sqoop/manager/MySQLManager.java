@@ -274,6 +274,48 @@ public boolean supportsStagingForExport() {
     return true;
   }
 
+  /**
+   * MySQL updates through a multi-table UPDATE. Upserts use INSERT ... ON
+   * DUPLICATE KEY UPDATE, matching the row-by-row upsert export, which
+   * relies on the table's unique keys rather than on --update-key.
+   */
+  @Override
+  protected List<String> getStagingMergeStatements(String fromTable,
+      String toTable, String [] keyCols, String [] updateCols,
+      String [] allCols, boolean allowInsert) {
+    List<String> queries = new ArrayList<String>();
+    if (allowInsert) {
+      String cols = StringUtils.join(allCols, ", ");
+      StringBuilder sb = new StringBuilder();
+      sb.append("INSERT INTO ").append(toTable).append(" (").append(cols)
+          .append(") SELECT ").append(cols).append(" FROM ").append(fromTable);
+      String [] dupCols = updateCols.length > 0 ? updateCols : keyCols;
+      sb.append(" ON DUPLICATE KEY UPDATE ");
+      for (int i = 0; i < dupCols.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(dupCols[i]).append(" = VALUES(").append(dupCols[i])
+            .append(")");
+      }
+      queries.add(sb.toString());
+    } else if (updateCols.length > 0) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("UPDATE ").append(toTable).append(" t JOIN ")
+          .append(fromTable).append(" s ON ")
+          .append(getKeyJoinCondition("t", "s", keyCols)).append(" SET ");
+      for (int i = 0; i < updateCols.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append("t.").append(updateCols[i]).append(" = s.")
+            .append(updateCols[i]);
+      }
+      queries.add(sb.toString());
+    }
+    return queries;
+  }
+
   @Override
   public String[] getColumnNamesForProcedure(String procedureName) {
     List<String> ret = new ArrayList<String>();
@@ -680,6 +680,46 @@ public boolean supportsStagingForExport() {
     return true;
   }
 
+  /**
+   * Oracle applies the staging table with a single MERGE statement.
+   */
+  @Override
+  protected List<String> getStagingMergeStatements(String fromTable,
+      String toTable, String [] keyCols, String [] updateCols,
+      String [] allCols, boolean allowInsert) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("MERGE INTO ").append(toTable).append(" t USING ")
+        .append(fromTable).append(" s ON (")
+        .append(getKeyJoinCondition("t", "s", keyCols)).append(")");
+    if (updateCols.length > 0) {
+      sb.append(" WHEN MATCHED THEN UPDATE SET ");
+      for (int i = 0; i < updateCols.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append("t.").append(updateCols[i]).append(" = s.")
+            .append(updateCols[i]);
+      }
+    }
+    if (allowInsert) {
+      sb.append(" WHEN NOT MATCHED THEN INSERT (")
+          .append(StringUtils.join(allCols, ", ")).append(") VALUES (");
+      for (int i = 0; i < allCols.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append("s.").append(allCols[i]);
+      }
+      sb.append(")");
+    }
+
+    List<String> queries = new ArrayList<String>();
+    if (updateCols.length > 0 || allowInsert) {
+      queries.add(sb.toString());
+    }
+    return queries;
+  }
+
   /**
    * The concept of database in Oracle is mapped to schemas. Each schema
    * is identified by the corresponding username.
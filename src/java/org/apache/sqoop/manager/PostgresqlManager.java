@@ -21,7 +21,12 @@
 import static org.apache.sqoop.manager.JdbcDrivers.POSTGRES;
 
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -32,7 +37,10 @@
 import org.apache.commons.logging.LogFactory;
 
 import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.mapreduce.db.PhysicalSplits;
+import org.apache.sqoop.mapreduce.db.PostgresqlCtidSplitter;
 import org.apache.sqoop.util.ImportException;
+import org.apache.sqoop.util.LoggingUtils;
 import org.apache.sqoop.cli.RelatedOptions;
 
 /**
@@ -131,6 +139,244 @@ public boolean supportsStagingForExport() {
     return true;
   }
 
+  /**
+   * PostgreSQL joins the staging table with UPDATE ... FROM instead of
+   * evaluating a correlated subquery per column.
+   */
+  @Override
+  protected List<String> getStagingMergeStatements(String fromTable,
+      String toTable, String [] keyCols, String [] updateCols,
+      String [] allCols, boolean allowInsert) {
+    List<String> queries = super.getStagingMergeStatements(fromTable,
+        toTable, keyCols, updateCols, allCols, allowInsert);
+    if (updateCols.length > 0) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("UPDATE ").append(toTable).append(" t SET ");
+      for (int i = 0; i < updateCols.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(updateCols[i]).append(" = s.").append(updateCols[i]);
+      }
+      sb.append(" FROM ").append(fromTable).append(" s WHERE ")
+          .append(getKeyJoinCondition("t", "s", keyCols));
+      queries.set(0, sb.toString());
+    }
+    return queries;
+  }
+
+  /**
+   * List the tables of the current schema whose name starts with prefix.
+   */
+  public List<String> listTablesWithPrefix(String prefix)
+      throws SQLException {
+    String query =
+      "SELECT tab.RELNAME FROM PG_CATALOG.PG_NAMESPACE sch, "
+    + "  PG_CATALOG.PG_CLASS tab "
+    + "WHERE sch.OID = tab.RELNAMESPACE "
+    + "  AND sch.NSPNAME = " + getSchemaSqlFragment()
+    + "  AND tab.RELKIND = 'r' "
+    + "  AND SUBSTR(tab.RELNAME, 1, ?) = ? "
+    + "ORDER BY tab.RELNAME";
+
+    List<String> tables = new ArrayList<String>();
+    ResultSet results = execute(query,
+        new Object[] { Integer.valueOf(prefix.length()), prefix });
+    try {
+      while (results.next()) {
+        tables.add(results.getString(1));
+      }
+    } finally {
+      results.close();
+      getConnection().commit();
+      release();
+    }
+    return tables;
+  }
+
+  /**
+   * Move all rows of the given tables into toTable and drop them, in a
+   * single transaction. Rows for a partitioned toTable are routed to their
+   * partitions by the server.
+   */
+  public void mergeTables(List<String> fromTables, String toTable)
+      throws SQLException {
+    release(); // Release any previous ResultSet
+
+    if (fromTables.isEmpty()) {
+      return;
+    }
+
+    // All staging tables are created LIKE the target, so they share the
+    // column names; name them so that the column order does not matter.
+    String columnList = getMergeColumnList(fromTables.get(0));
+    String escapedToTable = escapeTableName(toTable);
+    Connection conn = getConnection();
+    Statement stmt = null;
+    try {
+      stmt = conn.createStatement();
+      long total = 0;
+      for (String fromTable : fromTables) {
+        String escapedFromTable = escapeTableName(fromTable);
+        total += stmt.executeUpdate("INSERT INTO " + escapedToTable
+            + " (" + columnList + ") SELECT " + columnList
+            + " FROM " + escapedFromTable);
+        stmt.executeUpdate("DROP TABLE " + escapedFromTable);
+      }
+      conn.commit();
+      for (String fromTable : fromTables) {
+        invalidateMetadataCache(fromTable);
+      }
+      LOG.info("Merged " + total + " records from " + fromTables.size()
+          + " tables into " + escapedToTable);
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to merge data into " + toTable, ex);
+      conn.rollback();
+      throw ex;
+    } finally {
+      if (stmt != null) {
+        try {
+          stmt.close();
+        } catch (SQLException ex) {
+          LoggingUtils.logAll(LOG, "Unable to close statement", ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the escaped, comma separated names of all columns of the given
+   * table.
+   */
+  private String getMergeColumnList(String tableName) throws SQLException {
+    String[] columns =
+        getColumnNamesForRawQuery(getColNamesQuery(tableName));
+    if (null == columns || columns.length == 0) {
+      throw new SQLException("Unable to read the columns of " + tableName);
+    }
+    StringBuilder sb = new StringBuilder();
+    for (String column : columns) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(escapeColName(column));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Drop the given tables if they exist.
+   */
+  public void dropTables(List<String> tables) throws SQLException {
+    release(); // Release any previous ResultSet
+
+    Connection conn = getConnection();
+    Statement stmt = conn.createStatement();
+    try {
+      for (String table : tables) {
+        stmt.executeUpdate("DROP TABLE IF EXISTS " + escapeTableName(table));
+      }
+      conn.commit();
+      for (String table : tables) {
+        invalidateMetadataCache(table);
+      }
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Take the split column bounds from the first and last entries of the
+   * column histogram gathered by ANALYZE. The histogram leaves out the most
+   * common values, so the bounds are approximate.
+   */
+  @Override
+  public String[] getSplitColumnBounds(String tableName, String columnName)
+      throws SQLException {
+    String query =
+      "SELECT HISTOGRAM_BOUNDS::TEXT FROM PG_CATALOG.PG_STATS "
+    + "WHERE SCHEMANAME = " + getSchemaSqlFragment()
+    + "  AND TABLENAME = ? "
+    + "  AND ATTNAME = ?";
+
+    String histogram = null;
+    ResultSet results = execute(query,
+        new Object[] { tableName, columnName });
+    try {
+      if (results.next()) {
+        histogram = results.getString(1);
+      }
+    } finally {
+      results.close();
+      getConnection().commit();
+      release();
+    }
+    if (null == histogram) {
+      return null;
+    }
+
+    List<String> values = parseArrayLiteral(histogram);
+    if (values.size() < 2) {
+      return null;
+    }
+    return new String[] { values.get(0), values.get(values.size() - 1) };
+  }
+
+  /**
+   * Split the table into ranges of heap pages, using the page count that
+   * VACUUM and ANALYZE keep in pg_class. Needs the TID range scans of
+   * PostgreSQL 14; on older servers every mapper would scan the whole table.
+   */
+  @Override
+  public PhysicalSplits getPhysicalSplits(String tableName)
+      throws SQLException {
+    int majorVersion = getConnection().getMetaData().getDatabaseMajorVersion();
+    if (majorVersion < 14) {
+      LOG.warn("Physical splits need PostgreSQL 14 or later; the server is "
+          + "version " + majorVersion);
+      return null;
+    }
+
+    String relation = escapeTableName(tableName).replace("'", "''");
+    return new PhysicalSplits("ctid",
+        "SELECT 0, RELPAGES::BIGINT FROM PG_CATALOG.PG_CLASS "
+        + "WHERE OID = '" + relation + "'::REGCLASS",
+        PostgresqlCtidSplitter.class);
+  }
+
+  /**
+   * Split the text form of a one dimensional array, e.g.
+   * <tt>{1,"a, b",c}</tt>, into its elements.
+   */
+  static List<String> parseArrayLiteral(String array) {
+    List<String> values = new ArrayList<String>();
+    String body = array.trim();
+    if (body.length() < 2 || body.charAt(0) != '{'
+        || body.charAt(body.length() - 1) != '}') {
+      return values;
+    }
+    body = body.substring(1, body.length() - 1);
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < body.length(); i++) {
+      char c = body.charAt(i);
+      if (c == '\\' && i + 1 < body.length()) {
+        current.append(body.charAt(++i));
+      } else if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ',' && !quoted) {
+        values.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    if (body.length() > 0) {
+      values.add(current.toString());
+    }
+    return values;
+  }
+
   @Override
   protected String getListDatabasesQuery() {
     return
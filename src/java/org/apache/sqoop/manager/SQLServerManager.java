@@ -21,6 +21,8 @@
 import static org.apache.sqoop.manager.JdbcDrivers.SQLSERVER;
 
 import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -33,6 +35,7 @@
 import org.apache.sqoop.mapreduce.JdbcUpsertExportJob;
 
 import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.mapreduce.db.PhysicalSplits;
 import org.apache.sqoop.mapreduce.JdbcExportJob;
 import org.apache.sqoop.mapreduce.JdbcUpdateExportJob;
 import org.apache.sqoop.mapreduce.sqlserver.SqlServerInputFormat;
@@ -266,6 +269,53 @@ protected String getPrimaryKeyQuery(String tableName) {
   }
 
 
+  /**
+   * Split a partitioned table into ranges of partition numbers, so that
+   * every mapper reads whole partitions. Tables that are not partitioned
+   * have no physical splits.
+   */
+  @Override
+  public PhysicalSplits getPhysicalSplits(String tableName)
+      throws SQLException {
+    String query =
+      "SELECT pf.name, c.name FROM sys.indexes i "
+    + "  JOIN sys.partition_schemes ps ON ps.data_space_id = i.data_space_id "
+    + "  JOIN sys.partition_functions pf ON pf.function_id = ps.function_id "
+    + "  JOIN sys.index_columns ic ON ic.object_id = i.object_id "
+    + "   AND ic.index_id = i.index_id AND ic.partition_ordinal = 1 "
+    + "  JOIN sys.columns c ON c.object_id = ic.object_id "
+    + "   AND c.column_id = ic.column_id "
+    + "WHERE i.object_id = OBJECT_ID(?) AND i.index_id IN (0, 1)";
+
+    String escapedTable = escapeTableName(tableName);
+    String function = null;
+    String column = null;
+    ResultSet results = execute(query, new Object[] { escapedTable });
+    try {
+      if (results.next()) {
+        function = results.getString(1);
+        column = results.getString(2);
+      }
+    } finally {
+      results.close();
+      getConnection().commit();
+      release();
+    }
+    if (null == function) {
+      LOG.warn("Table " + tableName + " is not partitioned; it has no "
+          + "physical splits.");
+      return null;
+    }
+
+    return new PhysicalSplits(
+        "$PARTITION." + escapeObjectName(function) + "("
+            + escapeColName(column) + ")",
+        "SELECT MIN(partition_number), MAX(partition_number) "
+            + "FROM sys.partitions WHERE object_id = OBJECT_ID(N'"
+            + escapedTable.replace("'", "''") + "') AND index_id IN (0, 1)",
+        null);
+  }
+
   @Override
   public String escapeColName(String colName) {
     return escapeObjectName(colName);
@@ -367,6 +417,11 @@ private RelatedOptions getExtraOptions() {
     extraOptions.addOption(OptionBuilder
         .withLongOpt(SqlServerManagerContextConfigurator.RESILIENT_OPTION).create());
 
+    extraOptions.addOption(OptionBuilder
+        .withDescription("Export with the SQL Server bulk copy API")
+        .withLongOpt(SqlServerManagerContextConfigurator.BULK_COPY_OPTION)
+        .create());
+
     return extraOptions;
   }
 
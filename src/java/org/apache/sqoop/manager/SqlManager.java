@@ -41,6 +41,9 @@
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.sqoop.accumulo.AccumuloUtil;
+import org.apache.sqoop.db.DriverManagerJdbcConnectionFactory;
+import org.apache.sqoop.db.JdbcConnectionFactory;
+import org.apache.sqoop.db.decorator.PooledConnectionFactoryDecorator;
 import org.apache.sqoop.mapreduce.AccumuloImportJob;
 import org.apache.sqoop.mapreduce.HBaseBulkImportJob;
 import org.apache.sqoop.mapreduce.JdbcCallExportJob;
@@ -55,6 +58,7 @@
 import org.apache.sqoop.mapreduce.JdbcExportJob;
 import org.apache.sqoop.mapreduce.JdbcUpdateExportJob;
 import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+import org.apache.sqoop.mapreduce.db.PhysicalSplits;
 import org.apache.sqoop.util.ExportException;
 import org.apache.sqoop.util.ImportException;
 import org.apache.sqoop.util.ResultSetPrinter;
@@ -79,6 +83,8 @@
 
   private Statement lastStatement;
 
+  private final MetadataCache metadataCache = new MetadataCache();
+
   /**
    * Constructs the SqlManager.
    * @param opts the SqoopOptions describing the user's requested action.
@@ -145,6 +151,21 @@ protected String[] filterSpecifiedColumnNames(String[] columns) {
    * Get column names for a query statement that we do not modify further.
    */
   public String[] getColumnNamesForRawQuery(String stmt) {
+    if (isMetadataCacheEnabled()) {
+      String[] cached = metadataCache.getColumnNames(stmt);
+      if (null != cached) {
+        return cached;
+      }
+    }
+
+    String[] columns = readColumnNamesForRawQuery(stmt);
+    if (isMetadataCacheEnabled()) {
+      metadataCache.putColumnNames(stmt, columns);
+    }
+    return columns;
+  }
+
+  private String[] readColumnNamesForRawQuery(String stmt) {
     ResultSet results;
     try {
       results = execute(stmt);
@@ -282,6 +303,21 @@ public Map<String, List<Integer>> getColumnInfoForQuery(String query) {
   }
 
   protected Map<String, List<Integer>> getColumnInfoForRawQuery(String stmt) {
+    if (isMetadataCacheEnabled()) {
+      Map<String, List<Integer>> cached = metadataCache.getColumnInfo(stmt);
+      if (null != cached) {
+        return cached;
+      }
+    }
+
+    Map<String, List<Integer>> colInfo = readColumnInfoForRawQuery(stmt);
+    if (isMetadataCacheEnabled()) {
+      metadataCache.putColumnInfo(stmt, colInfo);
+    }
+    return colInfo;
+  }
+
+  private Map<String, List<Integer>> readColumnInfoForRawQuery(String stmt) {
     ResultSet results;
     LOG.debug("Execute getColumnInfoRawQuery : " + stmt);
     try {
@@ -354,6 +390,21 @@ public Map<String, String> getColumnTypeNamesForQuery(String query) {
   }
 
   protected Map<String, String> getColumnTypeNamesForRawQuery(String stmt) {
+    if (isMetadataCacheEnabled()) {
+      Map<String, String> cached = metadataCache.getColumnTypeNames(stmt);
+      if (null != cached) {
+        return cached;
+      }
+    }
+
+    Map<String, String> colTypeNames = readColumnTypeNamesForRawQuery(stmt);
+    if (isMetadataCacheEnabled()) {
+      metadataCache.putColumnTypeNames(stmt, colTypeNames);
+    }
+    return colTypeNames;
+  }
+
+  private Map<String, String> readColumnTypeNamesForRawQuery(String stmt) {
     ResultSet results;
     try {
       results = execute(stmt);
@@ -399,6 +450,32 @@ protected Map<String, String> getColumnTypeNamesForRawQuery(String stmt) {
     }
   }
 
+  /**
+   * @return true if the results of the zero-row metadata probes should be
+   * reused for the lifetime of this ConnManager.
+   */
+  protected boolean isMetadataCacheEnabled() {
+    if (null == options || null == options.getConf()) {
+      return MetadataCache.DEFAULT_METADATA_CACHE_ENABLED;
+    }
+    return options.getConf().getBoolean(
+        MetadataCache.METADATA_CACHE_ENABLED_KEY,
+        MetadataCache.DEFAULT_METADATA_CACHE_ENABLED);
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void invalidateMetadataCache(String tableName) {
+    metadataCache.invalidate(getColNamesQuery(tableName));
+    metadataCache.invalidate(getColTypesQuery(tableName));
+  }
+
+  @Override
+  /** {@inheritDoc} */
+  public void invalidateMetadataCache() {
+    metadataCache.invalidateAll();
+  }
+
   @Override
   public ResultSet readTable(String tableName, String[] columns)
       throws SQLException {
@@ -635,7 +712,8 @@ protected void checkTableImportOptions(
     // Default implementation: check that the split column is set
     // correctly.
     String splitCol = getSplitColumn(opts, tableName);
-    if (null == splitCol && opts.getNumMappers() > 1) {
+    if (null == splitCol && opts.getNumMappers() > 1
+        && !hasPhysicalSplits(context)) {
       if (!opts.getAutoResetToOneMapper()) {
         // Can't infer a primary key.
         throw new ImportException("No primary key could be found for table "
@@ -648,6 +726,26 @@ protected void checkTableImportOptions(
     }
   }
 
+  /**
+   * @return true if the table is to be split by its physical storage, which
+   * does not need a split column.
+   */
+  private boolean hasPhysicalSplits(
+      org.apache.sqoop.manager.ImportJobContext context) {
+    String tableName = context.getTableName();
+    if (!PhysicalSplits.isEnabled(context.getOptions().getConf())) {
+      return false;
+    }
+    try {
+      context.setPhysicalSplits(getPhysicalSplits(tableName));
+      return null != context.getPhysicalSplits();
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Could not determine physical splits for "
+          + "table " + tableName, sqlE);
+      return false;
+    }
+  }
+
   /**
    * Default implementation of importTable() is to launch a MapReduce job
    * via DataDrivenImportJob to read the table with DataDrivenDBInputFormat.
@@ -879,7 +977,11 @@ protected Connection makeConnection() throws SQLException {
     String password = options.getPassword();
     String connectString = options.getConnectString();
     Properties connectionParams = options.getConnectionParams();
-    if (connectionParams != null && connectionParams.size() > 0) {
+    if (null != options.getConf()
+        && PooledConnectionFactoryDecorator.isEnabled(options.getConf())) {
+      connection = makePooledConnection(driverClass, connectString, username,
+          password, connectionParams);
+    } else if (connectionParams != null && connectionParams.size() > 0) {
       LOG.debug("User specified connection params. "
               + "Using properties specific API for making connection.");
 
@@ -912,6 +1014,37 @@ protected Connection makeConnection() throws SQLException {
     return connection;
   }
 
+  /**
+   * Borrows a connection from the pool shared by every manager in this JVM
+   * that connects to the same database as the same user, with the same
+   * password and connection properties, so that the
+   * client-side phases of a job (and the tables of import-all-tables) reuse
+   * one physical connection. Closing the returned connection gives it back
+   * to the pool.
+   */
+  private Connection makePooledConnection(String driverClass,
+      String connectString, String username, String password,
+      Properties connectionParams) throws SQLException {
+    LOG.debug("Using pooled connection factory for making connection.");
+    Properties props = new Properties();
+    if (connectionParams != null) {
+      props.putAll(connectionParams);
+    }
+    JdbcConnectionFactory factory = PooledConnectionFactoryDecorator.getShared(
+        options.getConf(), PooledConnectionFactoryDecorator.getKey(driverClass,
+            connectString, username, password, props),
+        new DriverManagerJdbcConnectionFactory(driverClass, connectString,
+            username, password, props));
+    try {
+      return factory.createConnection();
+    } catch (RuntimeException re) {
+      if (re.getCause() instanceof SQLException) {
+        throw (SQLException) re.getCause();
+      }
+      throw re;
+    }
+  }
+
   /**
    * @return the transaction isolation level to use for metadata queries
    * (queries executed by the ConnManager itself).
@@ -1131,6 +1264,136 @@ public void migrateData(String fromTable, String toTable)
     }
   }
 
+  @Override
+  public void mergeStagingTable(String fromTable, String toTable,
+      String [] keyColumns, String [] columns, boolean allowInsert)
+      throws SQLException {
+    release(); // Release any previous ResultSet
+
+    // Split the staged columns into key columns and columns to update.
+    List<String> keyCols = new ArrayList<String>();
+    List<String> updateCols = new ArrayList<String>();
+    List<String> allCols = new ArrayList<String>();
+    for (String col : columns) {
+      boolean isKey = false;
+      for (String key : keyColumns) {
+        if (key.equalsIgnoreCase(col)) {
+          isKey = true;
+          break;
+        }
+      }
+      String escaped = escapeColName(col);
+      allCols.add(escaped);
+      if (isKey) {
+        keyCols.add(escaped);
+      } else {
+        updateCols.add(escaped);
+      }
+    }
+
+    String escapedFrom = escapeTableName(fromTable);
+    String escapedTo = escapeTableName(toTable);
+    List<String> queries = getStagingMergeStatements(escapedFrom, escapedTo,
+        keyCols.toArray(new String[keyCols.size()]),
+        updateCols.toArray(new String[updateCols.size()]),
+        allCols.toArray(new String[allCols.size()]), allowInsert);
+    String deleteQuery = "DELETE FROM " + escapedFrom;
+
+    Connection conn = getConnection();
+    Statement stmt = null;
+    try {
+      stmt = conn.createStatement();
+      for (String query : queries) {
+        LOG.debug("Merging staged data: " + query);
+        int updateCount = stmt.executeUpdate(query);
+        LOG.info("Merged " + updateCount + " records from " + escapedFrom
+            + " into " + escapedTo);
+      }
+      stmt.executeUpdate(deleteQuery);
+      conn.commit();
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to merge data from "
+          + escapedFrom + " into " + escapedTo, ex);
+      try {
+        conn.rollback();
+      } catch (SQLException rollbackEx) {
+        LoggingUtils.logAll(LOG, "Unable to roll back the merge", rollbackEx);
+      }
+      throw ex;
+    } finally {
+      if (stmt != null) {
+        try {
+          stmt.close();
+        } catch (SQLException ex) {
+          LoggingUtils.logAll(LOG, "Unable to close statement", ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Build the statements that apply a staging table to its target in
+   * mergeStagingTable(). The default implementation uses a correlated
+   * UPDATE followed, for upserts, by an INSERT of the unmatched rows, which
+   * is portable standard SQL. All names are already escaped.
+   * @param fromTable the staging table
+   * @param toTable the target table
+   * @param keyCols the update key columns
+   * @param updateCols the non-key columns to update
+   * @param allCols all staged columns
+   * @param allowInsert true to insert rows which have no match in toTable
+   * @return the statements to execute, in order.
+   */
+  protected List<String> getStagingMergeStatements(String fromTable,
+      String toTable, String [] keyCols, String [] updateCols,
+      String [] allCols, boolean allowInsert) {
+    List<String> queries = new ArrayList<String>();
+    String match = getKeyJoinCondition(toTable, "s", keyCols);
+
+    if (updateCols.length > 0) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("UPDATE ").append(toTable).append(" SET ");
+      for (int i = 0; i < updateCols.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(updateCols[i]).append(" = (SELECT s.").append(updateCols[i])
+            .append(" FROM ").append(fromTable).append(" s WHERE ")
+            .append(match).append(")");
+      }
+      sb.append(" WHERE EXISTS (SELECT 1 FROM ").append(fromTable)
+          .append(" s WHERE ").append(match).append(")");
+      queries.add(sb.toString());
+    }
+
+    if (allowInsert) {
+      String cols = StringUtils.join(allCols, ", ");
+      queries.add("INSERT INTO " + toTable + " (" + cols + ") SELECT "
+          + cols + " FROM " + fromTable + " s WHERE NOT EXISTS (SELECT 1 FROM "
+          + toTable + " t WHERE " + getKeyJoinCondition("t", "s", keyCols)
+          + ")");
+    }
+
+    return queries;
+  }
+
+  /**
+   * @return a condition equating each key column of two table references,
+   * e.g. "t.a = s.a AND t.b = s.b".
+   */
+  protected static String getKeyJoinCondition(String left, String right,
+      String [] keyCols) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < keyCols.length; i++) {
+      if (i > 0) {
+        sb.append(" AND ");
+      }
+      sb.append(left).append(".").append(keyCols[i]).append(" = ")
+          .append(right).append(".").append(keyCols[i]);
+    }
+    return sb.toString();
+  }
+
   public String getInputBoundsQuery(String splitByCol, String sanitizedQuery) {
     return options.getBoundaryQuery();
   }
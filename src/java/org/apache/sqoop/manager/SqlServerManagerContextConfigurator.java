@@ -20,28 +20,40 @@
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.mapreduce.ExportEngineOutputFormat;
 import org.apache.sqoop.mapreduce.SQLServerResilientExportOutputFormat;
 import org.apache.sqoop.mapreduce.SQLServerResilientUpdateOutputFormat;
 import org.apache.sqoop.mapreduce.db.SQLServerConnectionFailureHandler;
 import org.apache.sqoop.mapreduce.db.SQLServerDBInputFormat;
+import org.apache.sqoop.mapreduce.sqlserver.SqlServerBulkCopyExportEngine;
 import org.apache.sqoop.mapreduce.sqlserver.SqlServerExportBatchOutputFormat;
 
 public class SqlServerManagerContextConfigurator {
 
   public static final String RESILIENT_OPTION = "resilient";
 
+  public static final String BULK_COPY_OPTION = "bulk-copy";
+
   /**
    * Check if the user has requested the operation to be resilient.
    */
   private boolean isResilientOperation(SqoopOptions options) {
+    return hasExtraOption(options, RESILIENT_OPTION);
+  }
+
+  private boolean isBulkCopyOperation(SqoopOptions options) {
+    return hasExtraOption(options, BULK_COPY_OPTION);
+  }
+
+  private boolean hasExtraOption(SqoopOptions options, String option) {
     String [] extraArgs = options.getExtraArgs();
     if (extraArgs != null) {
       // Traverse the extra options
       for (int iArg = 0; iArg < extraArgs.length; ++iArg) {
         String currentArg = extraArgs[iArg];
         if (currentArg.startsWith("--")
-          && currentArg.substring(2).equalsIgnoreCase(RESILIENT_OPTION)) {
-          // User has explicitly requested the operation to be resilient
+          && currentArg.substring(2).equalsIgnoreCase(option)) {
+          // User has explicitly requested the option
           return true;
         }
       }
@@ -50,7 +62,11 @@ private boolean isResilientOperation(SqoopOptions options) {
   }
 
   public void configureContextForExport(ExportJobContext context) {
-    if (isResilientOperation(context.getOptions())) {
+    if (isBulkCopyOperation(context.getOptions())) {
+      context.setOutputFormatClass(ExportEngineOutputFormat.class);
+      configureBulkCopyForExport(context);
+      configureConnectionRecoveryForExport(context);
+    } else if (isResilientOperation(context.getOptions())) {
       context.setOutputFormatClass(SQLServerResilientExportOutputFormat.class);
       configureConnectionRecoveryForExport(context);
     } else {
@@ -58,6 +74,22 @@ public void configureContextForExport(ExportJobContext context) {
     }
   }
 
+  /**
+   * Configure SQLServer Sqoop export Jobs to write through
+   * {@link SqlServerBulkCopyExportEngine}, with batches of
+   * {@link SqlServerBulkCopyExportEngine#DEFAULT_BATCH_RECORDS} records unless
+   * {@link ExportEngineOutputFormat#BATCH_RECORDS_KEY} is set.
+   */
+  private void configureBulkCopyForExport(ExportJobContext context) {
+    Configuration conf = context.getOptions().getConf();
+    conf.set(ExportEngineOutputFormat.ENGINE_KEY,
+        SqlServerBulkCopyExportEngine.class.getName());
+    if (conf.get(ExportEngineOutputFormat.BATCH_RECORDS_KEY) == null) {
+      conf.setInt(ExportEngineOutputFormat.BATCH_RECORDS_KEY,
+          SqlServerBulkCopyExportEngine.DEFAULT_BATCH_RECORDS);
+    }
+  }
+
   /**
    * Configure SQLServer Sqoop export Jobs to recover failed connections by
    * using {@link SQLServerConnectionFailureHandler}. This can be overridden by setting the
@@ -34,6 +34,7 @@
 import org.apache.hadoop.util.StringUtils;
 
 import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.util.PhaseCounters;
 
 /**
  * Abstract OutputFormat class that allows the RecordWriter to buffer
@@ -116,6 +117,7 @@ public static class AsyncDBOperation {
     private final boolean isBatch;
     private final boolean commit;
     private final boolean stopThread;
+    private final boolean closeStatement;
 
     @Deprecated
     /** Do not use AsyncDBOperation(PreparedStatement s, boolean
@@ -139,10 +141,28 @@ public AsyncDBOperation(PreparedStatement s, boolean commitAndClose,
      */
     public AsyncDBOperation(PreparedStatement s, boolean batch,
         boolean commit, boolean stopThread) {
+      this(s, batch, commit, stopThread, true);
+    }
+
+    /**
+     * Create an asynchronous database operation.
+     * @param s the statement, if any, to execute.
+     * @param batch is true if this is a batch PreparedStatement, or false
+     * if it's a normal singleton statement.
+     * @param commit is true if this statement should be committed to the
+     * database.
+     * @param stopThread if true, the executor thread should stop after this
+     * operation.
+     * @param closeStatement if false, the statement is owned by the caller
+     * and is left open after execution so that it can be reused.
+     */
+    public AsyncDBOperation(PreparedStatement s, boolean batch,
+        boolean commit, boolean stopThread, boolean closeStatement) {
       this.stmt = s;
       this.isBatch = batch;
       this.commit = commit;
       this.stopThread = stopThread;
+      this.closeStatement = closeStatement;
     }
 
     /**
@@ -152,6 +172,14 @@ public PreparedStatement getStatement() {
       return stmt;
     }
 
+    /**
+     * @return true if the executor should close the statement once it has
+     * been run.
+     */
+    public boolean closeStatement() {
+      return this.closeStatement;
+    }
+
     /**
      * @return true if the executor should commit the current transaction.
      * If getStatement() is non-null, the statement is run first.
@@ -190,6 +218,10 @@ public static class AsyncSqlExecThread extends Thread {
     protected int curNumStatements; // statements executed thus far in the tx.
     protected final int stmtsPerTx;  // statements per transaction.
 
+    // Timings of statement execution; only touched by this thread until it
+    // has been joined.
+    private final PhaseCounters phaseCounters;
+
     /**
      * Create a new update thread that interacts with the database.
      * @param conn the connection to use. This must only be used by this
@@ -198,10 +230,32 @@ public static class AsyncSqlExecThread extends Thread {
      * the current transaction.
      */
     public AsyncSqlExecThread(Connection conn, int stmtsPerTx) {
+      this(conn, stmtsPerTx, new PhaseCounters(false));
+    }
+
+    /**
+     * Create a new update thread that interacts with the database.
+     * @param conn the connection to use. This must only be used by this
+     * thread.
+     * @param stmtsPerTx the number of statements to execute before committing
+     * the current transaction.
+     * @param phaseCounters accumulates the execution and commit timings.
+     */
+    public AsyncSqlExecThread(Connection conn, int stmtsPerTx,
+        PhaseCounters phaseCounters) {
       this.conn = conn;
       this.err = null;
       this.opsQueue = new SynchronousQueue<AsyncDBOperation>();
       this.stmtsPerTx = stmtsPerTx;
+      this.phaseCounters = phaseCounters;
+    }
+
+    /**
+     * @return the timings of the executed statements. Only safe to read
+     * once this thread has terminated.
+     */
+    public PhaseCounters getPhaseCounters() {
+      return phaseCounters;
     }
 
     public void run() {
@@ -225,6 +279,7 @@ public void run() {
         // Synchronize on the connection to ensure it does not conflict
         // with the prepareStatement() call in the main thread.
         synchronized (conn) {
+          long start = phaseCounters.start();
           try {
             if (null != stmt) {
               if (op.execAsBatch()) {
@@ -232,7 +287,9 @@ public void run() {
               } else {
                 stmt.execute();
               }
-              stmt.close();
+              if (op.closeStatement()) {
+                stmt.close();
+              }
               stmt = null;
               this.curNumStatements++;
             }
@@ -244,6 +301,7 @@ public void run() {
               this.conn.commit();
               this.curNumStatements = 0;
             }
+            phaseCounters.stop(PhaseCounters.Phase.EXECUTE, start);
           } catch (BatchUpdateException batchE) {
             if (batchE.getNextException() != null) {
               // if a statement in a batch causes an SQLException
@@ -263,7 +321,7 @@ public void run() {
           } finally {
             // Close the statement on our way out if that didn't happen
             // via the normal execution path.
-            if (null != stmt) {
+            if (null != stmt && op.closeStatement()) {
               try {
                 stmt.close();
               } catch (SQLException sqlE) {
@@ -23,6 +23,7 @@
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,6 +31,7 @@
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.sqoop.util.LoggingUtils;
+import org.apache.sqoop.util.PhaseCounters;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
 import org.apache.sqoop.lib.SqoopRecord;
 
@@ -63,6 +65,9 @@
 
   private boolean closed;
 
+  // Timings of statement binding and of waiting for the exec thread.
+  private final PhaseCounters phaseCounters;
+
   public AsyncSqlRecordWriter(TaskAttemptContext context)
       throws ClassNotFoundException, SQLException {
     this.conf = context.getConfiguration();
@@ -80,8 +85,9 @@ public AsyncSqlRecordWriter(TaskAttemptContext context)
 
     this.records = new ArrayList<SqoopRecord>(this.rowsPerStmt);
 
+    this.phaseCounters = new PhaseCounters(conf);
     this.execThread = new AsyncSqlOutputFormat.AsyncSqlExecThread(
-        connection, stmtsPerTx);
+        connection, stmtsPerTx, new PhaseCounters(conf));
     this.execThread.setDaemon(true);
     this.startedExecThread = false;
 
@@ -132,6 +138,30 @@ protected boolean isBatchExec() {
   protected abstract PreparedStatement getPreparedStatement(
       List<SqoopRecord> userRecords) throws SQLException;
 
+  /**
+   * Generate the PreparedStatements needed to write the given records. They
+   * are executed in order by the execution thread. The default
+   * implementation returns the single statement from getPreparedStatement().
+   *
+   * @param userRecords a list of records that should be injected into SQL
+   * statements.
+   * @return the populated PreparedStatements to execute.
+   */
+  protected List<PreparedStatement> getPreparedStatements(
+      List<SqoopRecord> userRecords) throws SQLException {
+    return Collections.singletonList(getPreparedStatement(userRecords));
+  }
+
+  /**
+   * Should return 'true' if the RecordWriter keeps ownership of the
+   * PreparedStatements it generates and reuses them for later records.
+   * Such statements are not closed by the execution thread; the
+   * RecordWriter must close them itself.
+   */
+  protected boolean isStatementReusable() {
+    return false;
+  }
+
   /**
    * Takes the current contents of 'records' and formats and executes the
    * INSERT statement.
@@ -146,25 +176,37 @@ private void execUpdate(boolean commit, boolean stopThread)
       this.startedExecThread = true;
     }
 
-    PreparedStatement stmt = null;
-    boolean successfulPut = false;
+    List<PreparedStatement> stmts = Collections.emptyList();
+    boolean reusable = isStatementReusable();
+    int posted = 0;
     try {
+      long start = phaseCounters.start();
       if (records.size() > 0) {
-        stmt = getPreparedStatement(records);
+        stmts = getPreparedStatements(records);
         this.records.clear();
       }
+      start = phaseCounters.stop(PhaseCounters.Phase.BIND, start);
 
-      // Pass this operation off to the update thread. This will block if
-      // the update thread is already performing an update.
-      AsyncSqlOutputFormat.AsyncDBOperation op =
-          new AsyncSqlOutputFormat.AsyncDBOperation(stmt, isBatchExec(),
-                  commit, stopThread);
-      execThread.put(op);
-      successfulPut = true; // op has been posted to the other thread.
+      // Pass these operations off to the update thread. This will block if
+      // the update thread is already performing an update. Only the last
+      // operation commits or stops the thread.
+      int numOps = Math.max(1, stmts.size());
+      for (int i = 0; i < numOps; i++) {
+        PreparedStatement stmt = stmts.isEmpty() ? null : stmts.get(i);
+        boolean last = i == numOps - 1;
+        AsyncSqlOutputFormat.AsyncDBOperation op =
+            new AsyncSqlOutputFormat.AsyncDBOperation(stmt, isBatchExec(),
+                last && commit, last && stopThread, !reusable);
+        execThread.put(op);
+        posted++; // op has been posted to the other thread.
+      }
+      phaseCounters.stop(PhaseCounters.Phase.WAIT, start);
     } finally {
-      if (!successfulPut && null != stmt) {
-        // We created a statement but failed to enqueue it. Close it.
-        stmt.close();
+      if (!reusable) {
+        // We created statements but failed to enqueue them. Close them.
+        for (int i = posted; i < stmts.size(); i++) {
+          stmts.get(i).close();
+        }
       }
     }
 
@@ -197,6 +239,9 @@ public void close(TaskAttemptContext context)
         throw new IOException(sqle);
       }
 
+      phaseCounters.addAll(execThread.getPhaseCounters());
+      phaseCounters.publish(context);
+
       // If we're not leaving on an error return path already,
       // now that execThread is definitely stopped, check that the
       // error slot remains empty.
@@ -29,6 +29,7 @@
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.util.PhaseCounters;
 
 import java.io.IOException;
 import java.sql.SQLException;
@@ -46,11 +47,13 @@
   private LargeObjectLoader lobLoader;
   private boolean bigDecimalFormatString;
   private boolean bigDecimalPadding;
+  private PhaseCounters phaseCounters;
 
   @Override
   protected void setup(Context context)
       throws IOException, InterruptedException {
     Configuration conf = context.getConfiguration();
+    phaseCounters = new PhaseCounters(conf);
     schema = AvroJob.getMapOutputSchema(conf);
     lobLoader = new LargeObjectLoader(conf, FileOutputFormat.getWorkOutputPath(context));
     bigDecimalFormatString = conf.getBoolean(
@@ -63,20 +66,25 @@ protected void setup(Context context)
   protected void map(LongWritable key, SqoopRecord val, Context context)
       throws IOException, InterruptedException {
 
+    long start = phaseCounters.start();
     try {
       // Loading of LOBs was delayed until we have a Context.
       val.loadLargeObjects(lobLoader);
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
+    start = phaseCounters.stop(PhaseCounters.Phase.LOB_LOAD, start);
 
     GenericRecord outKey = AvroUtil.toGenericRecord(val.getFieldMap(), schema, bigDecimalFormatString, bigDecimalPadding);
     wrapper.datum(outKey);
+    start = phaseCounters.stop(PhaseCounters.Phase.FORMAT, start);
     context.write(wrapper, NullWritable.get());
+    phaseCounters.stop(PhaseCounters.Phase.WRITE, start);
   }
 
   @Override
   protected void cleanup(Context context) throws IOException {
+    phaseCounters.publish(context);
     if (null != lobLoader) {
       lobLoader.close();
     }
@@ -38,6 +38,7 @@
 import org.apache.hadoop.fs.PathFilter;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.SplittableCompressionCodec;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.RecordReader;
@@ -159,9 +160,7 @@ protected boolean isSplitable(JobContext context, Path file) {
       return true;
     }
 
-    // Once we remove support for Hadoop < 2.0
-    //return codec instanceof SplittableCompressionCodec;
-    return false;
+    return codec instanceof SplittableCompressionCodec;
   }
 
   /**
@@ -30,6 +30,7 @@
 import org.apache.hadoop.mapreduce.lib.input.LineRecordReader;
 import org.apache.hadoop.mapreduce.lib.input.SequenceFileRecordReader;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.io.BgzfCodec;
 
 /**
  * RecordReader that CombineFileRecordReader can instantiate, which itself
@@ -73,7 +74,15 @@ public void initialize(InputSplit curSplit, TaskAttemptContext curContext)
     FileSplit fileSplit = new FileSplit(this.split.getPath(index),
         this.split.getOffset(index), this.split.getLength(index),
         this.split.getLocations());
-    this.rr.initialize(fileSplit, this.context);
+
+    // Let a BGZF file find the start of the split in its block index.
+    Configuration conf = this.context.getConfiguration();
+    conf.set(BgzfCodec.INPUT_FILE_KEY, fileSplit.getPath().toString());
+    try {
+      this.rr.initialize(fileSplit, this.context);
+    } finally {
+      conf.unset(BgzfCodec.INPUT_FILE_KEY);
+    }
   }
 
   @Override
@@ -26,6 +26,7 @@
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
@@ -44,8 +45,10 @@
 import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.manager.ImportJobContext;
 import org.apache.sqoop.mapreduce.ImportJobBase;
+import org.apache.sqoop.mapreduce.db.BoundingValues;
 import org.apache.sqoop.mapreduce.db.DBConfiguration;
 import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+import org.apache.sqoop.mapreduce.db.PhysicalSplits;
 import org.apache.sqoop.mapreduce.parquet.ParquetImportJobConfigurator;
 import org.apache.sqoop.orm.AvroSchemaGenerator;
 
@@ -90,7 +93,20 @@ protected void configureMapper(Job job, String tableName,
       job.setMapperClass(SqoopHCatUtilities.getImportMapperClass());
       return;
     }
-    if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
+    if (isDynamicPartitionImport()) {
+      LOG.info("Partitioning the imported rows by column "
+          + DynamicPartitions.getColumn(options.getConf()));
+      DynamicPartitions.configure(job.getConfiguration(),
+          getColumnNames(tableName), options.getOutputDelimiters());
+      job.setOutputKeyClass(Text.class);
+      job.setOutputValueClass(Text.class);
+      if (job.getConfiguration().getBoolean(DynamicPartitions.SHUFFLE_KEY,
+          false)) {
+        // Identity reducer; the shuffle brings the rows of a partition
+        // together.
+        job.setReducerClass(AutoProgressReducer.class);
+      }
+    } else if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
       // For text files, specify these as the output types; for
       // other types, we just use the defaults.
       job.setOutputKeyClass(Text.class);
@@ -123,6 +139,43 @@ protected void configureMapper(Job job, String tableName,
     job.setMapperClass(getMapperClass());
   }
 
+  /**
+   * @return true if the rows are written into Hive partition directories
+   * named after the values of one of their columns.
+   */
+  private boolean isDynamicPartitionImport() {
+    return !isHCatJob
+        && options.getFileLayout() == SqoopOptions.FileLayout.TextFile
+        && DynamicPartitions.isEnabled(options.getConf());
+  }
+
+  /**
+   * @return the imported columns, in the order of the generated record's
+   * fields.
+   */
+  private String[] getColumnNames(String tableName) throws IOException {
+    String[] colNames = options.getColumns();
+    if (null != colNames) {
+      return colNames;
+    }
+    ConnManager connManager = getContext().getConnManager();
+    if (null != tableName) {
+      return connManager.getColumnNames(tableName);
+    }
+    return connManager.getColumnNamesForQuery(options.getSqlQuery());
+  }
+
+  @Override
+  protected int configureNumReduceTasks(Job job) throws IOException {
+    if (isDynamicPartitionImport() && job.getConfiguration().getBoolean(
+        DynamicPartitions.SHUFFLE_KEY, false)) {
+      int numReduceTasks = Math.max(1, options.getNumMappers());
+      job.setNumReduceTasks(numReduceTasks);
+      return numReduceTasks;
+    }
+    return super.configureNumReduceTasks(job);
+  }
+
   private Schema generateAvroSchema(String tableName,
       String schemaNameOverride) throws IOException {
     ConnManager connManager = getContext().getConnManager();
@@ -152,7 +205,9 @@ protected Class<? extends Mapper> getMapperClass() {
     if (options.getHCatTableName() != null) {
       return SqoopHCatUtilities.getImportMapperClass();
     }
-    if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
+    if (isDynamicPartitionImport()) {
+      return DynamicPartitionImportMapper.class;
+    } else if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
       return TextImportMapper.class;
     } else if (options.getFileLayout()
         == SqoopOptions.FileLayout.SequenceFile) {
@@ -175,7 +230,9 @@ protected Class<? extends OutputFormat> getOutputFormatClass()
       LOG.debug("Returning HCatOutputFormat for output format");
       return SqoopHCatUtilities.getOutputFormatClass();
     }
-    if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
+    if (isDynamicPartitionImport()) {
+      return DynamicPartitionOutputFormat.class;
+    } else if (options.getFileLayout() == SqoopOptions.FileLayout.TextFile) {
       return RawKeyTextOutputFormat.class;
     } else if (options.getFileLayout()
         == SqoopOptions.FileLayout.SequenceFile) {
@@ -221,6 +278,104 @@ private String buildBoundaryQuery(String col, String query) {
         + "FROM (" + query + ") AS " + alias;
   }
 
+  /**
+   * Provide the split column bounding values up front when they are already
+   * known, so that DataDrivenDBInputFormat does not need to run the
+   * bounding query. In order of preference these come from the incremental
+   * last-value range, the values cached by the previous run of a saved job
+   * (only if enabled and the split column is the check column), or the
+   * catalog statistics of the database.
+   */
+  protected void configureBoundingValues(Job job, ConnManager mgr,
+      String tableName, String splitByCol) throws IOException {
+    Configuration conf = job.getConfiguration();
+    if (null == splitByCol || options.getBoundaryQuery() != null) {
+      BoundingValues.clear(conf);
+      return;
+    }
+    conf.set(BoundingValues.COLUMN_KEY, splitByCol);
+
+    BoundingValues bounds = BoundingValues.get(conf);
+    if (null != bounds && !splitByCol.equals(bounds.getColumn())) {
+      BoundingValues.clear(conf);
+      bounds = null;
+    }
+
+    if (null == bounds && isBoundsCacheUsable(conf, splitByCol)) {
+      BoundingValues cached = BoundingValues.fromJson(
+          options.getSplitBoundsCache(), BoundingValues.SOURCE_CACHE);
+      if (null != cached && splitByCol.equals(cached.getColumn())) {
+        bounds = cached;
+      }
+    }
+
+    if (null == bounds && null != tableName
+        && conf.getBoolean(BoundingValues.USE_STATISTICS_KEY, false)) {
+      try {
+        String [] stats = mgr.getSplitColumnBounds(tableName, splitByCol);
+        Integer type = mgr.getColumnTypes(tableName, null).get(splitByCol);
+        if (null != stats && null != type) {
+          bounds = new BoundingValues(splitByCol, type, stats[0], stats[1],
+              false, "catalog statistics");
+        }
+      } catch (SQLException sqlE) {
+        LOG.warn("Could not read statistics for column " + splitByCol
+            + ": " + sqlE);
+      }
+    }
+
+    if (null != bounds) {
+      LOG.info("Using bounding values " + bounds + " for split column "
+          + splitByCol);
+      bounds.store(conf);
+    }
+  }
+
+  /**
+   * @return true if the bounding values of the previous run may be reused.
+   * New rows of an incremental import have check column values above the
+   * previous ones, so if they are split on that column only the maximum
+   * changes, and it is queried again.
+   */
+  private boolean isBoundsCacheUsable(Configuration conf, String splitByCol) {
+    return conf.getBoolean(BoundingValues.CACHE_KEY, false)
+        && options.getIncrementalMode() != SqoopOptions.IncrementalMode.None
+        && splitByCol.equals(options.getIncrementalTestColumn());
+  }
+
+  /**
+   * Split the table by its physical storage if the user asked for it and
+   * the ConnManager supports it.
+   * @return true if physical splits were configured.
+   */
+  private boolean configurePhysicalSplits(Job job, ConnManager mgr,
+      String tableName) throws IOException {
+    Configuration conf = job.getConfiguration();
+    if (!PhysicalSplits.isEnabled(conf) || options.getNumMappers() == 1) {
+      return false;
+    }
+
+    // The ConnManager may have found them already while validating the
+    // import.
+    PhysicalSplits physicalSplits = getContext().getPhysicalSplits();
+    if (null == physicalSplits) {
+      try {
+        physicalSplits = mgr.getPhysicalSplits(tableName);
+      } catch (SQLException sqlE) {
+        throw new IOException("Could not determine physical splits for "
+            + "table " + tableName, sqlE);
+      }
+    }
+    if (null == physicalSplits) {
+      LOG.warn("Physical splits are not available for table " + tableName
+          + "; splitting on the split column instead.");
+      return false;
+    }
+
+    physicalSplits.configure(conf);
+    return true;
+  }
+
   @Override
   protected void configureInputFormat(Job job, String tableName,
       String tableClassName, String splitByCol) throws IOException {
@@ -268,6 +423,9 @@ protected void configureInputFormat(Job job, String tableName,
         if (options.getBoundaryQuery() != null) {
           DataDrivenDBInputFormat.setBoundingQuery(job.getConfiguration(),
                   options.getBoundaryQuery());
+        } else if (configurePhysicalSplits(job, mgr, tableName)) {
+          // The split column bounds do not apply to physical splits.
+          splitByCol = null;
         }
       } else {
         // Import a free-form query.
@@ -284,6 +442,7 @@ protected void configureInputFormat(Job job, String tableName,
         new DBConfiguration(job.getConfiguration()).setInputOrderBy(
             splitByCol);
       }
+      configureBoundingValues(job, mgr, tableName, splitByCol);
       if (options.getRelaxedIsolation()) {
         LOG
           .info("Enabling relaxed (read uncommitted) transaction "
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.sqoop.lib.DelimiterSet;
+import org.apache.sqoop.lib.LargeObjectLoader;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.util.PhaseCounters;
+
+/**
+ * Imports records as plain-text lines keyed by the Hive partition they
+ * belong to. The partition column is removed from the line.
+ */
+public class DynamicPartitionImportMapper
+    extends AutoProgressMapper<LongWritable, SqoopRecord, Text, Text> {
+
+  private Text outkey;
+  private Text outvalue;
+  private String column;
+  private int columnIndex;
+  private DelimiterSet delimiters;
+  private LargeObjectLoader lobLoader;
+  private PhaseCounters phaseCounters;
+
+  public DynamicPartitionImportMapper() {
+    outkey = new Text();
+    outvalue = new Text();
+  }
+
+  @Override
+  protected void setup(Context context)
+      throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    this.column = DynamicPartitions.getColumn(conf);
+    this.columnIndex = conf.getInt(DynamicPartitions.COLUMN_INDEX_KEY, -1);
+    if (columnIndex < 0) {
+      throw new IOException("Position of the dynamic partition column "
+          + column + " is not configured.");
+    }
+    this.delimiters = DynamicPartitions.getDelimiters(conf);
+    this.phaseCounters = new PhaseCounters(conf);
+    this.lobLoader = new LargeObjectLoader(conf,
+        FileOutputFormat.getWorkOutputPath(context));
+  }
+
+  @Override
+  public void map(LongWritable key, SqoopRecord val, Context context)
+      throws IOException, InterruptedException {
+
+    long start = phaseCounters.start();
+    try {
+      // Loading of LOBs was delayed until we have a Context.
+      val.loadLargeObjects(lobLoader);
+    } catch (SQLException sqlE) {
+      throw new IOException(sqlE);
+    }
+    start = phaseCounters.stop(PhaseCounters.Phase.LOB_LOAD, start);
+
+    outkey.set(DynamicPartitions.getPartitionName(column,
+        val.getFieldMap().get(column)));
+    outvalue.set(DynamicPartitions.dropField(val.toString(delimiters, true),
+        columnIndex, delimiters));
+    start = phaseCounters.stop(PhaseCounters.Phase.FORMAT, start);
+    context.write(outkey, outvalue);
+    phaseCounters.stop(PhaseCounters.Phase.WRITE, start);
+  }
+
+  @Override
+  protected void cleanup(Context context) throws IOException {
+    phaseCounters.publish(context);
+    if (null != lobLoader) {
+      lobLoader.close();
+    }
+  }
+}
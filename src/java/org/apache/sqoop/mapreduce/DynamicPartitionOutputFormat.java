@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+import org.apache.hadoop.io.compress.GzipCodec;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.io.BgzfCodec;
+import org.apache.sqoop.io.BgzfOutputStream;
+
+/**
+ * An {@link org.apache.hadoop.mapreduce.OutputFormat} that writes each value
+ * as plain text into the partition directory named by its key.
+ *
+ * A task keeps at most {@link DynamicPartitions#MAX_OPEN_WRITERS_KEY} files
+ * open. When a row arrives for another partition, the least recently used
+ * file is closed; if that partition receives rows again, they go to a new
+ * file with a sequence number appended to its name.
+ */
+public class DynamicPartitionOutputFormat
+    extends RawKeyTextOutputFormat<Text, Text> {
+
+  public static final Log LOG = LogFactory.getLog(
+      DynamicPartitionOutputFormat.class.getName());
+
+  @Override
+  public RecordWriter<Text, Text> getRecordWriter(TaskAttemptContext context)
+      throws IOException {
+    Configuration conf = context.getConfiguration();
+    int maxOpenWriters = Math.max(1, conf.getInt(
+        DynamicPartitions.MAX_OPEN_WRITERS_KEY,
+        DynamicPartitions.DEFAULT_MAX_OPEN_WRITERS));
+    return new PartitionRecordWriter(context, maxOpenWriters);
+  }
+
+  /**
+   * Opens a new file in the given partition of the task's work directory.
+   *
+   * @param sequence the number of files of this partition opened before.
+   */
+  protected DataOutputStream openPartitionFile(TaskAttemptContext context,
+      String partition, int sequence) throws IOException {
+    Configuration conf = context.getConfiguration();
+    CompressionCodec codec = null;
+    String ext = "";
+    if (getCompressOutput(context)) {
+      Class<? extends CompressionCodec> codecClass =
+          getOutputCompressorClass(context, GzipCodec.class);
+      codec = ReflectionUtils.newInstance(codecClass, conf);
+      ext = codec.getDefaultExtension();
+    }
+    if (sequence > 0) {
+      ext = "-" + sequence + ext;
+    }
+
+    Path workPath = getDefaultWorkFile(context, "").getParent();
+    Path file = new Path(new Path(workPath, partition),
+        getUniqueFile(context, getOutputName(context), ext));
+    FileSystem fs = file.getFileSystem(conf);
+    DataOutputStream ostream = fs.create(file, false);
+    if (codec != null) {
+      CompressionOutputStream cout = codec.createOutputStream(ostream);
+      if (cout instanceof BgzfOutputStream && BgzfCodec.isIndexEnabled(conf)) {
+        ((BgzfOutputStream) cout).setIndexFile(fs,
+            BgzfOutputStream.getIndexPath(file));
+      }
+      ostream = new DataOutputStream(cout);
+    }
+    return ostream;
+  }
+
+  /**
+   * Writes the values to the partition files, keeping the most recently
+   * used ones open.
+   */
+  private class PartitionRecordWriter extends RecordWriter<Text, Text> {
+
+    private final TaskAttemptContext context;
+    private final int maxOpenWriters;
+    private final LinkedHashMap<String, DataOutputStream> openWriters;
+    private final Map<String, Integer> filesOpened;
+    private long evictions;
+
+    PartitionRecordWriter(TaskAttemptContext context, int maxOpenWriters) {
+      this.context = context;
+      this.maxOpenWriters = maxOpenWriters;
+      // Access order, so that iteration starts at the least recently used.
+      this.openWriters =
+          new LinkedHashMap<String, DataOutputStream>(16, 0.75f, true);
+      this.filesOpened = new HashMap<String, Integer>();
+    }
+
+    @Override
+    public void write(Text key, Text value) throws IOException {
+      String partition = key.toString();
+      DataOutputStream out = openWriters.get(partition);
+      if (out == null) {
+        if (openWriters.size() >= maxOpenWriters) {
+          closeLeastRecentlyUsed();
+        }
+        Integer opened = filesOpened.get(partition);
+        int sequence = opened == null ? 0 : opened;
+        out = openPartitionFile(context, partition, sequence);
+        filesOpened.put(partition, sequence + 1);
+        openWriters.put(partition, out);
+      }
+      out.write(value.getBytes(), 0, value.getLength());
+    }
+
+    private void closeLeastRecentlyUsed() throws IOException {
+      Iterator<Map.Entry<String, DataOutputStream>> it =
+          openWriters.entrySet().iterator();
+      Map.Entry<String, DataOutputStream> eldest = it.next();
+      it.remove();
+      eldest.getValue().close();
+      evictions++;
+    }
+
+    @Override
+    public void close(TaskAttemptContext ctx) throws IOException {
+      IOException failure = null;
+      for (DataOutputStream out : openWriters.values()) {
+        try {
+          out.close();
+        } catch (IOException ioe) {
+          failure = ioe;
+        }
+      }
+      openWriters.clear();
+      if (evictions > 0) {
+        LOG.info("Wrote " + filesOpened.size() + " partitions; closed "
+            + evictions + " files early to stay within "
+            + maxOpenWriters + " open files.");
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+}
@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.lib.DelimiterSet;
+
+/**
+ * Settings and helpers of the dynamically partitioned Hive import, where
+ * each row is written into the partition directory named after the value of
+ * one of its columns. The partition column is dropped from the data files,
+ * as Hive stores it in the directory name only.
+ */
+public final class DynamicPartitions {
+
+  /** Name of the imported column whose values name the partitions. */
+  public static final String COLUMN_KEY =
+      "sqoop.hive.dynamic.partition.column";
+
+  /** Position of the partition column in the imported records. */
+  public static final String COLUMN_INDEX_KEY =
+      "sqoop.hive.dynamic.partition.column.index";
+
+  /**
+   * Maximum number of partition files a task keeps open; the least recently
+   * used one is closed when another partition has to be opened.
+   */
+  public static final String MAX_OPEN_WRITERS_KEY =
+      "sqoop.hive.dynamic.partition.max.open.writers";
+
+  public static final int DEFAULT_MAX_OPEN_WRITERS = 16;
+
+  /**
+   * If true, the rows are shuffled to reducers that each receive the rows
+   * of a partition together, so that only one file is open at a time.
+   */
+  public static final String SHUFFLE_KEY =
+      "sqoop.hive.dynamic.partition.shuffle";
+
+  /** Name Hive gives to the partition of null and empty values. */
+  public static final String DEFAULT_PARTITION_NAME =
+      "__HIVE_DEFAULT_PARTITION__";
+
+  private static final String FIELD_DELIM_KEY =
+      "sqoop.hive.dynamic.partition.fields.terminated.by";
+  private static final String RECORD_DELIM_KEY =
+      "sqoop.hive.dynamic.partition.lines.terminated.by";
+  private static final String ENCLOSED_BY_KEY =
+      "sqoop.hive.dynamic.partition.enclosed.by";
+  private static final String ESCAPED_BY_KEY =
+      "sqoop.hive.dynamic.partition.escaped.by";
+  private static final String ENCLOSE_REQUIRED_KEY =
+      "sqoop.hive.dynamic.partition.enclose.required";
+
+  private DynamicPartitions() {
+  }
+
+  /**
+   * @return true if the import is dynamically partitioned.
+   */
+  public static boolean isEnabled(Configuration conf) {
+    return conf != null && conf.get(COLUMN_KEY) != null;
+  }
+
+  public static String getColumn(Configuration conf) {
+    return conf.get(COLUMN_KEY);
+  }
+
+  /**
+   * Stores the position of the partition column and the delimiters of the
+   * records for the tasks.
+   *
+   * @param colNames the imported columns, in the order of the record fields.
+   * @throws IOException if the partition column is not imported.
+   */
+  public static void configure(Configuration conf, String[] colNames,
+      DelimiterSet delimiters) throws IOException {
+    String column = getColumn(conf);
+    int index = -1;
+    for (int i = 0; i < colNames.length; i++) {
+      if (colNames[i].equals(column)) {
+        index = i;
+        break;
+      }
+    }
+    if (index < 0) {
+      throw new IOException("Dynamic partition column " + column
+          + " is not one of the imported columns.");
+    }
+
+    conf.setInt(COLUMN_INDEX_KEY, index);
+    conf.setInt(FIELD_DELIM_KEY, delimiters.getFieldsTerminatedBy());
+    conf.setInt(RECORD_DELIM_KEY, delimiters.getLinesTerminatedBy());
+    conf.setInt(ENCLOSED_BY_KEY, delimiters.getEnclosedBy());
+    conf.setInt(ESCAPED_BY_KEY, delimiters.getEscapedBy());
+    conf.setBoolean(ENCLOSE_REQUIRED_KEY, delimiters.isEncloseRequired());
+  }
+
+  /**
+   * @return the delimiters stored by {@link #configure}.
+   */
+  public static DelimiterSet getDelimiters(Configuration conf) {
+    return new DelimiterSet(
+        (char) conf.getInt(FIELD_DELIM_KEY, ','),
+        (char) conf.getInt(RECORD_DELIM_KEY, '\n'),
+        (char) conf.getInt(ENCLOSED_BY_KEY, DelimiterSet.NULL_CHAR),
+        (char) conf.getInt(ESCAPED_BY_KEY, DelimiterSet.NULL_CHAR),
+        conf.getBoolean(ENCLOSE_REQUIRED_KEY, false));
+  }
+
+  /**
+   * @return the name of the partition directory holding the rows with the
+   * given value, e.g. "country=US".
+   */
+  public static String getPartitionName(String column, Object value) {
+    String str = value == null ? null : value.toString();
+    if (str == null || str.isEmpty()) {
+      str = DEFAULT_PARTITION_NAME;
+    } else {
+      str = escapePathName(str);
+    }
+    return column + "=" + str;
+  }
+
+  /**
+   * @return the partition value named by a partition directory.
+   */
+  public static String getPartitionValue(String partitionName) {
+    return unescapePathName(
+        partitionName.substring(partitionName.indexOf('=') + 1));
+  }
+
+  /**
+   * @return the partition directories directly below the given directory.
+   */
+  public static List<Path> listPartitions(FileSystem fs, Path dir,
+      String column) throws IOException {
+    List<Path> partitions = new ArrayList<Path>();
+    if (!fs.exists(dir)) {
+      return partitions;
+    }
+    for (FileStatus status : fs.listStatus(dir)) {
+      if (status.isDirectory()
+          && status.getPath().getName().startsWith(column + "=")) {
+        partitions.add(status.getPath());
+      }
+    }
+    return partitions;
+  }
+
+  /**
+   * Escapes the characters that cannot appear in a partition directory name
+   * the same way Hive does, as %XX.
+   */
+  static String escapePathName(String value) {
+    StringBuilder sb = null;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (needsEscaping(c)) {
+        if (sb == null) {
+          sb = new StringBuilder(value.substring(0, i));
+        }
+        sb.append('%').append(String.format("%02X", (int) c));
+      } else if (sb != null) {
+        sb.append(c);
+      }
+    }
+    return sb == null ? value : sb.toString();
+  }
+
+  static String unescapePathName(String name) {
+    StringBuilder sb = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '%' && i + 2 < name.length()
+          && isHexDigit(name.charAt(i + 1)) && isHexDigit(name.charAt(i + 2))) {
+        sb.append((char) Integer.parseInt(name.substring(i + 1, i + 3), 16));
+        i += 2;
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static boolean needsEscaping(char c) {
+    return c < ' ' || c == '\u007F' || "\"#%'*/:=?\\{[]^".indexOf(c) >= 0;
+  }
+
+  private static boolean isHexDigit(char c) {
+    return Character.digit(c, 16) >= 0;
+  }
+
+  /**
+   * Removes one field from a formatted record, keeping the formatting of the
+   * other fields intact.
+   *
+   * @param line the record as formatted with the given delimiters.
+   * @param index the position of the field to remove.
+   */
+  static String dropField(String line, int index, DelimiterSet delimiters) {
+    char fieldDelim = delimiters.getFieldsTerminatedBy();
+    char recordDelim = delimiters.getLinesTerminatedBy();
+    char enclosedBy = delimiters.getEnclosedBy();
+    char escapedBy = delimiters.getEscapedBy();
+
+    int field = 0;
+    int fieldStart = index == 0 ? 0 : -1;
+    int fieldEnd = line.length();
+    boolean enclosed = false;
+    boolean escaped = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (escaped) {
+        escaped = false;
+      } else if (escapedBy != DelimiterSet.NULL_CHAR && c == escapedBy) {
+        escaped = true;
+      } else if (enclosedBy != DelimiterSet.NULL_CHAR && c == enclosedBy) {
+        enclosed = !enclosed;
+      } else if (enclosed) {
+        continue;
+      } else if (c == fieldDelim) {
+        field++;
+        if (field == index) {
+          fieldStart = i + 1;
+        } else if (field == index + 1) {
+          // The field is followed by another one; drop its delimiter too.
+          return line.substring(0, fieldStart) + line.substring(i + 1);
+        }
+      } else if (c == recordDelim) {
+        fieldEnd = i;
+        break;
+      }
+    }
+
+    if (fieldStart < 0) {
+      return line;
+    }
+    // The last field; drop the delimiter in front of it.
+    return line.substring(0, Math.max(fieldStart - 1, 0))
+        + line.substring(fieldEnd);
+  }
+}
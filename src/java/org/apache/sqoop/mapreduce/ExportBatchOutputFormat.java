@@ -22,9 +22,13 @@
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.sqoop.lib.SqoopRecord;
@@ -32,6 +36,10 @@
 /**
  * This class uses batch mode to execute underlying statements instead of
  * using a single multirow insert statement as its superclass.
+ *
+ * PreparedStatements are cached for the lifetime of the connection, so the
+ * driver parses each distinct INSERT only once per task. Optionally, each
+ * batched statement may itself carry several rows in its VALUES clause.
  */
 public class ExportBatchOutputFormat<K extends SqoopRecord, V>
     extends ExportOutputFormat<K, V> {
@@ -39,6 +47,32 @@
   private static final Log LOG =
       LogFactory.getLog(ExportBatchOutputFormat.class);
 
+  /**
+   * conf key: if true, each batched INSERT carries several rows in its
+   * VALUES clause, as many as the parameter limit allows.
+   */
+  public static final String MULTIROW_VALUES_KEY =
+      "sqoop.export.batch.multirow.values";
+
+  /**
+   * conf key: maximum number of bind parameters the driver accepts in one
+   * statement. Used to size multi-row VALUES clauses.
+   */
+  public static final String MAX_PARAMETERS_KEY =
+      "sqoop.export.batch.max.parameters";
+
+  /**
+   * Default parameter limit; SQL Server's limit of 2100 is the lowest
+   * among the commonly used drivers.
+   */
+  public static final int DEFAULT_MAX_PARAMETERS = 2000;
+
+  /**
+   * Most rows in one VALUES clause; SQL Server rejects table value
+   * constructors with more than 1000 rows.
+   */
+  public static final int MAX_VALUES_ROWS = 1000;
+
   @Override
   /** {@inheritDoc} */
   public RecordWriter<K, V> getRecordWriter(TaskAttemptContext context)
@@ -50,6 +84,22 @@ public RecordWriter<K, V> getRecordWriter(TaskAttemptContext context)
     }
   }
 
+  /**
+   * Number of rows to put in each VALUES clause. This depends only on the
+   * parameter limit; the number of rows buffered per batch is still set by
+   * the records per statement.
+   * @param conf the job configuration.
+   * @param numSlots the number of columns in each row.
+   */
+  static int getRowsPerValues(Configuration conf, int numSlots) {
+    if (!conf.getBoolean(MULTIROW_VALUES_KEY, false) || numSlots <= 0) {
+      return 1;
+    }
+
+    int maxParams = conf.getInt(MAX_PARAMETERS_KEY, DEFAULT_MAX_PARAMETERS);
+    return Math.max(1, Math.min(MAX_VALUES_ROWS, maxParams / numSlots));
+  }
+
   /**
    * RecordWriter to write the output to a row in a database table.
    * The actual database updates are executed in a second thread.
@@ -57,9 +107,32 @@ public RecordWriter<K, V> getRecordWriter(TaskAttemptContext context)
   public class ExportBatchRecordWriter<K extends SqoopRecord, V>
     extends ExportRecordWriter {
 
+    // Rows in each VALUES clause.
+    private final int rowsPerValues;
+
+    // Cached statements, keyed by the number of rows in the VALUES clause.
+    // Each key holds two statements used alternately: the execution thread
+    // may still be running the previous batch while the next one is bound,
+    // but never the one before that.
+    private final Map<Integer, PreparedStatement[]> statements =
+        new HashMap<Integer, PreparedStatement[]>();
+    private final Map<Integer, Integer> nextStatement =
+        new HashMap<Integer, Integer>();
+
     public ExportBatchRecordWriter(TaskAttemptContext context)
         throws ClassNotFoundException, SQLException {
       super(context);
+
+      int numSlots = null != columnNames ? columnNames.length : columnCount;
+      this.rowsPerValues = getRowsPerValues(getConf(), numSlots);
+      if (rowsPerValues > 1) {
+        LOG.info("Using " + rowsPerValues + " rows per batched INSERT");
+        if (rowsPerStmt < 2 * rowsPerValues) {
+          LOG.warn("Each batch of " + rowsPerStmt + " records holds fewer "
+              + "than two INSERTs of " + rowsPerValues + " rows; consider "
+              + "raising " + AsyncSqlOutputFormat.RECORDS_PER_STATEMENT_KEY);
+        }
+      }
     }
 
     @Override
@@ -71,18 +144,46 @@ protected boolean isBatchExec() {
 
     @Override
     /** {@inheritDoc} */
-    protected PreparedStatement getPreparedStatement(
-        List<SqoopRecord> userRecords) throws SQLException {
+    protected boolean isStatementReusable() {
+      return true;
+    }
+
+    /**
+     * @return a cached statement that inserts numRows rows, with no batched
+     * parameters.
+     */
+    private PreparedStatement getCachedStatement(int numRows)
+        throws SQLException {
+      PreparedStatement [] pair = statements.get(numRows);
+      if (null == pair) {
+        pair = new PreparedStatement[2];
+        statements.put(numRows, pair);
+      }
 
-      PreparedStatement stmt = null;
+      Integer next = nextStatement.get(numRows);
+      int idx = null == next ? 0 : next;
+      nextStatement.put(numRows, 1 - idx);
 
-      // Synchronize on connection to ensure this does not conflict
-      // with the operations in the update thread.
-      Connection conn = getConnection();
-      synchronized (conn) {
-        stmt = conn.prepareStatement(getInsertStatement(userRecords.size()));
+      if (null == pair[idx]) {
+        // Synchronize on connection to ensure this does not conflict
+        // with the operations in the update thread.
+        Connection conn = getConnection();
+        synchronized (conn) {
+          pair[idx] = conn.prepareStatement(getInsertStatement(numRows));
+        }
+      } else {
+        pair[idx].clearBatch();
       }
 
+      return pair[idx];
+    }
+
+    @Override
+    /** {@inheritDoc} */
+    protected PreparedStatement getPreparedStatement(
+        List<SqoopRecord> userRecords) throws SQLException {
+      PreparedStatement stmt = getCachedStatement(1);
+
       // Inject the record parameters into the VALUES clauses.
       for (SqoopRecord record : userRecords) {
         record.write(stmt, 0);
@@ -92,48 +193,63 @@ protected PreparedStatement getPreparedStatement(
       return stmt;
     }
 
-    /**
-     * @return an INSERT statement.
-     */
-    protected String getInsertStatement(int numRows) {
-      StringBuilder sb = new StringBuilder();
-
-      sb.append("INSERT INTO " + tableName + " ");
-
-      int numSlots;
-      if (this.columnNames != null) {
-        numSlots = this.columnNames.length;
+    @Override
+    /** {@inheritDoc} */
+    protected List<PreparedStatement> getPreparedStatements(
+        List<SqoopRecord> userRecords) throws SQLException {
+      if (rowsPerValues == 1) {
+        return super.getPreparedStatements(userRecords);
+      }
 
-        sb.append("(");
-        boolean first = true;
-        for (String col : columnNames) {
-          if (!first) {
-            sb.append(", ");
-          }
+      List<PreparedStatement> stmts = new ArrayList<PreparedStatement>(2);
+      int numRecords = userRecords.size();
+      int fullRows = numRecords - numRecords % rowsPerValues;
+      if (fullRows > 0) {
+        stmts.add(bindRows(userRecords.subList(0, fullRows), rowsPerValues));
+      }
+      if (fullRows < numRecords) {
+        stmts.add(bindRows(userRecords.subList(fullRows, numRecords),
+            numRecords - fullRows));
+      }
+      return stmts;
+    }
 
-          sb.append(col);
-          first = false;
+    /**
+     * Bind records into a batch of INSERT statements of valuesRows rows
+     * each. The number of records must be a multiple of valuesRows.
+     */
+    private PreparedStatement bindRows(List<SqoopRecord> userRecords,
+        int valuesRows) throws SQLException {
+      PreparedStatement stmt = getCachedStatement(valuesRows);
+      int position = 0;
+      int rowsInStmt = 0;
+      for (SqoopRecord record : userRecords) {
+        position += record.write(stmt, position);
+        if (++rowsInStmt == valuesRows) {
+          stmt.addBatch();
+          position = 0;
+          rowsInStmt = 0;
         }
-
-        sb.append(") ");
-      } else {
-        numSlots = this.columnCount; // set if columnNames is null.
       }
+      return stmt;
+    }
 
-      sb.append("VALUES ");
-
-      // generates the (?, ?, ?...).
-      sb.append("(");
-      for (int i = 0; i < numSlots; i++) {
-        if (i != 0) {
-          sb.append(", ");
+    @Override
+    /** {@inheritDoc} */
+    public void closeConnection(TaskAttemptContext context)
+        throws SQLException {
+      try {
+        for (PreparedStatement [] pair : statements.values()) {
+          for (PreparedStatement stmt : pair) {
+            if (null != stmt) {
+              stmt.close();
+            }
+          }
         }
-
-        sb.append("?");
+        statements.clear();
+      } finally {
+        super.closeConnection(context);
       }
-      sb.append(")");
-
-      return sb.toString();
     }
   }
 }
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.lib.SqoopRecord;
+
+/**
+ * Writes the records of one export task into the database in batches.
+ *
+ * Engines are driven by {@link ExportEngineOutputFormat}. An engine is
+ * opened on the task thread, receives its batches one at a time on a
+ * single background thread, and is committed and closed on the task thread
+ * after that thread has finished. Implementations therefore do not need to
+ * be thread-safe, but must not hand out their connection to other threads.
+ *
+ * Implementations need a public no-argument constructor. If they implement
+ * Configurable, they receive the job configuration on creation.
+ */
+public interface ExportEngine extends Closeable {
+
+  /**
+   * Connect to the database and prepare to receive records.
+   */
+  void open(TaskAttemptContext context) throws IOException;
+
+  /**
+   * Write one batch of records. The batch is owned by the engine once this
+   * method is called.
+   */
+  void write(List<SqoopRecord> batch) throws IOException;
+
+  /**
+   * Make all records written so far durable. Called once, after the last
+   * batch has been written.
+   */
+  void commit() throws IOException;
+
+  /**
+   * Release the connection. Called whether or not the task succeeded;
+   * uncommitted records are discarded.
+   */
+  @Override
+  void close() throws IOException;
+}
@@ -0,0 +1,326 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.hadoop.util.StringUtils;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.postgresql.PostgreSQLTaskStaging;
+import org.apache.sqoop.util.PhaseCounters;
+
+/**
+ * OutputFormat that exports records through a pluggable
+ * {@link ExportEngine}.
+ *
+ * The task thread collects records into batches and hands them to a
+ * background thread which writes them with the engine. At most a bounded
+ * number of batches are in flight; once they are all taken, the task
+ * thread blocks until the engine has written one, so a slow database
+ * throttles the mapper instead of filling up its memory.
+ *
+ * The time spent writing each batch is recorded in the EXECUTE phase and
+ * the time the mapper is held back in the WAIT phase of the
+ * {@link PhaseCounters}.
+ */
+public class ExportEngineOutputFormat<K extends SqoopRecord, V>
+    extends OutputFormat<K, V> {
+
+  private static final Log LOG =
+      LogFactory.getLog(ExportEngineOutputFormat.class);
+
+  /**
+   * The export engine: "jdbc", "postgresql-copy", "sqlserver-bulkcopy" or
+   * the name of a class implementing ExportEngine.
+   */
+  public static final String ENGINE_KEY = "sqoop.export.engine";
+
+  /** Number of records per batch; defaults to the records per statement. */
+  public static final String BATCH_RECORDS_KEY =
+      "sqoop.export.engine.batch.records";
+
+  /** Maximum number of batches handed to the engine and not yet written. */
+  public static final String MAX_IN_FLIGHT_KEY =
+      "sqoop.export.engine.max.inflight.batches";
+
+  public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+
+  public static final String JDBC_ENGINE = "jdbc";
+
+  public static final String POSTGRESQL_COPY_ENGINE = "postgresql-copy";
+
+  private static final String POSTGRESQL_COPY_ENGINE_CLASS =
+      "org.apache.sqoop.mapreduce.postgresql.PostgreSQLCopyExportEngine";
+
+  public static final String SQLSERVER_BULK_COPY_ENGINE = "sqlserver-bulkcopy";
+
+  private static final String SQLSERVER_BULK_COPY_ENGINE_CLASS =
+      "org.apache.sqoop.mapreduce.sqlserver.SqlServerBulkCopyExportEngine";
+
+  /**
+   * @return true if the export should go through an ExportEngine.
+   */
+  public static boolean isEnabled(Configuration conf) {
+    String engine = conf.get(ENGINE_KEY);
+    return null != engine && !engine.trim().isEmpty();
+  }
+
+  /**
+   * @return the ExportEngine implementation configured in ENGINE_KEY.
+   */
+  public static Class<? extends ExportEngine> getEngineClass(
+      Configuration conf) throws IOException {
+    String engine = conf.getTrimmed(ENGINE_KEY, JDBC_ENGINE);
+    if (JDBC_ENGINE.equalsIgnoreCase(engine)) {
+      return JdbcBatchExportEngine.class;
+    }
+    if (POSTGRESQL_COPY_ENGINE.equalsIgnoreCase(engine)) {
+      engine = POSTGRESQL_COPY_ENGINE_CLASS;
+    }
+    if (SQLSERVER_BULK_COPY_ENGINE.equalsIgnoreCase(engine)) {
+      engine = SQLSERVER_BULK_COPY_ENGINE_CLASS;
+    }
+
+    try {
+      return conf.getClassByName(engine).asSubclass(ExportEngine.class);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Could not load export engine " + engine, cnfe);
+    } catch (ClassCastException cce) {
+      throw new IOException(engine + " is not an export engine", cce);
+    }
+  }
+
+  @Override
+  public void checkOutputSpecs(JobContext context)
+      throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    Class<? extends ExportEngine> engineClass = getEngineClass(conf);
+    if (POSTGRESQL_COPY_ENGINE_CLASS.equals(engineClass.getName())
+        && PostgreSQLTaskStaging.isEnabled(conf)) {
+      // Fail at submission; in open() it would use up every task attempt.
+      throw new IOException("Per-task staging tables ("
+          + PostgreSQLTaskStaging.TASK_STAGING_KEY + ") are only supported "
+          + "by the direct PostgreSQL export, not by the "
+          + POSTGRESQL_COPY_ENGINE + " export engine");
+    }
+  }
+
+  @Override
+  public OutputCommitter getOutputCommitter(TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    return new NullOutputCommitter();
+  }
+
+  @Override
+  public RecordWriter<K, V> getRecordWriter(TaskAttemptContext context)
+      throws IOException, InterruptedException {
+    Configuration conf = context.getConfiguration();
+    ExportEngine engine = ReflectionUtils.newInstance(getEngineClass(conf),
+        conf);
+    try {
+      engine.open(context);
+    } catch (IOException ioe) {
+      engine.close();
+      throw ioe;
+    }
+    return new ExportEngineRecordWriter<K, V>(conf, engine);
+  }
+
+  /**
+   * RecordWriter feeding batches of records to an ExportEngine on a
+   * background thread.
+   */
+  public static class ExportEngineRecordWriter<K extends SqoopRecord, V>
+      extends RecordWriter<K, V> {
+
+    // Marks the end of the input in the queue.
+    private static final List<SqoopRecord> END_OF_INPUT =
+        Collections.unmodifiableList(new ArrayList<SqoopRecord>());
+
+    // How often a blocked task thread checks for a failed engine.
+    private static final long POLL_MILLIS = 100;
+
+    private final ExportEngine engine;
+    private final int batchSize;
+    private final BlockingQueue<List<SqoopRecord>> queue;
+    private final Thread execThread;
+
+    private List<SqoopRecord> records;
+    private boolean closed;
+
+    // Set by the exec thread when the engine fails.
+    private volatile IOException error;
+
+    // Timings of the task thread (WAIT) and of the exec thread (EXECUTE).
+    // The latter is only read once the exec thread has been joined.
+    private final PhaseCounters phaseCounters;
+    private final PhaseCounters execCounters;
+    private long numRecords;
+    private long maxBatchNanos;
+
+    public ExportEngineRecordWriter(Configuration conf, ExportEngine engine) {
+      this.engine = engine;
+      this.batchSize = Math.max(1, conf.getInt(BATCH_RECORDS_KEY,
+          conf.getInt(AsyncSqlOutputFormat.RECORDS_PER_STATEMENT_KEY,
+              AsyncSqlOutputFormat.DEFAULT_RECORDS_PER_STATEMENT)));
+      this.queue = new ArrayBlockingQueue<List<SqoopRecord>>(
+          Math.max(1, conf.getInt(MAX_IN_FLIGHT_KEY, DEFAULT_MAX_IN_FLIGHT)));
+      this.records = new ArrayList<SqoopRecord>(batchSize);
+      this.phaseCounters = new PhaseCounters(conf);
+      // Batch latencies are always recorded for the summary in close().
+      this.execCounters = new PhaseCounters(true);
+
+      this.execThread = new Thread("ExportEngine-" + engine.getClass()
+          .getSimpleName()) {
+        @Override
+        public void run() {
+          writeBatches();
+        }
+      };
+      this.execThread.setDaemon(true);
+      this.execThread.start();
+    }
+
+    private void writeBatches() {
+      try {
+        while (true) {
+          List<SqoopRecord> batch = queue.take();
+          if (batch == END_OF_INPUT) {
+            return;
+          }
+
+          long start = execCounters.start();
+          engine.write(batch);
+          long elapsed = System.nanoTime() - start;
+          execCounters.add(PhaseCounters.Phase.EXECUTE, elapsed);
+          maxBatchNanos = Math.max(maxBatchNanos, elapsed);
+        }
+      } catch (InterruptedException ie) {
+        error = new IOException("Interrupted while waiting for records", ie);
+      } catch (IOException ioe) {
+        error = ioe;
+      } catch (RuntimeException re) {
+        error = new IOException(re);
+      }
+      LOG.error("Export engine failed: "
+          + StringUtils.stringifyException(error));
+    }
+
+    /**
+     * Rethrow the failure of the exec thread, if any.
+     */
+    private void checkError() throws IOException {
+      IOException e = error;
+      if (null != e) {
+        throw new IOException("Export engine failed", e);
+      }
+    }
+
+    /**
+     * Hand a batch to the exec thread, blocking while the maximum number
+     * of batches are in flight.
+     */
+    private void submit(List<SqoopRecord> batch)
+        throws IOException, InterruptedException {
+      checkError();
+      long start = phaseCounters.start();
+      while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        checkError();
+        if (!execThread.isAlive()) {
+          throw new IOException("Export engine thread has stopped");
+        }
+      }
+      phaseCounters.stop(PhaseCounters.Phase.WAIT, start);
+    }
+
+    @Override
+    public void write(K key, V value)
+        throws IOException, InterruptedException {
+      try {
+        records.add((SqoopRecord) key.clone());
+      } catch (CloneNotSupportedException cnse) {
+        throw new IOException("Could not buffer record", cnse);
+      }
+      numRecords++;
+      if (records.size() >= batchSize) {
+        submit(records);
+        records = new ArrayList<SqoopRecord>(batchSize);
+      }
+    }
+
+    @Override
+    public void close(TaskAttemptContext context)
+        throws IOException, InterruptedException {
+      // The framework may call close() again after it has thrown.
+      if (closed) {
+        return;
+      }
+      closed = true;
+
+      try {
+        if (!records.isEmpty()) {
+          submit(records);
+          records = Collections.emptyList();
+        }
+        submit(END_OF_INPUT);
+        execThread.join();
+        checkError();
+        engine.commit();
+        logSummary();
+
+        phaseCounters.addAll(execCounters);
+        phaseCounters.publish(context);
+      } finally {
+        if (execThread.isAlive()) {
+          execThread.interrupt();
+          execThread.join();
+        }
+        engine.close();
+      }
+    }
+
+    private void logSummary() {
+      long batches = execCounters.getCount(PhaseCounters.Phase.EXECUTE);
+      if (batches == 0) {
+        return;
+      }
+      long nanos = execCounters.getNanos(PhaseCounters.Phase.EXECUTE);
+      LOG.info("Exported " + numRecords + " records in " + batches
+          + " batches; batch latency mean " + (nanos / batches / 1000000)
+          + " ms, max " + (maxBatchNanos / 1000000) + " ms; waited "
+          + (phaseCounters.getNanos(PhaseCounters.Phase.WAIT) / 1000000)
+          + " ms for in-flight batches");
+    }
+  }
+}
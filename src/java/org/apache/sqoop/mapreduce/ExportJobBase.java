@@ -24,6 +24,7 @@
 import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.manager.ExportJobContext;
 import org.apache.sqoop.orm.TableClassName;
+import org.apache.sqoop.util.AppendUtils;
 import org.apache.sqoop.util.ExportException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -42,6 +43,7 @@
 import org.apache.sqoop.mapreduce.hcat.SqoopHCatUtilities;
 import org.apache.sqoop.util.LoggingUtils;
 import org.apache.sqoop.util.PerfCounters;
+import org.apache.sqoop.util.PhaseCounters;
 import org.apache.sqoop.validation.ValidationContext;
 import org.apache.sqoop.validation.ValidationException;
 
@@ -240,7 +242,9 @@ protected void configureInputFormat(Job job, String tableName,
 
     super.configureInputFormat(job, tableName, tableClassName, splitByCol);
     if (!isHCatJob) {
-      FileInputFormat.addInputPath(job, getInputPath());
+      Path inputPath = getInputPath();
+      FileInputFormat.addInputPath(job, inputPath);
+      AppendUtils.addManifestInputPaths(job, inputPath);
     }
   }
 
@@ -308,6 +312,10 @@ protected boolean runJob(Job job) throws ClassNotFoundException, IOException,
       perfCounters.addBytes(jobCounters.getGroup("FileSystemCounters")
         .findCounter("HDFS_BYTES_READ").getValue());
       LOG.info("Transferred " + perfCounters.toString());
+      String phaseBreakdown = PhaseCounters.formatBreakdown(jobCounters);
+      if (null != phaseBreakdown) {
+        LOG.info(phaseBreakdown);
+      }
       long numRecords =  ConfigurationHelper.getNumMapInputRecords(job);
       LOG.info("Exported " + numRecords + " records.");
     }
@@ -461,6 +469,8 @@ public void runExport() throws ExportException, IOException {
     } finally {
       unloadJars();
       jobTeardown(job);
+      // Tasks may have created or dropped tables behind our back.
+      context.getConnManager().invalidateMetadataCache();
     }
 
     // Unstage the data if needed
@@ -468,7 +478,7 @@ public void runExport() throws ExportException, IOException {
       // Migrate data from staging table to the output table
       try {
         LOG.info("Starting to migrate data from staging table to destination.");
-        cmgr.migrateData(stagingTableName, outputTableName);
+        migrateStagedData(stagingTableName, outputTableName);
       } catch (SQLException ex) {
         LoggingUtils.logAll(LOG, "Failed to move data from staging table ("
           + stagingTableName + ") to target table ("
@@ -479,6 +489,16 @@ public void runExport() throws ExportException, IOException {
     }
   }
 
+  /**
+   * Move the data of a successful export from the staging table to the
+   * output table. Update-based exports override this to merge the staged
+   * rows into the existing ones.
+   */
+  protected void migrateStagedData(String stagingTableName,
+      String outputTableName) throws SQLException {
+    context.getConnManager().migrateData(stagingTableName, outputTableName);
+  }
+
   protected void validateExport(String tableName, Configuration conf, Job job)
     throws ExportException {
     LOG.debug("Validating exported data.");
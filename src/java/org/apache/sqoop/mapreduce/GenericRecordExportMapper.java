@@ -47,6 +47,35 @@
 
   private SqoopRecord recordImpl;
 
+  /**
+   * The Avro schema the current bindings were resolved against. Input files
+   * normally share one schema, so the bindings are resolved once per task.
+   */
+  private Schema boundSchema;
+
+  private FieldBinding[] bindings;
+
+  /**
+   * Resolved mapping of one exported column from its Avro field position
+   * to its position in the record class.
+   */
+  private static final class FieldBinding {
+    private final int avroPos;
+    private final Schema avroSchema;
+    private final String columnType;
+    private final String columnName;
+    private final int recordIndex;
+
+    FieldBinding(int avroPos, Schema avroSchema, String columnType,
+        String columnName, int recordIndex) {
+      this.avroPos = avroPos;
+      this.avroSchema = avroSchema;
+      this.columnType = columnType;
+      this.columnName = columnName;
+      this.recordIndex = recordIndex;
+    }
+  }
+
   @Override
   protected void setup(Context context) throws IOException, InterruptedException {
     super.setup(context);
@@ -84,6 +113,33 @@ protected void setup(Context context) throws IOException, InterruptedException {
 
   protected SqoopRecord toSqoopRecord(GenericRecord record) throws IOException {
     Schema avroSchema = record.getSchema();
+    if (avroSchema != boundSchema) {
+      bindings = bind(avroSchema);
+      boundSchema = avroSchema;
+    }
+
+    for (FieldBinding binding : bindings) {
+      Object avroObject = record.get(binding.avroPos);
+      Object fieldVal = AvroUtil.fromAvro(avroObject, binding.avroSchema,
+          binding.columnType);
+      if (binding.recordIndex >= 0) {
+        recordImpl.setField(binding.recordIndex, fieldVal);
+      } else {
+        recordImpl.setField(binding.columnName, fieldVal);
+      }
+    }
+    return recordImpl;
+  }
+
+  /**
+   * Resolves every exported column to its Avro field position and to its
+   * position in the record class, so that records can be converted without
+   * any per-row name lookups. Record classes generated before positional
+   * access was added fall back to setting fields by name.
+   */
+  private FieldBinding[] bind(Schema avroSchema) throws IOException {
+    FieldBinding[] result = new FieldBinding[columnTypes.size()];
+    int i = 0;
     for (Map.Entry<Writable, Writable> e : columnTypes.entrySet()) {
       String columnName = e.getKey().toString();
       String columnType = e.getValue().toString();
@@ -93,12 +149,10 @@ protected SqoopRecord toSqoopRecord(GenericRecord record) throws IOException {
         throw new IOException("Cannot find field " + cleanedCol
             + " in Avro schema " + avroSchema);
       }
-
-      Object avroObject = record.get(field.name());
-      Object fieldVal = AvroUtil.fromAvro(avroObject, field.schema(), columnType);
-      recordImpl.setField(cleanedCol, fieldVal);
+      result[i++] = new FieldBinding(field.pos(), field.schema(), columnType,
+          cleanedCol, recordImpl.getFieldIndex(cleanedCol));
     }
-    return recordImpl;
+    return result;
   }
 
   private static Schema.Field getFieldIgnoreCase(Schema avroSchema,
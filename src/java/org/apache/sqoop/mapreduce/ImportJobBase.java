@@ -40,8 +40,13 @@
 import org.apache.hadoop.mapreduce.OutputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
+import org.apache.sqoop.mapreduce.db.BoundingValues;
+import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+import org.apache.sqoop.mapreduce.db.ImportCheckpoint;
 import org.apache.sqoop.mapreduce.hcat.SqoopHCatUtilities;
+import org.apache.sqoop.util.FileSystemUtil;
 import org.apache.sqoop.util.PerfCounters;
+import org.apache.sqoop.util.PhaseCounters;
 import org.apache.sqoop.validation.ValidationContext;
 import org.apache.sqoop.validation.ValidationException;
 
@@ -118,6 +123,7 @@ protected void configureOutputFormat(Job job, String tableName,
         codecClass = GzipCodec.class;
       } else {
         Configuration conf = job.getConfiguration();
+        CodecMap.configureCompressionLevel(codecName, conf);
         codecClass = CodecMap.getCodec(codecName, conf).getClass();
       }
       FileOutputFormat.setOutputCompressorClass(job, codecClass);
@@ -188,6 +194,10 @@ protected boolean runJob(Job job) throws ClassNotFoundException, IOException,
       perfCounters.addBytes(jobCounters.getGroup("FileSystemCounters")
         .findCounter("HDFS_BYTES_WRITTEN").getValue());
       LOG.info("Transferred " + perfCounters.toString());
+      String phaseBreakdown = PhaseCounters.formatBreakdown(jobCounters);
+      if (null != phaseBreakdown) {
+        LOG.info(phaseBreakdown);
+      }
       long numRecords = ConfigurationHelper.getNumMapOutputRecords(job);
       LOG.info("Retrieved " + numRecords + " records.");
     }
@@ -266,6 +276,10 @@ public void runImport(String tableName, String ormJarFile, String splitByCol,
       configureMapper(job, tableName, tableClassName);
       configureNumTasks(job);
       cacheJars(job, getContext().getConnManager());
+      ImportCheckpoint checkpoint = null;
+      if (options.isResume()) {
+        checkpoint = configureCheckpoint(job);
+      }
 
       jobSetup(job);
       setJob(job);
@@ -274,7 +288,11 @@ public void runImport(String tableName, String ormJarFile, String splitByCol,
         throw new ImportException("Import job failed!");
       }
 
+      if (null != checkpoint) {
+        checkpoint.complete(context.getDestination(), job.getConfiguration());
+      }
       completeImport(job);
+      cacheBoundingValues(job);
 
       if (options.isValidationEnabled()) {
         validateImport(tableName, conf, job);
@@ -296,6 +314,51 @@ public void runImport(String tableName, String ormJarFile, String splitByCol,
     }
   }
 
+  /**
+   * Checkpoint the completed split ranges of the import, resuming from the
+   * checkpoint of an earlier failed run of the same import if there is one.
+   * @return the checkpoint, or null if the import cannot be checkpointed.
+   */
+  protected ImportCheckpoint configureCheckpoint(Job job)
+      throws IOException, ClassNotFoundException {
+    Path destination = context.getDestination();
+    if (null == destination || !DataDrivenDBInputFormat.class
+        .isAssignableFrom(job.getInputFormatClass())
+        || !FileOutputFormat.class.isAssignableFrom(
+            job.getOutputFormatClass())) {
+      LOG.warn("This import cannot be resumed; ignoring --resume.");
+      return null;
+    }
+
+    destination = FileSystemUtil.makeQualified(destination,
+        job.getConfiguration());
+    Path dir = new Path(options.getTempRootDir(), "checkpoint_"
+        + destination.getName() + "_"
+        + Integer.toHexString(destination.toString().hashCode()));
+    ImportCheckpoint checkpoint =
+        new ImportCheckpoint(dir, job.getConfiguration());
+    checkpoint.configure(job);
+    return checkpoint;
+  }
+
+  /**
+   * Remember the split column bounding values found by this run, so that
+   * the next run of a saved job can start from them.
+   */
+  protected void cacheBoundingValues(Job job) {
+    BoundingValues bounds = BoundingValues.get(job.getConfiguration());
+    if (null == bounds || !bounds.isExact()
+        || !job.getConfiguration().getBoolean(BoundingValues.CACHE_KEY,
+            false)) {
+      return;
+    }
+    SqoopOptions recordOptions = options.getParent();
+    if (null == recordOptions) {
+      recordOptions = options;
+    }
+    recordOptions.setSplitBoundsCache(bounds.toJson());
+  }
+
   /**
    * Perform any operation that needs to be done post map/reduce job to
    * complete the import.
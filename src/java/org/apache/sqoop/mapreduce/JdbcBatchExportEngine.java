@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.util.LoggingUtils;
+
+/**
+ * ExportEngine executing each batch as a JDBC batch of single row INSERT
+ * statements. Commits every
+ * {@link AsyncSqlOutputFormat#STATEMENTS_PER_TRANSACTION_KEY} batches.
+ */
+public class JdbcBatchExportEngine implements ExportEngine {
+
+  private static final Log LOG = LogFactory.getLog(
+      JdbcBatchExportEngine.class);
+
+  private Connection connection;
+  private PreparedStatement stmt;
+  private int stmtsPerTx;
+  private int curNumStatements;
+
+  @Override
+  public void open(TaskAttemptContext context) throws IOException {
+    Configuration conf = context.getConfiguration();
+    stmtsPerTx = conf.getInt(
+        AsyncSqlOutputFormat.STATEMENTS_PER_TRANSACTION_KEY,
+        AsyncSqlOutputFormat.DEFAULT_STATEMENTS_PER_TRANSACTION);
+
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    String sql = getInsertStatement(dbConf.getOutputTableName(),
+        dbConf.getOutputFieldNames(), dbConf.getOutputFieldCount());
+    try {
+      connection = dbConf.getConnection();
+      connection.setAutoCommit(false);
+      stmt = connection.prepareStatement(sql);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Unable to load JDBC driver class", cnfe);
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to prepare " + sql, sqlE);
+      throw new IOException(sqlE);
+    }
+  }
+
+  /**
+   * @return a single row INSERT statement for the given table and columns.
+   * If columnNames is null, columnCount parameters are bound.
+   */
+  static String getInsertStatement(String tableName, String[] columnNames,
+      int columnCount) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("INSERT INTO ").append(tableName).append(" ");
+    int numSlots = columnCount;
+    if (null != columnNames) {
+      numSlots = columnNames.length;
+      sb.append("(").append(StringUtils.join(columnNames, ", ")).append(") ");
+    }
+    sb.append("VALUES (");
+    for (int i = 0; i < numSlots; i++) {
+      if (i != 0) {
+        sb.append(", ");
+      }
+      sb.append("?");
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+
+  @Override
+  public void write(List<SqoopRecord> batch) throws IOException {
+    try {
+      for (SqoopRecord record : batch) {
+        record.write(stmt, 0);
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+      stmt.clearBatch();
+      curNumStatements++;
+
+      if (curNumStatements >= stmtsPerTx && stmtsPerTx
+          != AsyncSqlOutputFormat.UNLIMITED_STATEMENTS_PER_TRANSACTION) {
+        LOG.debug("Committing transaction of " + curNumStatements
+            + " statements");
+        connection.commit();
+        curNumStatements = 0;
+      }
+    } catch (BatchUpdateException batchE) {
+      // Some drivers report the failing statement as the next exception.
+      SQLException cause = null != batchE.getNextException()
+          ? batchE.getNextException() : batchE;
+      LoggingUtils.logAll(LOG, cause);
+      throw new IOException(cause);
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, sqlE);
+      throw new IOException(sqlE);
+    }
+  }
+
+  @Override
+  public void commit() throws IOException {
+    try {
+      connection.commit();
+    } catch (SQLException sqlE) {
+      throw new IOException(sqlE);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (null != stmt) {
+        stmt.close();
+      }
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to close statement", sqlE);
+    }
+    try {
+      if (null != connection) {
+        connection.close();
+      }
+    } catch (SQLException sqlE) {
+      throw new IOException(sqlE);
+    } finally {
+      stmt = null;
+      connection = null;
+    }
+  }
+}
@@ -65,6 +65,12 @@ protected void propagateOptionsToJob(Job job) {
     job.getConfiguration().set(SQOOP_EXPORT_CALL_KEY, options.getCall());
   }
 
+  @Override
+  protected boolean supportsExportEngine() {
+    // Stored procedure calls are not INSERTs.
+    return false;
+  }
+
   @Override
   protected void configureOutputFormat(Job job, String tableName,
       String tableClassName) throws IOException {
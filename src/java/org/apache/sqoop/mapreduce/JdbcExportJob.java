@@ -147,6 +147,24 @@ protected Class<? extends Mapper> getMapperClass() {
     }
   }
 
+  /**
+   * @return true if the records this job writes can be exported through
+   * an {@link ExportEngine} when one is configured.
+   */
+  protected boolean supportsExportEngine() {
+    return true;
+  }
+
+  @Override
+  protected Class<? extends OutputFormat> getOutputFormatClass()
+      throws ClassNotFoundException {
+    if (supportsExportEngine()
+        && ExportEngineOutputFormat.isEnabled(options.getConf())) {
+      return ExportEngineOutputFormat.class;
+    }
+    return super.getOutputFormatClass();
+  }
+
   @Override
   protected void configureOutputFormat(Job job, String tableName,
       String tableClassName) throws IOException {
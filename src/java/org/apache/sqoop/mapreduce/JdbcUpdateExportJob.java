@@ -19,8 +19,11 @@
 package org.apache.sqoop.mapreduce;
 
 import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -33,6 +36,7 @@
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.sqoop.SqoopOptions.UpdateMode;
 import org.apache.sqoop.mapreduce.hcat.SqoopHCatUtilities;
 
 import org.apache.sqoop.manager.ConnManager;
@@ -100,6 +104,11 @@ protected Class<? extends Mapper> getMapperClass() {
   protected void configureOutputFormat(Job job, String tableName,
       String tableClassName) throws IOException {
 
+    if (isStagingTable(tableName)) {
+      configureStagingOutputFormat(job, tableName, tableClassName);
+      return;
+    }
+
     ConnManager mgr = context.getConnManager();
     try {
       String username = options.getUsername();
@@ -167,6 +176,90 @@ protected void configureOutputFormat(Job job, String tableName,
     }
   }
 
+  /**
+   * @return true if the export writes into the user's staging table, to be
+   * merged into the target table once the job has succeeded.
+   */
+  protected boolean isStagingTable(String tableName) {
+    return null != options.getStagingTableName()
+        && options.getStagingTableName().equals(tableName);
+  }
+
+  /**
+   * @return the columns written to the staging table, in the order the
+   * generated record class serializes them.
+   */
+  protected String [] getStagedColumns() {
+    String [] colNames = options.getDbOutputColumns();
+    if (null == colNames) {
+      colNames = options.getColumns();
+    }
+    if (null == colNames) {
+      colNames = context.getConnManager().getColumnNames(
+          context.getTableName());
+    }
+    return colNames;
+  }
+
+  /**
+   * Configure a plain INSERT-based export of whole rows into the staging
+   * table. The rows are applied to the target table with set-based
+   * statements in migrateStagedData().
+   */
+  protected void configureStagingOutputFormat(Job job, String tableName,
+      String tableClassName) throws IOException {
+    ConnManager mgr = context.getConnManager();
+    String username = options.getUsername();
+    if (null == username || username.length() == 0) {
+      DBConfiguration.configureDB(job.getConfiguration(),
+          mgr.getDriverClass(),
+          options.getConnectString(),
+          options.getConnectionParams());
+    } else {
+      DBConfiguration.configureDB(job.getConfiguration(),
+          mgr.getDriverClass(),
+          options.getConnectString(),
+          username, options.getPassword(),
+          options.getConnectionParams());
+    }
+
+    String [] colNames = getStagedColumns();
+    if (null == colNames) {
+      throw new IOException(
+          "Export column names could not be determined for " + tableName);
+    }
+
+    LOG.info("Staging rows in " + tableName + " for a set-based "
+        + (options.getUpdateMode() == UpdateMode.AllowInsert
+        ? "upsert" : "update"));
+    DBOutputFormat.setOutput(job, mgr.escapeTableName(tableName),
+        mgr.escapeColNames(colNames));
+    if (options.isBatchMode()) {
+      job.setOutputFormatClass(ExportBatchOutputFormat.class);
+    } else {
+      job.setOutputFormatClass(ExportOutputFormat.class);
+    }
+    job.getConfiguration().set(SQOOP_EXPORT_TABLE_CLASS_KEY, tableClassName);
+  }
+
+  @Override
+  protected void migrateStagedData(String stagingTableName,
+      String outputTableName) throws SQLException {
+    List<String> keyColumns = new ArrayList<String>();
+    StringTokenizer stok = new StringTokenizer(options.getUpdateKeyCol(), ",");
+    while (stok.hasMoreTokens()) {
+      String nextUpdateKey = stok.nextToken().trim();
+      if (nextUpdateKey.length() > 0) {
+        keyColumns.add(nextUpdateKey);
+      }
+    }
+
+    context.getConnManager().mergeStagingTable(stagingTableName,
+        outputTableName, keyColumns.toArray(new String[keyColumns.size()]),
+        getStagedColumns(),
+        options.getUpdateMode() == UpdateMode.AllowInsert);
+  }
+
   // Fix For Issue [SQOOP-2846]
   @Override
   protected void configureInputFormat(Job job, String tableName, String tableClassName,
@@ -51,6 +51,11 @@ public JdbcUpsertExportJob(final ExportJobContext context,
   protected void configureOutputFormat(Job job, String tableName,
       String tableClassName) throws IOException {
 
+    if (isStagingTable(tableName)) {
+      configureStagingOutputFormat(job, tableName, tableClassName);
+      return;
+    }
+
     ConnManager mgr = context.getConnManager();
     try {
       String username = options.getUsername();
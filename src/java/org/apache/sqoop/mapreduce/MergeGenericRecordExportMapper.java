@@ -22,7 +22,6 @@
 import java.util.Map;
 
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.MapWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -35,7 +34,7 @@
 
   protected MapWritable columnTypes = new MapWritable();
   private String keyColName;
-  private boolean isNewDatasetSplit;
+  private int generation;
 
   @Override
   protected void setup(Context context) throws IOException, InterruptedException {
@@ -44,22 +43,12 @@ protected void setup(Context context) throws IOException, InterruptedException {
 
     InputSplit inputSplit = context.getInputSplit();
     FileSplit fileSplit = (FileSplit) inputSplit;
-    Path splitPath = fileSplit.getPath();
-
-    if (splitPath.toString().startsWith(conf.get(MergeJob.MERGE_NEW_PATH_KEY))) {
-      this.isNewDatasetSplit = true;
-    } else if (splitPath.toString().startsWith(conf.get(MergeJob.MERGE_OLD_PATH_KEY))) {
-      this.isNewDatasetSplit = false;
-    } else {
-      throw new IOException(
-          "File " + splitPath + " is not under new path " + conf.get(MergeJob.MERGE_NEW_PATH_KEY)
-              + " or old path " + conf.get(MergeJob.MERGE_OLD_PATH_KEY));
-    }
+    this.generation = MergeJob.getGeneration(conf, fileSplit.getPath());
     super.setup(context);
   }
 
   protected void processRecord(SqoopRecord sqoopRecord, Context context) throws IOException, InterruptedException {
-    MergeRecord mergeRecord = new MergeRecord(sqoopRecord, isNewDatasetSplit);
+    MergeRecord mergeRecord = new MergeRecord(sqoopRecord, generation);
     Map<String, Object> fieldMap = sqoopRecord.getFieldMap();
     if (null == fieldMap) {
       throw new IOException("No field map in record " + sqoopRecord);
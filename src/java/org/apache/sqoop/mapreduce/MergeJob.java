@@ -19,11 +19,14 @@
 package org.apache.sqoop.mapreduce;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.file.FileReader;
 import org.apache.avro.mapred.FsInput;
+import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.RemoteIterator;
@@ -39,6 +42,7 @@
 import org.apache.sqoop.avro.AvroUtil;
 import org.apache.sqoop.mapreduce.ExportJobBase.FileType;
 import org.apache.sqoop.mapreduce.parquet.ParquetMergeJobConfigurator;
+import org.apache.sqoop.util.AppendUtils;
 import org.apache.sqoop.util.Jars;
 
 import org.apache.sqoop.SqoopOptions;
@@ -56,6 +60,13 @@ public class MergeJob extends JobBase {
   /** Configuration key specifying the path to the "new" dataset. */
   public static final String MERGE_NEW_PATH_KEY = "sqoop.merge.new.path";
 
+  /**
+   * Configuration key specifying the paths of several newer datasets, oldest
+   * first. Used instead of MERGE_NEW_PATH_KEY when merging incremental
+   * deltas; records from a later path take precedence.
+   */
+  public static final String MERGE_DELTA_PATHS_KEY = "sqoop.merge.delta.paths";
+
   /** Configuration key specifying the name of the key column for joins. */
   public static final String MERGE_KEY_COL_KEY = "sqoop.merge.key.col";
 
@@ -66,11 +77,49 @@ public class MergeJob extends JobBase {
 
   private final ParquetMergeJobConfigurator parquetMergeJobConfigurator;
 
+  private List<Path> deltaPaths;
+
   public MergeJob(final SqoopOptions opts, final ParquetMergeJobConfigurator parquetMergeJobConfigurator) {
     super(opts, null, null, null);
     this.parquetMergeJobConfigurator = parquetMergeJobConfigurator;
   }
 
+  /**
+   * Merge the given datasets, oldest first, on top of the old dataset
+   * instead of the single new dataset of the options.
+   */
+  public void setDeltaPaths(List<Path> paths) {
+    this.deltaPaths = paths;
+  }
+
+  /**
+   * @return the generation of the dataset a file belongs to: 0 for the old
+   * dataset, 1 for the new dataset, or the 1-based position of the delta
+   * that contains it.
+   */
+  public static int getGeneration(Configuration conf, Path file)
+      throws IOException {
+    String path = file.toString();
+    String [] deltas = conf.getStrings(MERGE_DELTA_PATHS_KEY);
+    if (null != deltas) {
+      for (int i = deltas.length - 1; i >= 0; i--) {
+        if (path.startsWith(deltas[i] + Path.SEPARATOR)) {
+          return i + 1;
+        }
+      }
+    }
+
+    String newPath = conf.get(MERGE_NEW_PATH_KEY);
+    if (null != newPath && path.startsWith(newPath)) {
+      return 1;
+    } else if (path.startsWith(conf.get(MERGE_OLD_PATH_KEY))) {
+      return 0;
+    }
+    throw new IOException("File " + file + " is not under new path "
+        + (null == deltas ? newPath : StringUtils.join(deltas, ", "))
+        + " or old path " + conf.get(MERGE_OLD_PATH_KEY));
+  }
+
   public boolean runMergeJob() throws IOException {
     Configuration conf = options.getConf();
     Job job = createJob(conf);
@@ -109,20 +158,36 @@ public boolean runMergeJob() throws IOException {
 
     try {
       Path oldPath = new Path(options.getMergeOldPath());
-      Path newPath = new Path(options.getMergeNewPath());
-
       Configuration jobConf = job.getConfiguration();
-
       oldPath = FileSystemUtil.makeQualified(oldPath, jobConf);
-      newPath = FileSystemUtil.makeQualified(newPath, jobConf);
+
+      List<Path> newPaths = new ArrayList<Path>();
+      if (null != deltaPaths && !deltaPaths.isEmpty()) {
+        String [] deltas = new String[deltaPaths.size()];
+        for (int i = 0; i < deltas.length; i++) {
+          newPaths.add(FileSystemUtil.makeQualified(deltaPaths.get(i),
+              jobConf));
+          deltas[i] = newPaths.get(i).toString();
+        }
+        jobConf.setStrings(MERGE_DELTA_PATHS_KEY, deltas);
+      } else {
+        newPaths.add(FileSystemUtil.makeQualified(
+            new Path(options.getMergeNewPath()), jobConf));
+        jobConf.set(MERGE_NEW_PATH_KEY, newPaths.get(0).toString());
+      }
+      // The newest dataset is used to check the schema of the others.
+      Path newPath = newPaths.get(newPaths.size() - 1);
 
       propagateOptionsToJob(job);
 
       FileInputFormat.addInputPath(job, oldPath);
-      FileInputFormat.addInputPath(job, newPath);
+      AppendUtils.addManifestInputPaths(job, oldPath);
+      for (Path path : newPaths) {
+        FileInputFormat.addInputPath(job, path);
+        AppendUtils.addManifestInputPaths(job, path);
+      }
 
       jobConf.set(MERGE_OLD_PATH_KEY, oldPath.toString());
-      jobConf.set(MERGE_NEW_PATH_KEY, newPath.toString());
       jobConf.set(MERGE_KEY_COL_KEY, options.getMergeKeyCol());
       jobConf.set(MERGE_SQOOP_RECORD_KEY, userClassName);
 
@@ -136,7 +201,9 @@ public boolean runMergeJob() throws IOException {
           parquetMergeJobConfigurator.configureParquetMergeJob(jobConf, job, oldPath, newPath, finalPath);
           break;
         case AVRO_DATA_FILE:
-          configueAvroMergeJob(conf, job, oldPath, newPath);
+          for (Path path : newPaths) {
+            configueAvroMergeJob(conf, job, oldPath, path);
+          }
           break;
         case SEQUENCE_FILE:
           job.setInputFormatClass(SequenceFileInputFormat.class);
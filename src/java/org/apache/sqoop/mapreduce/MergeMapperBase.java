@@ -23,7 +23,6 @@
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.Mapper;
@@ -42,7 +41,7 @@
       MergeMapperBase.class.getName());
 
   private String keyColName; // name of the key column.
-  private boolean isNew; // true if this split is from the new dataset.
+  private int generation; // 0 for the old dataset, higher for newer ones.
 
   @Override
   protected void setup(Context context)
@@ -52,24 +51,12 @@ protected void setup(Context context)
 
     InputSplit is = context.getInputSplit();
     FileSplit fs = (FileSplit) is;
-    Path splitPath = fs.getPath();
-
-    if (splitPath.toString().startsWith(
-        conf.get(MergeJob.MERGE_NEW_PATH_KEY))) {
-      this.isNew = true;
-    } else if (splitPath.toString().startsWith(
-        conf.get(MergeJob.MERGE_OLD_PATH_KEY))) {
-      this.isNew = false;
-    } else {
-      throw new IOException("File " + splitPath + " is not under new path "
-          + conf.get(MergeJob.MERGE_NEW_PATH_KEY) + " or old path "
-          + conf.get(MergeJob.MERGE_OLD_PATH_KEY));
-    }
+    this.generation = MergeJob.getGeneration(conf, fs.getPath());
   }
 
   protected void processRecord(SqoopRecord r, Context c)
       throws IOException, InterruptedException {
-    MergeRecord mr = new MergeRecord(r, isNew);
+    MergeRecord mr = new MergeRecord(r, generation);
     Map<String, Object> fieldMap = r.getFieldMap();
     if (null == fieldMap) {
       throw new IOException("No field map in record " + r);
@@ -53,13 +53,15 @@ protected void setup(Context context) throws IOException, InterruptedException {
     public void reduce(Text key, Iterable<MergeRecord> vals, Context context)
         throws IOException, InterruptedException {
       SqoopRecord bestRecord = null;
+      int bestGeneration = -1;
       try {
         for (MergeRecord mergeRecord : vals) {
-          if (null == bestRecord && !mergeRecord.isNewRecord()) {
-            // Use an old record if we don't have a new record.
-            bestRecord = (SqoopRecord) mergeRecord.getSqoopRecord().clone();
-          } else if (mergeRecord.isNewRecord()) {
+          // Prefer the record from the newest dataset; within one dataset
+          // the last record seen wins.
+          if (mergeRecord.getGeneration() >= bestGeneration
+              && (null == bestRecord || mergeRecord.isNewRecord())) {
             bestRecord = (SqoopRecord) mergeRecord.getSqoopRecord().clone();
+            bestGeneration = mergeRecord.getGeneration();
           }
         }
       } catch (CloneNotSupportedException cnse) {
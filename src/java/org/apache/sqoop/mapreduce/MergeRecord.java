@@ -29,19 +29,20 @@
 
 /**
  * Class that holds a record to be merged. This contains a SqoopRecord which
- * is the "guts" of the item, and a boolean value indicating whether it is a
- * "new" record or an "old" record. In the Reducer, we prefer to emit a new
- * record rather than an old one, if a new one is available.
+ * is the "guts" of the item, and the generation of the dataset it came from.
+ * The "old" dataset is generation 0 and every newer dataset has a higher
+ * generation. In the Reducer, we prefer to emit the record of the highest
+ * generation available.
  */
 public class MergeRecord implements Configurable, Writable {
   private SqoopRecord sqoopRecord;
-  private boolean isNew;
+  private int generation;
   private Configuration config;
 
   /** Construct an empty MergeRecord. */
   public MergeRecord() {
     this.sqoopRecord = null;
-    this.isNew = false;
+    this.generation = 0;
     this.config = new Configuration();
   }
 
@@ -49,8 +50,15 @@ public MergeRecord() {
    * Construct a MergeRecord with all fields initialized.
    */
   public MergeRecord(SqoopRecord sr, boolean recordIsNew) {
+    this(sr, recordIsNew ? 1 : 0);
+  }
+
+  /**
+   * Construct a MergeRecord from a dataset of the given generation.
+   */
+  public MergeRecord(SqoopRecord sr, int recordGeneration) {
     this.sqoopRecord = sr;
-    this.isNew = recordIsNew;
+    this.generation = recordGeneration;
     this.config = new Configuration();
   }
 
@@ -68,14 +76,24 @@ public Configuration getConf() {
 
   /** @return true if this record came from the "new" dataset. */
   public boolean isNewRecord() {
-    return isNew;
+    return generation > 0;
   }
 
   /**
-   * Set the isNew field to 'newVal'.
+   * Mark this record as coming from the "new" (generation 1) or "old"
+   * (generation 0) dataset.
    */
   public void setNewRecord(boolean newVal) {
-    this.isNew = newVal;
+    this.generation = newVal ? 1 : 0;
+  }
+
+  /** @return the generation of the dataset this record came from. */
+  public int getGeneration() {
+    return generation;
+  }
+
+  public void setGeneration(int recordGeneration) {
+    this.generation = recordGeneration;
   }
 
   /**
@@ -98,7 +116,7 @@ public void setSqoopRecord(SqoopRecord record) {
    * {@inheritDoc}
    */
   public void readFields(DataInput in) throws IOException {
-    this.isNew = in.readBoolean();
+    this.generation = in.readInt();
     String className = Text.readString(in);
     if (null == this.sqoopRecord) {
       // If we haven't already instantiated an inner SqoopRecord, do so here.
@@ -119,7 +137,7 @@ public void readFields(DataInput in) throws IOException {
    * {@inheritDoc}
    */
   public void write(DataOutput out) throws IOException {
-    out.writeBoolean(this.isNew);
+    out.writeInt(this.generation);
     Text.writeString(out, this.sqoopRecord.getClass().getName());
     this.sqoopRecord.write(out);
   }
@@ -32,13 +32,15 @@
   public void reduce(Text key, Iterable<MergeRecord> vals, Context c)
       throws IOException, InterruptedException {
     SqoopRecord bestRecord = null;
+    int bestGeneration = -1;
     try {
       for (MergeRecord val : vals) {
-        if (null == bestRecord && !val.isNewRecord()) {
-          // Use an old record if we don't have a new record.
-          bestRecord = (SqoopRecord) val.getSqoopRecord().clone();
-        } else if (val.isNewRecord()) {
+        // Prefer the record from the newest dataset; within one dataset
+        // the last record seen wins.
+        if (val.getGeneration() >= bestGeneration
+            && (null == bestRecord || val.isNewRecord())) {
           bestRecord = (SqoopRecord) val.getSqoopRecord().clone();
+          bestGeneration = val.getGeneration();
         }
       }
     } catch (CloneNotSupportedException cnse) {
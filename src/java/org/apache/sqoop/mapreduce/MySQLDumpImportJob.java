@@ -23,6 +23,8 @@
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.manager.ConnManager;
@@ -109,6 +111,11 @@ protected void configureInputFormat(Job job, String tableName,
         options.isOutputEncloseRequired());
     String [] extraArgs = options.getExtraArgs();
     if (null != extraArgs) {
+      if (isJdbcStreaming()) {
+        LOG.warn("Extra mysqldump arguments are ignored when "
+            + MySQLStreamingImportMapper.MYSQL_JDBC_STREAMING_KEY
+            + " is set.");
+      }
       conf.setStrings(MySQLUtils.EXTRA_ARGS_KEY, extraArgs);
     }
 
@@ -116,6 +123,24 @@ protected void configureInputFormat(Job job, String tableName,
     job.setInputFormatClass(getInputFormatClass());
   }
 
+  /**
+   * @return true if rows should be read over a streaming JDBC result set
+   * rather than by running mysqldump.
+   */
+  private boolean isJdbcStreaming() {
+    return options.getConf().getBoolean(
+        MySQLStreamingImportMapper.MYSQL_JDBC_STREAMING_KEY, false);
+  }
+
+  @Override
+  protected Class<? extends Mapper> getMapperClass()
+      throws ClassNotFoundException {
+    if (isJdbcStreaming()) {
+      return MySQLStreamingImportMapper.class;
+    }
+    return super.getMapperClass();
+  }
+
   /**
    * Set the mapper class implementation to use in the job,
    * as well as any related configuration (e.g., map output types).
@@ -123,7 +148,11 @@ protected void configureInputFormat(Job job, String tableName,
   protected void configureMapper(Job job, String tableName,
       String tableClassName) throws ClassNotFoundException, IOException {
     job.setMapperClass(getMapperClass());
-    job.setOutputKeyClass(String.class);
+    if (isJdbcStreaming()) {
+      job.setOutputKeyClass(Text.class);
+    } else {
+      job.setOutputKeyClass(String.class);
+    }
     job.setOutputValueClass(NullWritable.class);
   }
 
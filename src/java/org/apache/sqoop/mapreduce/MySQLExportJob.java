@@ -19,6 +19,7 @@
 package org.apache.sqoop.mapreduce;
 
 import java.io.IOException;
+import java.util.Properties;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -68,16 +69,27 @@ protected void configureInputFormat(Job job, String tableName,
       conf.setStrings(MySQLUtils.EXTRA_ARGS_KEY, extraArgs);
     }
 
+    Properties connectionParams = options.getConnectionParams();
+    if (conf.getBoolean(MySQLExportMapper.MYSQL_LOAD_DATA_KEY, false)) {
+      // Connector/J refuses LOAD DATA LOCAL INFILE unless allowed explicitly.
+      Properties params = new Properties();
+      if (null != connectionParams) {
+        params.putAll(connectionParams);
+      }
+      params.setProperty("allowLoadLocalInfile", "true");
+      connectionParams = params;
+    }
+
     ConnManager mgr = context.getConnManager();
     String username = options.getUsername();
     if (null == username || username.length() == 0) {
       DBConfiguration.configureDB(job.getConfiguration(),
           mgr.getDriverClass(), options.getConnectString(),
-          options.getConnectionParams());
+          connectionParams);
     } else {
       DBConfiguration.configureDB(job.getConfiguration(),
           mgr.getDriverClass(), options.getConnectString(), username,
-          options.getPassword(), options.getConnectionParams());
+          options.getPassword(), connectionParams);
     }
 
     String [] colNames = options.getColumns();
@@ -22,7 +22,15 @@
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,8 +38,10 @@
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.sqoop.util.AsyncSink;
+import org.apache.sqoop.util.ErrorableThread;
 import org.apache.sqoop.util.JdbcUrl;
 import org.apache.sqoop.util.LoggingAsyncSink;
+import org.apache.sqoop.util.LoggingUtils;
 import org.apache.sqoop.util.NullAsyncSink;
 import org.apache.sqoop.util.TaskId;
 import org.apache.sqoop.io.NamedFifo;
@@ -40,7 +50,9 @@
 
 /**
  * Mapper that starts a 'mysqlimport' process and uses that to export rows from
- * HDFS to a MySQL database at high speed.
+ * HDFS to a MySQL database at high speed. Alternatively the rows can be
+ * streamed through a LOAD DATA LOCAL INFILE statement on a JDBC connection,
+ * which needs neither the client binary nor a FIFO.
  *
  * map() methods are actually provided by subclasses that read from
  * SequenceFiles (containing existing SqoopRecords) or text files
@@ -77,6 +89,25 @@
   // Configured value for MYSQL_CHECKPOINT_SLEEP_KEY.
   protected long checkpointSleepMs;
 
+  /** Configuration key that enables exporting through LOAD DATA LOCAL
+   * INFILE over JDBC instead of a mysqlimport process.
+   * Default is false.
+   */
+  public static final String MYSQL_LOAD_DATA_KEY =
+      "sqoop.mysql.export.load.data";
+
+  /** Configuration key that specifies the size of the in-memory pipe
+   * between the mapper and the LOAD DATA statement.
+   * Default is 1 MB.
+   */
+  public static final String MYSQL_LOAD_DATA_BUFFER_KEY =
+      "sqoop.mysql.export.load.data.buffer.bytes";
+
+  public static final int DEFAULT_LOAD_DATA_BUFFER = 1024 * 1024;
+
+  // Configured value for MYSQL_LOAD_DATA_KEY.
+  protected boolean useLoadData;
+
   protected Configuration conf;
 
   /** The FIFO being used to communicate with mysqlimport. */
@@ -98,6 +129,12 @@
   /** Character set used to write to mysqlimport. */
   protected String mysqlCharSet;
 
+  /** JDBC connection used for LOAD DATA LOCAL INFILE. */
+  private Connection loadDataConnection;
+
+  /** Thread executing the current LOAD DATA statement. */
+  private LoadDataThread loadDataThread;
+
   /**
    * Tally of bytes written to current mysqlimport instance.
    * We commit an interim tx and open a new mysqlimport after this
@@ -239,19 +276,36 @@ private void initMySQLImportProcess() throws IOException {
   public void run(Context context) throws IOException, InterruptedException {
     this.conf = context.getConfiguration();
     setup(context);
-    initMySQLImportProcess();
     try {
-      while (context.nextKeyValue()) {
-        map(context.getCurrentKey(), context.getCurrentValue(), context);
+      initExport();
+      try {
+        while (context.nextKeyValue()) {
+          map(context.getCurrentKey(), context.getCurrentValue(), context);
+        }
+        cleanup(context);
+      } finally {
+        // Shut down the mysqlimport process or LOAD DATA statement.
+        closeExportHandles();
       }
-      cleanup(context);
     } finally {
-      // Shut down the mysqlimport process.
-      closeExportHandles();
+      closeLoadDataConnection();
+    }
+  }
+
+  private void initExport() throws IOException {
+    if (useLoadData) {
+      initLoadDataStatement();
+    } else {
+      initMySQLImportProcess();
     }
   }
 
   private void closeExportHandles() throws IOException, InterruptedException {
+    if (useLoadData) {
+      closeLoadDataStatement();
+      return;
+    }
+
     int ret = 0;
     if (null != this.importStream) {
       // Close the stream that writes to mysqlimport's stdin first.
@@ -314,10 +368,224 @@ private void closeExportHandles() throws IOException, InterruptedException {
     }
   }
 
+  /**
+   * Build the LOAD DATA LOCAL INFILE statement equivalent to the
+   * mysqlimport invocation for the configured table, columns and delimiters.
+   */
+  static String getLoadDataStatement(Configuration conf) throws IOException {
+    String tableName = conf.get(MySQLUtils.TABLE_NAME_KEY);
+    if (null == tableName) {
+      throw new IOException("Could not determine table name");
+    }
+
+    StringBuilder sb = new StringBuilder();
+    // The file name is ignored, data comes from the local infile stream.
+    sb.append("LOAD DATA LOCAL INFILE 'sqoop-export' INTO TABLE `");
+    sb.append(tableName.replace("`", "``"));
+    sb.append("`");
+
+    int fieldDelim = conf.getInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY, (int) ',');
+    int recordDelim = conf.getInt(MySQLUtils.OUTPUT_RECORD_DELIM_KEY,
+        (int) '\n');
+    int enclosedBy = conf.getInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY, 0);
+    int escapedBy = conf.getInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY, 0);
+    boolean encloseRequired = conf.getBoolean(
+        MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, false);
+
+    sb.append(" FIELDS TERMINATED BY X'").append(hexByte(fieldDelim));
+    sb.append("'");
+    if (0 != enclosedBy) {
+      sb.append(encloseRequired ? " ENCLOSED BY X'"
+          : " OPTIONALLY ENCLOSED BY X'");
+      sb.append(hexByte(enclosedBy)).append("'");
+    }
+    if (0 != escapedBy) {
+      sb.append(" ESCAPED BY X'").append(hexByte(escapedBy)).append("'");
+    }
+    sb.append(" LINES TERMINATED BY X'").append(hexByte(recordDelim));
+    sb.append("'");
+
+    // Specify the subset of columns we're exporting.
+    String [] cols = new DBConfiguration(conf).getInputFieldNames();
+    if (null != cols) {
+      sb.append(" (");
+      boolean first = true;
+      for (String col : cols) {
+        if (!first) {
+          sb.append(",");
+        }
+        sb.append(col);
+        first = false;
+      }
+      sb.append(")");
+    }
+    return sb.toString();
+  }
+
+  private static String hexByte(int c) {
+    String hex = Integer.toString(c & 0xff, 16);
+    return hex.length() == 1 ? "0" + hex : hex;
+  }
+
+  /**
+   * Start a LOAD DATA LOCAL INFILE statement in a background thread, reading
+   * from a pipe that 'importStream' writes to.
+   */
+  private void initLoadDataStatement() throws IOException {
+    String sql = getLoadDataStatement(conf);
+    try {
+      if (null == loadDataConnection) {
+        loadDataConnection = new DBConfiguration(conf).getConnection();
+        loadDataConnection.setAutoCommit(false);
+      }
+
+      int bufferSize = conf.getInt(MYSQL_LOAD_DATA_BUFFER_KEY,
+          DEFAULT_LOAD_DATA_BUFFER);
+      PipedInputStream input = new PipedInputStream(bufferSize);
+      OutputStream output = new PipedOutputStream(input);
+
+      Statement stmt = loadDataConnection.createStatement();
+      setLocalInfileInputStream(stmt, input);
+
+      LOG.debug("Starting export with statement: " + sql);
+      loadDataThread = new LoadDataThread(stmt, sql, input);
+      loadDataThread.start();
+      this.importStream = new BufferedOutputStream(output);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Could not load JDBC driver", cnfe);
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Could not start LOAD DATA statement", sqlE);
+      throw new IOException(sqlE);
+    }
+
+    this.bytesWritten = 0;
+  }
+
+  /**
+   * Hand the stream to Connector/J. The method is looked up reflectively
+   * because the driver is not a compile time dependency of Sqoop.
+   */
+  private static void setLocalInfileInputStream(Statement stmt,
+      InputStream input) throws IOException {
+    try {
+      Method method = stmt.getClass().getMethod("setLocalInfileInputStream",
+          InputStream.class);
+      method.invoke(stmt, input);
+    } catch (NoSuchMethodException nsme) {
+      throw new IOException("JDBC driver " + stmt.getClass().getName()
+          + " does not support LOAD DATA LOCAL INFILE streams", nsme);
+    } catch (IllegalAccessException iae) {
+      throw new IOException(iae);
+    } catch (InvocationTargetException ite) {
+      throw new IOException(ite.getCause());
+    }
+  }
+
+  /**
+   * Signal the end of data to the running LOAD DATA statement, wait for it
+   * and commit.
+   */
+  private void closeLoadDataStatement()
+      throws IOException, InterruptedException {
+    IOException closeException = null;
+    if (null != this.importStream) {
+      LOG.debug("Closing import stream");
+      try {
+        this.importStream.close();
+      } catch (IOException ioe) {
+        // Most likely the statement failed and stopped reading.
+        closeException = ioe;
+      }
+      this.importStream = null;
+    }
+
+    if (null == loadDataThread) {
+      return;
+    }
+    loadDataThread.join();
+    SQLException loadException = loadDataThread.getException();
+    loadDataThread.closeStatement();
+    loadDataThread = null;
+    if (null != loadException) {
+      throw new IOException("LOAD DATA statement failed", loadException);
+    }
+    if (null != closeException) {
+      throw closeException;
+    }
+
+    try {
+      loadDataConnection.commit();
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Could not commit LOAD DATA statement", sqlE);
+      throw new IOException(sqlE);
+    }
+    LOG.info("LOAD DATA statement committed");
+  }
+
+  private void closeLoadDataConnection() {
+    if (null != loadDataConnection) {
+      try {
+        loadDataConnection.close();
+      } catch (SQLException sqlE) {
+        LoggingUtils.logAll(LOG, "Could not close connection", sqlE);
+      }
+      loadDataConnection = null;
+    }
+  }
+
+  /**
+   * Executes a LOAD DATA statement, which blocks until its local infile
+   * stream is exhausted.
+   */
+  private static class LoadDataThread extends ErrorableThread {
+    private final Statement stmt;
+    private final String sql;
+    private final InputStream input;
+    private volatile SQLException exception;
+
+    LoadDataThread(Statement stmt, String sql, InputStream input) {
+      this.stmt = stmt;
+      this.sql = sql;
+      this.input = input;
+      setDaemon(true);
+    }
+
+    public void run() {
+      try {
+        int rows = stmt.executeUpdate(sql);
+        LOG.debug("LOAD DATA statement loaded " + rows + " rows");
+      } catch (SQLException sqlE) {
+        LoggingUtils.logAll(LOG, "LOAD DATA statement failed", sqlE);
+        exception = sqlE;
+        setError();
+        // Nobody reads the pipe any more; unblock the writer.
+        try {
+          input.close();
+        } catch (IOException ioe) {
+          LOG.debug("Could not close LOAD DATA input stream", ioe);
+        }
+      }
+    }
+
+    SQLException getException() {
+      return exception;
+    }
+
+    void closeStatement() {
+      try {
+        stmt.close();
+      } catch (SQLException sqlE) {
+        LoggingUtils.logAll(LOG, "Could not close statement", sqlE);
+      }
+    }
+  }
+
   @Override
   protected void setup(Context context) {
     this.conf = context.getConfiguration();
 
+    this.useLoadData = conf.getBoolean(MYSQL_LOAD_DATA_KEY, false);
+
     // TODO: Support additional encodings.
     this.mysqlCharSet = MySQLUtils.MYSQL_DEFAULT_CHARSET;
 
@@ -360,6 +628,15 @@ protected void writeRecord(String record, String terminator)
     // latin-1 (ISO8859_1). We'll convert to latin-1 for now.
     // TODO: Support user-configurable encodings.
 
+    // A failed LOAD DATA statement stops reading the pipe; fail fast rather
+    // than writing into it.
+    if (null != loadDataThread) {
+      SQLException loadException = loadDataThread.getException();
+      if (null != loadException) {
+        throw new IOException("LOAD DATA statement failed", loadException);
+      }
+    }
+
     byte [] mysqlBytes = record.getBytes(this.mysqlCharSet);
     this.importStream.write(mysqlBytes, 0, mysqlBytes.length);
     this.bytesWritten += mysqlBytes.length;
@@ -371,7 +648,8 @@ protected void writeRecord(String record, String terminator)
     }
 
     // If bytesWritten is too big, then we should start a new tx by closing
-    // mysqlimport and opening a new instance of the process.
+    // mysqlimport and opening a new instance of the process (or committing
+    // the current LOAD DATA statement and starting the next one).
     if (this.checkpointDistInBytes != 0
         && this.bytesWritten > this.checkpointDistInBytes) {
       LOG.info("Checkpointing current export.");
@@ -382,7 +660,7 @@ protected void writeRecord(String record, String terminator)
       }
 
       closeExportHandles();
-      initMySQLImportProcess();
+      initExport();
       this.bytesWritten = 0;
     }
   }
@@ -0,0 +1,285 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.sqoop.lib.DelimiterSet;
+import org.apache.sqoop.manager.MySQLUtils;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.util.LoggingUtils;
+import org.apache.sqoop.util.PerfCounters;
+
+/**
+ * Mapper that reads a split of a MySQL table through a streaming JDBC
+ * result set and writes delimited text directly, without spawning
+ * mysqldump.
+ */
+public class MySQLStreamingImportMapper
+    extends SqoopMapper<String, NullWritable, Text, NullWritable> {
+
+  public static final Log LOG = LogFactory.getLog(
+      MySQLStreamingImportMapper.class.getName());
+
+  /** Set to true to import over JDBC instead of through mysqldump. */
+  public static final String MYSQL_JDBC_STREAMING_KEY =
+      "sqoop.mysql.import.jdbc.streaming";
+
+  /**
+   * Fetch size for the streaming statement. The default of
+   * Integer.MIN_VALUE makes Connector/J stream rows one at a time; a
+   * positive value together with useCursorFetch=true in the connect
+   * string uses a server-side cursor instead.
+   */
+  public static final String MYSQL_JDBC_STREAMING_FETCH_SIZE_KEY =
+      "sqoop.mysql.import.jdbc.streaming.fetch.size";
+
+  /** Text emitted for SQL NULL values, matching mysqldump. */
+  public static final String NULL_STRING = "NULL";
+
+  private Configuration conf;
+
+  /**
+   * Formats result set rows into a reusable Text using the user's output
+   * delimiters. Escaping and enclosing follow
+   * {@link org.apache.sqoop.lib.FieldFormatter#escapeAndEnclose}, but the
+   * row is built in place rather than through per-field string copies.
+   */
+  public static class RowFormatter {
+    private final char fieldDelim;
+    private final char recordDelim;
+    private final char enclose;
+    private final char escape;
+    private final boolean encloseRequired;
+    private final boolean escapingLegal;
+
+    private final StringBuilder row = new StringBuilder(1024);
+    private final CharsetEncoder encoder =
+        StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer bytes = ByteBuffer.allocate(4096);
+    private final Text text = new Text();
+
+    public RowFormatter(DelimiterSet delimiters) {
+      this.fieldDelim = delimiters.getFieldsTerminatedBy();
+      this.recordDelim = delimiters.getLinesTerminatedBy();
+      this.enclose = delimiters.getEnclosedBy();
+      this.escape = delimiters.getEscapedBy();
+      this.encloseRequired = delimiters.isEncloseRequired();
+      this.escapingLegal = DelimiterSet.NULL_CHAR != escape;
+    }
+
+    /** Clear any partially-built row. */
+    public void startRow() {
+      row.setLength(0);
+    }
+
+    /**
+     * Append one field to the current row.
+     * @param first true if this is the first field in the row.
+     * @param value the field value, or null for SQL NULL.
+     */
+    public void appendField(boolean first, String value) {
+      if (!first) {
+        row.append(fieldDelim);
+      }
+
+      if (null == value) {
+        row.append(NULL_STRING);
+        return;
+      }
+
+      boolean canEnclose = DelimiterSet.NULL_CHAR != enclose;
+      boolean doEnclose = canEnclose && (encloseRequired
+          || value.indexOf(fieldDelim) != -1
+          || value.indexOf(recordDelim) != -1);
+
+      if (doEnclose) {
+        row.append(enclose);
+      }
+
+      int len = value.length();
+      for (int i = 0; i < len; i++) {
+        char c = value.charAt(i);
+        if (escapingLegal && (c == escape
+            || (canEnclose && c == enclose)
+            || (!canEnclose && (c == fieldDelim || c == recordDelim)))) {
+          row.append(escape);
+        }
+        row.append(c);
+      }
+
+      if (doEnclose) {
+        row.append(enclose);
+      }
+    }
+
+    /**
+     * Terminate the current row and encode it.
+     * @return a Text holding the encoded row; it is reused by the next call.
+     */
+    public Text finishRow() throws CharacterCodingException {
+      row.append(recordDelim);
+
+      CharBuffer in = CharBuffer.wrap(row);
+      encoder.reset();
+      bytes.clear();
+      while (true) {
+        CoderResult result = encoder.encode(in, bytes, true);
+        if (result.isUnderflow()) {
+          result = encoder.flush(bytes);
+        }
+        if (result.isUnderflow()) {
+          break;
+        } else if (result.isOverflow()) {
+          ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+          bytes.flip();
+          larger.put(bytes);
+          bytes = larger;
+        } else {
+          result.throwException();
+        }
+      }
+
+      text.set(bytes.array(), 0, bytes.position());
+      return text;
+    }
+  }
+
+  /**
+   * Build the SELECT statement for one split.
+   */
+  static String getSelectStatement(Configuration conf,
+      String splitConditions) {
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    String [] fields = dbConf.getInputFieldNames();
+    String tableName = dbConf.getInputTableName();
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("SELECT ");
+    if (null == fields || fields.length == 0) {
+      sb.append("*");
+    } else {
+      for (int i = 0; i < fields.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(fields[i]);
+      }
+    }
+
+    // The table name is kept unquoted for mysqldump; quote it here.
+    sb.append(" FROM `").append(tableName.replace("`", "``")).append("`");
+    sb.append(" WHERE ");
+    sb.append(conf.get(MySQLUtils.WHERE_CLAUSE_KEY, "(1=1)"));
+    sb.append(" AND (").append(splitConditions).append(")");
+    return sb.toString();
+  }
+
+  /**
+   * Import one split by streaming its rows over JDBC.
+   */
+  public void map(String splitConditions, NullWritable val, Context context)
+      throws IOException, InterruptedException {
+
+    LOG.info("Beginning JDBC streaming fast path import");
+
+    DelimiterSet delimiters = new DelimiterSet(
+        (char) conf.getInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY,
+            DelimiterSet.NULL_CHAR),
+        (char) conf.getInt(MySQLUtils.OUTPUT_RECORD_DELIM_KEY,
+            DelimiterSet.NULL_CHAR),
+        (char) conf.getInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY,
+            DelimiterSet.NULL_CHAR),
+        (char) conf.getInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY,
+            DelimiterSet.NULL_CHAR),
+        conf.getBoolean(MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, false));
+    RowFormatter formatter = new RowFormatter(delimiters);
+
+    String query = getSelectStatement(conf, splitConditions);
+    int fetchSize = conf.getInt(MYSQL_JDBC_STREAMING_FETCH_SIZE_KEY,
+        Integer.MIN_VALUE);
+    LOG.debug("Streaming query: " + query);
+
+    PerfCounters counters = new PerfCounters();
+    Connection conn = null;
+    Statement stmt = null;
+    ResultSet rs = null;
+    try {
+      conn = new DBConfiguration(conf).getConnection();
+      stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY);
+      stmt.setFetchSize(fetchSize);
+
+      counters.startClock();
+      rs = stmt.executeQuery(query);
+      int cols = rs.getMetaData().getColumnCount();
+      while (rs.next()) {
+        formatter.startRow();
+        for (int i = 1; i <= cols; i++) {
+          formatter.appendField(i == 1, rs.getString(i));
+        }
+        Text line = formatter.finishRow();
+        context.write(line, NullWritable.get());
+        counters.addBytes(line.getLength());
+      }
+      counters.stopClock();
+      LOG.info("Transferred " + counters.toString());
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Could not load JDBC driver", cnfe);
+    } catch (SQLException sqle) {
+      LoggingUtils.logAll(LOG, "Error reading from MySQL", sqle);
+      throw new IOException(sqle);
+    } finally {
+      try {
+        if (null != rs) {
+          rs.close();
+        }
+        if (null != stmt) {
+          stmt.close();
+        }
+        if (null != conn) {
+          conn.close();
+        }
+      } catch (SQLException sqle) {
+        LoggingUtils.logAll(LOG, "Error closing MySQL connection", sqle);
+      }
+    }
+  }
+
+  @Override
+  protected void setup(Context context)
+    throws IOException, InterruptedException {
+    super.setup(context);
+    this.conf = context.getConfiguration();
+  }
+}
@@ -28,6 +28,7 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.util.PhaseCounters;
 
 import java.io.IOException;
 import java.sql.SQLException;
@@ -43,11 +44,13 @@
   private boolean bigDecimalFormatString = true;
   private LargeObjectLoader lobLoader = null;
   private boolean bigDecimalPadding;
+  private PhaseCounters phaseCounters;
 
   @Override
   protected void setup(Context context)
       throws IOException, InterruptedException {
     Configuration conf = context.getConfiguration();
+    phaseCounters = new PhaseCounters(conf);
     schema = getAvroSchema(conf);
     bigDecimalFormatString = conf.getBoolean(
         ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
@@ -60,20 +63,25 @@ protected void setup(Context context)
   @Override
   protected void map(LongWritable key, SqoopRecord val, Context context)
       throws IOException, InterruptedException {
+    long start = phaseCounters.start();
     try {
       // Loading of LOBs was delayed until we have a Context.
       val.loadLargeObjects(lobLoader);
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
+    start = phaseCounters.stop(PhaseCounters.Phase.LOB_LOAD, start);
 
     GenericRecord record = AvroUtil.toGenericRecord(val.getFieldMap(), schema,
         bigDecimalFormatString, bigDecimalPadding);
+    start = phaseCounters.stop(PhaseCounters.Phase.FORMAT, start);
     write(context, record);
+    phaseCounters.stop(PhaseCounters.Phase.WRITE, start);
   }
 
   @Override
   protected void cleanup(Context context) throws IOException {
+    phaseCounters.publish(context);
     if (null != lobLoader) {
       lobLoader.close();
     }
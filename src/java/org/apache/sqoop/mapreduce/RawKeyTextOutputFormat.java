@@ -25,11 +25,14 @@
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
 import org.apache.hadoop.io.compress.GzipCodec;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.util.*;
+import org.apache.sqoop.io.BgzfCodec;
+import org.apache.sqoop.io.BgzfOutputStream;
 
 /**
  * An {@link OutputFormat} that writes plain text files.
@@ -64,7 +67,13 @@ protected DataOutputStream getOutputStream(TaskAttemptContext context) throws IO
     DataOutputStream ostream = fileOut;
 
     if (isCompressed) {
-      ostream = new DataOutputStream(codec.createOutputStream(fileOut));
+      CompressionOutputStream cout = codec.createOutputStream(fileOut);
+      if (cout instanceof BgzfOutputStream && BgzfCodec.isIndexEnabled(conf)) {
+        Path file = getDefaultWorkFile(context, ext);
+        ((BgzfOutputStream) cout).setIndexFile(file.getFileSystem(conf),
+            BgzfOutputStream.getIndexPath(file));
+      }
+      ostream = new DataOutputStream(cout);
     }
     return ostream;
   }
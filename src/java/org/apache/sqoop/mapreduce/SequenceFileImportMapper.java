@@ -24,6 +24,7 @@
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.sqoop.lib.LargeObjectLoader;
 import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.util.PhaseCounters;
 
 /**
  * Imports records by writing them to a SequenceFile.
@@ -33,10 +34,12 @@
     SqoopRecord> {
 
   private LargeObjectLoader lobLoader;
+  private PhaseCounters phaseCounters;
 
   @Override
   protected void setup(Context context)
       throws IOException, InterruptedException {
+    this.phaseCounters = new PhaseCounters(context.getConfiguration());
     this.lobLoader = new LargeObjectLoader(context.getConfiguration(), FileOutputFormat.getWorkOutputPath(context));
   }
 
@@ -44,18 +47,22 @@ protected void setup(Context context)
   public void map(LongWritable key, SqoopRecord val, Context context)
       throws IOException, InterruptedException {
 
+    long start = phaseCounters.start();
     try {
       // Loading of LOBs was delayed until we have a Context.
       val.loadLargeObjects(lobLoader);
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
+    start = phaseCounters.stop(PhaseCounters.Phase.LOB_LOAD, start);
 
     context.write(key, val);
+    phaseCounters.stop(PhaseCounters.Phase.WRITE, start);
   }
 
   @Override
   protected void cleanup(Context context) throws IOException {
+    phaseCounters.publish(context);
     if (null != lobLoader) {
       lobLoader.close();
     }
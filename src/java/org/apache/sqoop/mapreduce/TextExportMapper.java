@@ -27,6 +27,7 @@
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.util.PhaseCounters;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -47,6 +48,8 @@
 
   boolean enableDataDumpOnError;
 
+  private PhaseCounters phaseCounters;
+
   public TextExportMapper() {
   }
 
@@ -79,13 +82,23 @@ protected void setup(Context context)
     }
 
     enableDataDumpOnError = conf.getBoolean(DUMP_DATA_ON_ERROR_KEY, false);
+    phaseCounters = new PhaseCounters(conf);
+  }
+
+  @Override
+  protected void cleanup(Context context)
+      throws IOException, InterruptedException {
+    phaseCounters.publish(context);
+    super.cleanup(context);
   }
 
 
   public void map(LongWritable key, Text val, Context context)
       throws IOException, InterruptedException {
     try {
+      long start = phaseCounters.start();
       recordImpl.parse(val);
+      phaseCounters.stop(PhaseCounters.Phase.PARSE, start);
       context.write(recordImpl, NullWritable.get());
     } catch (Exception e) {
       // Something bad has happened
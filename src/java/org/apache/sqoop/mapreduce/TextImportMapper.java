@@ -27,6 +27,7 @@
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.sqoop.lib.LargeObjectLoader;
 import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.util.PhaseCounters;
 
 /**
  * Imports records by transforming them to strings for a plain-text flat file.
@@ -36,6 +37,7 @@
 
   private Text outkey;
   private LargeObjectLoader lobLoader;
+  private PhaseCounters phaseCounters;
 
   public TextImportMapper() {
     outkey = new Text();
@@ -44,6 +46,7 @@ public TextImportMapper() {
   @Override
   protected void setup(Context context)
       throws IOException, InterruptedException {
+    this.phaseCounters = new PhaseCounters(context.getConfiguration());
     this.lobLoader = new LargeObjectLoader(context.getConfiguration(), FileOutputFormat.getWorkOutputPath(context));
   }
 
@@ -51,19 +54,24 @@ protected void setup(Context context)
   public void map(LongWritable key, SqoopRecord val, Context context)
       throws IOException, InterruptedException {
 
+    long start = phaseCounters.start();
     try {
       // Loading of LOBs was delayed until we have a Context.
       val.loadLargeObjects(lobLoader);
     } catch (SQLException sqlE) {
       throw new IOException(sqlE);
     }
+    start = phaseCounters.stop(PhaseCounters.Phase.LOB_LOAD, start);
 
     outkey.set(val.toString());
+    start = phaseCounters.stop(PhaseCounters.Phase.FORMAT, start);
     context.write(outkey, NullWritable.get());
+    phaseCounters.stop(PhaseCounters.Phase.WRITE, start);
   }
 
   @Override
   protected void cleanup(Context context) throws IOException {
+    phaseCounters.publish(context);
     if (null != lobLoader) {
       lobLoader.close();
     }
@@ -0,0 +1,404 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.sqoop.util.SqoopJsonUtil;
+
+/**
+ * The minimum and maximum values of the split column, as used by
+ * DataDrivenDBInputFormat to compute splits.
+ *
+ * Bounding values normally come from running the bounding query in
+ * getSplits(). They can also be supplied up front through the job
+ * configuration, e.g. from the previous run of a saved job, from the
+ * incremental last-value or from catalog statistics, in which case the
+ * bounding query is not run at all. Supplied values are usually approximate,
+ * so the first and last splits are then left open-ended and rows outside of
+ * the supplied range are still imported.
+ */
+public final class BoundingValues {
+
+  /** Name of the (unescaped) split column the bounding values belong to. */
+  public static final String COLUMN_KEY = "sqoop.split.bounds.column";
+
+  /** java.sql.Types type of the split column. */
+  public static final String TYPE_KEY = "sqoop.split.bounds.type";
+
+  public static final String MIN_KEY = "sqoop.split.bounds.min";
+
+  public static final String MAX_KEY = "sqoop.split.bounds.max";
+
+  /** Whether the values are the exact extremes of the split column. */
+  public static final String EXACT_KEY = "sqoop.split.bounds.exact";
+
+  /** Human readable origin of the values, for logging. */
+  public static final String SOURCE_KEY = "sqoop.split.bounds.source";
+
+  /**
+   * Timeout in seconds for the bounding query. If it expires, the import
+   * falls back to a single split. 0 means no timeout.
+   */
+  public static final String QUERY_TIMEOUT_KEY =
+      "sqoop.split.bounds.query.timeout";
+
+  /**
+   * Whether catalog statistics may be used as approximate bounding values
+   * when no better source is available.
+   */
+  public static final String USE_STATISTICS_KEY =
+      "sqoop.split.bounds.use.statistics";
+
+  /**
+   * Whether a saved incremental job may start from the bounding values of
+   * its previous run when the split column is the check column. Only the
+   * minimum is reused; the maximum is queried again.
+   */
+  public static final String CACHE_KEY = "sqoop.split.bounds.cache";
+
+  public static final String SOURCE_QUERY = "bounding query";
+
+  public static final String SOURCE_CACHE = "previous run";
+
+  private final String column;
+  private final int sqlType;
+  private final String min;
+  private final String max;
+  private final boolean exact;
+  private final String source;
+
+  public BoundingValues(String column, int sqlType, String min, String max,
+      boolean exact, String source) {
+    this.column = column;
+    this.sqlType = sqlType;
+    this.min = min;
+    this.max = max;
+    this.exact = exact;
+    this.source = source;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  public int getSqlType() {
+    return sqlType;
+  }
+
+  public String getMin() {
+    return min;
+  }
+
+  public String getMax() {
+    return max;
+  }
+
+  public boolean isExact() {
+    return exact;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * @return the bounding values stored in the configuration, or null if
+   * there are none.
+   */
+  public static BoundingValues get(Configuration conf) {
+    String type = conf.get(TYPE_KEY);
+    if (type == null) {
+      return null;
+    }
+    return new BoundingValues(conf.get(COLUMN_KEY), Integer.parseInt(type),
+        conf.get(MIN_KEY), conf.get(MAX_KEY),
+        conf.getBoolean(EXACT_KEY, false), conf.get(SOURCE_KEY));
+  }
+
+  /**
+   * Stores these bounding values in the configuration.
+   */
+  public void store(Configuration conf) {
+    clear(conf);
+    if (column != null) {
+      conf.set(COLUMN_KEY, column);
+    }
+    conf.setInt(TYPE_KEY, sqlType);
+    if (min != null) {
+      conf.set(MIN_KEY, min);
+    }
+    if (max != null) {
+      conf.set(MAX_KEY, max);
+    }
+    conf.setBoolean(EXACT_KEY, exact);
+    if (source != null) {
+      conf.set(SOURCE_KEY, source);
+    }
+  }
+
+  /**
+   * Removes any bounding values from the configuration, keeping the column.
+   */
+  public static void clear(Configuration conf) {
+    conf.unset(TYPE_KEY);
+    conf.unset(MIN_KEY);
+    conf.unset(MAX_KEY);
+    conf.unset(EXACT_KEY);
+    conf.unset(SOURCE_KEY);
+  }
+
+  /**
+   * Serializes the values, e.g. for storing them in the metastore.
+   */
+  public String toJson() {
+    Map<String, String> map = new HashMap<String, String>();
+    map.put("column", column);
+    map.put("type", Integer.toString(sqlType));
+    map.put("min", min);
+    map.put("max", max);
+    return SqoopJsonUtil.getJsonStringforMap(map);
+  }
+
+  /**
+   * @return the values serialized by toJson(), as approximate values from
+   * the given source, or null if json is empty.
+   */
+  public static BoundingValues fromJson(String json, String source) {
+    if (json == null || SqoopJsonUtil.isEmptyJSON(json)) {
+      return null;
+    }
+    Map<String, String> map = SqoopJsonUtil.getMapforJsonString(json);
+    if (!map.containsKey("type")) {
+      return null;
+    }
+    return new BoundingValues(map.get("column"),
+        Integer.parseInt(map.get("type")), map.get("min"), map.get("max"),
+        false, source);
+  }
+
+  /**
+   * Captures the values returned by a bounding query, which must already be
+   * positioned on its row.
+   */
+  public static BoundingValues fromResultSet(ResultSet results, int sqlType,
+      String column) throws SQLException {
+    return new BoundingValues(column, sqlType, getValue(results, 1, sqlType),
+        getValue(results, 2, sqlType), true, SOURCE_QUERY);
+  }
+
+  /**
+   * @return these values with the maximum replaced by the first column of
+   * the current row of results, as approximate values.
+   */
+  public BoundingValues withMax(ResultSet results) throws SQLException {
+    return new BoundingValues(column, sqlType, min,
+        getValue(results, 1, sqlType), false, source);
+  }
+
+  private static String getValue(ResultSet results, int col, int sqlType)
+      throws SQLException {
+    switch (sqlType) {
+    case Types.DATE:
+    case Types.TIME:
+    case Types.TIMESTAMP:
+      Timestamp ts = results.getTimestamp(col);
+      return ts == null ? null : ts.toString();
+    case Types.BIT:
+    case Types.BOOLEAN:
+      boolean b = results.getBoolean(col);
+      return results.wasNull() ? null : Boolean.toString(b);
+    default:
+      return results.getString(col);
+    }
+  }
+
+  /**
+   * @return a single row ResultSet holding (min, max), in the shape the
+   * DBSplitter implementations expect from a bounding query.
+   */
+  public ResultSet toResultSet() {
+    return (ResultSet) Proxy.newProxyInstance(
+        BoundingValues.class.getClassLoader(),
+        new Class<?>[] { ResultSet.class }, new ValuesHandler());
+  }
+
+  /**
+   * Widens the first and last splits so that rows outside of approximate
+   * bounding values are not lost. The splits must have been produced by a
+   * range based DBSplitter for this column.
+   */
+  public static void openEdges(List<InputSplit> splits, String colName) {
+    String nullClause = colName + " IS NULL";
+    String notNullClause = colName + " IS NOT NULL";
+    int last = splits.size() - 1;
+    while (last >= 0 && nullClause.equals(
+        ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(last))
+        .getLowerClause())) {
+      last--;
+    }
+    if (last < 0) {
+      return;
+    }
+
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit first =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(0);
+    if (last == 0) {
+      splits.set(0, new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+          notNullClause, notNullClause));
+      return;
+    }
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit lastSplit =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(last);
+    splits.set(0, new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+        notNullClause, first.getUpperClause()));
+    splits.set(last, new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+        lastSplit.getLowerClause(), notNullClause));
+  }
+
+  @Override
+  public String toString() {
+    return "[" + min + ", " + max + "] from " + source;
+  }
+
+  /**
+   * Answers the ResultSet calls made by the DBSplitter implementations from
+   * the string representation of the values.
+   */
+  private class ValuesHandler implements InvocationHandler {
+
+    private boolean beforeFirst = true;
+    private boolean wasNull;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable {
+      String name = method.getName();
+      if ("next".equals(name)) {
+        boolean hasRow = beforeFirst;
+        beforeFirst = false;
+        return hasRow;
+      } else if ("close".equals(name)) {
+        return null;
+      } else if ("wasNull".equals(name)) {
+        return wasNull;
+      } else if ("getMetaData".equals(name)) {
+        return Proxy.newProxyInstance(BoundingValues.class.getClassLoader(),
+            new Class<?>[] { ResultSetMetaData.class }, new MetaDataHandler());
+      } else if ("toString".equals(name)) {
+        return BoundingValues.this.toString();
+      } else if (name.startsWith("get") && args != null && args.length == 1
+          && args[0] instanceof Integer) {
+        String value = ((Integer) args[0]) == 1 ? min : max;
+        wasNull = value == null;
+        return convert(name, value, method.getReturnType());
+      }
+      throw new SQLFeatureNotSupportedException(name);
+    }
+  }
+
+  private class MetaDataHandler implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable {
+      String name = method.getName();
+      if ("getColumnType".equals(name)) {
+        return sqlType;
+      } else if ("isSigned".equals(name)) {
+        return true;
+      } else if ("getColumnCount".equals(name)) {
+        return 2;
+      }
+      throw new SQLFeatureNotSupportedException(name);
+    }
+  }
+
+  private static Object convert(String getter, String value,
+      Class<?> returnType) throws SQLException {
+    if (value == null) {
+      if (returnType == boolean.class) {
+        return false;
+      } else if (returnType == long.class) {
+        return 0L;
+      } else if (returnType == int.class) {
+        return 0;
+      } else if (returnType == double.class) {
+        return 0.0d;
+      } else if (returnType == float.class) {
+        return 0.0f;
+      }
+      return null;
+    }
+
+    if (returnType == String.class || returnType == Object.class) {
+      return value;
+    } else if (returnType == long.class) {
+      return new BigDecimal(value).longValue();
+    } else if (returnType == int.class) {
+      return new BigDecimal(value).intValue();
+    } else if (returnType == double.class) {
+      return Double.parseDouble(value);
+    } else if (returnType == float.class) {
+      return Float.parseFloat(value);
+    } else if (returnType == BigDecimal.class) {
+      return new BigDecimal(value);
+    } else if (returnType == boolean.class) {
+      return "true".equalsIgnoreCase(value) || "t".equalsIgnoreCase(value)
+          || "1".equals(value);
+    } else if (returnType == Timestamp.class) {
+      return toTimestamp(value);
+    } else if (returnType == Date.class) {
+      return new Date(toTimestamp(value).getTime());
+    } else if (returnType == Time.class) {
+      return new Time(toTimestamp(value).getTime());
+    }
+    throw new SQLFeatureNotSupportedException(getter);
+  }
+
+  private static Timestamp toTimestamp(String value) {
+    String trimmed = value.trim();
+    if (trimmed.startsWith("'") && trimmed.endsWith("'")
+        && trimmed.length() > 1) {
+      trimmed = trimmed.substring(1, trimmed.length() - 1);
+    }
+    if (trimmed.indexOf(' ') < 0) {
+      if (trimmed.indexOf(':') >= 0) {
+        trimmed = "1970-01-01 " + trimmed;
+      } else {
+        trimmed = trimmed + " 00:00:00";
+      }
+    }
+    return Timestamp.valueOf(trimmed);
+  }
+}
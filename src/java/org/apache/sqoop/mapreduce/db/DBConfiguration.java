@@ -33,6 +33,9 @@
 import org.apache.commons.lang.text.StrTokenizer;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.sqoop.db.DriverManagerJdbcConnectionFactory;
+import org.apache.sqoop.db.JdbcConnectionFactory;
+import org.apache.sqoop.db.decorator.PooledConnectionFactoryDecorator;
 import org.apache.sqoop.mapreduce.DBWritable;
 
 /**
@@ -69,6 +72,10 @@ public class DBConfiguration {
   private static final Text PASSWORD_SECRET_KEY =
     new Text(DBConfiguration.PASSWORD_PROPERTY);
 
+  /** Set by the framework in the configuration of every task. */
+  private static final String TASK_ATTEMPT_ID_PROPERTY =
+      "mapreduce.task.attempt.id";
+
   /** JDBC connection parameters. */
   public static final String CONNECTION_PARAMS_PROPERTY =
     "mapreduce.jdbc.params";
@@ -99,6 +106,20 @@ public class DBConfiguration {
   public static final String INPUT_COUNT_QUERY =
     "mapreduce.jdbc.input.count.query";
 
+  /**
+   * Whether DBInputFormat splits the input into ranges of a key column
+   * instead of LIMIT/OFFSET windows.
+   */
+  public static final String INPUT_KEYSET_PROPERTY =
+    "mapreduce.jdbc.input.keyset";
+
+  /**
+   * Key column of the keyset splits. Defaults to a single-column ORDER BY
+   * clause or, failing that, a single-column primary key.
+   */
+  public static final String INPUT_KEYSET_COLUMN_PROPERTY =
+    "mapreduce.jdbc.input.keyset.column";
+
   /** Input query to get the max and min values of the jdbc.input.query. */
   public static final String INPUT_BOUNDING_QUERY =
       "mapred.jdbc.input.bounding.query";
@@ -281,6 +302,30 @@ public Connection getConnection()
       conf.get(DBConfiguration.CONNECTION_PARAMS_PROPERTY);
     Properties connectionParams = propertiesFromString(connectionParamsStr);
 
+    // Only share connections on the client side (e.g. while computing the
+    // input splits); tasks use the driver's own connection classes directly.
+    if (conf.get(TASK_ATTEMPT_ID_PROPERTY) == null
+        && PooledConnectionFactoryDecorator.isEnabled(conf)) {
+      String driverClass = conf.get(DBConfiguration.DRIVER_CLASS_PROPERTY);
+      Properties props = new Properties();
+      if (connectionParams != null) {
+        props.putAll(connectionParams);
+      }
+      JdbcConnectionFactory factory = PooledConnectionFactoryDecorator.getShared(
+          conf, PooledConnectionFactoryDecorator.getKey(driverClass,
+              connectString, username, password, props),
+          new DriverManagerJdbcConnectionFactory(driverClass, connectString,
+              username, password, props));
+      try {
+        return factory.createConnection();
+      } catch (RuntimeException re) {
+        if (re.getCause() instanceof SQLException) {
+          throw (SQLException) re.getCause();
+        }
+        throw re;
+      }
+    }
+
     if (connectionParams != null && connectionParams.size() > 0) {
       Properties props = new Properties();
       if (username != null) {
@@ -367,6 +412,24 @@ public void setInputOrderBy(String orderby) {
     }
   }
 
+  public boolean isInputKeyset() {
+    return conf.getBoolean(DBConfiguration.INPUT_KEYSET_PROPERTY, false);
+  }
+
+  public String getInputKeysetColumn() {
+    return conf.get(DBConfiguration.INPUT_KEYSET_COLUMN_PROPERTY);
+  }
+
+  /**
+   * Enables keyset splits on the given column.
+   */
+  public void setInputKeysetColumn(String column) {
+    conf.setBoolean(DBConfiguration.INPUT_KEYSET_PROPERTY, true);
+    if (column != null && column.length() > 0) {
+      conf.set(DBConfiguration.INPUT_KEYSET_COLUMN_PROPERTY, column);
+    }
+  }
+
   public String getInputQuery() {
     return conf.get(DBConfiguration.INPUT_QUERY);
   }
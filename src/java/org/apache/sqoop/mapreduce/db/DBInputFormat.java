@@ -20,12 +20,17 @@
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -34,6 +39,7 @@
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -142,6 +148,177 @@ public void write(DataOutput output) throws IOException {
     }
   }
 
+  /**
+   * A DBInputSplit that selects the rows whose key is greater than the
+   * lower key and not greater than the upper key, so that the database can
+   * seek to the start of the split instead of skipping the rows before it.
+   * A null lower key means the split is the first one and also holds the
+   * rows with a null key; a null upper key means it is the last one.
+   */
+  public static class KeysetInputSplit extends DBInputSplit {
+
+    private String keyColumn;
+    private int keyType;
+    private String lowerKey;
+    private String upperKey;
+
+    /**
+     * Default Constructor.
+     */
+    public KeysetInputSplit() {
+    }
+
+    public KeysetInputSplit(long start, long end, String keyColumn,
+        int keyType, String lowerKey, String upperKey) {
+      super(start, end);
+      this.keyColumn = keyColumn;
+      this.keyType = keyType;
+      this.lowerKey = lowerKey;
+      this.upperKey = upperKey;
+    }
+
+    public String getKeyColumn() {
+      return keyColumn;
+    }
+
+    public String getLowerKey() {
+      return lowerKey;
+    }
+
+    public String getUpperKey() {
+      return upperKey;
+    }
+
+    /**
+     * @return the conditions selecting the rows of this split, with a
+     * parameter for each key that is set; null if there are none.
+     */
+    public String getRangeConditions() {
+      StringBuilder conditions = new StringBuilder();
+      if (null != lowerKey) {
+        conditions.append(keyColumn).append(" > ?");
+      }
+      if (null != upperKey) {
+        if (conditions.length() > 0) {
+          conditions.append(" AND ").append(keyColumn).append(" <= ?");
+        } else {
+          conditions.append("(").append(keyColumn).append(" <= ? OR ")
+              .append(keyColumn).append(" IS NULL)");
+        }
+      }
+      return conditions.length() > 0 ? conditions.toString() : null;
+    }
+
+    /**
+     * Binds the keys of this split to the parameters of
+     * getRangeConditions(), starting at the first parameter.
+     */
+    public void setParameters(PreparedStatement statement)
+        throws SQLException {
+      int index = 1;
+      if (null != lowerKey) {
+        setKey(statement, index++, lowerKey);
+      }
+      if (null != upperKey) {
+        setKey(statement, index, upperKey);
+      }
+    }
+
+    private void setKey(PreparedStatement statement, int index, String key)
+        throws SQLException {
+      switch (keyType) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+      case Types.BIGINT:
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+      case Types.REAL:
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        statement.setBigDecimal(index, new BigDecimal(key));
+        break;
+      case Types.DATE:
+        statement.setDate(index, Date.valueOf(key));
+        break;
+      case Types.TIME:
+        statement.setTime(index, Time.valueOf(key));
+        break;
+      case Types.TIMESTAMP:
+        statement.setTimestamp(index, Timestamp.valueOf(key));
+        break;
+      default:
+        statement.setString(index, key);
+      }
+    }
+
+    /**
+     * @return the key in the given column of the current row, in the form
+     * setParameters() expects for a key of the given type.
+     */
+    public static String getKey(ResultSet results, int column, int keyType)
+        throws SQLException {
+      Object key;
+      switch (keyType) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+      case Types.BIGINT:
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+      case Types.REAL:
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        BigDecimal number = results.getBigDecimal(column);
+        key = null == number ? null : number.toPlainString();
+        break;
+      case Types.DATE:
+        key = results.getDate(column);
+        break;
+      case Types.TIME:
+        key = results.getTime(column);
+        break;
+      case Types.TIMESTAMP:
+        key = results.getTimestamp(column);
+        break;
+      default:
+        key = results.getString(column);
+      }
+      return null == key ? null : key.toString();
+    }
+
+    @Override
+    /** {@inheritDoc} */
+    public void readFields(DataInput input) throws IOException {
+      super.readFields(input);
+      keyColumn = Text.readString(input);
+      keyType = input.readInt();
+      lowerKey = input.readBoolean() ? Text.readString(input) : null;
+      upperKey = input.readBoolean() ? Text.readString(input) : null;
+    }
+
+    @Override
+    /** {@inheritDoc} */
+    public void write(DataOutput output) throws IOException {
+      super.write(output);
+      Text.writeString(output, keyColumn);
+      output.writeInt(keyType);
+      output.writeBoolean(null != lowerKey);
+      if (null != lowerKey) {
+        Text.writeString(output, lowerKey);
+      }
+      output.writeBoolean(null != upperKey);
+      if (null != upperKey) {
+        Text.writeString(output, upperKey);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return keyColumn + " in (" + lowerKey + ", " + upperKey + "]";
+    }
+  }
+
   private String conditions;
 
   private Connection connection;
@@ -284,6 +461,15 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
       results.close();
       statement.close();
 
+      String keysetColumn = getKeysetColumn();
+      if (null != keysetColumn) {
+        List<InputSplit> splits = getKeysetSplits(keysetColumn, count, chunks);
+        if (null != splits) {
+          connection.commit();
+          return splits;
+        }
+      }
+
       List<InputSplit> splits = new ArrayList<InputSplit>();
 
       // Split the rows into n-number of chunks and adjust the last chunk
@@ -317,6 +503,160 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     }
   }
 
+  /**
+   * @return the column to take keyset splits on, or null to split with
+   * LIMIT/OFFSET.
+   */
+  protected String getKeysetColumn() throws SQLException {
+    if (!dbConf.isInputKeyset()) {
+      return null;
+    }
+    if (dbConf.getInputQuery() != null) {
+      LOG.warn("Keyset splits are not supported with an input query; "
+          + "using LIMIT/OFFSET splits.");
+      return null;
+    }
+
+    String column = dbConf.getInputKeysetColumn();
+    if (null == column) {
+      String orderBy = dbConf.getInputOrderBy();
+      if (orderBy != null && orderBy.trim().matches("[^\\s,]+")) {
+        column = orderBy.trim();
+      }
+    }
+    if (null == column) {
+      column = getPrimaryKey();
+    }
+    if (null == column) {
+      LOG.warn("No key column found for keyset splits of " + tableName
+          + "; using LIMIT/OFFSET splits.");
+    }
+    return column;
+  }
+
+  /**
+   * @return the single primary key column of the input table, or null.
+   */
+  private String getPrimaryKey() throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    for (String table : new String[] {tableName, tableName.toUpperCase()}) {
+      List<String> columns = new ArrayList<String>();
+      ResultSet keys = metaData.getPrimaryKeys(null, null, table);
+      try {
+        while (keys.next()) {
+          columns.add(keys.getString("COLUMN_NAME"));
+        }
+      } finally {
+        keys.close();
+      }
+      if (columns.size() == 1) {
+        return columns.get(0);
+      } else if (columns.size() > 1) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Splits the rows into key ranges of about count / chunks rows each.
+   * The database numbers the keys with ROW_NUMBER() and returns only the
+   * chunks - 1 boundary keys, so planning does not stream the key column
+   * to the client.
+   *
+   * @return the splits, or null if the database cannot number the rows.
+   */
+  protected List<InputSplit> getKeysetSplits(String keyColumn, long count,
+      int chunks) throws SQLException {
+    String query = getKeysetBoundaryQuery(tableName, conditions, keyColumn,
+        count, chunks);
+    if (null == query) {
+      return getKeysetSplits(null, keyColumn, count, chunks);
+    }
+
+    LOG.info("Reading keyset split boundaries: " + query);
+    PreparedStatement statement = null;
+    ResultSet results = null;
+    try {
+      statement = connection.prepareStatement(query,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      results = statement.executeQuery();
+      return getKeysetSplits(results, keyColumn, count, chunks);
+    } catch (SQLException e) {
+      LOG.warn("Could not read keyset split boundaries; using LIMIT/OFFSET "
+          + "splits: " + e.getMessage());
+      connection.rollback();
+      return null;
+    } finally {
+      try {
+        if (results != null) { results.close(); }
+      } catch (SQLException e1) { /* ignored */ }
+      try {
+        if (statement != null) { statement.close(); }
+      } catch (SQLException e1) { /* ignored */ }
+    }
+  }
+
+  /**
+   * @return the query selecting each boundary key and its row number, or
+   * null if a single split covers all rows.
+   */
+  static String getKeysetBoundaryQuery(String table, String conditions,
+      String keyColumn, long count, int chunks) {
+    long chunkSize = Math.max(1, count / chunks);
+    StringBuilder rows = new StringBuilder();
+    for (long row = chunkSize; row < count && row / chunkSize < chunks;
+        row += chunkSize) {
+      if (rows.length() > 0) {
+        rows.append(", ");
+      }
+      rows.append(row);
+    }
+    if (rows.length() == 0) {
+      return null;
+    }
+
+    StringBuilder query = new StringBuilder();
+    query.append("SELECT ").append(keyColumn).append(", sqoop_rn FROM (")
+        .append("SELECT ").append(keyColumn)
+        .append(", ROW_NUMBER() OVER (ORDER BY ").append(keyColumn)
+        .append(") AS sqoop_rn FROM ").append(table)
+        .append(" WHERE ").append(keyColumn).append(" IS NOT NULL");
+    if (conditions != null && conditions.length() > 0) {
+      query.append(" AND (").append(conditions).append(")");
+    }
+    query.append(") sqoop_keys WHERE sqoop_rn IN (").append(rows)
+        .append(") ORDER BY sqoop_rn");
+    return query.toString();
+  }
+
+  /**
+   * Splits the rows into the given number of chunks at the boundary keys
+   * of a result set holding each key and its row number, in order. The
+   * last chunk is open-ended.
+   */
+  static List<InputSplit> getKeysetSplits(ResultSet keys, String keyColumn,
+      long count, int chunks) throws SQLException {
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    int keyType = Types.VARCHAR;
+    long start = 0;
+    String lowerKey = null;
+    if (keys != null) {
+      keyType = keys.getMetaData().getColumnType(1);
+      while (splits.size() < chunks - 1 && keys.next()) {
+        long row = keys.getLong(2);
+        String upperKey = KeysetInputSplit.getKey(keys, 1, keyType);
+        splits.add(new KeysetInputSplit(start, row, keyColumn, keyType,
+            lowerKey, upperKey));
+        lowerKey = upperKey;
+        start = row;
+      }
+    }
+    splits.add(new KeysetInputSplit(start, Math.max(start, count), keyColumn,
+        keyType, lowerKey, null));
+    return splits;
+  }
+
   /** Returns the query for getting the total number of rows,
    * subclasses can override this for custom behaviour.*/
   protected String getCountQuery() {
@@ -35,6 +35,7 @@
 import org.apache.hadoop.util.ReflectionUtils;
 
 import org.apache.sqoop.util.LoggingUtils;
+import org.apache.sqoop.util.PhaseCounters;
 
 /**
  * A RecordReader that reads records from a SQL table.
@@ -72,6 +73,10 @@
 
   private String tableName;
 
+  private final PhaseCounters phaseCounters;
+
+  private TaskAttemptContext taskContext;
+
   /**
    * @param split The InputSplit to read data for
    * @throws SQLException
@@ -92,6 +97,8 @@ public DBRecordReader(DBInputFormat.DBInputSplit split,
       this.fieldNames = Arrays.copyOf(fields, fields.length);
     }
     this.tableName = table;
+    this.phaseCounters = null == conf
+        ? new PhaseCounters(false) : new PhaseCounters(conf);
   }
   // CHECKSTYLE:ON
 
@@ -105,6 +112,10 @@ protected ResultSet executeQuery(String query) throws SQLException {
       statement.setFetchSize(fetchSize);
     }
 
+    if (split instanceof DBInputFormat.KeysetInputSplit) {
+      ((DBInputFormat.KeysetInputSplit) split).setParameters(statement);
+    }
+
     LOG.info("Executing query: " + query);
     return statement.executeQuery();
   }
@@ -132,6 +143,11 @@ protected String getSelectQuery() {
         query.append(" WHERE (").append(conditions).append(")");
       }
 
+      if (split instanceof DBInputFormat.KeysetInputSplit) {
+        appendKeysetRange(query, conditions != null && conditions.length() > 0);
+        return query.toString();
+      }
+
       String orderBy = dbConf.getInputOrderBy();
       if (orderBy != null && orderBy.length() > 0) {
         query.append(" ORDER BY ").append(orderBy);
@@ -151,8 +167,24 @@ protected String getSelectQuery() {
     return query.toString();
   }
 
+  /**
+   * Appends the key range of a keyset split to a table query, ordered by
+   * the key, in place of LIMIT/OFFSET.
+   * @param hasWhere whether the query already has a WHERE clause.
+   */
+  protected void appendKeysetRange(StringBuilder query, boolean hasWhere) {
+    DBInputFormat.KeysetInputSplit keysetSplit =
+        (DBInputFormat.KeysetInputSplit) split;
+    String range = keysetSplit.getRangeConditions();
+    if (null != range) {
+      query.append(hasWhere ? " AND " : " WHERE ").append(range);
+    }
+    query.append(" ORDER BY ").append(keysetSplit.getKeyColumn());
+  }
+
   @Override
   public void close() throws IOException {
+    phaseCounters.publish(taskContext);
     try {
       if (null != results) {
         results.close();
@@ -174,7 +206,8 @@ public void close() throws IOException {
 
   public void initialize(InputSplit inputSplit, TaskAttemptContext context)
       throws IOException, InterruptedException {
-    //do nothing
+    // Keep the context to publish the phase timings on close.
+    this.taskContext = context;
   }
 
   @Override
@@ -232,14 +265,17 @@ public boolean nextKeyValue() throws IOException {
         LOG.info("Working on split: " + split);
         this.results = executeQuery(getSelectQuery());
       }
+      long start = phaseCounters.start();
       if (!results.next()) {
         return false;
       }
+      start = phaseCounters.stop(PhaseCounters.Phase.FETCH, start);
 
       // Set the key field value as the output key value
       key.set(pos + split.getStart());
 
       value.readFields(results);
+      phaseCounters.stop(PhaseCounters.Phase.DECODE, start);
 
       pos++;
     } catch (SQLException e) {
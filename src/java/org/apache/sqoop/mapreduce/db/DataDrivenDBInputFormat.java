@@ -23,10 +23,12 @@
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -110,6 +112,10 @@ protected DBSplitter getSplitter(int sqlDataType, long splitLimit) {
       if(splitLimit >= 0) {
         throw new IllegalArgumentException("split-limit is supported only with Integer and Date columns");
       }
+      if (SampledTextSplitter.isEnabled(getDBConf())) {
+        return new SampledTextSplitter(getConnection(), getDBConf(),
+            getDBProductName(), true);
+      }
       return new NTextSplitter();
 
     case Types.CHAR:
@@ -118,6 +124,10 @@ protected DBSplitter getSplitter(int sqlDataType, long splitLimit) {
       if(splitLimit >= 0) {
          throw new IllegalArgumentException("split-limit is supported only with Integer and Date columns");
       }
+      if (SampledTextSplitter.isEnabled(getDBConf())) {
+        return new SampledTextSplitter(getConnection(), getDBConf(),
+            getDBProductName(), false);
+      }
       return new TextSplitter();
 
     case Types.DATE:
@@ -138,7 +148,24 @@ protected DBSplitter getSplitter(int sqlDataType, long splitLimit) {
   @Override
   /** {@inheritDoc} */
   public List<InputSplit> getSplits(JobContext job) throws IOException {
+    ImportCheckpoint checkpoint = ImportCheckpoint.get(job.getConfiguration());
+    if (null == checkpoint) {
+      return computeSplits(job);
+    }
+
+    // Split ranges must not change between the runs of a checkpointed
+    // import, so resumed runs reuse the recorded ones.
+    int run = job.getConfiguration().getInt(
+        ImportCheckpoint.CHECKPOINT_RUN_KEY, 0);
+    List<InputSplit> splits = checkpoint.getPendingSplits(run);
+    if (null == splits) {
+      splits = computeSplits(job);
+    }
+    checkpoint.recordSplits(run, splits);
+    return splits;
+  }
 
+  private List<InputSplit> computeSplits(JobContext job) throws IOException {
     int targetNumTasks = ConfigurationHelper.getJobNumMaps(job);
     String boundaryQuery = getDBConf().getInputBoundingQuery();
 
@@ -151,22 +178,50 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     if (1 == targetNumTasks
             && (boundaryQuery == null || boundaryQuery.isEmpty())
             && splitLimit <= 0) {
-      List<InputSplit> singletonSplit = new ArrayList<InputSplit>();
-      singletonSplit.add(new org.apache.sqoop.mapreduce.db.
-          DataDrivenDBInputFormat.DataDrivenDBInputSplit("1=1", "1=1"));
-      return singletonSplit;
+      return singleSplit();
+    }
+
+    Configuration conf = job.getConfiguration();
+    BoundingValues providedBounds = null;
+    if (boundaryQuery == null || boundaryQuery.isEmpty()) {
+      providedBounds = BoundingValues.get(conf);
     }
 
     ResultSet results = null;
     Statement statement = null;
     Connection connection = getConnection();
+    int timeout = conf.getInt(BoundingValues.QUERY_TIMEOUT_KEY, 0);
     try {
-      statement = connection.createStatement();
-
-      String query = getBoundingValsQuery();
-      LOG.info("BoundingValsQuery: " + query);
+      long boundsStart = System.nanoTime();
+      if (null != providedBounds
+          && BoundingValues.SOURCE_CACHE.equals(providedBounds.getSource())) {
+        // The table may have grown since the previous run.
+        providedBounds = refreshMax(connection, providedBounds, timeout);
+      }
+      if (null != providedBounds) {
+        LOG.info("Using bounding values " + providedBounds
+            + " instead of running the bounding query");
+        results = providedBounds.toResultSet();
+      } else {
+        statement = connection.createStatement();
+        if (timeout > 0) {
+          statement.setQueryTimeout(timeout);
+        }
 
-      results = statement.executeQuery(query);
+        String query = getBoundingValsQuery();
+        LOG.info("BoundingValsQuery: " + query);
+
+        try {
+          results = statement.executeQuery(query);
+        } catch (SQLException sqle) {
+          if (timeout > 0 && isTimeout(sqle)) {
+            LOG.warn("Bounding query did not complete within " + timeout
+                + " seconds; falling back to a single split: " + sqle);
+            return singleSplit();
+          }
+          throw sqle;
+        }
+      }
       results.next();
 
       // Based on the type of the results, use a different mechanism
@@ -180,7 +235,19 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
           sqlDataType = Types.BIGINT;
       }
 
-      DBSplitter splitter = getSplitter(sqlDataType, splitLimit);
+      if (null == providedBounds) {
+        // Remember the exact values so the client can reuse them.
+        BoundingValues.fromResultSet(results, sqlDataType,
+            conf.get(BoundingValues.COLUMN_KEY)).store(conf);
+      }
+      LOG.info("Bounding values determined in "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - boundsStart)
+          + " ms");
+
+      DBSplitter splitter = PhysicalSplits.getSplitter(conf);
+      if (null == splitter) {
+        splitter = getSplitter(sqlDataType, splitLimit);
+      }
       if (null == splitter) {
         throw new IOException("Sqoop does not have the splitter for the given"
           + " SQL data type. Please use either different split column (argument"
@@ -189,8 +256,14 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
       }
 
       try {
-        return splitter.split(job.getConfiguration(), results,
+        List<InputSplit> splits = splitter.split(conf, results,
                   getDBConf().getInputOrderBy());
+        if (null != providedBounds && !providedBounds.isExact()
+            && sqlDataType != Types.BIT && sqlDataType != Types.BOOLEAN
+            && !(splitter instanceof SampledTextSplitter)) {
+          BoundingValues.openEdges(splits, getDBConf().getInputOrderBy());
+        }
+        return splits;
       } catch (ValidationException e) {
         throw new IOException(e);
       }
@@ -224,6 +297,16 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
     }
   }
 
+  /**
+   * @return a single split that separates nothing.
+   */
+  private List<InputSplit> singleSplit() {
+    List<InputSplit> singletonSplit = new ArrayList<InputSplit>();
+    singletonSplit.add(new org.apache.sqoop.mapreduce.db.
+        DataDrivenDBInputFormat.DataDrivenDBInputSplit("1=1", "1=1"));
+    return singletonSplit;
+  }
+
   /**
    * @return a query which returns the minimum and maximum values for
    * the order-by column.
@@ -231,6 +314,57 @@ public List<InputSplit> getSplits(JobContext job) throws IOException {
    * The min value should be in the first column, and the
    * max value should be in the second column of the results.
    */
+  /**
+   * @return true if the exception reports that a statement timed out. Not
+   * every driver throws SQLTimeoutException; some only set the SQLState of
+   * a timeout (HYT00) or of a cancelled statement (57014).
+   */
+  static boolean isTimeout(SQLException sqle) {
+    String state = sqle.getSQLState();
+    return sqle instanceof SQLTimeoutException
+        || "HYT00".equals(state) || "57014".equals(state);
+  }
+
+  /**
+   * @return the cached bounding values with the current maximum of the split
+   * column, or null if the bounding query has to run instead.
+   */
+  private BoundingValues refreshMax(Connection connection,
+      BoundingValues cached, int timeout) throws SQLException {
+    if (null != getDBConf().getInputBoundingQuery()) {
+      return null;
+    }
+
+    StringBuilder query = new StringBuilder();
+    query.append("SELECT MAX(").append(getDBConf().getInputOrderBy())
+        .append(") FROM ").append(getDBConf().getInputTableName());
+    String conditions = getDBConf().getInputConditions();
+    if (null != conditions) {
+      query.append(" WHERE ( " + conditions + " )");
+    }
+    LOG.info("Refreshing the maximum of the cached bounding values: "
+        + query);
+
+    Statement stmt = connection.createStatement();
+    try {
+      if (timeout > 0) {
+        stmt.setQueryTimeout(timeout);
+      }
+      ResultSet rs = stmt.executeQuery(query.toString());
+      try {
+        if (!rs.next()) {
+          return null;
+        }
+        BoundingValues refreshed = cached.withMax(rs);
+        return null == refreshed.getMax() ? null : refreshed;
+      } finally {
+        rs.close();
+      }
+    } finally {
+      stmt.close();
+    }
+  }
+
   protected String getBoundingValsQuery() {
     // If the user has provided a query, use that instead.
     String userQuery = getDBConf().getInputBoundingQuery();
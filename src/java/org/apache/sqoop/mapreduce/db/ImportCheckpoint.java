@@ -0,0 +1,365 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.sqoop.io.BgzfOutputStream;
+
+/**
+ * Checkpoint of an import, kept so that a failed import can be resumed
+ * without importing the completed split ranges again.
+ *
+ * Every run of the import writes its output to its own run-NNNNN directory
+ * under the checkpoint directory and records the split ranges it was given
+ * in a _SPLITS-NNNNN file. The v2 file output committer moves the output
+ * of every successful map task into the run directory right away, so the
+ * output of a completed range survives a failed job. A range is completed
+ * once the run directory holds a part file for its task.
+ *
+ * A resumed run imports only the ranges of the first run that have not
+ * been completed by any run. Once a run succeeds, the output of all runs is
+ * moved to the import destination and the checkpoint is removed.
+ */
+public class ImportCheckpoint {
+
+  public static final Log LOG =
+      LogFactory.getLog(ImportCheckpoint.class.getName());
+
+  /** Configuration key holding the checkpoint directory of the import. */
+  public static final String CHECKPOINT_DIR_KEY = "sqoop.import.checkpoint.dir";
+
+  /** Configuration key holding the number of the current run. */
+  public static final String CHECKPOINT_RUN_KEY = "sqoop.import.checkpoint.run";
+
+  private static final String SPLITS_PREFIX = "_SPLITS-";
+  private static final String QUERY_FILE = "_QUERY";
+  private static final String RUN_PREFIX = "run-";
+  private static final int RUN_DIGITS = 5;
+
+  /** Map task output files, named like part-m-00003.gz. */
+  private static final Pattern PART_PATTERN =
+      Pattern.compile(".*-m-([0-9]{5})(\\..*)?");
+
+  /** Settings which determine the rows selected by each split range. */
+  private static final String [] QUERY_KEYS = {
+    DBConfiguration.URL_PROPERTY,
+    DBConfiguration.INPUT_TABLE_NAME_PROPERTY,
+    DBConfiguration.INPUT_FIELD_NAMES_PROPERTY,
+    DBConfiguration.INPUT_CONDITIONS_PROPERTY,
+    DBConfiguration.INPUT_ORDER_BY_PROPERTY,
+    DBConfiguration.INPUT_QUERY,
+  };
+
+  private final FileSystem fs;
+  private final Path dir;
+
+  public ImportCheckpoint(Path dir, Configuration conf) throws IOException {
+    this.fs = dir.getFileSystem(conf);
+    this.dir = dir;
+  }
+
+  /**
+   * @return the checkpoint of the import configured in conf, or null if
+   * the import is not checkpointed.
+   */
+  public static ImportCheckpoint get(Configuration conf) throws IOException {
+    String checkpointDir = conf.get(CHECKPOINT_DIR_KEY);
+    if (null == checkpointDir) {
+      return null;
+    }
+    return new ImportCheckpoint(new Path(checkpointDir), conf);
+  }
+
+  public Path getDir() {
+    return dir;
+  }
+
+  /**
+   * Set up the next run of the import: direct the job output to a new run
+   * directory, and start over if the import no longer selects the same
+   * rows as the checkpointed runs.
+   * Must be called once the input of the job is configured.
+   */
+  public void configure(Job job) throws IOException {
+    Configuration conf = job.getConfiguration();
+    String query = describeQuery(conf);
+    if (fs.exists(dir) && !query.equals(readQuery())) {
+      LOG.warn("The import has changed since checkpoint " + dir
+          + " was written; importing all rows again.");
+      fs.delete(dir, true);
+    }
+    if (!fs.exists(dir)) {
+      fs.mkdirs(dir);
+      writeQuery(query);
+    }
+
+    int run = getNextRun();
+    if (run > 0) {
+      LOG.info("Resuming import from checkpoint " + dir);
+    }
+    conf.set(CHECKPOINT_DIR_KEY, dir.toString());
+    conf.setInt(CHECKPOINT_RUN_KEY, run);
+    // Publish the output of each task as soon as it completes.
+    conf.setInt(FileOutputCommitter.FILEOUTPUTCOMMITTER_ALGORITHM_VERSION, 2);
+    FileOutputFormat.setOutputPath(job, getRunDir(run));
+  }
+
+  /**
+   * @return the split ranges still to be imported, or null if no earlier
+   * run has recorded its split ranges.
+   */
+  public List<InputSplit> getPendingSplits(int run) throws IOException {
+    // The first run that got as far as computing its splits defines the
+    // ranges of the whole import.
+    List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> all = null;
+    for (int i = 0; i < run && null == all; i++) {
+      all = readSplits(i);
+    }
+    if (null == all) {
+      return null;
+    }
+
+    Set<String> completed = new HashSet<String>();
+    for (int i = 0; i < run; i++) {
+      List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> splits =
+          readSplits(i);
+      if (null == splits) {
+        continue;
+      }
+      for (int task : getCompletedTasks(i)) {
+        if (task < splits.size()) {
+          completed.add(getRange(splits.get(task)));
+        }
+      }
+    }
+
+    List<InputSplit> pending = new ArrayList<InputSplit>();
+    for (DataDrivenDBInputFormat.DataDrivenDBInputSplit split : all) {
+      if (!completed.contains(getRange(split))) {
+        pending.add(split);
+      }
+    }
+    LOG.info((all.size() - pending.size()) + " of " + all.size()
+        + " split ranges were already imported; importing " + pending.size()
+        + " remaining ranges");
+    return pending;
+  }
+
+  /**
+   * Record the split ranges of a run, in task order.
+   */
+  public void recordSplits(int run, List<InputSplit> splits)
+      throws IOException {
+    FSDataOutputStream out = fs.create(getSplitsFile(run), true);
+    try {
+      out.writeInt(splits.size());
+      for (InputSplit split : splits) {
+        ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) split).write(out);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Move the output of all runs to the destination, numbering the part
+   * files consecutively, and remove the checkpoint.
+   */
+  public void complete(Path destination, Configuration conf)
+      throws IOException {
+    fs.mkdirs(destination);
+    NumberFormat partFormat = getNumberFormat();
+    int part = 0;
+    int runs = getNextRun();
+    for (int run = 0; run < runs; run++) {
+      Path runDir = getRunDir(run);
+      if (!fs.exists(runDir)) {
+        continue;
+      }
+      FileStatus[] stats = fs.listStatus(runDir);
+      Set<String> names = new HashSet<String>();
+      for (FileStatus stat : stats) {
+        names.add(stat.getPath().getName());
+      }
+      for (FileStatus stat : stats) {
+        String name = stat.getPath().getName();
+        if (name.startsWith("_") || name.startsWith(".")) {
+          continue;
+        }
+        Matcher m = PART_PATTERN.matcher(name);
+        String target = name;
+        if (m.matches()) {
+          target = name.substring(0, m.start(1))
+              + partFormat.format(part++) + name.substring(m.end(1));
+        }
+        Path targetPath = new Path(destination, target);
+        move(stat.getPath(), targetPath);
+
+        // The block index of a BGZF file follows it under its new name.
+        Path indexPath = BgzfOutputStream.getIndexPath(stat.getPath());
+        if (names.contains(indexPath.getName())) {
+          move(indexPath, BgzfOutputStream.getIndexPath(targetPath));
+        }
+      }
+    }
+
+    if (conf.getBoolean(FileOutputCommitter.SUCCESSFUL_JOB_OUTPUT_DIR_MARKER,
+        true)) {
+      fs.create(new Path(destination, FileOutputCommitter.SUCCEEDED_FILE_NAME),
+          true).close();
+    }
+    fs.delete(dir, true);
+    LOG.info("Moved the output of " + runs + " runs to " + destination);
+  }
+
+  private void move(Path source, Path target) throws IOException {
+    if (!fs.rename(source, target)) {
+      throw new IOException("Could not move " + source + " to " + target);
+    }
+  }
+
+  /** @return the tasks of a run which have committed their output. */
+  private Set<Integer> getCompletedTasks(int run) throws IOException {
+    Set<Integer> tasks = new HashSet<Integer>();
+    Path runDir = getRunDir(run);
+    if (!fs.exists(runDir)) {
+      return tasks;
+    }
+    for (FileStatus stat : fs.listStatus(runDir)) {
+      Matcher m = PART_PATTERN.matcher(stat.getPath().getName());
+      if (!stat.isDirectory() && m.matches()) {
+        tasks.add(Integer.parseInt(m.group(1)));
+      }
+    }
+    return tasks;
+  }
+
+  private List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> readSplits(
+      int run) throws IOException {
+    Path file = getSplitsFile(run);
+    if (!fs.exists(file)) {
+      return null;
+    }
+    List<DataDrivenDBInputFormat.DataDrivenDBInputSplit> splits =
+        new ArrayList<DataDrivenDBInputFormat.DataDrivenDBInputSplit>();
+    FSDataInputStream in = fs.open(file);
+    try {
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        DataDrivenDBInputFormat.DataDrivenDBInputSplit split =
+            new DataDrivenDBInputFormat.DataDrivenDBInputSplit();
+        split.readFields(in);
+        splits.add(split);
+      }
+    } finally {
+      in.close();
+    }
+    return splits;
+  }
+
+  private int getNextRun() throws IOException {
+    int next = 0;
+    if (!fs.exists(dir)) {
+      return next;
+    }
+    for (FileStatus stat : fs.listStatus(dir)) {
+      String name = stat.getPath().getName();
+      String number = null;
+      if (name.startsWith(SPLITS_PREFIX)) {
+        number = name.substring(SPLITS_PREFIX.length());
+      } else if (name.startsWith(RUN_PREFIX)) {
+        number = name.substring(RUN_PREFIX.length());
+      }
+      if (null != number) {
+        next = Math.max(next, Integer.parseInt(number) + 1);
+      }
+    }
+    return next;
+  }
+
+  private static String getRange(
+      DataDrivenDBInputFormat.DataDrivenDBInputSplit split) {
+    return split.getLowerClause() + '\u0000' + split.getUpperClause();
+  }
+
+  private static String describeQuery(Configuration conf) {
+    StringBuilder sb = new StringBuilder();
+    for (String key : QUERY_KEYS) {
+      sb.append(key).append('=').append(conf.get(key, "")).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private String readQuery() throws IOException {
+    Path file = new Path(dir, QUERY_FILE);
+    if (!fs.exists(file)) {
+      return null;
+    }
+    FSDataInputStream in = fs.open(file);
+    try {
+      return Text.readString(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  private void writeQuery(String query) throws IOException {
+    FSDataOutputStream out = fs.create(new Path(dir, QUERY_FILE), true);
+    try {
+      Text.writeString(out, query);
+    } finally {
+      out.close();
+    }
+  }
+
+  private Path getRunDir(int run) {
+    return new Path(dir, RUN_PREFIX + getNumberFormat().format(run));
+  }
+
+  private Path getSplitsFile(int run) {
+    return new Path(dir, SPLITS_PREFIX + getNumberFormat().format(run));
+  }
+
+  private static NumberFormat getNumberFormat() {
+    NumberFormat format = NumberFormat.getInstance();
+    format.setMinimumIntegerDigits(RUN_DIGITS);
+    format.setGroupingUsed(false);
+    return format;
+  }
+}
@@ -72,6 +72,15 @@ protected String getSelectQuery() {
       }
 
       query.append(" FROM ").append(tableName);
+      if (getSplit() instanceof DBInputFormat.KeysetInputSplit) {
+        // The key range replaces the ROWNUM window below.
+        boolean hasWhere = conditions != null && conditions.length() > 0;
+        if (hasWhere) {
+          query.append(" WHERE (").append(conditions).append(")");
+        }
+        appendKeysetRange(query, hasWhere);
+        return query.toString();
+      }
       if (conditions != null && conditions.length() > 0) {
         query.append(" WHERE ").append(conditions);
       }
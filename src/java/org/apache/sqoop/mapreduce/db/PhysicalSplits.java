@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.ReflectionUtils;
+
+/**
+ * Describes how a ConnManager splits a table by its physical storage
+ * rather than by the values of a split column, so that every mapper reads
+ * a contiguous range of the table. Used for tables without a good numeric
+ * split column.
+ *
+ * The split expression takes the place of the split column and the
+ * bounding query returns its lowest and highest values. When a splitter
+ * class is given it divides that range instead of the splitter for the
+ * type of the bounding values.
+ */
+public class PhysicalSplits {
+
+  public static final Log LOG = LogFactory.getLog(
+      PhysicalSplits.class.getName());
+
+  /** Whether imports use the physical splits of the ConnManager. */
+  public static final String PHYSICAL_SPLITS_KEY = "sqoop.split.physical";
+
+  /** The DBSplitter that divides the range of the bounding query. */
+  public static final String SPLITTER_CLASS_KEY = "sqoop.split.splitter.class";
+
+  private final String splitExpression;
+  private final String boundingQuery;
+  private final Class<? extends DBSplitter> splitterClass;
+
+  /**
+   * @param splitExpression the (escaped) expression to split on.
+   * @param boundingQuery the query returning the lowest and highest values
+   * of the expression, or null to take MIN/MAX over the table.
+   * @param splitterClass the splitter to use, or null to choose one by the
+   * type of the bounding values.
+   */
+  public PhysicalSplits(String splitExpression, String boundingQuery,
+      Class<? extends DBSplitter> splitterClass) {
+    this.splitExpression = splitExpression;
+    this.boundingQuery = boundingQuery;
+    this.splitterClass = splitterClass;
+  }
+
+  public String getSplitExpression() {
+    return splitExpression;
+  }
+
+  public String getBoundingQuery() {
+    return boundingQuery;
+  }
+
+  public Class<? extends DBSplitter> getSplitterClass() {
+    return splitterClass;
+  }
+
+  /**
+   * @return true if the user asked for physical splits.
+   */
+  public static boolean isEnabled(Configuration conf) {
+    return conf.getBoolean(PHYSICAL_SPLITS_KEY, false);
+  }
+
+  /**
+   * Set up a DataDrivenDBInputFormat table import to use these splits.
+   */
+  public void configure(Configuration conf) {
+    LOG.info("Splitting on " + splitExpression);
+    new DBConfiguration(conf).setInputOrderBy(splitExpression);
+    if (null != boundingQuery) {
+      conf.set(DBConfiguration.INPUT_BOUNDING_QUERY, boundingQuery);
+    }
+    if (null != splitterClass) {
+      conf.setClass(SPLITTER_CLASS_KEY, splitterClass, DBSplitter.class);
+    }
+  }
+
+  /**
+   * @return the configured splitter, or null if the splitter should be
+   * chosen by the type of the bounding values.
+   */
+  public static DBSplitter getSplitter(Configuration conf) {
+    Class<? extends DBSplitter> splitterClass =
+        conf.getClass(SPLITTER_CLASS_KEY, null, DBSplitter.class);
+    if (null == splitterClass) {
+      return null;
+    }
+    return ReflectionUtils.newInstance(splitterClass, conf);
+  }
+
+  @Override
+  public String toString() {
+    return splitExpression;
+  }
+}
@@ -111,6 +111,8 @@ String getLastRecordValue() {
    */
   public void initialize(InputSplit inputSplit, TaskAttemptContext context)
       throws IOException, InterruptedException {
+    super.initialize(inputSplit, context);
+
     // Load the configured connection failure handler
     Configuration conf = getConf();
     if (conf == null) {
@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+
+import org.apache.sqoop.config.ConfigurationHelper;
+
+/**
+ * Implement DBSplitter over text strings by asking the database for evenly
+ * spaced values of the column.
+ *
+ * Unlike TextSplitter, which interpolates between the minimum and maximum
+ * as if strings sorted by code point, the split points are the upper values
+ * of NTILE buckets ordered under the column's own collation, and every
+ * comparison in the split clauses is evaluated by the database under that
+ * same collation. Each row therefore falls in exactly one split, whatever
+ * the collation is, and the splits hold about the same number of rows.
+ */
+public class SampledTextSplitter implements DBSplitter {
+
+  private static final Log LOG = LogFactory.getLog(SampledTextSplitter.class);
+
+  /** Use this splitter for text split columns of table imports. */
+  public static final String SAMPLED_TEXT_SPLITTER_KEY =
+      "sqoop.split.text.sampled";
+
+  /**
+   * Percentage of the table to sample for the split points, on databases
+   * that support TABLESAMPLE. By default the whole column is read.
+   */
+  public static final String SAMPLE_PERCENT_KEY =
+      "sqoop.split.text.sample.percent";
+
+  private final Connection connection;
+  private final DBConfiguration dbConf;
+  private final String dbProductName;
+  private final boolean useNCharStrings;
+
+  public SampledTextSplitter(Connection connection, DBConfiguration dbConf,
+      String dbProductName, boolean useNCharStrings) {
+    this.connection = connection;
+    this.dbConf = dbConf;
+    this.dbProductName = dbProductName;
+    this.useNCharStrings = useNCharStrings;
+  }
+
+  /**
+   * @return true if text split columns of the input table should be split
+   * with this splitter.
+   */
+  public static boolean isEnabled(DBConfiguration dbConf) {
+    return dbConf.getConf().getBoolean(SAMPLED_TEXT_SPLITTER_KEY, false)
+        && null == dbConf.getInputQuery()
+        && null != dbConf.getInputTableName();
+  }
+
+  public List<InputSplit> split(Configuration conf, ResultSet results,
+      String colName) throws SQLException {
+    int numSplits = ConfigurationHelper.getConfNumMaps(conf);
+    if (numSplits < 1) {
+      numSplits = 1;
+    }
+
+    List<String> splitPoints = getSplitPoints(conf, colName, numSplits);
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    if (splitPoints.isEmpty()) {
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+          "1=1", "1=1"));
+      return splits;
+    }
+
+    // The values above the last split point and the nulls go to the last
+    // and first split, so rows added since the sample are not lost.
+    String lower = null;
+    for (int i = 0; i < splitPoints.size(); i++) {
+      String upper = i == splitPoints.size() - 1
+          ? "1=1" : colName + " <= " + quote(splitPoints.get(i));
+      if (null == lower) {
+        splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+            "1=1", "(" + upper + ") OR " + colName + " IS NULL"));
+      } else {
+        splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+            colName + " > " + lower, upper));
+      }
+      lower = quote(splitPoints.get(i));
+    }
+    return splits;
+  }
+
+  /**
+   * @return the distinct upper values of numSplits buckets of the column,
+   * in the column's collation order.
+   */
+  private List<String> getSplitPoints(Configuration conf, String colName,
+      int numSplits) throws SQLException {
+    String query = getSplitPointsQuery(colName, numSplits,
+        conf.getInt(SAMPLE_PERCENT_KEY, 0));
+    LOG.info("Sampling text split points: " + query);
+
+    List<String> splitPoints = new ArrayList<String>();
+    Statement statement = connection.createStatement();
+    try {
+      ResultSet points = statement.executeQuery(query);
+      try {
+        String previous = null;
+        while (points.next()) {
+          String point = points.getString(1);
+          // Heavily repeated values can end several buckets.
+          if (null != point && !point.equals(previous)) {
+            splitPoints.add(point);
+          }
+          previous = point;
+        }
+      } finally {
+        points.close();
+      }
+    } finally {
+      statement.close();
+    }
+    return splitPoints;
+  }
+
+  String getSplitPointsQuery(String colName, int numSplits,
+      int samplePercent) {
+    StringBuilder query = new StringBuilder();
+    query.append("SELECT MAX(").append(colName).append(") FROM (SELECT ")
+        .append(colName).append(", NTILE(").append(numSplits)
+        .append(") OVER (ORDER BY ").append(colName)
+        .append(") AS SQOOP_TILE FROM ").append(dbConf.getInputTableName());
+    if (samplePercent > 0 && samplePercent < 100) {
+      query.append(getSampleClause(samplePercent));
+    }
+    query.append(" WHERE ").append(colName).append(" IS NOT NULL");
+    String conditions = dbConf.getInputConditions();
+    if (null != conditions && conditions.length() > 0) {
+      query.append(" AND (").append(conditions).append(")");
+    }
+    query.append(") SQOOP_TILES GROUP BY SQOOP_TILE ORDER BY SQOOP_TILE");
+    return query.toString();
+  }
+
+  private String getSampleClause(int samplePercent) {
+    if (dbProductName.startsWith("POSTGRESQL")) {
+      return " TABLESAMPLE SYSTEM (" + samplePercent + ")";
+    } else if (dbProductName.startsWith("MICROSOFT SQL SERVER")) {
+      return " TABLESAMPLE (" + samplePercent + " PERCENT)";
+    } else if (dbProductName.startsWith("ORACLE")) {
+      return " SAMPLE (" + samplePercent + ")";
+    } else if (dbProductName.startsWith("DB2")) {
+      return " TABLESAMPLE SYSTEM (" + samplePercent + ")";
+    }
+    LOG.warn("Table sampling is not supported for " + dbProductName
+        + "; reading the whole column.");
+    return "";
+  }
+
+  private String quote(String value) {
+    return (useNCharStrings ? "N'" : "'") + value.replace("'", "''") + "'";
+  }
+}
@@ -27,6 +27,20 @@ public final class ParquetConstants {
 
   public static final String PARQUET_JOB_CONFIGURATOR_IMPLEMENTATION_KEY = "parquetjob.configurator.implementation";
 
+  /**
+   * When true, Parquet imports write SqoopRecords directly through a native
+   * WriteSupport instead of converting them to Avro GenericRecords first.
+   */
+  public static final String SQOOP_PARQUET_DIRECT_WRITE_KEY = "parquetjob.direct.write";
+
+  public static final String SQOOP_PARQUET_ROW_GROUP_SIZE_KEY = "parquetjob.row.group.size";
+
+  public static final String SQOOP_PARQUET_PAGE_SIZE_KEY = "parquetjob.page.size";
+
+  public static final String SQOOP_PARQUET_DICTIONARY_PAGE_SIZE_KEY = "parquetjob.dictionary.page.size";
+
+  public static final String SQOOP_PARQUET_ENABLE_DICTIONARY_KEY = "parquetjob.enable.dictionary";
+
   private ParquetConstants() {
     throw new AssertionError("This class is meant for static use only.");
   }
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet.hadoop;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.lib.LargeObjectLoader;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.AutoProgressMapper;
+import org.apache.sqoop.util.PhaseCounters;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Imports records into Parquet files by handing the {@link SqoopRecord}
+ * itself to {@link SqoopRecordWriteSupport}, skipping the Avro GenericRecord
+ * conversion done by {@link HadoopParquetImportMapper}.
+ */
+public class HadoopParquetDirectImportMapper
+    extends AutoProgressMapper<LongWritable, SqoopRecord, Void, SqoopRecord> {
+
+  private LargeObjectLoader lobLoader;
+  private PhaseCounters phaseCounters;
+  // Schema to check the first record against; null once checked.
+  private Schema avroSchema;
+
+  @Override
+  protected void setup(Context context)
+      throws IOException, InterruptedException {
+    phaseCounters = new PhaseCounters(context.getConfiguration());
+    String schemaString = context.getConfiguration().get(
+        SqoopRecordWriteSupport.AVRO_SCHEMA_KEY);
+    if (null != schemaString) {
+      avroSchema = AvroUtil.parseAvroSchema(schemaString);
+    }
+    lobLoader = new LargeObjectLoader(context.getConfiguration(),
+        FileOutputFormat.getWorkOutputPath(context));
+  }
+
+  @Override
+  protected void map(LongWritable key, SqoopRecord val, Context context)
+      throws IOException, InterruptedException {
+    long start = phaseCounters.start();
+    try {
+      // Loading of LOBs was delayed until we have a Context.
+      val.loadLargeObjects(lobLoader);
+    } catch (SQLException sqlE) {
+      throw new IOException(sqlE);
+    }
+    start = phaseCounters.stop(PhaseCounters.Phase.LOB_LOAD, start);
+
+    if (null != avroSchema) {
+      // Fail with a proper error before the write support sees the record.
+      SqoopRecordWriteSupport.resolveColumnNames(avroSchema,
+          val.getFieldMap().keySet());
+      avroSchema = null;
+    }
+
+    // The write support formats the values as it writes them.
+    context.write(null, val);
+    phaseCounters.stop(PhaseCounters.Phase.WRITE, start);
+  }
+
+  @Override
+  protected void cleanup(Context context) throws IOException {
+    phaseCounters.publish(context);
+    if (null != lobLoader) {
+      lobLoader.close();
+    }
+  }
+}
@@ -18,23 +18,87 @@
 
 package org.apache.sqoop.mapreduce.parquet.hadoop;
 
+import org.apache.avro.Schema;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DefaultStringifier;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.mapreduce.GenericRecordExportMapper;
 import org.apache.sqoop.mapreduce.parquet.ParquetExportJobConfigurator;
+import org.apache.sqoop.orm.ClassWriter;
 import org.apache.parquet.avro.AvroParquetInputFormat;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * An implementation of {@link ParquetExportJobConfigurator} which depends on the Hadoop Parquet library.
  */
 public class HadoopParquetExportJobConfigurator implements ParquetExportJobConfigurator {
 
+  private static final Log LOG = LogFactory.getLog(HadoopParquetExportJobConfigurator.class.getName());
+
   @Override
   public void configureInputFormat(Job job, Path inputPath) throws IOException {
-    // do nothing
+    configureProjection(job, inputPath);
+  }
+
+  /**
+   * Requests only the exported columns from the Parquet files, so columns
+   * which are not exported are neither read nor decoded.
+   */
+  void configureProjection(Job job, Path inputPath) throws IOException {
+    Configuration conf = job.getConfiguration();
+    if (conf.get(GenericRecordExportMapper.AVRO_COLUMN_TYPES_MAP) == null) {
+      return;
+    }
+    Schema fileSchema = AvroUtil.getAvroSchemaFromParquetFile(inputPath, conf);
+    if (fileSchema == null) {
+      return;
+    }
+    Schema projection = getProjection(fileSchema, DefaultStringifier.load(conf,
+        GenericRecordExportMapper.AVRO_COLUMN_TYPES_MAP, MapWritable.class));
+    if (projection != null) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Using Parquet projection: " + projection);
+      }
+      AvroParquetInputFormat.setRequestedProjection(job, projection);
+    }
+  }
+
+  /**
+   * @return the file schema reduced to the exported columns, or null if all
+   * of its fields are exported.
+   */
+  static Schema getProjection(Schema fileSchema, MapWritable columnTypes) {
+    // Fields are matched the way GenericRecordExportMapper matches them.
+    Set<String> exported = new HashSet<>();
+    for (Writable column : columnTypes.keySet()) {
+      exported.add(ClassWriter.toIdentifier(column.toString()).toLowerCase(Locale.ROOT));
+    }
+
+    List<Schema.Field> fields = new ArrayList<>();
+    for (Schema.Field field : fileSchema.getFields()) {
+      if (exported.contains(field.name().toLowerCase(Locale.ROOT))) {
+        fields.add(new Schema.Field(field.name(), field.schema(), field.doc(), field.defaultVal()));
+      }
+    }
+    if (fields.size() == fileSchema.getFields().size()) {
+      return null;
+    }
+    return Schema.createRecord(fileSchema.getName(), fileSchema.getDoc(),
+        fileSchema.getNamespace(), false, fields);
   }
 
   @Override
@@ -21,6 +21,7 @@
 import org.apache.avro.Schema;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Mapper;
@@ -35,7 +36,12 @@
 
 import java.io.IOException;
 
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_DICTIONARY_PAGE_SIZE_KEY;
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_DIRECT_WRITE_KEY;
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_ENABLE_DICTIONARY_KEY;
 import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_OUTPUT_CODEC_KEY;
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_PAGE_SIZE_KEY;
+import static org.apache.sqoop.mapreduce.parquet.ParquetConstants.SQOOP_PARQUET_ROW_GROUP_SIZE_KEY;
 
 /**
  * An implementation of {@link ParquetImportJobConfigurator} which depends on the Hadoop Parquet library.
@@ -44,11 +50,53 @@ public class HadoopParquetImportJobConfigurator implements ParquetImportJobConfi
 
   private static final Log LOG = LogFactory.getLog(HadoopParquetImportJobConfigurator.class.getName());
 
+  private boolean directWrite;
+
   @Override
   public void configureMapper(Job job, Schema schema, SqoopOptions options, String tableName, Path destination) throws IOException {
     configureAvroSchema(job, schema);
     configureOutputCodec(job);
+    configureOutputLayout(job);
     configureLogicalTypeSupport(job, options);
+    configureDirectWrite(job);
+  }
+
+  /**
+   * Switches the job to {@link SqoopRecordWriteSupport} if direct writing is
+   * enabled. The output format has already been set by the time the mapper
+   * is configured, so it is replaced here; the Avro schema set above is
+   * still used by the write support to derive the Parquet schema.
+   */
+  void configureDirectWrite(Job job) {
+    directWrite = job.getConfiguration().getBoolean(SQOOP_PARQUET_DIRECT_WRITE_KEY, false);
+    if (directWrite) {
+      LOG.info("Writing Parquet files directly from SqoopRecords.");
+      job.setOutputFormatClass(ParquetOutputFormat.class);
+      ParquetOutputFormat.setWriteSupportClass(job, SqoopRecordWriteSupport.class);
+    }
+  }
+
+  /**
+   * Applies the row group, page and dictionary settings, if given.
+   */
+  void configureOutputLayout(Job job) {
+    Configuration conf = job.getConfiguration();
+    long rowGroupSize = conf.getLong(SQOOP_PARQUET_ROW_GROUP_SIZE_KEY, -1);
+    if (rowGroupSize > 0) {
+      ParquetOutputFormat.setBlockSize(job, (int) Math.min(rowGroupSize, Integer.MAX_VALUE));
+    }
+    int pageSize = conf.getInt(SQOOP_PARQUET_PAGE_SIZE_KEY, -1);
+    if (pageSize > 0) {
+      ParquetOutputFormat.setPageSize(job, pageSize);
+    }
+    int dictionaryPageSize = conf.getInt(SQOOP_PARQUET_DICTIONARY_PAGE_SIZE_KEY, -1);
+    if (dictionaryPageSize > 0) {
+      ParquetOutputFormat.setDictionaryPageSize(job, dictionaryPageSize);
+    }
+    String enableDictionary = conf.get(SQOOP_PARQUET_ENABLE_DICTIONARY_KEY);
+    if (enableDictionary != null) {
+      ParquetOutputFormat.setEnableDictionary(job, Boolean.parseBoolean(enableDictionary));
+    }
   }
 
   /**
@@ -64,12 +112,12 @@ private void configureLogicalTypeSupport(Job job, SqoopOptions options) {
 
   @Override
   public Class<? extends Mapper> getMapperClass() {
-    return HadoopParquetImportMapper.class;
+    return directWrite ? HadoopParquetDirectImportMapper.class : HadoopParquetImportMapper.class;
   }
 
   @Override
   public Class<? extends OutputFormat> getOutputFormatClass() {
-    return AvroParquetOutputFormat.class;
+    return directWrite ? ParquetOutputFormat.class : AvroParquetOutputFormat.class;
   }
 
   @Override
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet.hadoop;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.config.ConfigurationConstants;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.ImportJobBase;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Parquet {@link WriteSupport} which writes {@link SqoopRecord} instances
+ * straight into the {@link RecordConsumer}, without building an Avro
+ * GenericRecord per row and letting parquet-avro walk it.
+ * <p>
+ * The file schema is derived from the same Avro schema the Avro based path
+ * uses, and that Avro schema is stored in the footer under the same key, so
+ * the files are indistinguishable from the ones written by
+ * AvroParquetOutputFormat and can be read back with parquet-avro.
+ */
+public class SqoopRecordWriteSupport extends WriteSupport<SqoopRecord> {
+
+  /**
+   * The configuration and footer metadata key of the Avro schema. This is
+   * the key parquet-avro's AvroWriteSupport uses.
+   */
+  public static final String AVRO_SCHEMA_KEY = "parquet.avro.schema";
+
+  private static final String WRITER_MODEL_KEY = "writer.model.name";
+
+  private static final String WRITER_MODEL = "avro";
+
+  private Schema avroSchema;
+  private List<Schema.Field> fields;
+  private Schema[] valueSchemas;
+  private String[] columnNames;
+  private boolean bigDecimalFormatString;
+  private boolean bigDecimalPadding;
+  private RecordConsumer consumer;
+
+  @Override
+  public WriteContext init(Configuration conf) {
+    String schemaString = conf.get(AVRO_SCHEMA_KEY);
+    if (schemaString == null) {
+      throw new IllegalArgumentException("No Avro schema is set under "
+          + AVRO_SCHEMA_KEY);
+    }
+    avroSchema = AvroUtil.parseAvroSchema(schemaString);
+    fields = avroSchema.getFields();
+    valueSchemas = new Schema[fields.size()];
+    for (int i = 0; i < valueSchemas.length; i++) {
+      valueSchemas[i] = getValueSchema(fields.get(i).schema());
+    }
+    bigDecimalFormatString = conf.getBoolean(
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT,
+        ImportJobBase.PROPERTY_BIGDECIMAL_FORMAT_DEFAULT);
+    bigDecimalPadding = conf.getBoolean(
+        ConfigurationConstants.PROP_ENABLE_AVRO_DECIMAL_PADDING, false);
+
+    MessageType parquetSchema = new AvroSchemaConverter(conf).convert(avroSchema);
+    Map<String, String> metadata = new HashMap<>();
+    metadata.put(AVRO_SCHEMA_KEY, avroSchema.toString());
+    metadata.put(WRITER_MODEL_KEY, WRITER_MODEL);
+    return new WriteContext(parquetSchema, metadata);
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    this.consumer = recordConsumer;
+  }
+
+  @Override
+  public void write(SqoopRecord record) {
+    Map<String, Object> fieldMap = record.getFieldMap();
+    if (columnNames == null) {
+      try {
+        columnNames = resolveColumnNames(avroSchema, fieldMap.keySet());
+      } catch (IOException ioe) {
+        throw new IllegalArgumentException(ioe.getMessage(), ioe);
+      }
+    }
+
+    consumer.startMessage();
+    for (int i = 0; i < columnNames.length; i++) {
+      Object value = fieldMap.get(columnNames[i]);
+      if (value == null) {
+        // Optional fields are written by omission.
+        continue;
+      }
+      Schema.Field field = fields.get(i);
+      Object avroValue = AvroUtil.toAvro(value, field, bigDecimalFormatString, bigDecimalPadding);
+      consumer.startField(field.name(), i);
+      writeValue(valueSchemas[i], avroValue);
+      consumer.endField(field.name(), i);
+    }
+    consumer.endMessage();
+  }
+
+  /**
+   * Maps each Avro field position to the column name the generated record
+   * uses as its field map key. This is done once, against the first record.
+   * @throws IOException if a field of the schema matches none of the
+   * columns, since it would otherwise be written as null in every row.
+   */
+  static String[] resolveColumnNames(Schema avroSchema,
+      Collection<String> columns) throws IOException {
+    List<Schema.Field> schemaFields = avroSchema.getFields();
+    String[] names = new String[schemaFields.size()];
+    for (String column : columns) {
+      Schema.Field field = avroSchema.getField(AvroUtil.toAvroColumn(column));
+      if (field != null) {
+        names[field.pos()] = column;
+      }
+    }
+    for (int i = 0; i < names.length; i++) {
+      if (names[i] == null) {
+        throw new IOException("Field " + schemaFields.get(i).name()
+            + " of the Avro schema matches none of the record's columns "
+            + columns);
+      }
+    }
+    return names;
+  }
+
+  private void writeValue(Schema schema, Object value) {
+    switch (schema.getType()) {
+      case BOOLEAN:
+        consumer.addBoolean((Boolean) value);
+        break;
+      case INT:
+        consumer.addInteger(((Number) value).intValue());
+        break;
+      case LONG:
+        consumer.addLong(((Number) value).longValue());
+        break;
+      case FLOAT:
+        consumer.addFloat(((Number) value).floatValue());
+        break;
+      case DOUBLE:
+        consumer.addDouble(((Number) value).doubleValue());
+        break;
+      case STRING:
+        consumer.addBinary(Binary.fromString(value.toString()));
+        break;
+      case BYTES:
+        if (value instanceof BigDecimal) {
+          consumer.addBinary(Binary.fromConstantByteArray(
+              ((BigDecimal) value).unscaledValue().toByteArray()));
+        } else {
+          consumer.addBinary(Binary.fromConstantByteBuffer((ByteBuffer) value));
+        }
+        break;
+      case FIXED:
+        consumer.addBinary(Binary.fromConstantByteArray(
+            toFixed((BigDecimal) value, schema.getFixedSize())));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported Avro type "
+            + schema.getType() + " for Parquet import");
+    }
+  }
+
+  /**
+   * Sign-extends the two's complement unscaled value of a decimal to the
+   * size of its fixed field, as Avro's DecimalConversion does.
+   */
+  private static byte[] toFixed(BigDecimal value, int size) {
+    byte[] unscaled = value.unscaledValue().toByteArray();
+    if (unscaled.length == size) {
+      return unscaled;
+    }
+    if (unscaled.length > size) {
+      throw new IllegalArgumentException("Decimal " + value
+          + " does not fit into " + size + " bytes");
+    }
+    byte[] fixed = new byte[size];
+    byte pad = (byte) (value.signum() < 0 ? 0xFF : 0x00);
+    int offset = size - unscaled.length;
+    for (int i = 0; i < offset; i++) {
+      fixed[i] = pad;
+    }
+    System.arraycopy(unscaled, 0, fixed, offset, unscaled.length);
+    return fixed;
+  }
+
+  /**
+   * @return the non-null branch of a nullable union, or the schema itself.
+   */
+  static Schema getValueSchema(Schema schema) {
+    if (schema.getType() != Schema.Type.UNION) {
+      return schema;
+    }
+    for (Schema branch : schema.getTypes()) {
+      if (branch.getType() != Schema.Type.NULL) {
+        return branch;
+      }
+    }
+    return schema;
+  }
+}
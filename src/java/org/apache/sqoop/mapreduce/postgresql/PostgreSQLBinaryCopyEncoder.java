@@ -0,0 +1,420 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.apache.hadoop.io.BytesWritable;
+
+/**
+ * Encodes rows in the PostgreSQL binary COPY format
+ * ("COPY ... FROM STDIN WITH (FORMAT binary)").
+ *
+ * Rows are appended to a single growable byte buffer that is reused for the
+ * whole task, so no intermediate String or byte array is created per row.
+ * The caller is expected to hand the buffer over to the copy stream once
+ * {@link #size()} grows past its chunk size and then {@link #reset()} it.
+ */
+public class PostgreSQLBinaryCopyEncoder {
+
+  /** Binary types supported by the encoder. */
+  public enum ColumnType {
+    BOOL, INT2, INT4, INT8, FLOAT4, FLOAT8, NUMERIC, TEXT, BYTEA,
+    DATE, TIME, TIMESTAMP, TIMESTAMPTZ, UUID
+  }
+
+  /** File signature that starts every binary COPY stream. */
+  private static final byte[] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0,
+  };
+
+  /** 2000-01-01 is the PostgreSQL epoch for date and time values. */
+  private static final long PG_EPOCH_SECONDS = 946684800L;
+  private static final long PG_EPOCH_DAYS = 10957L;
+
+  private static final int NUMERIC_POS = 0x0000;
+  private static final int NUMERIC_NEG = 0x4000;
+
+  private static final int DEFAULT_CAPACITY = 64 * 1024;
+
+  private byte[] buffer;
+  private int count;
+
+  public PostgreSQLBinaryCopyEncoder() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public PostgreSQLBinaryCopyEncoder(int initialCapacity) {
+    this.buffer = new byte[Math.max(initialCapacity, 16)];
+    this.count = 0;
+  }
+
+  /**
+   * Resolve the name of a PostgreSQL column type, as reported by the
+   * driver's ResultSetMetaData.getColumnTypeName(), to its binary encoding.
+   * @return the encoding or null if the type is not supported.
+   */
+  public static ColumnType forTypeName(String typeName) {
+    if (null == typeName) {
+      return null;
+    }
+    String name = typeName.toLowerCase();
+    if (name.startsWith("\"") && name.endsWith("\"") && name.length() > 1) {
+      name = name.substring(1, name.length() - 1);
+    }
+    switch (name) {
+      case "bool":
+      case "boolean":
+        return ColumnType.BOOL;
+      case "int2":
+      case "smallint":
+      case "smallserial":
+        return ColumnType.INT2;
+      case "int4":
+      case "integer":
+      case "serial":
+        return ColumnType.INT4;
+      case "int8":
+      case "bigint":
+      case "bigserial":
+        return ColumnType.INT8;
+      case "float4":
+      case "real":
+        return ColumnType.FLOAT4;
+      case "float8":
+      case "double precision":
+        return ColumnType.FLOAT8;
+      case "numeric":
+      case "decimal":
+        return ColumnType.NUMERIC;
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "char":
+      case "name":
+        return ColumnType.TEXT;
+      case "bytea":
+        return ColumnType.BYTEA;
+      case "date":
+        return ColumnType.DATE;
+      case "time":
+        return ColumnType.TIME;
+      case "timestamp":
+        return ColumnType.TIMESTAMP;
+      case "timestamptz":
+        return ColumnType.TIMESTAMPTZ;
+      case "uuid":
+        return ColumnType.UUID;
+      default:
+        return null;
+    }
+  }
+
+  /** @return the number of encoded bytes waiting in the buffer. */
+  public int size() {
+    return count;
+  }
+
+  /** @return the backing buffer; only the first size() bytes are valid. */
+  public byte[] getBuffer() {
+    return buffer;
+  }
+
+  /** Discard the encoded bytes, keeping the allocated buffer. */
+  public void reset() {
+    count = 0;
+  }
+
+  /** Write the signature, flags field and empty header extension. */
+  public void writeHeader() {
+    ensureCapacity(SIGNATURE.length + 8);
+    System.arraycopy(SIGNATURE, 0, buffer, count, SIGNATURE.length);
+    count += SIGNATURE.length;
+    putInt(0);
+    putInt(0);
+  }
+
+  /** Write the end-of-data marker. */
+  public void writeTrailer() {
+    ensureCapacity(2);
+    putShort(-1);
+  }
+
+  /** Start a new tuple with the given number of fields. */
+  public void startRow(int fieldCount) {
+    ensureCapacity(2);
+    putShort(fieldCount);
+  }
+
+  /**
+   * Append a single field value using the binary encoding of the target
+   * column type.
+   * @throws IOException if the value can't be represented in that type.
+   */
+  public void writeField(ColumnType type, Object value) throws IOException {
+    if (null == value) {
+      ensureCapacity(4);
+      putInt(-1);
+      return;
+    }
+
+    try {
+      switch (type) {
+        case BOOL:
+          ensureCapacity(5);
+          putInt(1);
+          buffer[count++] = (byte) (((Boolean) value).booleanValue() ? 1 : 0);
+          break;
+        case INT2:
+          ensureCapacity(6);
+          putInt(2);
+          putShort(((Number) value).shortValue());
+          break;
+        case INT4:
+          ensureCapacity(8);
+          putInt(4);
+          putInt(((Number) value).intValue());
+          break;
+        case INT8:
+          ensureCapacity(12);
+          putInt(8);
+          putLong(((Number) value).longValue());
+          break;
+        case FLOAT4:
+          ensureCapacity(8);
+          putInt(4);
+          putInt(Float.floatToIntBits(((Number) value).floatValue()));
+          break;
+        case FLOAT8:
+          ensureCapacity(12);
+          putInt(8);
+          putLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+          break;
+        case NUMERIC:
+          writeNumeric(toBigDecimal(value));
+          break;
+        case TEXT:
+          writeText(value.toString());
+          break;
+        case BYTEA:
+          writeBytes(value);
+          break;
+        case DATE:
+          ensureCapacity(8);
+          putInt(4);
+          putInt((int) (((java.sql.Date) value).toLocalDate().toEpochDay()
+              - PG_EPOCH_DAYS));
+          break;
+        case TIME:
+          ensureCapacity(12);
+          putInt(8);
+          putLong(((Time) value).toLocalTime().toNanoOfDay() / 1000L);
+          break;
+        case TIMESTAMP:
+          Timestamp local = (Timestamp) value;
+          ensureCapacity(12);
+          putInt(8);
+          putLong(toPgMicros(
+              local.toLocalDateTime().toEpochSecond(ZoneOffset.UTC),
+              local.getNanos()));
+          break;
+        case TIMESTAMPTZ:
+          Timestamp instant = (Timestamp) value;
+          ensureCapacity(12);
+          putInt(8);
+          putLong(toPgMicros(Math.floorDiv(instant.getTime(), 1000L),
+              instant.getNanos()));
+          break;
+        case UUID:
+          UUID uuid = (value instanceof UUID)
+              ? (UUID) value : UUID.fromString(value.toString());
+          ensureCapacity(20);
+          putInt(16);
+          putLong(uuid.getMostSignificantBits());
+          putLong(uuid.getLeastSignificantBits());
+          break;
+        default:
+          throw new IOException("Unsupported binary COPY type " + type);
+      }
+    } catch (ClassCastException cce) {
+      throw new IOException("Can't encode value of "
+          + value.getClass().getName() + " as " + type, cce);
+    } catch (IllegalArgumentException iae) {
+      throw new IOException("Can't encode value '" + value + "' as "
+          + type, iae);
+    }
+  }
+
+  private static long toPgMicros(long epochSeconds, int nanos) {
+    return (epochSeconds - PG_EPOCH_SECONDS) * 1000000L + nanos / 1000;
+  }
+
+  private static BigDecimal toBigDecimal(Object value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    return new BigDecimal(value.toString());
+  }
+
+  /**
+   * Write a NUMERIC as a sequence of base 10000 digits, aligned so that the
+   * decimal point falls between two digits.
+   */
+  private void writeNumeric(BigDecimal value) {
+    int dscale = Math.max(value.scale(), 0);
+    String plain = value.abs().setScale(dscale).toPlainString();
+    int point = plain.indexOf('.');
+    String intPart = point < 0 ? plain : plain.substring(0, point);
+    String fracPart = point < 0 ? "" : plain.substring(point + 1);
+
+    int intGroups = (intPart.length() + 3) / 4;
+    int fracGroups = (fracPart.length() + 3) / 4;
+    short[] digits = new short[intGroups + fracGroups];
+
+    // Integer part, padded with leading zeros to a multiple of 4 digits.
+    int lead = intGroups * 4 - intPart.length();
+    for (int i = 0; i < intPart.length(); i++) {
+      int pos = lead + i;
+      digits[pos / 4] = (short) (digits[pos / 4] * 10
+          + (intPart.charAt(i) - '0'));
+    }
+    // Fractional part, padded with trailing zeros to a multiple of 4 digits.
+    for (int g = 0; g < fracGroups; g++) {
+      int d = 0;
+      for (int j = 0; j < 4; j++) {
+        int pos = g * 4 + j;
+        d = d * 10 + (pos < fracPart.length() ? fracPart.charAt(pos) - '0' : 0);
+      }
+      digits[intGroups + g] = (short) d;
+    }
+
+    int first = 0;
+    int last = digits.length;
+    int weight = intGroups - 1;
+    while (first < last && digits[first] == 0) {
+      first++;
+      weight--;
+    }
+    while (last > first && digits[last - 1] == 0) {
+      last--;
+    }
+    int ndigits = last - first;
+    if (ndigits == 0) {
+      weight = 0;
+    }
+
+    ensureCapacity(4 + 8 + 2 * ndigits);
+    putInt(8 + 2 * ndigits);
+    putShort(ndigits);
+    putShort(weight);
+    putShort(ndigits == 0 || value.signum() >= 0 ? NUMERIC_POS : NUMERIC_NEG);
+    putShort(dscale);
+    for (int i = first; i < last; i++) {
+      putShort(digits[i]);
+    }
+  }
+
+  /**
+   * Write a string as UTF-8 directly into the buffer, back-patching the
+   * length once the encoded size is known.
+   */
+  private void writeText(String s) {
+    int len = s.length();
+    ensureCapacity(4 + len * 3);
+    int lengthPos = count;
+    count += 4;
+    int start = count;
+    for (int i = 0; i < len; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        buffer[count++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[count++] = (byte) (0xc0 | (c >> 6));
+        buffer[count++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c) && i + 1 < len
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        buffer[count++] = (byte) (0xf0 | (cp >> 18));
+        buffer[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+        buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+        buffer[count++] = (byte) (0x80 | (cp & 0x3f));
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate; same replacement as String.getBytes().
+        buffer[count++] = (byte) '?';
+      } else {
+        buffer[count++] = (byte) (0xe0 | (c >> 12));
+        buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        buffer[count++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    int encoded = count - start;
+    buffer[lengthPos] = (byte) (encoded >>> 24);
+    buffer[lengthPos + 1] = (byte) (encoded >>> 16);
+    buffer[lengthPos + 2] = (byte) (encoded >>> 8);
+    buffer[lengthPos + 3] = (byte) encoded;
+  }
+
+  private void writeBytes(Object value) {
+    byte[] bytes;
+    int length;
+    if (value instanceof BytesWritable) {
+      bytes = ((BytesWritable) value).getBytes();
+      length = ((BytesWritable) value).getLength();
+    } else {
+      bytes = (byte[]) value;
+      length = bytes.length;
+    }
+    ensureCapacity(4 + length);
+    putInt(length);
+    System.arraycopy(bytes, 0, buffer, count, length);
+    count += length;
+  }
+
+  private void ensureCapacity(int extra) {
+    int required = count + extra;
+    if (required > buffer.length) {
+      int newCapacity = Math.max(buffer.length * 2, required);
+      byte[] newBuffer = new byte[newCapacity];
+      System.arraycopy(buffer, 0, newBuffer, 0, count);
+      buffer = newBuffer;
+    }
+  }
+
+  private void putShort(int v) {
+    buffer[count++] = (byte) (v >>> 8);
+    buffer[count++] = (byte) v;
+  }
+
+  private void putInt(int v) {
+    buffer[count++] = (byte) (v >>> 24);
+    buffer[count++] = (byte) (v >>> 16);
+    buffer[count++] = (byte) (v >>> 8);
+    buffer[count++] = (byte) v;
+  }
+
+  private void putLong(long v) {
+    putInt((int) (v >>> 32));
+    putInt((int) v);
+  }
+}
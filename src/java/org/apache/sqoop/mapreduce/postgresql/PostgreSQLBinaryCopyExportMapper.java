@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.lib.RecordParser;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.AutoProgressMapper;
+import org.apache.sqoop.mapreduce.ExportJobBase;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.postgresql.PostgreSQLBinaryCopyEncoder.ColumnType;
+import org.apache.sqoop.util.LoggingUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Mapper that exports rows from HDFS to a PostgreSQL database using the
+ * binary variant of the COPY protocol.
+ *
+ * Text input is parsed with the generated record class, SequenceFile input
+ * already holds SqoopRecords. Typed field values are encoded straight into a
+ * reusable buffer which is written to the CopyIn stream in large chunks.
+ */
+public class PostgreSQLBinaryCopyExportMapper
+    extends AutoProgressMapper<LongWritable, Writable,
+                               NullWritable, NullWritable> {
+  public static final Log LOG =
+    LogFactory.getLog(PostgreSQLBinaryCopyExportMapper.class.getName());
+
+  /** Unescaped names of the exported columns, in COPY order. */
+  public static final String COLUMN_NAMES_KEY =
+    "postgresql.export.binary.columns";
+
+  /** PostgreSQL type names of the exported columns, in COPY order. */
+  public static final String COLUMN_TYPES_KEY =
+    "postgresql.export.binary.column.types";
+
+  /** Number of encoded bytes collected before writing to the copy stream. */
+  public static final String BUFFER_SIZE_KEY =
+    "postgresql.export.binary.buffer.bytes";
+
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+  private Connection conn = null;
+  private CopyIn copyin = null;
+  private SqoopRecord recordImpl;
+  private String[] columns;
+  private ColumnType[] types;
+  private PostgreSQLBinaryCopyEncoder encoder;
+  private int bufferSize;
+
+  public PostgreSQLBinaryCopyExportMapper() {
+  }
+
+  @Override
+  protected void setup(Context context)
+    throws IOException, InterruptedException {
+
+    super.setup(context);
+    Configuration conf = context.getConfiguration();
+    DBConfiguration dbConf = new DBConfiguration(conf);
+
+    columns = conf.getStrings(COLUMN_NAMES_KEY);
+    String[] typeNames = conf.getStrings(COLUMN_TYPES_KEY);
+    if (null == columns || null == typeNames
+        || columns.length != typeNames.length) {
+      throw new IOException("Binary COPY column list (" + COLUMN_NAMES_KEY
+          + ") and type list (" + COLUMN_TYPES_KEY + ") are not set "
+          + "or do not match");
+    }
+    types = new ColumnType[typeNames.length];
+    for (int i = 0; i < typeNames.length; i++) {
+      types[i] = PostgreSQLBinaryCopyEncoder.forTypeName(typeNames[i]);
+      if (null == types[i]) {
+        throw new IOException("Column " + columns[i] + " of type "
+            + typeNames[i] + " is not supported by binary COPY");
+      }
+    }
+
+    String recordClassName = conf.get(
+        ExportJobBase.SQOOP_EXPORT_TABLE_CLASS_KEY);
+    if (null == recordClassName) {
+      throw new IOException("Export table class name ("
+          + ExportJobBase.SQOOP_EXPORT_TABLE_CLASS_KEY
+          + ") is not set!");
+    }
+    try {
+      Class cls = Class.forName(recordClassName, true,
+          Thread.currentThread().getContextClassLoader());
+      recordImpl = (SqoopRecord) ReflectionUtils.newInstance(cls, conf);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException(cnfe);
+    }
+
+    bufferSize = conf.getInt(BUFFER_SIZE_KEY, DEFAULT_BUFFER_SIZE);
+    encoder = new PostgreSQLBinaryCopyEncoder(bufferSize + bufferSize / 4);
+
+    CopyManager cm = null;
+    try {
+      conn = dbConf.getConnection();
+      cm = ((PGConnection)conn).getCopyAPI();
+    } catch (ClassNotFoundException ex) {
+      LOG.error("Unable to load JDBC driver class", ex);
+      throw new IOException(ex);
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to get CopyIn", ex);
+      throw new IOException(ex);
+    }
+    try {
+      String copyTable = PostgreSQLTaskStaging.prepareCopyTable(conf, conn,
+          context.getTaskAttemptID(), dbConf.getOutputTableName());
+      StringBuilder sql = new StringBuilder();
+      sql.append("COPY ");
+      sql.append(copyTable);
+      sql.append(" (");
+      sql.append(StringUtils.join(dbConf.getOutputFieldNames(), ", "));
+      sql.append(") FROM STDIN WITH (FORMAT binary)");
+      LOG.debug("Starting export with copy: " + sql);
+      copyin = cm.copyIn(sql.toString());
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to get CopyIn", ex);
+      close();
+      throw new IOException(ex);
+    }
+    encoder.writeHeader();
+  }
+
+  @Override
+  public void map(LongWritable key, Writable value, Context context)
+    throws IOException, InterruptedException {
+    SqoopRecord record;
+    if (value instanceof SqoopRecord) {
+      record = (SqoopRecord) value;
+    } else {
+      try {
+        recordImpl.parse((Text) value);
+      } catch (RecordParser.ParseError pe) {
+        throw new IOException("Can't parse input data at position " + key, pe);
+      }
+      record = recordImpl;
+    }
+
+    Map<String, Object> fields = record.getFieldMap();
+    encoder.startRow(columns.length);
+    for (int i = 0; i < columns.length; i++) {
+      encoder.writeField(types[i], fields.get(columns[i]));
+    }
+    if (encoder.size() >= bufferSize) {
+      flush();
+    }
+  }
+
+  @Override
+  protected void cleanup(Context context)
+    throws IOException, InterruptedException {
+    encoder.writeTrailer();
+    flush();
+    try {
+      copyin.endCopy();
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to finalize copy", ex);
+      throw new IOException(ex);
+    }
+    close();
+  }
+
+  private void flush() throws IOException {
+    try {
+      copyin.writeToCopy(encoder.getBuffer(), 0, encoder.size());
+    } catch (SQLException ex) {
+      LoggingUtils.logAll(LOG, "Unable to execute copy", ex);
+      close();
+      throw new IOException(ex);
+    }
+    encoder.reset();
+  }
+
+  void close() throws IOException {
+    if (conn != null) {
+      try {
+        conn.close();
+      } catch (SQLException ex) {
+        LoggingUtils.logAll(LOG, "Unable to close connection", ex);
+        throw new IOException(ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.lib.DelimiterSet;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.ExportEngine;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.util.LoggingUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * ExportEngine streaming all records of a task through a single
+ * PostgreSQL COPY in text format. Each batch is formatted and written to
+ * the open COPY; the rows become visible when the task commits.
+ *
+ * Per-task staging tables are not supported: only the direct export job
+ * names and merges them. ExportEngineOutputFormat rejects them when the
+ * job is submitted.
+ */
+public class PostgreSQLCopyExportEngine implements ExportEngine {
+
+  private static final Log LOG =
+      LogFactory.getLog(PostgreSQLCopyExportEngine.class);
+
+  /** Null representation; matches the direct COPY export. */
+  public static final String NULL_STRING_KEY = "postgresql.null.string";
+
+  public static final String DEFAULT_NULL_STRING = "null";
+
+  // COPY text format: tab separated, backslash escaped.
+  static final DelimiterSet COPY_DELIMITERS = new DelimiterSet('\t', '\n',
+      DelimiterSet.NULL_CHAR, '\\', false);
+
+  private Connection conn;
+  private CopyIn copyIn;
+
+  @Override
+  public void open(TaskAttemptContext context) throws IOException {
+    Configuration conf = context.getConfiguration();
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    try {
+      conn = dbConf.getConnection();
+      conn.setAutoCommit(false);
+      String sql = getCopyStatement(dbConf.getOutputTableName(),
+          dbConf.getOutputFieldNames(),
+          conf.get(NULL_STRING_KEY, DEFAULT_NULL_STRING));
+      LOG.debug("Starting export with copy: " + sql);
+      copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Unable to load JDBC driver class", cnfe);
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to get CopyIn", sqlE);
+      throw new IOException(sqlE);
+    }
+  }
+
+  static String getCopyStatement(String table, String[] columnNames,
+      String nullString) {
+    StringBuilder sql = new StringBuilder();
+    sql.append("COPY ").append(table);
+    if (null != columnNames) {
+      sql.append(" (").append(StringUtils.join(columnNames, ", "))
+          .append(")");
+    }
+    sql.append(" FROM STDIN WITH (FORMAT text, ENCODING 'UTF-8', NULL '")
+        .append(nullString.replace("'", "''")).append("')");
+    return sql.toString();
+  }
+
+  @Override
+  public void write(List<SqoopRecord> batch) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (SqoopRecord record : batch) {
+      appendCopyText(sb, record.toString(COPY_DELIMITERS));
+    }
+    byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+    try {
+      copyIn.writeToCopy(data, 0, data.length);
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to execute copy", sqlE);
+      throw new IOException(sqlE);
+    }
+  }
+
+  /**
+   * Append a record formatted with COPY_DELIMITERS as a line of COPY text.
+   * The formatter only puts a backslash in front of delimiters found in
+   * the data; those and any carriage return are rewritten as the escape
+   * sequences COPY expects, since it would take a bare carriage return
+   * for the end of the line.
+   */
+  static void appendCopyText(StringBuilder sb, String line) {
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '\\' && i + 1 < line.length()) {
+        c = line.charAt(++i);
+        sb.append('\\');
+        if (c == '\n') {
+          sb.append('n');
+        } else if (c == '\r') {
+          sb.append('r');
+        } else if (c == '\t') {
+          sb.append('t');
+        } else {
+          sb.append(c);
+        }
+      } else if (c == '\r') {
+        sb.append("\\r");
+      } else {
+        sb.append(c);
+      }
+    }
+  }
+
+  @Override
+  public void commit() throws IOException {
+    try {
+      long rows = copyIn.endCopy();
+      conn.commit();
+      LOG.info("Copied " + rows + " rows");
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to finalize copy", sqlE);
+      throw new IOException(sqlE);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (null != copyIn && copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to cancel copy", sqlE);
+    }
+    try {
+      if (null != conn) {
+        conn.close();
+      }
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to close connection", sqlE);
+      throw new IOException(sqlE);
+    } finally {
+      copyIn = null;
+      conn = null;
+    }
+  }
+}
@@ -20,8 +20,14 @@
 
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.config.ConfigurationHelper;
+import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.manager.ExportJobContext;
+import org.apache.sqoop.manager.PostgresqlManager;
 import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -33,6 +39,7 @@
 import org.apache.sqoop.lib.DelimiterSet;
 import org.apache.sqoop.mapreduce.JdbcExportJob;
 import org.apache.sqoop.mapreduce.parquet.ParquetExportJobConfigurator;
+import org.apache.sqoop.util.ExportException;
 
 
 /**
@@ -42,6 +49,14 @@ public class PostgreSQLCopyExportJob extends JdbcExportJob {
   public static final Log LOG =
     LogFactory.getLog(PostgreSQLCopyExportJob.class.getName());
 
+  /** Use the binary COPY format instead of delimited text. */
+  public static final String BINARY_COPY_KEY = "postgresql.export.binary";
+
+  // Raw name prefix of the per-task staging tables and the table they are
+  // merged into; only set when per-task staging is enabled.
+  private String taskStagingPrefix;
+  private String taskStagingTarget;
+
   public PostgreSQLCopyExportJob(final ExportJobContext context, final ParquetExportJobConfigurator parquetExportJobConfigurator) {
     super(context, parquetExportJobConfigurator);
   }
@@ -56,9 +71,131 @@ public PostgreSQLCopyExportJob(final ExportJobContext ctxt,
 
   @Override
   protected Class<? extends Mapper> getMapperClass() {
+    if (isBinaryCopy()) {
+      return PostgreSQLBinaryCopyExportMapper.class;
+    }
     return PostgreSQLCopyExportMapper.class;
   }
 
+  protected boolean isBinaryCopy() {
+    return context.getOptions().getConf().getBoolean(BINARY_COPY_KEY, false);
+  }
+
+  @Override
+  protected boolean supportsExportEngine() {
+    // The mappers write through their own COPY.
+    return false;
+  }
+
+  @Override
+  protected void configureOutputFormat(Job job, String tableName,
+      String tableClassName) throws IOException {
+    super.configureOutputFormat(job, tableName, tableClassName);
+    configureTaskStaging(job, tableName);
+    if (!isBinaryCopy()) {
+      return;
+    }
+
+    // The binary format carries no type information, every field has to
+    // be encoded exactly as the server-side column type expects it.
+    ConnManager mgr = context.getConnManager();
+    String[] colNames = options.getColumns();
+    if (null == colNames) {
+      colNames = mgr.getColumnNames(tableName);
+    }
+    Map<String, String> typeNames = mgr.getColumnTypeNamesForTable(tableName);
+    if (null == colNames || null == typeNames) {
+      throw new IOException("Can't read column types of table " + tableName
+          + " for binary COPY");
+    }
+    String[] colTypes = new String[colNames.length];
+    for (int i = 0; i < colNames.length; i++) {
+      colTypes[i] = getTypeName(typeNames, colNames[i]);
+      if (null == colTypes[i]) {
+        throw new IOException("Can't find type of column " + colNames[i]
+            + " in table " + tableName);
+      }
+    }
+    Configuration conf = job.getConfiguration();
+    conf.setStrings(PostgreSQLBinaryCopyExportMapper.COLUMN_NAMES_KEY,
+        colNames);
+    conf.setStrings(PostgreSQLBinaryCopyExportMapper.COLUMN_TYPES_KEY,
+        colTypes);
+  }
+
+  private void configureTaskStaging(Job job, String tableName)
+      throws IOException {
+    Configuration conf = job.getConfiguration();
+    if (!PostgreSQLTaskStaging.isEnabled(conf)) {
+      return;
+    }
+    ConnManager mgr = context.getConnManager();
+    if (!(mgr instanceof PostgresqlManager)) {
+      throw new IOException("Per-task staging tables require the "
+          + "PostgreSQL connection manager");
+    }
+
+    // Keep the name well below PostgreSQL's 63 character identifier limit.
+    taskStagingPrefix = "sqoop_"
+        + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    taskStagingTarget = tableName;
+    conf.set(PostgreSQLTaskStaging.TASK_STAGING_TABLE_KEY,
+        mgr.escapeTableName(taskStagingPrefix + "_"
+            + PostgreSQLTaskStaging.TASK_PLACEHOLDER));
+    LOG.info("Map tasks will stage their rows in UNLOGGED tables named "
+        + taskStagingPrefix + "_*");
+  }
+
+  @Override
+  protected boolean runJob(Job job) throws ClassNotFoundException,
+      IOException, InterruptedException {
+    boolean success = super.runJob(job);
+    if (success && null != taskStagingPrefix) {
+      PostgresqlManager mgr = (PostgresqlManager) context.getConnManager();
+      try {
+        List<String> tables = mgr.listTablesWithPrefix(taskStagingPrefix);
+        mgr.mergeTables(tables, taskStagingTarget);
+      } catch (SQLException ex) {
+        throw new IOException("Failed to merge per-task staging tables into "
+            + taskStagingTarget, ex);
+      }
+    }
+    return success;
+  }
+
+  @Override
+  protected void jobTeardown(Job job) throws IOException, ExportException {
+    super.jobTeardown(job);
+    if (null == taskStagingPrefix) {
+      return;
+    }
+    // Staging tables are only left behind if the job or the merge failed.
+    PostgresqlManager mgr = (PostgresqlManager) context.getConnManager();
+    try {
+      List<String> tables = mgr.listTablesWithPrefix(taskStagingPrefix);
+      if (!tables.isEmpty()) {
+        LOG.info("Dropping " + tables.size() + " per-task staging tables");
+        mgr.dropTables(tables);
+      }
+    } catch (SQLException ex) {
+      LOG.error("Unable to drop per-task staging tables named "
+          + taskStagingPrefix + "_*", ex);
+    }
+  }
+
+  private String getTypeName(Map<String, String> typeNames, String column) {
+    String typeName = typeNames.get(column);
+    if (null != typeName) {
+      return typeName;
+    }
+    for (Map.Entry<String, String> e : typeNames.entrySet()) {
+      if (e.getKey().equalsIgnoreCase(column)) {
+        return e.getValue();
+      }
+    }
+    return null;
+  }
+
   @Override
   protected void configureMapper(Job job, String tableName,
       String tableClassName) throws ClassNotFoundException, IOException {
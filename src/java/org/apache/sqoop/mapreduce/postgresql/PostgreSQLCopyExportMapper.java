@@ -83,9 +83,11 @@ protected void setup(Context context)
       throw new IOException(ex);
     }
     try {
+      String copyTable = PostgreSQLTaskStaging.prepareCopyTable(conf, conn,
+          context.getTaskAttemptID(), dbConf.getOutputTableName());
       StringBuilder sql = new StringBuilder();
       sql.append("COPY ");
-      sql.append(dbConf.getOutputTableName());
+      sql.append(copyTable);
       sql.append(" FROM STDIN WITH (");
       sql.append(" ENCODING 'UTF-8' ");
       sql.append(", FORMAT csv ");
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+
+/**
+ * Per-task staging tables for the PostgreSQL COPY export.
+ *
+ * When enabled, every map task COPYs into its own UNLOGGED table that has
+ * the columns and defaults of the target table but none of its indexes or
+ * constraints, so tasks neither contend with each other nor write WAL. The
+ * job merges all staging tables into the target in a single transaction
+ * once every task has succeeded.
+ */
+public final class PostgreSQLTaskStaging {
+
+  public static final Log LOG =
+    LogFactory.getLog(PostgreSQLTaskStaging.class.getName());
+
+  /** Enable per-task UNLOGGED staging tables. */
+  public static final String TASK_STAGING_KEY =
+    "postgresql.export.task.staging";
+
+  /** Escaped, schema qualified staging table name with a task placeholder. */
+  public static final String TASK_STAGING_TABLE_KEY =
+    "postgresql.export.task.staging.table";
+
+  /** Placeholder replaced by the task number in TASK_STAGING_TABLE_KEY. */
+  public static final String TASK_PLACEHOLDER = "__TASK__";
+
+  private PostgreSQLTaskStaging() {
+  }
+
+  public static boolean isEnabled(Configuration conf) {
+    return conf.getBoolean(TASK_STAGING_KEY, false);
+  }
+
+  /**
+   * @return the escaped name of the staging table for the given task.
+   */
+  public static String getTableName(Configuration conf,
+      TaskAttemptID attemptId) {
+    String template = conf.get(TASK_STAGING_TABLE_KEY);
+    int pos = template.lastIndexOf(TASK_PLACEHOLDER);
+    return template.substring(0, pos)
+        + String.format("%06d", attemptId.getTaskID().getId())
+        + template.substring(pos + TASK_PLACEHOLDER.length());
+  }
+
+  /**
+   * Resolve the table the task should COPY into. If per-task staging is
+   * enabled, its staging table is (re)created first.
+   * @param conn connection in auto-commit mode.
+   * @param targetTable the escaped name of the export table.
+   * @return the escaped name of the table to COPY into.
+   */
+  public static String prepareCopyTable(Configuration conf, Connection conn,
+      TaskAttemptID attemptId, String targetTable) throws SQLException {
+    if (!isEnabled(conf)) {
+      return targetTable;
+    }
+
+    String stagingTable = getTableName(conf, attemptId);
+    Statement stmt = conn.createStatement();
+    try {
+      // A failed earlier attempt of this task may have left its table behind.
+      stmt.executeUpdate("DROP TABLE IF EXISTS " + stagingTable);
+      stmt.executeUpdate("CREATE UNLOGGED TABLE " + stagingTable
+          + " (LIKE " + targetTable + " INCLUDING DEFAULTS)");
+    } finally {
+      stmt.close();
+    }
+    LOG.info("Staging rows of this task in " + stagingTable);
+    return stagingTable;
+  }
+}
@@ -0,0 +1,387 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.sqlserver;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.manager.SQLServerManager;
+import org.apache.sqoop.mapreduce.ExportEngine;
+import org.apache.sqoop.mapreduce.SQLServerResilientExportOutputFormat;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.mapreduce.db.SQLFailureHandler;
+import org.apache.sqoop.mapreduce.db.SQLServerConnectionFailureHandler;
+import org.apache.sqoop.util.LoggingUtils;
+
+/**
+ * ExportEngine writing each batch with the SQLServerBulkCopy API of the
+ * Microsoft JDBC driver instead of INSERT statements.
+ *
+ * Each batch is committed on its own. Connection failures are handled as
+ * by the resilient export: the configured SQLFailureHandler recovers the
+ * connection and the batch is retried; constraint violations after a
+ * failed commit are ignored since the batch may already be committed.
+ */
+public class SqlServerBulkCopyExportEngine implements ExportEngine {
+
+  private static final Log LOG =
+      LogFactory.getLog(SqlServerBulkCopyExportEngine.class);
+
+  /** Rows per server round trip within a batch; 0 sends a batch at once. */
+  public static final String BATCH_SIZE_KEY =
+      "sqoop.sqlserver.bulkcopy.batch.size";
+
+  /** Take a bulk update table lock (TABLOCK) during each bulk copy. */
+  public static final String TABLE_LOCK_KEY =
+      "sqoop.sqlserver.bulkcopy.tablock";
+
+  /** Records per batch unless ExportEngineOutputFormat says otherwise. */
+  public static final int DEFAULT_BATCH_RECORDS = 10000;
+
+  static final String BULK_COPY_CLASS =
+      "com.microsoft.sqlserver.jdbc.SQLServerBulkCopy";
+  static final String BULK_COPY_OPTIONS_CLASS =
+      "com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions";
+
+  // Recover failed batches for RETRY_MAX, as the resilient export does.
+  protected static final int RETRY_MAX = 3;
+
+  protected static final String SQLSTATE_CODE_CONSTRAINT_VIOLATION = "23000";
+
+  private Configuration conf;
+  @VisibleForTesting
+  Connection conn;
+  @VisibleForTesting
+  SQLFailureHandler failureHandler;
+  private String tableName;
+
+  private Class<?> bulkCopyClass;
+  private Class<?> bulkCopyOptionsClass;
+  private Class<?> bulkRecordInterface;
+
+  private int batchSize;
+  private boolean tableLock;
+  private boolean keepIdentity;
+
+  // Metadata of the destination columns, in record order.
+  private String[] columnNames;
+  private int[] columnTypes;
+  private int[] precisions;
+  private int[] scales;
+
+  private boolean failedCommit = false;
+
+  @Override
+  public void open(TaskAttemptContext context) throws IOException {
+    conf = context.getConfiguration();
+    try {
+      bulkCopyClass = conf.getClassByName(BULK_COPY_CLASS);
+      bulkCopyOptionsClass = conf.getClassByName(BULK_COPY_OPTIONS_CLASS);
+      bulkRecordInterface = conf.getClassByName(
+          SqlServerBulkRecord.BULK_RECORD_INTERFACE);
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("SQL Server bulk copy requires the Microsoft "
+          + "JDBC driver", cnfe);
+    }
+
+    batchSize = conf.getInt(BATCH_SIZE_KEY, 0);
+    tableLock = isTableLock(conf);
+    keepIdentity = conf.getBoolean(SQLServerManager.IDENTITY_INSERT_PROP,
+        false);
+
+    DBConfiguration dbConf = new DBConfiguration(conf);
+    tableName = dbConf.getOutputTableName();
+    failureHandler = getSQLFailureHandler(conf);
+    try {
+      conn = dbConf.getConnection();
+      conn.setAutoCommit(false);
+      readColumnMetadata(dbConf.getOutputFieldNames());
+    } catch (ClassNotFoundException cnfe) {
+      throw new IOException("Unable to load JDBC driver class", cnfe);
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to read the columns of " + tableName,
+          sqlE);
+      throw new IOException(sqlE);
+    }
+    LOG.info("Bulk copying into " + tableName + (tableLock ? " with TABLOCK"
+        : ""));
+  }
+
+  /**
+   * @return true if TABLOCK is requested, either directly or as a table
+   * hint.
+   */
+  static boolean isTableLock(Configuration conf) {
+    String hints = conf.get(SQLServerManager.TABLE_HINTS_PROP, "");
+    return conf.getBoolean(TABLE_LOCK_KEY, false)
+        || hints.toUpperCase().matches("(.*\\W)?TABLOCK(\\W.*)?");
+  }
+
+  static SQLFailureHandler getSQLFailureHandler(Configuration conf)
+      throws IOException {
+    Class<? extends SQLFailureHandler> handlerClass;
+    try {
+      handlerClass = conf.getClass(
+          SQLServerResilientExportOutputFormat.EXPORT_FAILURE_HANDLER_CLASS,
+          SQLServerConnectionFailureHandler.class, SQLFailureHandler.class);
+    } catch (RuntimeException re) {
+      throw new IOException("Invalid "
+          + SQLServerResilientExportOutputFormat.EXPORT_FAILURE_HANDLER_CLASS,
+          re);
+    }
+    SQLFailureHandler handler = ReflectionUtils.newInstance(handlerClass,
+        conf);
+    handler.initialize(conf);
+    return handler;
+  }
+
+  private void readColumnMetadata(String[] outputColumns)
+      throws SQLException {
+    String columns = null == outputColumns ? "*"
+        : StringUtils.join(outputColumns, ", ");
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery("SELECT " + columns + " FROM "
+          + tableName + " WHERE 1 = 0");
+      ResultSetMetaData md = rs.getMetaData();
+      int numCols = md.getColumnCount();
+      columnNames = new String[numCols];
+      columnTypes = new int[numCols];
+      precisions = new int[numCols];
+      scales = new int[numCols];
+      for (int i = 0; i < numCols; i++) {
+        columnNames[i] = md.getColumnName(i + 1);
+        columnTypes[i] = md.getColumnType(i + 1);
+        precisions[i] = md.getPrecision(i + 1);
+        scales[i] = md.getScale(i + 1);
+      }
+      rs.close();
+    } finally {
+      stmt.close();
+    }
+    conn.commit();
+  }
+
+  @Override
+  public void write(List<SqoopRecord> batch) throws IOException {
+    int retryCount = RETRY_MAX;
+    boolean doRetry = true;
+
+    do {
+      try {
+        bulkCopy(batch);
+        doRetry = false;
+      } catch (SQLException sqlEx) {
+        LOG.warn("Trying to recover from DB write failure: ", sqlEx);
+        if (failureHandler.canHandleFailure(sqlEx)) {
+          conn = failureHandler.recover();
+          try {
+            conn.setAutoCommit(false);
+          } catch (SQLException autoCommitEx) {
+            throw new IOException(autoCommitEx);
+          }
+          --retryCount;
+          doRetry = (retryCount >= 0);
+        } else {
+          throw new IOException("Registered handler cannot recover error "
+            + "with SQL State: " + sqlEx.getSQLState() + ", error code: "
+            + sqlEx.getErrorCode(), sqlEx);
+        }
+      }
+    } while (doRetry);
+
+    if (retryCount < 0) {
+      throw new IOException("Failed to write to database after "
+        + RETRY_MAX + " retries.");
+    }
+  }
+
+  /**
+   * Bulk copy the batch and commit it.
+   */
+  private void bulkCopy(List<SqoopRecord> batch)
+      throws SQLException, IOException {
+    try {
+      writeToServer(batch);
+    } catch (SQLException execSqlEx) {
+      LOG.warn("Error executing bulk copy: " + execSqlEx);
+      if (failedCommit
+          && SQLSTATE_CODE_CONSTRAINT_VIOLATION.equals(
+              execSqlEx.getSQLState())) {
+        // The previous attempt may have committed this batch.
+        LOG.info("Ignoring error after failed commit");
+        conn.rollback();
+        failedCommit = false;
+        return;
+      }
+      throw execSqlEx;
+    }
+
+    try {
+      conn.commit();
+      failedCommit = false;
+    } catch (SQLException commitSqlEx) {
+      LOG.warn("Error while committing transactions: " + commitSqlEx);
+      failedCommit = true;
+      throw commitSqlEx;
+    }
+  }
+
+  /**
+   * Write the batch to the table with a new SQLServerBulkCopy, without
+   * committing it.
+   */
+  @VisibleForTesting
+  void writeToServer(List<SqoopRecord> batch)
+      throws SQLException, IOException {
+    try {
+      Object bulkCopy = newInstance(bulkCopyClass, Connection.class, conn);
+      try {
+        Object options = newInstance(bulkCopyOptionsClass);
+        call(options, "setBatchSize", int.class, batchSize);
+        call(options, "setTableLock", boolean.class, tableLock);
+        call(options, "setKeepIdentity", boolean.class, keepIdentity);
+        call(bulkCopy, "setBulkCopyOptions", bulkCopyOptionsClass, options);
+        call(bulkCopy, "setDestinationTableName", String.class, tableName);
+        for (int i = 0; i < columnNames.length; i++) {
+          invoke(bulkCopy, bulkCopyClass.getMethod("addColumnMapping",
+              int.class, String.class), i + 1, columnNames[i]);
+        }
+
+        SqlServerBulkRecord records = new SqlServerBulkRecord(batch,
+            columnNames, columnTypes, precisions, scales);
+        invoke(bulkCopy, getWriteToServer(),
+            records.newProxy(bulkRecordInterface));
+      } finally {
+        call(bulkCopy, "close");
+      }
+    } catch (NoSuchMethodException nsme) {
+      throw new IOException("Unsupported SQL Server JDBC driver", nsme);
+    }
+  }
+
+  /**
+   * @return the writeToServer() overload taking a bulk record. Newer
+   * drivers declare it with a super-interface of ISQLServerBulkRecord.
+   */
+  private Method getWriteToServer() throws NoSuchMethodException {
+    for (Method m : bulkCopyClass.getMethods()) {
+      Class<?>[] params = m.getParameterTypes();
+      if ("writeToServer".equals(m.getName()) && params.length == 1
+          && params[0].isInterface()
+          && params[0].isAssignableFrom(bulkRecordInterface)) {
+        return m;
+      }
+    }
+    throw new NoSuchMethodException(BULK_COPY_CLASS
+        + ".writeToServer(ISQLServerBulkRecord)");
+  }
+
+  private static Object newInstance(Class<?> cls, Class<?> paramType,
+      Object arg) throws SQLException, IOException,
+      NoSuchMethodException {
+    try {
+      return cls.getConstructor(paramType).newInstance(arg);
+    } catch (InvocationTargetException ite) {
+      throw unwrap(ite);
+    } catch (ReflectiveOperationException roe) {
+      throw new IOException(roe);
+    }
+  }
+
+  private static Object newInstance(Class<?> cls) throws IOException {
+    try {
+      return cls.newInstance();
+    } catch (ReflectiveOperationException roe) {
+      throw new IOException(roe);
+    }
+  }
+
+  private static Object call(Object target, String name)
+      throws SQLException, IOException, NoSuchMethodException {
+    return invoke(target, target.getClass().getMethod(name));
+  }
+
+  private static Object call(Object target, String name, Class<?> type,
+      Object arg) throws SQLException, IOException, NoSuchMethodException {
+    return invoke(target, target.getClass().getMethod(name, type), arg);
+  }
+
+  private static Object invoke(Object target, Method method, Object... args)
+      throws SQLException, IOException {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ite) {
+      throw unwrap(ite);
+    } catch (IllegalAccessException iae) {
+      throw new IOException(iae);
+    }
+  }
+
+  /**
+   * @return the SQLException thrown by the driver, or an IOException
+   * wrapping any other failure.
+   */
+  private static SQLException unwrap(InvocationTargetException ite)
+      throws IOException {
+    Throwable cause = ite.getCause();
+    if (cause instanceof UndeclaredThrowableException) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof SQLException) {
+      return (SQLException) cause;
+    }
+    throw new IOException(cause);
+  }
+
+  @Override
+  public void commit() throws IOException {
+    // Every batch has been committed already.
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (null != conn) {
+        conn.close();
+      }
+    } catch (SQLException sqlE) {
+      LoggingUtils.logAll(LOG, "Unable to close connection", sqlE);
+      throw new IOException(sqlE);
+    } finally {
+      conn = null;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.sqlserver;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.sqoop.lib.SqoopRecord;
+
+/**
+ * Presents a batch of SqoopRecords to SQLServerBulkCopy as an
+ * ISQLServerBulkRecord.
+ *
+ * The Microsoft JDBC driver is not a compile time dependency, so the
+ * interface is implemented with a dynamic proxy. The row values are those
+ * the record would bind to an INSERT statement: each record writes itself
+ * into a PreparedStatement stand-in that captures the parameters.
+ */
+public class SqlServerBulkRecord implements InvocationHandler {
+
+  public static final String BULK_RECORD_INTERFACE =
+      "com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord";
+
+  private final Iterator<SqoopRecord> records;
+  private final String[] columnNames;
+  private final int[] columnTypes;
+  private final int[] precisions;
+  private final int[] scales;
+
+  private final Object[] row;
+  private final PreparedStatement rowCapture;
+
+  public SqlServerBulkRecord(List<SqoopRecord> records, String[] columnNames,
+      int[] columnTypes, int[] precisions, int[] scales) {
+    this.records = records.iterator();
+    this.columnNames = columnNames;
+    this.columnTypes = columnTypes;
+    this.precisions = precisions;
+    this.scales = scales;
+    this.row = new Object[columnNames.length];
+    this.rowCapture = (PreparedStatement) Proxy.newProxyInstance(
+        PreparedStatement.class.getClassLoader(),
+        new Class<?>[] { PreparedStatement.class }, new RowCapture());
+  }
+
+  /**
+   * @return a proxy implementing the given bulk record interface.
+   */
+  public Object newProxy(Class<?> bulkRecordInterface) {
+    return Proxy.newProxyInstance(bulkRecordInterface.getClassLoader(),
+        new Class<?>[] { bulkRecordInterface }, this);
+  }
+
+  /**
+   * Advance to the next record.
+   * @return false at the end of the batch.
+   */
+  public boolean next() throws SQLException {
+    if (!records.hasNext()) {
+      return false;
+    }
+    Arrays.fill(row, null);
+    records.next().write(rowCapture, 0);
+    return true;
+  }
+
+  public Object[] getRowData() {
+    return row.clone();
+  }
+
+  public Set<Integer> getColumnOrdinals() {
+    Set<Integer> ordinals = new LinkedHashSet<Integer>();
+    for (int i = 1; i <= columnNames.length; i++) {
+      ordinals.add(i);
+    }
+    return ordinals;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args)
+      throws Throwable {
+    String name = method.getName();
+    if ("next".equals(name)) {
+      return next();
+    } else if ("getRowData".equals(name)) {
+      return getRowData();
+    } else if ("getColumnOrdinals".equals(name)) {
+      return getColumnOrdinals();
+    } else if ("getColumnName".equals(name)) {
+      return columnNames[(Integer) args[0] - 1];
+    } else if ("getColumnType".equals(name)) {
+      return columnTypes[(Integer) args[0] - 1];
+    } else if ("getPrecision".equals(name)) {
+      return precisions[(Integer) args[0] - 1];
+    } else if ("getScale".equals(name)) {
+      return scales[(Integer) args[0] - 1];
+    } else if ("isAutoIncrement".equals(name)) {
+      return false;
+    } else if ("equals".equals(name)) {
+      return proxy == args[0];
+    } else if ("hashCode".equals(name)) {
+      return System.identityHashCode(proxy);
+    } else if ("toString".equals(name)) {
+      return "SqlServerBulkRecord" + Arrays.toString(columnNames);
+    }
+
+    // Column metadata setters and date/time formatters of newer drivers
+    // are not needed: the values are already typed.
+    if (method.getReturnType() == Void.TYPE
+        || !method.getReturnType().isPrimitive()) {
+      return null;
+    }
+    throw new UnsupportedOperationException(name);
+  }
+
+  /**
+   * Stores the parameters a record binds as the current row.
+   */
+  private class RowCapture implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      String name = method.getName();
+      if (name.startsWith("set") && null != args && args.length >= 2
+          && args[0] instanceof Integer) {
+        int idx = (Integer) args[0];
+        row[idx - 1] = "setNull".equals(name) ? null : args[1];
+        return null;
+      } else if ("toString".equals(name)) {
+        return "SqlServerBulkRecord.RowCapture";
+      } else if ("hashCode".equals(name)) {
+        return System.identityHashCode(proxy);
+      } else if ("equals".equals(name)) {
+        return proxy == args[0];
+      }
+      throw new UnsupportedOperationException(name);
+    }
+  }
+}
@@ -97,16 +97,26 @@ protected String getInsertStatement(int numRows) {
 
       sb.append("VALUES ");
 
-      // generates the (?, ?, ?...).
-      sb.append("(");
+      // generates the (?, ?, ?...) used for each row.
+      StringBuilder sbRow = new StringBuilder();
+      sbRow.append("(");
       for (int i = 0; i < numSlots; i++) {
+        if (i != 0) {
+          sbRow.append(", ");
+        }
+
+        sbRow.append("?");
+      }
+      sbRow.append(")");
+
+      // Now append that numRows times.
+      for (int i = 0; i < numRows; i++) {
         if (i != 0) {
           sb.append(", ");
         }
 
-        sb.append("?");
+        sb.append(sbRow);
       }
-      sb.append(")");
 
       String query = sb.toString();
       LOG.info("Using query " + query);
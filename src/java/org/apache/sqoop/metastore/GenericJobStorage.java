@@ -535,6 +535,7 @@ private void createRootTable() throws SQLException {
     } finally {
       s.close();
     }
+    connManager.invalidateMetadataCache(rootTableName);
 
     setRootProperty(STORAGE_VERSION_KEY, NO_VERSION,
         Integer.toString(CUR_STORAGE_VERSION));
@@ -662,6 +663,7 @@ private void createJobTable() throws SQLException {
     } finally {
       s.close();
     }
+    connManager.invalidateMetadataCache(curTableName);
 
     this.jobTableName = curTableName;
   }
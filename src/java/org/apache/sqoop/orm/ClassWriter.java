@@ -26,6 +26,7 @@
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -131,6 +132,15 @@ public class ClassWriter {
   public static final String PROPERTY_CODEGEN_METHODS_MAXCOLS =
       "codegen.methods.maxcols";
 
+  /**
+   * When set, Integer, Long, Float, Double and Boolean columns are stored as
+   * primitive fields in the generated class, with nullness tracked in a
+   * bitmap, instead of as boxed objects. The public accessors keep their
+   * boxed signatures so existing user code continues to compile.
+   */
+  public static final String PROPERTY_CODEGEN_PRIMITIVE_FIELDS =
+      "sqoop.codegen.primitive.fields";
+
   /**
    * This version number is injected into all generated Java classes to denote
    * which version of the ClassWriter's output format was used to generate the
@@ -159,6 +169,13 @@ public class ClassWriter {
   private String tableName;
   private CompilationManager compileManager;
   private boolean bigDecimalFormatString;
+  private boolean primitiveFields;
+
+  /**
+   * Maps each column stored as a primitive to its bit in the generated
+   * null bitmap. Empty unless primitive fields are enabled.
+   */
+  private Map<String, Integer> nullBits = new HashMap<String, Integer>();
 
   /**
    * Creates a new ClassWriter to generate an ORM class for a table
@@ -180,6 +197,8 @@ public ClassWriter(final SqoopOptions opts, final ConnManager connMgr,
     this.maxColumnsPerMethod = this.options.getConf().getInt(
         PROPERTY_CODEGEN_METHODS_MAXCOLS,
         MAX_COLUMNS_PER_METHOD_DEFAULT);
+    this.primitiveFields = this.options.getConf().getBoolean(
+        PROPERTY_CODEGEN_PRIMITIVE_FIELDS, false);
   }
 
   /**
@@ -302,6 +321,93 @@ private String toJavaType(String columnName, int sqlType) {
     return connManager.toJavaType(tableName, columnName, sqlType);
   }
 
+  /**
+   * @param javaType the boxed Java type of a column
+   * @return the primitive type used to store it when primitive fields are
+   * enabled, or null if the type has no primitive representation.
+   */
+  static String primitiveForType(String javaType) {
+    if ("Integer".equals(javaType)) {
+      return "int";
+    } else if ("Long".equals(javaType)) {
+      return "long";
+    } else if ("Float".equals(javaType)) {
+      return "float";
+    } else if ("Double".equals(javaType)) {
+      return "double";
+    } else if ("Boolean".equals(javaType)) {
+      return "boolean";
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * @return true if the column is stored as a primitive plus a null bit.
+   */
+  private boolean isPrimitiveColumn(String colName) {
+    return nullBits.containsKey(colName);
+  }
+
+  /**
+   * @return an expression testing the null bit of a primitive column.
+   */
+  private String isNullExpr(String colName) {
+    return "__sqoop$isNull(" + nullBits.get(colName) + ")";
+  }
+
+  /**
+   * @return a statement setting or clearing the null bit of a primitive
+   * column.
+   */
+  private String setNullStmt(String colName, String isNull) {
+    return "__sqoop$setNull(" + nullBits.get(colName) + ", " + isNull + ");";
+  }
+
+  /**
+   * Assign a null bit to every column which will be stored as a primitive.
+   */
+  private void assignNullBits(Map<String, Integer> columnTypes,
+      String [] colNames) {
+    nullBits.clear();
+    if (!primitiveFields) {
+      return;
+    }
+
+    for (String col : colNames) {
+      String javaType = toJavaType(col, columnTypes.get(col));
+      if (null != primitiveForType(javaType)) {
+        nullBits.put(col, nullBits.size());
+      }
+    }
+  }
+
+  /**
+   * Generate the null bitmap and its accessors used by primitive fields.
+   * Every column starts out null, as boxed fields do.
+   */
+  private void generateNullBitmap(StringBuilder sb) {
+    if (nullBits.isEmpty()) {
+      return;
+    }
+
+    int words = (nullBits.size() + 63) / 64;
+    sb.append("  private long[] __sqoop$nulls = new long[" + words + "];\n");
+    sb.append("  {\n");
+    sb.append("    Arrays.fill(__sqoop$nulls, -1L);\n");
+    sb.append("  }\n");
+    sb.append("  private boolean __sqoop$isNull(int __bit) {\n");
+    sb.append("    return (__sqoop$nulls[__bit >>> 6] & (1L << __bit)) != 0;\n");
+    sb.append("  }\n");
+    sb.append("  private void __sqoop$setNull(int __bit, boolean __isNull) {\n");
+    sb.append("    if (__isNull) {\n");
+    sb.append("      __sqoop$nulls[__bit >>> 6] |= 1L << __bit;\n");
+    sb.append("    } else {\n");
+    sb.append("      __sqoop$nulls[__bit >>> 6] &= ~(1L << __bit);\n");
+    sb.append("    }\n");
+    sb.append("  }\n");
+  }
+
   /**
    * @param javaType
    * @return the name of the method of JdbcWritableBridge to read an entry
@@ -520,6 +626,38 @@ private String rpcSetterForMaybeNull(String javaType, String outputObj,
         + "    }\n";
   }
 
+  /**
+   * Deserialize a possibly-null primitive column from the DataInput stream.
+   * The wire format is the same as rpcGetterForMaybeNull() produces for the
+   * boxed type.
+   */
+  private String rpcPrimitiveGetterForMaybeNull(String javaType,
+      String inputObj, String colName) {
+    String primitiveType = primitiveForType(javaType);
+    return "    if (" + inputObj + ".readBoolean()) { \n"
+        + "        " + setNullStmt(colName, "true") + "\n"
+        + "    } else {\n"
+        + "        this." + colName + " = " + inputObj + ".read"
+        + Character.toUpperCase(primitiveType.charAt(0))
+        + primitiveType.substring(1) + "();\n"
+        + "        " + setNullStmt(colName, "false") + "\n"
+        + "    }\n";
+  }
+
+  /**
+   * Serialize a possibly-null primitive column to the DataOutput stream,
+   * using the same wire format as rpcSetterForMaybeNull().
+   */
+  private String rpcPrimitiveSetterForMaybeNull(String javaType,
+      String outputObj, String colName) {
+    return "    if (" + isNullExpr(colName) + ") { \n"
+        + "        " + outputObj + ".writeBoolean(true);\n"
+        + "    } else {\n"
+        + "        " + outputObj + ".writeBoolean(false);\n"
+        + rpcSetterForType(javaType, outputObj, colName)
+        + "    }\n";
+  }
+
   /**
    * Get the number of methods that should be generated for a particular column
    * set.
@@ -566,6 +704,12 @@ private void generateFields(Map<String, Integer> columnTypes,
         continue;
       }
 
+      String primitiveType = primitiveForType(javaType);
+      if (isPrimitiveColumn(col)) {
+        generatePrimitiveField(javaType, primitiveType, col, className, sb);
+        continue;
+      }
+
       sb.append("  private " + javaType + " " + col + ";\n");
       sb.append("  public " + javaType + " get_" + col + "() {\n");
       sb.append("    return " + col + ";\n");
@@ -582,6 +726,32 @@ private void generateFields(Map<String, Integer> columnTypes,
     }
   }
 
+  /**
+   * Generate a primitive member field with boxed getter, setter and with
+   * methods that translate null to and from the null bitmap.
+   */
+  private void generatePrimitiveField(String javaType, String primitiveType,
+      String col, String className, StringBuilder sb) {
+    String defaultVal = "boolean".equals(primitiveType) ? "false" : "0";
+
+    sb.append("  private " + primitiveType + " " + col + ";\n");
+    sb.append("  public " + javaType + " get_" + col + "() {\n");
+    sb.append("    return " + isNullExpr(col) + " ? null : " + javaType
+        + ".valueOf(" + col + ");\n");
+    sb.append("  }\n");
+    sb.append("  public void set_" + col + "(" + javaType + " " + col
+        + ") {\n");
+    sb.append("    " + setNullStmt(col, "null == " + col) + "\n");
+    sb.append("    this." + col + " = (null == " + col + ") ? " + defaultVal
+        + " : " + col + ";\n");
+    sb.append("  }\n");
+    sb.append("  public " + className + " with_" + col + "(" + javaType + " "
+        + col + ") {\n");
+    sb.append("    set_" + col + "(" + col + ");\n");
+    sb.append("    return this;\n");
+    sb.append("  }\n");
+  }
+
   /**
    * Generate an equals method that compares the fields for each column.
    * @param columnTypes - mapping from column names to sql types
@@ -650,6 +820,24 @@ private void myGenerateEquals(Map<String, Integer> columnTypes,
         LOG.error("Cannot resolve SQL type " + sqlType);
         continue;
       }
+      if (isPrimitiveColumn(col)) {
+        // Compare floating point values the way Float.equals() and
+        // Double.equals() do, so NaN and -0.0 behave as with boxed fields.
+        String cmp;
+        if ("Float".equals(javaType)) {
+          cmp = "Float.floatToIntBits(this." + col
+              + ") == Float.floatToIntBits(that." + col + ")";
+        } else if ("Double".equals(javaType)) {
+          cmp = "Double.doubleToLongBits(this." + col
+              + ") == Double.doubleToLongBits(that." + col + ")";
+        } else {
+          cmp = "this." + col + " == that." + col;
+        }
+        sb.append("    equal = equal && (this." + isNullExpr(col)
+            + " == that." + isNullExpr(col) + ") && (this."
+            + isNullExpr(col) + " || " + cmp + ");\n");
+        continue;
+      }
       sb.append("    equal = equal && (this." + col + " == null ? that." + col
           + " == null : this." + col + ".equals(that." + col + "));\n");
     }
@@ -660,6 +848,18 @@ private void myGenerateEquals(Map<String, Integer> columnTypes,
     }
   }
 
+  /**
+   * @param prefix "read" or "write"
+   * @param javaType the boxed Java type of a primitive column
+   * @return the name of the JdbcWritableBridge method which reads or writes
+   * the column without boxing, e.g. readIntValue.
+   */
+  private String primitiveBridgeMethod(String prefix, String javaType) {
+    String primitiveType = primitiveForType(javaType);
+    return prefix + Character.toUpperCase(primitiveType.charAt(0))
+        + primitiveType.substring(1) + "Value";
+  }
+
   /**
    * Generate the readFields() method used by the database.
    * @param columnTypes - mapping from column names to sql types
@@ -731,6 +931,14 @@ private void myGenerateDbRead(Map<String, Integer> columnTypes,
         continue;
       }
 
+      if (isPrimitiveColumn(col)) {
+        sb.append("    this." + col + " = JdbcWritableBridge."
+            + primitiveBridgeMethod("read", javaType)
+            + "(" + (i + 1) + ", __dbResults);\n");
+        sb.append("    " + setNullStmt(col, "__dbResults.wasNull()") + "\n");
+        continue;
+      }
+
       sb.append("    this." + col + " = JdbcWritableBridge." +  getterMethod
           + "(" + (i + 1) + ", __dbResults);\n");
     }
@@ -897,7 +1105,12 @@ private void myGenerateDbWrite(Map<String, Integer> columnTypes,
         continue;
       }
 
-      if ("writeString".equals(setterMethod) && sqlType == 2002) {
+      if (isPrimitiveColumn(col)) {
+        sb.append("    JdbcWritableBridge."
+            + primitiveBridgeMethod("write", javaType) + "(" + col + ", "
+            + isNullExpr(col) + ", " + (i + 1) + " + __off, " + sqlType
+            + ", __dbStmt);\n");
+      } else if ("writeString".equals(setterMethod) && sqlType == 2002) {
         sb.append("__dbStmt.setString(" + (i + 1) + ", " + col + ");\n");
       } else {
         sb.append("    JdbcWritableBridge." + setterMethod + "(" + col + ", " + (i + 1) + " + __off, " + sqlType
@@ -966,7 +1179,13 @@ private void myGenerateHadoopRead(Map<String, Integer> columnTypes,
         continue;
       }
 
-      String getterMethod = rpcGetterForMaybeNull(javaType, "__dataIn", col);
+      String getterMethod;
+      if (isPrimitiveColumn(col)) {
+        getterMethod = rpcPrimitiveGetterForMaybeNull(javaType, "__dataIn",
+            col);
+      } else {
+        getterMethod = rpcGetterForMaybeNull(javaType, "__dataIn", col);
+      }
       if (null == getterMethod) {
         LOG.error("No RPC getter method for Java type " + javaType);
         continue;
@@ -997,6 +1216,9 @@ private void generateCloneMethod(Map<String, Integer> columnTypes,
 
     sb.append("  public Object clone() throws CloneNotSupportedException {\n");
     sb.append("    " + className + " o = (" + className + ") super.clone();\n");
+    if (!nullBits.isEmpty()) {
+      sb.append("    o.__sqoop$nulls = this.__sqoop$nulls.clone();\n");
+    }
 
     if (numberOfMethods > 1) {
       for (int i = 0; i < numberOfMethods; ++i) {
@@ -1079,6 +1301,23 @@ private void generateSetField(Map<String, Integer> columnTypes, String[] colName
     sb.append("    }" + sep);
     sb.append("    setters.get(__fieldName).setField(__fieldVal);" + sep);
     sb.append("  }\n" + sep);
+
+    // Positional access, for callers that resolve field names once and then
+    // set values by index.
+    sb.append("  public int getFieldIndex(String __fieldName) {" + sep);
+    sb.append("    FieldSetterCommand __setter = setters.get(__fieldName);" + sep);
+    sb.append("    if (null != __setter) {" + sep);
+    sb.append("      for (int __i = 0; __i < __sqoop$fieldSetters.length; __i++) {" + sep);
+    sb.append("        if (__sqoop$fieldSetters[__i] == __setter) {" + sep);
+    sb.append("          return __i;" + sep);
+    sb.append("        }" + sep);
+    sb.append("      }" + sep);
+    sb.append("    }" + sep);
+    sb.append("    return -1;" + sep);
+    sb.append("  }" + sep);
+    sb.append("  public void setField(int __fieldIndex, Object __fieldVal) {" + sep);
+    sb.append("    __sqoop$fieldSetters[__fieldIndex].setField(__fieldVal);" + sep);
+    sb.append("  }\n" + sep);
   }
 
   private void generateConstructorAndInitMethods(Map<String, Integer> colTypes, String[] colNames, String[] rawColNames,
@@ -1097,12 +1336,17 @@ private void generateConstructorAndInitMethods(Map<String, Integer> colTypes, St
           LOG.error("Cannot resolve SQL type " + sqlType);
           continue;
         } else {
-          sb.append("    setters.put(\"" + serializeRawColName(rawColName) + "\", new FieldSetterCommand() {" + sep);
+          sb.append("    __sqoop$fieldSetters[" + i + "] = new FieldSetterCommand() {" + sep);
           sb.append("      @Override" + sep);
           sb.append("      public void setField(Object value) {" + sep);
-          sb.append("        " +typeName+".this." + colName + " = (" + javaType + ")value;" + sep);
+          if (isPrimitiveColumn(colName)) {
+            sb.append("        " + typeName + ".this.set_" + colName + "((" + javaType + ")value);" + sep);
+          } else {
+            sb.append("        " +typeName+".this." + colName + " = (" + javaType + ")value;" + sep);
+          }
           sb.append("      }" + sep);
-          sb.append("    });" + sep);
+          sb.append("    };" + sep);
+          sb.append("    setters.put(\"" + serializeRawColName(rawColName) + "\", __sqoop$fieldSetters[" + i + "]);" + sep);
         }
       }
       sb.append("  }" + sep);
@@ -1156,8 +1400,13 @@ private void myGenerateSetField(Map<String, Integer> columnTypes,
         }
 
         sb.append("    if (\"" + serializeRawColName(rawColName) + "\".equals(__fieldName)) {\n");
-        sb.append("      this." + colName + " = (" + javaType
-            + ") __fieldVal;\n");
+        if (isPrimitiveColumn(colName)) {
+          sb.append("      this.set_" + colName + "((" + javaType
+              + ") __fieldVal);\n");
+        } else {
+          sb.append("      this." + colName + " = (" + javaType
+              + ") __fieldVal;\n");
+        }
         sb.append("      return true;\n");
         sb.append("    }\n");
         first = false;
@@ -1220,7 +1469,9 @@ private void myGenerateGetFieldMap(Map<String, Integer> columnTypes,
 
     for (int i = methodNumber * size;
          i < topBoundary(colNames, methodNumber, size); ++i) {
-      sb.append("    __sqoop$field_map.put(\"" + serializeRawColName(rawColNames[i]) + "\", this." + colNames[i] + ");\n");
+      String fieldExpr = isPrimitiveColumn(colNames[i])
+          ? "this.get_" + colNames[i] + "()" : "this." + colNames[i];
+      sb.append("    __sqoop$field_map.put(\"" + serializeRawColName(rawColNames[i]) + "\", " + fieldExpr + ");\n");
     }
 
     if (wrapInMethod) {
@@ -1337,7 +1588,13 @@ private void myGenerateToString(Map<String, Integer> columnTypes,
 
       first = false;
 
-      String stringExpr = stringifierForType(javaType, col);
+      String stringExpr;
+      if (isPrimitiveColumn(col)) {
+        stringExpr = isNullExpr(col) + "?\""
+            + this.options.getNullNonStringValue() + "\":\"\" + " + col;
+      } else {
+        stringExpr = stringifierForType(javaType, col);
+      }
       if (null == stringExpr) {
         LOG.error("No toString method for Java type " + javaType);
         continue;
@@ -1426,6 +1683,11 @@ private void parseColumn(String colName, int colType, StringBuilder sb) {
     sb.append("        __cur_str = \"" + nullValue + "\";\n");
     sb.append("    }\n");
 
+    if (isPrimitiveColumn(colName)) {
+      parsePrimitiveColumn(javaType, colName, sb);
+      return;
+    }
+
     parseNullVal(javaType, colName, sb);
     if (javaType.equals("String")) {
       // TODO(aaron): Distinguish between 'null' and null. Currently they both
@@ -1475,6 +1737,35 @@ private void parseColumn(String colName, int colType, StringBuilder sb) {
     sb.append("    }\n\n"); // the closing '{' based on code in parseNullVal();
   }
 
+  /**
+   * Helper method for parseColumn(). Parses a column stored as a primitive
+   * without creating a boxed intermediate.
+   */
+  private void parsePrimitiveColumn(String javaType, String colName,
+      StringBuilder sb) {
+    String parser;
+    if (javaType.equals("Integer")) {
+      parser = "Integer.parseInt";
+    } else if (javaType.equals("Long")) {
+      parser = "Long.parseLong";
+    } else if (javaType.equals("Float")) {
+      parser = "Float.parseFloat";
+    } else if (javaType.equals("Double")) {
+      parser = "Double.parseDouble";
+    } else {
+      parser = "BooleanParser.valueOf";
+    }
+
+    sb.append("    if (__cur_str.equals(\""
+        + this.options.getInNullNonStringValue());
+    sb.append("\") || __cur_str.length() == 0) { ");
+    sb.append(setNullStmt(colName, "true"));
+    sb.append(" } else {\n");
+    sb.append("      this." + colName + " = " + parser + "(__cur_str);\n");
+    sb.append("      " + setNullStmt(colName, "false") + "\n");
+    sb.append("    }\n\n");
+  }
+
   /**
    * Generate the parse() method.
    * @param columnTypes - mapping from column names to sql types
@@ -1624,7 +1915,13 @@ private void myGenerateHadoopWrite(Map<String, Integer> columnTypes,
         continue;
       }
 
-      String setterMethod = rpcSetterForMaybeNull(javaType, "__dataOut", col);
+      String setterMethod;
+      if (isPrimitiveColumn(col)) {
+        setterMethod = rpcPrimitiveSetterForMaybeNull(javaType, "__dataOut",
+            col);
+      } else {
+        setterMethod = rpcSetterForMaybeNull(javaType, "__dataOut", col);
+      }
       if (null == setterMethod) {
         LOG.error("No RPC setter method for Java type " + javaType);
         continue;
@@ -1967,7 +2264,11 @@ private StringBuilder generateClassForColumns(
     sb.append("  }");
     sb.append("  protected ResultSet __cur_result_set;\n");
     sb.append("  private Map<String, FieldSetterCommand> setters = new HashMap<String, FieldSetterCommand>();\n");
+    sb.append("  private FieldSetterCommand[] __sqoop$fieldSetters = new FieldSetterCommand["
+        + colNames.length + "];\n");
+    assignNullBits(columnTypes, colNames);
     generateConstructorAndInitMethods(columnTypes, colNames, rawColNames, className, sb);
+    generateNullBitmap(sb);
     generateFields(columnTypes, colNames, className, sb);
     generateEquals(columnTypes, colNames, className, sb);
     generateDbRead(columnTypes, colNames, sb);
@@ -331,11 +331,6 @@ protected void validateExportOptions(SqoopOptions options)
       // class.
       throw new InvalidOptionsException("Jar cannot be specified with "
           + "--jar-file when export is running in update mode.");
-    } else if (options.getStagingTableName() != null
-        && options.getUpdateKeyCol() != null) {
-      // Staging table may not be used when export is running in update mode
-      throw new InvalidOptionsException("Staging table cannot be used when "
-          + "export is running in update mode.");
     } else if (options.getStagingTableName() != null
         && options.getStagingTableName().equalsIgnoreCase(
             options.getTableName())) {
@@ -25,6 +25,7 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -45,8 +46,13 @@
 import org.apache.sqoop.config.ConfigurationHelper;
 import org.apache.sqoop.hive.HiveClient;
 import org.apache.sqoop.hive.HiveClientFactory;
+import org.apache.sqoop.hive.HiveConfig;
+import org.apache.sqoop.hive.TableDefWriter;
+import org.apache.sqoop.io.CodecBenchmark;
 import org.apache.sqoop.manager.ImportJobContext;
+import org.apache.sqoop.mapreduce.DynamicPartitions;
 import org.apache.sqoop.mapreduce.MergeJob;
+import org.apache.sqoop.mapreduce.db.BoundingValues;
 import org.apache.sqoop.mapreduce.parquet.ParquetJobConfiguratorFactory;
 import org.apache.sqoop.mapreduce.parquet.ParquetMergeJobConfigurator;
 import org.apache.sqoop.metastore.JobData;
@@ -57,6 +63,7 @@
 import org.apache.sqoop.util.AppendUtils;
 import org.apache.sqoop.util.ClassLoaderStack;
 import org.apache.sqoop.util.ImportException;
+import org.apache.sqoop.util.IncrementalDeltas;
 
 import static org.apache.sqoop.manager.SupportedManagers.MYSQL;
 import static org.apache.commons.lang3.StringUtils.startsWith;
@@ -439,9 +446,96 @@ private boolean initIncrementalConstraints(SqoopOptions options,
     recordOptions.setIncrementalLastValue(
         (nextVal == null) ? null : nextVal.toString());
 
+    if (incrementalMode == SqoopOptions.IncrementalMode.AppendRows
+        && !isDateTimeColumn(checkColumnType)
+        && null != prevEndpoint && null != nextIncrementalValue) {
+      // The range of the check column is already known, so there is no
+      // need to run a bounding query if it is also the split column.
+      new BoundingValues(options.getIncrementalTestColumn(), checkColumnType,
+          prevEndpoint, nextIncrementalValue, false, "incremental last-value")
+          .store(options.getConf());
+    }
+
     return true;
   }
 
+  /**
+   * Commit the imported rows as a new delta of the target directory rather
+   * than merging them into it, and compact the deltas once there are enough
+   * of them.
+   */
+  protected void commitDelta(SqoopOptions options, ImportJobContext context,
+      Path userDestDir) throws IOException {
+    IncrementalDeltas deltas =
+        new IncrementalDeltas(userDestDir, options.getConf());
+    deltas.commit(context.getDestination());
+
+    List<Path> committed = deltas.getDeltas();
+    int threshold = options.getConf().getInt(
+        IncrementalDeltas.COMPACTION_THRESHOLD_KEY, 0);
+    if (threshold > 0 && committed.size() >= threshold) {
+      try {
+        compactDeltas(options, context, deltas, committed);
+      } catch (IOException ioe) {
+        // The delta is already committed; a later run can compact.
+        LOG.warn("Could not compact deltas of " + userDestDir + ": "
+            + StringUtils.stringifyException(ioe));
+      }
+    }
+
+    SqoopOptions recordOptions = options.getParent();
+    if (null == recordOptions) {
+      recordOptions = options;
+    }
+    List<String> names = new ArrayList<String>();
+    for (Path delta : deltas.getDeltas()) {
+      names.add(delta.getName());
+    }
+    recordOptions.setIncrementalDeltas(StringUtils.join(",", names));
+  }
+
+  /**
+   * Merge the base dataset and the given deltas into a new base.
+   */
+  private void compactDeltas(SqoopOptions options, ImportJobContext context,
+      IncrementalDeltas deltas, List<Path> committed) throws IOException {
+    LOG.info("Compacting " + committed.size() + " deltas into "
+        + deltas.getBaseDir());
+    String tableClassName = null;
+    if (!context.getConnManager().isORMFacilitySelfManaged()) {
+      tableClassName =
+          new TableClassName(options).getClassForTable(context.getTableName());
+    }
+    Path destDir = getOutputPath(options, context.getTableName());
+    options.setExistingJarName(context.getJarFile());
+    options.setClassName(tableClassName);
+    options.setMergeOldPath(deltas.getBaseDir().toString());
+    options.setTargetDir(destDir.toString());
+
+    // Local job tracker needs jars in the classpath.
+    if (options.getFileLayout() == SqoopOptions.FileLayout.ParquetFile) {
+      loadJars(options.getConf(), context.getJarFile(),
+          ClassWriter.toJavaIdentifier("codegen_" + context.getTableName()));
+    } else {
+      loadJars(options.getConf(), context.getJarFile(), context.getTableName());
+    }
+
+    try {
+      ParquetMergeJobConfigurator parquetMergeJobConfigurator =
+          getParquetJobConfigurator(options).createParquetMergeJobConfigurator();
+      MergeJob mergeJob = new MergeJob(options, parquetMergeJobConfigurator);
+      mergeJob.setDeltaPaths(committed);
+      if (mergeJob.runMergeJob()) {
+        deltas.replaceBase(destDir, committed,
+            getOutputPath(options, context.getTableName()));
+      } else {
+        LOG.error("Compaction MapReduce job failed!");
+      }
+    } finally {
+      unloadJars();
+    }
+  }
+
   /**
    * Merge HDFS output directories
    */
@@ -453,6 +547,11 @@ protected void lastModifiedMerge(SqoopOptions options, ImportJobContext context)
     Path userDestDir = getOutputPath(options, context.getTableName(), false);
     FileSystem fs = userDestDir.getFileSystem(options.getConf());
     if (fs.exists(context.getDestination())) {
+      if (fs.exists(userDestDir)
+          && IncrementalDeltas.isEnabled(options.getConf())) {
+        commitDelta(options, context, userDestDir);
+        return;
+      }
       LOG.info("Final destination exists, will run merge job.");
       if (fs.exists(userDestDir)) {
         String tableClassName = null;
@@ -514,7 +613,40 @@ protected boolean importTable(SqoopOptions options) throws IOException, ImportEx
     // Generate the ORM code for the tables.
     jarFile = codeGenerator.generateORM(options, options.getTableName());
 
+    if (null != options.getTableName()
+        && CodecBenchmark.isEnabled(options.getConf())) {
+      CodecBenchmark.run(options, manager);
+    }
+
     Path outputPath = getOutputPath(options, options.getTableName());
+    if (options.isResume() && null != outputPath && (options.isAppendMode()
+        || options.getIncrementalMode()
+            == SqoopOptions.IncrementalMode.DateLastModified)) {
+      // A resumed run must use the same temporary folder as the failed run.
+      Path userDestDir = getOutputPath(options, options.getTableName(), false);
+      outputPath = new Path(outputPath.getParent(), "resume_"
+          + Integer.toHexString(String.valueOf(userDestDir).hashCode()));
+    }
+    if (options.isAppendMode() && null != outputPath
+        && AppendUtils.isManifestCommit(options.getConf())) {
+      // Write straight into the target directory; the append only has to
+      // list the files in the manifest.
+      outputPath = AppendUtils.getManifestAppendDir(
+          getOutputPath(options, options.getTableName(), false),
+          outputPath.getName());
+    }
+
+    Path hiveTableLocation = null;
+    if (isHiveImportNeeded(options)
+        && HiveConfig.isDirectLoad(options.getConf())) {
+      // Import into a temporary folder next to the usual target and commit
+      // the files straight into the Hive table (or partition) location.
+      hiveTableLocation = new TableDefWriter(options, manager,
+          options.getTableName(), options.getHiveTableName(),
+          options.getConf(), false).getTableLocation();
+      outputPath = getOutputPath(options, options.getTableName(), true);
+      LOG.info("Loading the imported data directly into " + hiveTableLocation);
+    }
 
     // Do the actual import.
     ImportJobContext context = new ImportJobContext(options.getTableName(), jarFile,
@@ -536,7 +668,9 @@ protected boolean importTable(SqoopOptions options) throws IOException, ImportEx
       manager.importQuery(context);
     }
 
-    if (options.isAppendMode()) {
+    if (null != hiveTableLocation) {
+      commitToHiveTable(context, hiveTableLocation);
+    } else if (options.isAppendMode()) {
       AppendUtils app = new AppendUtils(context);
       app.append();
     } else if (options.getIncrementalMode() == SqoopOptions.IncrementalMode.DateLastModified) {
@@ -554,6 +688,66 @@ protected boolean importTable(SqoopOptions options) throws IOException, ImportEx
     return true;
   }
 
+  /**
+   * Moves the imported files into the storage location of the Hive table,
+   * or of each written partition, replacing its contents if the table is to
+   * be overwritten.
+   */
+  private void commitToHiveTable(ImportJobContext context, Path tableLocation)
+      throws IOException {
+    SqoopOptions options = context.getOptions();
+    Path tempDir = context.getDestination();
+    if (!DynamicPartitions.isEnabled(options.getConf())) {
+      commitToHiveLocation(context, tempDir, tableLocation);
+      return;
+    }
+
+    // Commit every written partition on its own; with --hive-overwrite only
+    // the partitions that received rows are replaced.
+    FileSystem fs = tempDir.getFileSystem(options.getConf());
+    for (Path partitionDir : DynamicPartitions.listPartitions(fs, tempDir,
+        DynamicPartitions.getColumn(options.getConf()))) {
+      commitToHiveLocation(context, partitionDir,
+          new Path(tableLocation, partitionDir.getName()));
+    }
+    fs.delete(tempDir, true);
+  }
+
+  private void commitToHiveLocation(ImportJobContext context, Path tempDir,
+      Path location) throws IOException {
+    SqoopOptions options = context.getOptions();
+    if (!options.doOverwriteHiveTable()) {
+      new AppendUtils(context).append(tempDir, location);
+      return;
+    }
+
+    // Like the merge, move the old contents aside, move the new data in and
+    // only then delete the old contents, so that a failure never leaves the
+    // location empty.
+    FileSystem fs = location.getFileSystem(options.getConf());
+    Path oldDir = null;
+    if (fs.exists(location)) {
+      oldDir = AppendUtils.getTempAppendDir(location.getName(), options);
+      fs.mkdirs(oldDir.getParent());
+      if (!fs.rename(location, oldDir)) {
+        throw new IOException("Could not move " + location + " to " + oldDir);
+      }
+    } else {
+      fs.mkdirs(location.getParent());
+    }
+    if (!fs.rename(tempDir, location)) {
+      if (oldDir != null && !fs.rename(oldDir, location)) {
+        LOG.error("Could not restore the previous contents of " + location
+            + " from " + oldDir);
+      }
+      throw new IOException("Could not move " + tempDir + " to " + location);
+    }
+    if (oldDir != null) {
+      fs.delete(oldDir, true);
+    }
+    LOG.info("Replaced the contents of " + location);
+  }
+
   private void deleteTargetDir(ImportJobContext context) throws IOException {
 
     SqoopOptions options = context.getOptions();
@@ -704,6 +898,11 @@ protected RelatedOptions getImportOptions() {
           .withDescription("Imports data in delete mode")
           .withLongOpt(DELETE_ARG)
           .create());
+      importOpts.addOption(OptionBuilder
+          .withDescription("Resume a failed import, importing only the "
+              + "split ranges it did not complete")
+          .withLongOpt(RESUME_ARG)
+          .create());
       importOpts.addOption(OptionBuilder.withArgName("dir")
           .hasArg().withDescription("HDFS plain table destination")
           .withLongOpt(TARGET_DIR_ARG)
@@ -942,6 +1141,10 @@ public void applyOptions(CommandLine in, SqoopOptions out)
           out.setDeleteMode(true);
         }
 
+        if (in.hasOption(RESUME_ARG)) {
+          out.setResume(true);
+        }
+
         if (in.hasOption(SQL_QUERY_ARG)) {
           out.setSqlQuery(in.getOptionValue(SQL_QUERY_ARG));
         }
@@ -1111,6 +1314,30 @@ protected void validateImportOptions(SqoopOptions options)
 	        && (options.getSplitByCol() != null)) {
 	      throw new InvalidOptionsException("--autoreset-to-one-mapper and"
 	          + " --split-by cannot be used together.");
+	    } else if (options.isResume() && (options.isDirect()
+	        || options.getHBaseTable() != null
+	        || options.getAccumuloTable() != null
+	        || options.getHCatTableName() != null)) {
+	      throw new InvalidOptionsException("--" + RESUME_ARG + " is only"
+	          + " supported for non-direct imports to HDFS.");
+	    } else if (options.isAppendMode() && options.doHiveImport()
+	        && AppendUtils.isManifestCommit(options.getConf())) {
+	      throw new InvalidOptionsException("Hive import is not supported with"
+	          + " the " + AppendUtils.COMMIT_MODE_MANIFEST + " commit mode"
+	          + " of --append.");
+	    } else if (DynamicPartitions.isEnabled(options.getConf())
+	        && (options.getHivePartitionKey() != null
+	        || options.getFileLayout() != SqoopOptions.FileLayout.TextFile
+	        || options.getHCatTableName() != null || options.isResume())) {
+	      throw new InvalidOptionsException("Partitioning by column ("
+	          + DynamicPartitions.COLUMN_KEY + ") is only supported for text"
+	          + " imports without --hive-partition-key, --hcatalog-table or"
+	          + " --" + RESUME_ARG + ".");
+	    } else if (options.doHiveImport() && options.doFailIfHiveTableExists()
+	        && HiveConfig.isDirectLoad(options.getConf())) {
+	      throw new InvalidOptionsException("--" + CREATE_HIVE_TABLE_ARG
+	          + " can not be used when loading directly into the Hive table ("
+	          + HiveConfig.HIVE_DIRECT_LOAD + ").");
 	    }
 	  }
 
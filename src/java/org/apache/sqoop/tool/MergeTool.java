@@ -19,11 +19,14 @@
 package org.apache.sqoop.tool;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.util.StringUtils;
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.SqoopOptions.InvalidOptionsException;
@@ -31,6 +34,9 @@
 import org.apache.sqoop.cli.ToolOptions;
 import org.apache.sqoop.mapreduce.MergeJob;
 import org.apache.sqoop.mapreduce.parquet.ParquetMergeJobConfigurator;
+import org.apache.sqoop.util.AppendUtils;
+import org.apache.sqoop.util.FileSystemUtil;
+import org.apache.sqoop.util.IncrementalDeltas;
 import org.apache.sqoop.util.LoggingUtils;
 
 /**
@@ -55,6 +61,9 @@ public int run(SqoopOptions options) {
       // Configure and execute a MapReduce job to merge these datasets.
       ParquetMergeJobConfigurator parquetMergeJobConfigurator = getParquetJobConfigurator(options).createParquetMergeJobConfigurator();
       MergeJob mergeJob = new MergeJob(options, parquetMergeJobConfigurator);
+      if (null == options.getMergeNewPath()) {
+        return mergeDeltas(options, mergeJob);
+      }
       if (!mergeJob.runMergeJob()) {
         LOG.error("MapReduce job failed!");
         return 1;
@@ -69,6 +78,44 @@ public int run(SqoopOptions options) {
     return 0;
   }
 
+  /**
+   * Merge the deltas of an incremental import written with the delta layout
+   * on top of its base dataset. If the target directory is the directory
+   * of the base dataset, the result replaces the base and the merged deltas
+   * (a compaction); otherwise the target directory receives the latest view
+   * of the data and the source is left untouched.
+   */
+  private int mergeDeltas(SqoopOptions options, MergeJob mergeJob)
+      throws IOException {
+    Configuration conf = options.getConf();
+    Path basePath = new Path(options.getMergeOldPath());
+    IncrementalDeltas deltas = new IncrementalDeltas(basePath, conf);
+    List<Path> committed = deltas.getDeltas();
+    if (committed.isEmpty()) {
+      LOG.info("No deltas to merge in " + basePath);
+      return 0;
+    }
+
+    Path targetPath = new Path(options.getTargetDir());
+    boolean compact = FileSystemUtil.makeQualified(targetPath, conf).equals(
+        FileSystemUtil.makeQualified(basePath, conf));
+    if (compact) {
+      targetPath = AppendUtils.getTempAppendDir(basePath.getName(), options);
+      options.setTargetDir(targetPath.toString());
+    }
+
+    mergeJob.setDeltaPaths(committed);
+    if (!mergeJob.runMergeJob()) {
+      LOG.error("MapReduce job failed!");
+      return 1;
+    }
+    if (compact) {
+      deltas.replaceBase(targetPath, committed,
+          AppendUtils.getTempAppendDir(basePath.getName(), options));
+    }
+    return 0;
+  }
+
   /**
    * Construct the set of options that control imports, either of one
    * table or a batch of tables.
@@ -90,7 +137,8 @@ protected RelatedOptions getMergeOptions() {
         .create());
 
     mergeOpts.addOption(OptionBuilder.withArgName("path")
-        .hasArg().withDescription("Path to the more recent data set")
+        .hasArg().withDescription("Path to the more recent data set; if "
+            + "omitted, the deltas of the older data set are merged")
         .withLongOpt(NEW_DATASET_ARG)
         .create());
 
@@ -180,16 +228,18 @@ public void applyOptions(CommandLine in, SqoopOptions out)
   protected void validateMergeOptions(SqoopOptions options)
       throws InvalidOptionsException {
 
-    if (options.getMergeNewPath() == null) {
-      throw new InvalidOptionsException("Must set the new dataset path with --"
-          + NEW_DATASET_ARG + "." + HELP_STR);
-    }
-
     if (options.getMergeOldPath() == null) {
       throw new InvalidOptionsException("Must set the old dataset path with --"
           + OLD_DATASET_ARG + "." + HELP_STR);
     }
 
+    if (options.getMergeNewPath() == null
+        && !hasDeltaLayout(options)) {
+      throw new InvalidOptionsException("Must set the new dataset path with --"
+          + NEW_DATASET_ARG + " unless the old dataset uses the delta"
+          + " layout." + HELP_STR);
+    }
+
     if (options.getMergeKeyCol() == null) {
       throw new InvalidOptionsException("Must set the merge key column with --"
           + MERGE_KEY_ARG + "." + HELP_STR);
@@ -207,6 +257,18 @@ protected void validateMergeOptions(SqoopOptions options)
     }
   }
 
+  private boolean hasDeltaLayout(SqoopOptions options)
+      throws InvalidOptionsException {
+    Path basePath = new Path(options.getMergeOldPath());
+    try {
+      return new IncrementalDeltas(basePath, options.getConf())
+          .hasDeltaLayout();
+    } catch (IOException ioe) {
+      throw new InvalidOptionsException("Could not read " + basePath + ": "
+          + ioe.getMessage());
+    }
+  }
+
   @Override
   /** {@inheritDoc} */
   public void validateOptions(SqoopOptions options)
@@ -20,13 +20,28 @@
 
 import java.io.IOException;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.sqoop.io.BgzfOutputStream;
 import org.apache.sqoop.manager.ImportJobContext;
 import org.apache.sqoop.SqoopOptions;
 import org.apache.commons.logging.Log;
@@ -46,6 +61,27 @@ public class AppendUtils {
   public static final String DATA_PART_PATTERN_PREFIX = "part";
   public static final String MAPREDUCE_OUTPUT_BASENAME_PROPERTY = "mapreduce.output.basename";
 
+  /**
+   * Number of threads used to move the imported files into the target
+   * directory. With the default of 1 the files are moved one at a time.
+   */
+  public static final String PROMOTION_THREADS_KEY =
+      "sqoop.append.promotion.threads";
+  public static final int DEFAULT_PROMOTION_THREADS = 1;
+
+  /**
+   * How the imported files are committed to the target directory; either
+   * "rename" (the default), which moves every file into the target
+   * directory, or "manifest", which leaves the files where the import wrote
+   * them under _appends and lists them in _appends/_MANIFEST.
+   */
+  public static final String COMMIT_MODE_KEY = "sqoop.append.commit.mode";
+  public static final String COMMIT_MODE_RENAME = "rename";
+  public static final String COMMIT_MODE_MANIFEST = "manifest";
+
+  public static final String APPENDS_DIR = "_appends";
+  public static final String MANIFEST_FILE = "_MANIFEST";
+
   private ImportJobContext context = null;
 
   public AppendUtils(ImportJobContext context) {
@@ -59,7 +95,6 @@ public AppendUtils(ImportJobContext context) {
   public void append() throws IOException {
 
     SqoopOptions options = context.getOptions();
-    Path tempDir = context.getDestination();
 
     // Try in this order: target-dir or warehouse-dir
     Path userDestDir = null;
@@ -71,9 +106,28 @@ public void append() throws IOException {
     } else {
       userDestDir = new Path(context.getTableName());
     }
+    append(userDestDir);
+  }
+
+  /**
+   * Moves the imported data files to the given directory, renumbering them
+   * after the files already there.
+   */
+  public void append(Path userDestDir) throws IOException {
+    append(context.getDestination(), userDestDir);
+  }
+
+  /**
+   * Moves the data files found in the given temporary directory to the
+   * given directory, renumbering them after the files already there.
+   */
+  public void append(Path tempDir, Path userDestDir) throws IOException {
+
+    SqoopOptions options = context.getOptions();
     FileSystem fs = userDestDir.getFileSystem(options.getConf());
 
     int nextPartition = 0;
+    FileStatus[] existingFiles = null;
 
     if (!fs.exists(tempDir)) {
       // This occurs if there was no source (tmp) dir. This might happen
@@ -84,6 +138,11 @@ public void append() throws IOException {
       return;
     }
 
+    if (isManifestCommit(options.getConf())) {
+      commitToManifest(fs, tempDir, userDestDir);
+      return;
+    }
+
     // Create target directory.
     if (!fs.exists(userDestDir)) {
       LOG.info("Creating missing output directory - " + userDestDir.getName());
@@ -92,11 +151,19 @@ public void append() throws IOException {
     } else {
       LOG.info("Appending to directory " + userDestDir.getName());
       // Get the right next partition for the imported files
-      nextPartition = getNextPartition(fs, userDestDir);
+      existingFiles = fs.listStatus(userDestDir);
+      nextPartition = getNextPartition(existingFiles);
     }
 
     // move files
-    moveFiles(fs, tempDir, userDestDir, nextPartition);
+    int threads = options.getConf().getInt(PROMOTION_THREADS_KEY,
+        DEFAULT_PROMOTION_THREADS);
+    if (threads > 1) {
+      promoteFiles(fs, tempDir, userDestDir, nextPartition, existingFiles,
+          threads);
+    } else {
+      moveFiles(fs, tempDir, userDestDir, nextPartition);
+    }
 
     // delete temporary path
     LOG.debug("Deleting temporary folder " + tempDir.getName());
@@ -107,11 +174,9 @@ public void append() throws IOException {
    * Returns the greatest partition number available for appending, for data
    * files in targetDir.
    */
-  private int getNextPartition(FileSystem fs, Path targetDir)
-      throws IOException {
+  private int getNextPartition(FileStatus[] existingFiles) {
 
     int nextPartition = 0;
-    FileStatus[] existingFiles = fs.listStatus(targetDir);
     if (existingFiles != null && existingFiles.length > 0) {
       for (FileStatus fileStat : existingFiles) {
         if (!fileStat.isDir()) {
@@ -166,6 +231,9 @@ private void moveFiles(FileSystem fs, Path sourceDir, Path targetDir,
     // where the data partitioning is currently at
     int dataPart = partitionStart;
 
+    // names of the BGZF block indexes that have to follow their data files
+    Set<String> indexNames = getIndexNames(sourceFiles);
+
 
     /* loop through all top-level files and copy matching ones */
 
@@ -222,6 +290,16 @@ private void moveFiles(FileSystem fs, Path sourceDir, Path targetDir,
         } while (!fs.rename(fileStatus.getPath(), new Path(targetDir, destFilename.toString())));
 
         LOG.debug("Filename: " + sourceFilename + " repartitioned to: " + destFilename.toString());
+
+        Path indexPath = BgzfOutputStream.getIndexPath(fileStatus.getPath());
+        if (indexNames.contains(indexPath.getName())) {
+          Path destIndexPath = BgzfOutputStream.getIndexPath(
+              new Path(targetDir, destFilename.toString()));
+          if (!fs.rename(indexPath, destIndexPath)) {
+            throw new IOException("Could not move " + indexPath + " to "
+                + destIndexPath);
+          }
+        }
       } else {
         // Generated Parquet files do not follow the pattern "part-m-([0-9]{5}).ext", so that these
         // files cannot be moved to target directory expectedly. We simply check file extension.
@@ -237,6 +315,238 @@ private void moveFiles(FileSystem fs, Path sourceDir, Path targetDir,
     }
   }
 
+  /**
+   * Move the files from source to target with a pool of threads.
+   *
+   * The target names are chosen up front from a single listing of the
+   * target directory, following the same naming as moveFiles(), so the
+   * renames are independent of each other. A rename that fails, for
+   * instance because another writer took the name in the meantime, fails
+   * the append instead of being retried under another name.
+   */
+  private void promoteFiles(FileSystem fs, Path sourceDir, Path targetDir,
+      int partitionStart, FileStatus[] existingFiles, int threads)
+      throws IOException {
+
+    FileStatus[] sourceFiles = fs.listStatus(sourceDir);
+    if (null == sourceFiles) {
+      throw new IOException("Could not list files from " + sourceDir);
+    }
+
+    Set<String> takenNames = new HashSet<String>();
+    if (existingFiles != null) {
+      for (FileStatus fileStatus : existingFiles) {
+        takenNames.add(fileStatus.getPath().getName());
+      }
+    }
+
+    NumberFormat partFormat = NumberFormat.getInstance();
+    partFormat.setMinimumIntegerDigits(PARTITION_DIGITS);
+    partFormat.setGroupingUsed(false);
+
+    int dataPart = partitionStart;
+    Pattern dataFilePattern = getDataFileNamePattern();
+    Set<String> indexNames = getIndexNames(sourceFiles);
+    final Map<Path, Path> moves = new LinkedHashMap<Path, Path>();
+
+    for (FileStatus fileStatus : sourceFiles) {
+      String sourceFilename = fileStatus.getPath().getName();
+      String destFilename;
+
+      if (fileStatus.isDir()) {
+        int dirNumber = 0;
+        do {
+          destFilename = sourceFilename + "-" + partFormat.format(dirNumber++);
+        } while (takenNames.contains(destFilename));
+      } else if (dataFilePattern.matcher(sourceFilename).matches()) {
+        String extension = getFileExtension(sourceFilename);
+        do {
+          destFilename = getFilename(sourceFilename)
+              + partFormat.format(dataPart++)
+              + (extension != null ? extension : "");
+        } while (takenNames.contains(destFilename));
+      } else if (sourceFilename.endsWith(".parquet")) {
+        destFilename = sourceFilename;
+      } else {
+        LOG.debug("Filename: " + sourceFilename + " ignored");
+        continue;
+      }
+
+      takenNames.add(destFilename);
+      Path destPath = new Path(targetDir, destFilename);
+      moves.put(fileStatus.getPath(), destPath);
+
+      Path indexPath = BgzfOutputStream.getIndexPath(fileStatus.getPath());
+      if (!fileStatus.isDir() && indexNames.contains(indexPath.getName())) {
+        moves.put(indexPath, BgzfOutputStream.getIndexPath(destPath));
+      }
+    }
+
+    LOG.info("Moving " + moves.size() + " files to " + targetDir.getName()
+        + " using " + threads + " threads");
+
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(threads, Math.max(1, moves.size())));
+    try {
+      List<Future<Void>> results = new ArrayList<Future<Void>>();
+      for (final Map.Entry<Path, Path> move : moves.entrySet()) {
+        final FileSystem targetFs = fs;
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            if (!targetFs.rename(move.getKey(), move.getValue())) {
+              throw new IOException("Could not move " + move.getKey()
+                  + " to " + move.getValue());
+            }
+            LOG.debug("Filename: " + move.getKey().getName()
+                + " renamed to: " + move.getValue().getName());
+            return null;
+          }
+        }));
+      }
+
+      for (Future<Void> result : results) {
+        try {
+          result.get();
+        } catch (ExecutionException ee) {
+          Throwable cause = ee.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          }
+          throw new IOException(cause);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while moving files to "
+              + targetDir, ie);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return the names of the BGZF block indexes among the given files. They
+   * are hidden, so they are moved along with their data files rather than on
+   * their own.
+   */
+  private static Set<String> getIndexNames(FileStatus[] files) {
+    Set<String> names = new HashSet<String>();
+    for (FileStatus fileStatus : files) {
+      String name = fileStatus.getPath().getName();
+      if (!fileStatus.isDir() && name.startsWith(".")
+          && name.endsWith(".gzi")) {
+        names.add(name);
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Commit the imported files by listing them in the manifest of the target
+   * directory instead of moving each of them.
+   *
+   * The import normally writes straight into a directory under _appends
+   * (see getManifestAppendDir()); output written elsewhere is moved there
+   * with a single rename first.
+   */
+  private void commitToManifest(FileSystem fs, Path tempDir, Path targetDir)
+      throws IOException {
+    Path appendsDir = new Path(targetDir, APPENDS_DIR);
+    Path commitDir = new Path(appendsDir, tempDir.getName());
+    if (!fs.makeQualified(tempDir).equals(fs.makeQualified(commitDir))) {
+      fs.mkdirs(appendsDir);
+      if (!fs.rename(tempDir, commitDir)) {
+        throw new IOException("Could not move " + tempDir + " to "
+            + commitDir);
+      }
+    }
+
+    FileStatus[] sourceFiles = fs.listStatus(commitDir);
+    if (null == sourceFiles) {
+      throw new IOException("Could not list files from " + commitDir);
+    }
+
+    Pattern dataFilePattern = getDataFileNamePattern();
+    Path manifest = new Path(appendsDir, MANIFEST_FILE);
+    int committed = 0;
+    // Concurrent appends to the same target would lose each other's
+    // entries without the lock.
+    DirectoryLock lock = DirectoryLock.acquire(fs, targetDir,
+        context.getOptions().getConf());
+    try {
+      List<String> entries = ManifestFile.read(fs, manifest);
+      for (FileStatus fileStatus : sourceFiles) {
+        String sourceFilename = fileStatus.getPath().getName();
+        if (fileStatus.isDir()
+            || dataFilePattern.matcher(sourceFilename).matches()
+            || sourceFilename.endsWith(".parquet")) {
+          entries.add(commitDir.getName() + Path.SEPARATOR + sourceFilename);
+          committed++;
+        } else {
+          LOG.debug("Filename: " + sourceFilename + " ignored");
+        }
+      }
+
+      ManifestFile.write(fs, manifest, entries);
+    } finally {
+      lock.close();
+    }
+    LOG.info("Committed " + committed + " files to the manifest of "
+        + targetDir.getName());
+  }
+
+  /**
+   * @return true if appended files are committed through a manifest rather
+   * than moved into the target directory.
+   */
+  public static boolean isManifestCommit(Configuration conf) {
+    return COMMIT_MODE_MANIFEST.equalsIgnoreCase(
+        conf.get(COMMIT_MODE_KEY, COMMIT_MODE_RENAME));
+  }
+
+  /**
+   * @return the directory an import that is committed through the manifest
+   * of targetDir should write to.
+   */
+  public static Path getManifestAppendDir(Path targetDir, String name) {
+    return new Path(new Path(targetDir, APPENDS_DIR), name);
+  }
+
+  /**
+   * @return the files and directories committed to the manifest of
+   * targetDir, oldest first.
+   */
+  public static List<Path> getManifestFiles(Configuration conf,
+      Path targetDir) throws IOException {
+    FileSystem fs = targetDir.getFileSystem(conf);
+    Path appendsDir = new Path(targetDir, APPENDS_DIR);
+    List<Path> files = new ArrayList<Path>();
+    for (String entry : ManifestFile.read(fs,
+        new Path(appendsDir, MANIFEST_FILE))) {
+      files.add(new Path(appendsDir, entry));
+    }
+    return files;
+  }
+
+  /**
+   * Add the files committed to the manifest of dir, if any, to the inputs
+   * of the job. FileInputFormat skips _appends like any hidden path, so a
+   * job reading a directory that was appended to in manifest commit mode
+   * would not see the appended data otherwise.
+   */
+  public static void addManifestInputPaths(Job job, Path dir)
+      throws IOException {
+    List<Path> files = getManifestFiles(job.getConfiguration(), dir);
+    for (Path file : files) {
+      FileInputFormat.addInputPath(job, file);
+    }
+    if (!files.isEmpty()) {
+      LOG.info("Reading " + files.size() + " appended files listed in the "
+          + "manifest of " + dir);
+    }
+  }
+
   /** returns the name component of a file. */
   private String getFilename(String filename) {
     String result = null;
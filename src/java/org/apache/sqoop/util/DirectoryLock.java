@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Exclusive lock on the manifests of a directory, held by creating a lock
+ * file that must not exist yet.
+ *
+ * The lock file is kept next to the directory rather than in it, so that
+ * the directory itself can be replaced while the lock is held. It is hidden
+ * so that readers of the parent directory do not see it. A lock left behind
+ * by a process that died has to be removed by hand; its content names the
+ * host and time it was taken.
+ */
+public final class DirectoryLock implements Closeable {
+
+  public static final Log LOG =
+      LogFactory.getLog(DirectoryLock.class.getName());
+
+  /** Milliseconds to wait for a lock held by another writer. */
+  public static final String TIMEOUT_KEY = "sqoop.directory.lock.timeout.ms";
+
+  public static final long DEFAULT_TIMEOUT = 10 * 60 * 1000L;
+
+  private static final long RETRY_INTERVAL = 1000L;
+
+  private final FileSystem fs;
+  private final Path lockFile;
+
+  private DirectoryLock(FileSystem fs, Path lockFile) {
+    this.fs = fs;
+    this.lockFile = lockFile;
+  }
+
+  /**
+   * @return the lock file guarding the given directory.
+   */
+  public static Path getLockPath(Path dir) {
+    return new Path(dir.getParent(), "." + dir.getName() + ".lock");
+  }
+
+  /**
+   * Take the lock of a directory, waiting for other writers to release it.
+   * @throws IOException if the lock is still held after TIMEOUT_KEY.
+   */
+  public static DirectoryLock acquire(FileSystem fs, Path dir,
+      Configuration conf) throws IOException {
+    Path lockFile = getLockPath(dir);
+    long deadline = System.currentTimeMillis()
+        + conf.getLong(TIMEOUT_KEY, DEFAULT_TIMEOUT);
+    while (true) {
+      if (tryCreate(fs, lockFile)) {
+        LOG.debug("Acquired lock " + lockFile);
+        return new DirectoryLock(fs, lockFile);
+      }
+      if (System.currentTimeMillis() >= deadline) {
+        throw new IOException("Timed out waiting for the lock " + lockFile
+            + " of " + dir + "; if no other Sqoop job is writing to it, "
+            + "remove the lock file");
+      }
+      LOG.info("Waiting for the lock " + lockFile);
+      try {
+        Thread.sleep(RETRY_INTERVAL);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for the lock "
+            + lockFile, ie);
+      }
+    }
+  }
+
+  private static boolean tryCreate(FileSystem fs, Path lockFile)
+      throws IOException {
+    FSDataOutputStream out;
+    try {
+      out = fs.create(lockFile, false);
+    } catch (FileAlreadyExistsException faee) {
+      return false;
+    } catch (IOException ioe) {
+      // Not every file system reports an existing file with its own type.
+      if (fs.exists(lockFile)) {
+        return false;
+      }
+      throw ioe;
+    }
+    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    try {
+      writer.write(InetAddress.getLocalHost().getHostName() + " "
+          + new Date() + "\n");
+    } finally {
+      writer.close();
+    }
+    return true;
+  }
+
+  /**
+   * Release the lock.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!fs.delete(lockFile, false)) {
+      throw new IOException("Could not release the lock " + lockFile);
+    }
+    LOG.debug("Released lock " + lockFile);
+  }
+}
@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.util;
+
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Delta directory layout for incremental lastmodified imports.
+ *
+ * Instead of merging every run into the target directory, each run is
+ * committed as a delta directory under <tt>_deltas</tt> in the target
+ * directory. The files directly in the target directory form the base
+ * dataset. The <tt>_deltas/_MANIFEST</tt> file lists the committed deltas,
+ * oldest first; a delta that is not listed there is not part of the
+ * dataset. Since the deltas directory starts with an underscore,
+ * FileInputFormat based readers of the target directory only see the base.
+ *
+ * The latest view of the data is the base with all deltas merged on top of
+ * it by the merge key, as done by MergeJob. Compaction writes that view
+ * and makes it the new base.
+ *
+ * Commits and base replacements hold the {@link DirectoryLock} of the base
+ * directory, so that neither loses the deltas committed by the other.
+ */
+public class IncrementalDeltas {
+
+  public static final Log LOG =
+      LogFactory.getLog(IncrementalDeltas.class.getName());
+
+  /** Whether lastmodified imports with a merge key write delta dirs. */
+  public static final String DELTA_LAYOUT_KEY =
+      "sqoop.incremental.delta.layout";
+
+  /**
+   * Number of deltas after which an import compacts the deltas into the
+   * base. 0 disables compaction by the import.
+   */
+  public static final String COMPACTION_THRESHOLD_KEY =
+      "sqoop.incremental.delta.compaction.threshold";
+
+  public static final String DELTAS_DIR = "_deltas";
+
+  public static final String MANIFEST_FILE = "_MANIFEST";
+
+  private static final String DELTA_PREFIX = "delta-";
+
+  private static final int DELTA_DIGITS = 5;
+
+  private final Configuration conf;
+  private final FileSystem fs;
+  private final Path baseDir;
+  private final Path deltasDir;
+
+  public IncrementalDeltas(Path baseDir, Configuration conf)
+      throws IOException {
+    this.conf = conf;
+    this.fs = baseDir.getFileSystem(conf);
+    this.baseDir = baseDir;
+    this.deltasDir = new Path(baseDir, DELTAS_DIR);
+  }
+
+  public static boolean isEnabled(Configuration conf) {
+    return conf.getBoolean(DELTA_LAYOUT_KEY, false);
+  }
+
+  public Path getBaseDir() {
+    return baseDir;
+  }
+
+  /**
+   * @return true if the base directory uses the delta layout, even if all
+   * its deltas have been compacted.
+   */
+  public boolean hasDeltaLayout() throws IOException {
+    return fs.exists(deltasDir);
+  }
+
+  /**
+   * @return the committed deltas, oldest first.
+   */
+  public List<Path> getDeltas() throws IOException {
+    List<Path> deltas = new ArrayList<Path>();
+    for (String name : ManifestFile.read(fs, getManifest())) {
+      deltas.add(new Path(deltasDir, name));
+    }
+    return deltas;
+  }
+
+  /**
+   * Move the output of an import into a new delta and record it in the
+   * manifest.
+   * @return the committed delta, or null if there was no output.
+   */
+  public Path commit(Path importDir) throws IOException {
+    if (!fs.exists(importDir)) {
+      LOG.warn("Cannot commit delta; no such directory: " + importDir);
+      return null;
+    }
+
+    List<Path> deltas;
+    Path delta;
+    DirectoryLock lock = DirectoryLock.acquire(fs, baseDir, conf);
+    try {
+      deltas = getDeltas();
+      int next = 0;
+      if (!deltas.isEmpty()) {
+        next = getSequence(deltas.get(deltas.size() - 1)) + 1;
+      }
+      delta = new Path(deltasDir, DELTA_PREFIX + formatSequence(next));
+
+      fs.mkdirs(deltasDir);
+      if (!fs.rename(importDir, delta)) {
+        throw new IOException("Could not move " + importDir + " to " + delta);
+      }
+      deltas.add(delta);
+      writeManifest(deltas);
+    } finally {
+      lock.close();
+    }
+    LOG.info("Committed delta " + delta.getName() + " to " + baseDir
+        + "; there are now " + deltas.size() + " deltas");
+    return delta;
+  }
+
+  /**
+   * Make the merged output of the base and the given deltas the new base.
+   * Deltas committed after the merge started are kept.
+   * @param merged the merged dataset.
+   * @param mergedDeltas the deltas included in the merged dataset.
+   * @param tmpDir a scratch location for the replaced base. It is only
+   *     removed once every remaining delta has been moved to the new base.
+   */
+  public void replaceBase(Path merged, List<Path> mergedDeltas, Path tmpDir)
+      throws IOException {
+    Set<String> mergedNames = new HashSet<String>();
+    for (Path delta : mergedDeltas) {
+      mergedNames.add(delta.getName());
+    }
+
+    DirectoryLock lock = DirectoryLock.acquire(fs, baseDir, conf);
+    try {
+      if (!fs.rename(baseDir, tmpDir)) {
+        throw new IOException("Could not move " + baseDir + " to " + tmpDir);
+      }
+      if (!fs.rename(merged, baseDir)) {
+        if (!fs.rename(tmpDir, baseDir)) {
+          throw new IOException("Could not move " + merged + " to " + baseDir
+              + " nor restore the old base from " + tmpDir);
+        }
+        throw new IOException("Could not move " + merged + " to " + baseDir);
+      }
+
+      // The deltas committed up to the swap are those listed in the old
+      // manifest; the lock keeps any more from being committed meanwhile.
+      Path oldDeltasDir = new Path(tmpDir, DELTAS_DIR);
+      List<Path> remaining = new ArrayList<Path>();
+      for (String name
+          : ManifestFile.read(fs, new Path(oldDeltasDir, MANIFEST_FILE))) {
+        if (!mergedNames.contains(name)) {
+          remaining.add(new Path(deltasDir, name));
+        }
+      }
+
+      // Keep a manifest, even an empty one, so that the base still reads as
+      // using the delta layout.
+      fs.mkdirs(deltasDir);
+      for (Path delta : remaining) {
+        Path oldDelta = new Path(oldDeltasDir, delta.getName());
+        if (!fs.rename(oldDelta, delta)) {
+          throw new IOException("Could not move delta " + oldDelta + " to "
+              + delta + "; the replaced base and its deltas are kept in "
+              + tmpDir);
+        }
+      }
+      writeManifest(remaining);
+      fs.delete(tmpDir, true);
+      LOG.info("Compacted " + mergedDeltas.size() + " deltas into " + baseDir
+          + "; kept " + remaining.size() + " newer deltas");
+    } finally {
+      lock.close();
+    }
+  }
+
+  private void writeManifest(List<Path> deltas) throws IOException {
+    List<String> names = new ArrayList<String>();
+    for (Path delta : deltas) {
+      names.add(delta.getName());
+    }
+    ManifestFile.write(fs, getManifest(), names);
+  }
+
+  private Path getManifest() {
+    return new Path(deltasDir, MANIFEST_FILE);
+  }
+
+  static String formatSequence(int sequence) {
+    NumberFormat numpart = NumberFormat.getInstance();
+    numpart.setMinimumIntegerDigits(DELTA_DIGITS);
+    numpart.setGroupingUsed(false);
+    return numpart.format(sequence);
+  }
+
+  static int getSequence(Path delta) throws IOException {
+    String name = delta.getName();
+    if (!name.startsWith(DELTA_PREFIX)) {
+      throw new IOException("Unexpected delta directory name " + name);
+    }
+    return Integer.parseInt(name.substring(DELTA_PREFIX.length()));
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * A list of entries, one per line, that is replaced as a whole so that
+ * readers see either the old or the new list. Used to commit output
+ * without moving the files it lists.
+ */
+public final class ManifestFile {
+
+  private static final String TMP_SUFFIX = ".tmp";
+
+  private ManifestFile() {
+  }
+
+  /**
+   * @return the entries of the manifest, or an empty list if there is none.
+   */
+  public static List<String> read(FileSystem fs, Path manifest)
+      throws IOException {
+    List<String> entries = new ArrayList<String>();
+    if (!fs.exists(manifest)) {
+      // An interrupted update leaves only the new version behind.
+      manifest = getTempPath(manifest);
+      if (!fs.exists(manifest)) {
+        return entries;
+      }
+    }
+
+    FSDataInputStream in = fs.open(manifest);
+    try {
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(in, StandardCharsets.UTF_8));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty()) {
+          entries.add(line);
+        }
+      }
+    } finally {
+      in.close();
+    }
+    return entries;
+  }
+
+  /**
+   * Replace the manifest with the given entries.
+   */
+  public static void write(FileSystem fs, Path manifest, List<String> entries)
+      throws IOException {
+    Path tmp = getTempPath(manifest);
+    Writer writer = new OutputStreamWriter(fs.create(tmp, true),
+        StandardCharsets.UTF_8);
+    try {
+      for (String entry : entries) {
+        writer.write(entry);
+        writer.write('\n');
+      }
+    } finally {
+      writer.close();
+    }
+
+    fs.delete(manifest, false);
+    if (!fs.rename(tmp, manifest)) {
+      throw new IOException("Could not write manifest " + manifest);
+    }
+  }
+
+  private static Path getTempPath(Path manifest) {
+    return new Path(manifest.getParent(), manifest.getName() + TMP_SUFFIX);
+  }
+}
@@ -0,0 +1,280 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.util;
+
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * Per-task timing of the phases a record goes through (fetching it from the
+ * database, decoding, formatting, writing...). Timings are accumulated
+ * locally in nanoseconds, together with a coarse histogram, and published
+ * as job counters when the owning component is closed. At job end,
+ * {@link #formatBreakdown(Counters)} summarizes them next to the
+ * {@link PerfCounters} transfer rate.
+ *
+ * Instances are not thread-safe; each thread should use its own.
+ */
+public class PhaseCounters {
+
+  /** Set to false to disable phase timing. */
+  public static final String PHASE_TIMING_ENABLED_KEY =
+      "sqoop.phase.timing.enabled";
+
+  /** Counter group holding the phase timings. */
+  public static final String COUNTER_GROUP = "Sqoop Phase Timings";
+
+  /**
+   * The instrumented phases.
+   */
+  public enum Phase {
+    /** Advancing the database cursor. */
+    FETCH,
+    /** SqoopRecord.readFields() from a ResultSet. */
+    DECODE,
+    /** Loading large objects. */
+    LOB_LOAD,
+    /** Converting a record to its output representation. */
+    FORMAT,
+    /** Handing a record to the output format. */
+    WRITE,
+    /** Parsing an exported record. */
+    PARSE,
+    /** Binding records into export statements. */
+    BIND,
+    /** Waiting for the export thread to accept statements. */
+    WAIT,
+    /** Executing export statements. */
+    EXECUTE
+  }
+
+  /** Upper bounds (exclusive) of the histogram buckets, in nanoseconds. */
+  private static final long [] BUCKET_BOUNDS = {
+    10L * 1000, 100L * 1000, 1000L * 1000, 10L * 1000 * 1000,
+  };
+
+  /** Counter name suffixes of the histogram buckets. */
+  private static final String [] BUCKET_NAMES = {
+    "LT_10US", "LT_100US", "LT_1MS", "LT_10MS", "GE_10MS",
+  };
+
+  private static final String NANOS_SUFFIX = "_NANOS";
+  private static final String COUNT_SUFFIX = "_COUNT";
+
+  private final boolean enabled;
+  private final long [] nanos;
+  private final long [] counts;
+  private final long [][] buckets;
+
+  public PhaseCounters(Configuration conf) {
+    this(conf.getBoolean(PHASE_TIMING_ENABLED_KEY, true));
+  }
+
+  public PhaseCounters(boolean enabled) {
+    int numPhases = Phase.values().length;
+    this.enabled = enabled;
+    this.nanos = new long[numPhases];
+    this.counts = new long[numPhases];
+    this.buckets = new long[numPhases][BUCKET_NAMES.length];
+  }
+
+  /**
+   * @return a start timestamp to pass to {@link #stop(Phase, long)}, or 0
+   * if timing is disabled.
+   */
+  public long start() {
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Record the time elapsed in a phase since the given start timestamp.
+   * @return the current timestamp, so that consecutive phases can be
+   * timed with a single clock read each.
+   */
+  public long stop(Phase phase, long startNanos) {
+    if (!enabled) {
+      return 0L;
+    }
+    long now = System.nanoTime();
+    add(phase, now - startNanos);
+    return now;
+  }
+
+  /**
+   * Record an elapsed duration for a phase.
+   */
+  public void add(Phase phase, long elapsedNanos) {
+    int p = phase.ordinal();
+    nanos[p] += elapsedNanos;
+    counts[p]++;
+    int b = 0;
+    while (b < BUCKET_BOUNDS.length && elapsedNanos >= BUCKET_BOUNDS[b]) {
+      b++;
+    }
+    buckets[p][b]++;
+  }
+
+  /**
+   * @return the total nanoseconds recorded for a phase.
+   */
+  public long getNanos(Phase phase) {
+    return nanos[phase.ordinal()];
+  }
+
+  /**
+   * @return the number of timings recorded for a phase.
+   */
+  public long getCount(Phase phase) {
+    return counts[phase.ordinal()];
+  }
+
+  /**
+   * @return the histogram bucket counts recorded for a phase.
+   */
+  public long [] getBuckets(Phase phase) {
+    return buckets[phase.ordinal()].clone();
+  }
+
+  /**
+   * Add the accumulated timings of another instance to this one.
+   */
+  public void addAll(PhaseCounters other) {
+    for (int p = 0; p < nanos.length; p++) {
+      nanos[p] += other.nanos[p];
+      counts[p] += other.counts[p];
+      for (int b = 0; b < BUCKET_NAMES.length; b++) {
+        buckets[p][b] += other.buckets[p][b];
+      }
+    }
+  }
+
+  /**
+   * Publish the accumulated timings as job counters and reset them.
+   * Phases without any timing are skipped so they do not use up counters.
+   */
+  public void publish(TaskAttemptContext context) {
+    if (null == context) {
+      return;
+    }
+
+    for (Phase phase : Phase.values()) {
+      int p = phase.ordinal();
+      if (counts[p] == 0) {
+        continue;
+      }
+      String name = phase.name();
+      context.getCounter(COUNTER_GROUP, name + NANOS_SUFFIX)
+          .increment(nanos[p]);
+      context.getCounter(COUNTER_GROUP, name + COUNT_SUFFIX)
+          .increment(counts[p]);
+      for (int b = 0; b < BUCKET_NAMES.length; b++) {
+        if (buckets[p][b] > 0) {
+          context.getCounter(COUNTER_GROUP, name + "_" + BUCKET_NAMES[b])
+              .increment(buckets[p][b]);
+        }
+      }
+      nanos[p] = 0;
+      counts[p] = 0;
+      Arrays.fill(buckets[p], 0);
+    }
+  }
+
+  /**
+   * Summarize the phase timings of a finished job, one line per phase.
+   * @return the summary, or null if the job recorded no phase timings.
+   */
+  public static String formatBreakdown(Counters jobCounters) {
+    CounterGroup group = jobCounters.getGroup(COUNTER_GROUP);
+    if (null == group || group.size() == 0) {
+      return null;
+    }
+
+    // Read the counters present rather than looking each one up, since
+    // findCounter() would create the missing ones.
+    Map<String, Long> values = new HashMap<String, Long>();
+    for (Counter counter : group) {
+      values.put(counter.getName(), counter.getValue());
+    }
+
+    PhaseCounters total = new PhaseCounters(true);
+    for (Phase phase : Phase.values()) {
+      int p = phase.ordinal();
+      String name = phase.name();
+      total.nanos[p] = getValue(values, name + NANOS_SUFFIX);
+      total.counts[p] = getValue(values, name + COUNT_SUFFIX);
+      for (int b = 0; b < BUCKET_NAMES.length; b++) {
+        total.buckets[p][b] =
+            getValue(values, name + "_" + BUCKET_NAMES[b]);
+      }
+    }
+    return total.format();
+  }
+
+  private static long getValue(Map<String, Long> values, String name) {
+    Long value = values.get(name);
+    return null == value ? 0 : value;
+  }
+
+  @Override
+  public String toString() {
+    String summary = format();
+    return null == summary ? "No phase timings recorded" : summary;
+  }
+
+  /**
+   * Summarize the accumulated timings, one line per phase.
+   * @return the summary, or null if no phase timings were recorded.
+   */
+  public String format() {
+    long allNanos = 0;
+    for (long n : nanos) {
+      allNanos += n;
+    }
+    if (allNanos == 0) {
+      return null;
+    }
+
+    NumberFormat fmt = NumberFormat.getInstance();
+    fmt.setMaximumFractionDigits(2);
+    StringBuilder sb = new StringBuilder("Task time by phase (all tasks):");
+    for (Phase phase : Phase.values()) {
+      int p = phase.ordinal();
+      if (counts[p] == 0) {
+        continue;
+      }
+      sb.append("\n  ").append(phase.name().toLowerCase()).append(": ");
+      sb.append(fmt.format(nanos[p] / 1e9)).append(" s (");
+      sb.append(fmt.format(100.0 * nanos[p] / allNanos)).append("%), ");
+      sb.append(counts[p]).append(" calls, avg ");
+      sb.append(fmt.format(nanos[p] / 1000.0 / counts[p])).append(" us;");
+      for (int b = 0; b < BUCKET_NAMES.length; b++) {
+        sb.append(' ').append(BUCKET_NAMES[b].toLowerCase()).append('=');
+        sb.append(buckets[p][b]);
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -22,6 +22,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +30,8 @@
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.util.StringUtils;
 
 import org.apache.commons.logging.Log;
@@ -340,5 +343,70 @@ public void testAppendWithMapreduceOutputBasename() throws IOException {
     Path output = new Path(targetDir);
     runAppendTest(args, output, prefix);
   }
+  /**
+   * Moving the files with several threads should number them the same way.
+   */
+  @Test
+  public void testAppendWithPromotionThreads() throws IOException {
+    ArrayList<String> args = new ArrayList<>();
+    args.add("-D");
+    args.add(AppendUtils.PROMOTION_THREADS_KEY + "=4");
+    args.addAll(getOutputlessArgv(false, false, HsqldbTestServer.getFieldNames(), getConf()));
+    String targetDir = getWarehouseDir() + "/tempTargetDirPromotionThreads";
+    args.add("--target-dir");
+    args.add(targetDir);
+
+    Path output = new Path(targetDir);
+    runAppendTest(args, output);
+  }
+
+  /**
+   * In manifest commit mode the appended files stay under _appends and are
+   * listed in its manifest, which adds them to the inputs of jobs reading
+   * the target directory.
+   */
+  @Test
+  public void testAppendWithManifestCommit() throws Exception {
+    ArrayList<String> args = new ArrayList<>();
+    args.add("-D");
+    args.add(AppendUtils.COMMIT_MODE_KEY + "="
+        + AppendUtils.COMMIT_MODE_MANIFEST);
+    args.addAll(getOutputlessArgv(false, false, HsqldbTestServer.getFieldNames(), getConf()));
+    String targetDir = getWarehouseDir() + "/tempTargetDirManifest";
+    args.add("--target-dir");
+    args.add(targetDir);
+
+    Path output = new Path(targetDir);
+    FileSystem fs = FileSystem.get(getConf());
+    if (fs.exists(output)) {
+      fs.delete(output, true);
+    }
+
+    runUncleanImport(args.toArray(new String[0]));
+    int baseFileCount = listFiles(fs, output).length;
+    assertTrue(AppendUtils.getManifestFiles(getConf(), output).isEmpty());
+
+    args.add("--append");
+    runUncleanImport(args.toArray(new String[0]));
+    runUncleanImport(args.toArray(new String[0]));
+
+    assertEquals(baseFileCount, listFiles(fs, output).length);
+    List<Path> appended = AppendUtils.getManifestFiles(getConf(), output);
+    assertEquals(2 * baseFileCount, appended.size());
+    for (Path file : appended) {
+      assertTrue(file + " does not exist", fs.exists(file));
+      assertEquals(AppendUtils.APPENDS_DIR,
+          file.getParent().getParent().getName());
+    }
+
+    // Jobs reading the target directory pick up the appended files.
+    Job job = Job.getInstance(getConf());
+    AppendUtils.addManifestInputPaths(job, output);
+    List<Path> inputs = new ArrayList<>();
+    for (Path file : appended) {
+      inputs.add(fs.makeQualified(file));
+    }
+    assertEquals(inputs, Arrays.asList(FileInputFormat.getInputPaths(job)));
+  }
 }
 
@@ -431,6 +431,34 @@ public void testBasicUpdate() throws Exception {
     verifyRow("A", "9", "9", "foo18", "18");
   }
 
+  @Test
+  public void testBasicUpdateWithStaging() throws Exception {
+    // Test that an update can be staged and then applied with a
+    // set-based statement.
+
+    populateDatabase(10);
+    String stagingTable = getTableName() + "_STAGE";
+    Connection conn = getConnection();
+    PreparedStatement statement = conn.prepareStatement(
+        "CREATE TABLE " + stagingTable
+        + " (A INT NOT NULL, B VARCHAR(32), C INT)");
+    try {
+      statement.executeUpdate();
+      conn.commit();
+    } finally {
+      statement.close();
+    }
+
+    createUpdateFiles(1, 10, 0, 0);
+    runExport(getArgv(true, 2, 2, "-m", "1", "--update-key", "A",
+        "--staging-table", stagingTable));
+    verifyRowCount(10);
+    // Check a few rows...
+    verifyRow("A", "0", "0", "foo0", "0");
+    verifyRow("A", "1", "1", "foo2", "2");
+    verifyRow("A", "9", "9", "foo18", "18");
+  }
+
   /**
    * Creates a table with two columns that together act as unique keys
    * and then modifies a subset of the rows via update.
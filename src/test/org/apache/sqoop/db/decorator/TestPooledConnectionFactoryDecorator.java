@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.db.decorator;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.db.JdbcConnectionFactory;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Category(UnitTest.class)
+public class TestPooledConnectionFactoryDecorator {
+
+  private static final long MAX_IDLE_TIME = 60000L;
+
+  private JdbcConnectionFactory decoratedFactory;
+
+  private Connection physicalConnection;
+
+  private PooledConnectionFactoryDecorator pooledConnectionFactoryDecorator;
+
+  @Before
+  public void before() throws Exception {
+    physicalConnection = mockConnection();
+    decoratedFactory = mock(JdbcConnectionFactory.class);
+    when(decoratedFactory.createConnection()).thenReturn(physicalConnection);
+
+    pooledConnectionFactoryDecorator = new PooledConnectionFactoryDecorator(decoratedFactory, 1, MAX_IDLE_TIME, 5);
+  }
+
+  @Test
+  public void testClosedConnectionIsReused() throws Exception {
+    Connection first = pooledConnectionFactoryDecorator.createConnection();
+    first.close();
+    Connection second = pooledConnectionFactoryDecorator.createConnection();
+
+    assertTrue(first.isClosed());
+    assertFalse(second.isClosed());
+    assertNotSame(first, second);
+    verify(decoratedFactory, times(1)).createConnection();
+    verify(physicalConnection, never()).close();
+  }
+
+  @Test(expected = SQLException.class)
+  public void testClosedProxyCannotBeUsed() throws Exception {
+    Connection connection = pooledConnectionFactoryDecorator.createConnection();
+    connection.close();
+
+    connection.createStatement();
+  }
+
+  @Test
+  public void testReturnedConnectionIsRolledBackAndReset() throws Exception {
+    Connection connection = pooledConnectionFactoryDecorator.createConnection();
+    when(physicalConnection.getAutoCommit()).thenReturn(false);
+    when(physicalConnection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_UNCOMMITTED);
+    connection.close();
+
+    verify(physicalConnection).rollback();
+    verify(physicalConnection).setAutoCommit(true);
+    verify(physicalConnection).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    assertEquals(1, pooledConnectionFactoryDecorator.getIdleCount());
+  }
+
+  @Test
+  public void testInvalidConnectionIsReplaced() throws Exception {
+    Connection replacement = mockConnection();
+    when(decoratedFactory.createConnection()).thenReturn(physicalConnection, replacement);
+
+    pooledConnectionFactoryDecorator.createConnection().close();
+    when(physicalConnection.isValid(anyInt())).thenReturn(false);
+    pooledConnectionFactoryDecorator.createConnection().close();
+
+    verify(physicalConnection).close();
+    verify(decoratedFactory, times(2)).createConnection();
+  }
+
+  @Test
+  public void testConnectionsAboveMaxIdleAreClosed() throws Exception {
+    Connection secondPhysical = mockConnection();
+    when(decoratedFactory.createConnection()).thenReturn(physicalConnection, secondPhysical);
+
+    Connection first = pooledConnectionFactoryDecorator.createConnection();
+    Connection second = pooledConnectionFactoryDecorator.createConnection();
+    first.close();
+    second.close();
+
+    verify(physicalConnection, never()).close();
+    verify(secondPhysical).close();
+    assertEquals(1, pooledConnectionFactoryDecorator.getIdleCount());
+  }
+
+  @Test
+  public void testIdleConnectionsExpire() throws Exception {
+    pooledConnectionFactoryDecorator = new PooledConnectionFactoryDecorator(decoratedFactory, 1, -1L, 5);
+
+    pooledConnectionFactoryDecorator.createConnection().close();
+    pooledConnectionFactoryDecorator.createConnection();
+
+    verify(physicalConnection).close();
+    verify(decoratedFactory, times(2)).createConnection();
+  }
+
+  @Test
+  public void testCloseClosesIdleConnections() throws Exception {
+    pooledConnectionFactoryDecorator.createConnection().close();
+    pooledConnectionFactoryDecorator.close();
+
+    verify(physicalConnection).close();
+    assertEquals(0, pooledConnectionFactoryDecorator.getIdleCount());
+  }
+
+  @Test
+  public void testGetSharedReturnsFactoryWhenDisabled() {
+    assertSame(decoratedFactory, PooledConnectionFactoryDecorator.getShared(new Configuration(), "key", decoratedFactory));
+  }
+
+  @Test
+  public void testGetSharedReturnsSamePoolForSameKey() {
+    Configuration conf = new Configuration();
+    conf.setInt(PooledConnectionFactoryDecorator.MAX_IDLE_KEY, 2);
+
+    JdbcConnectionFactory first = PooledConnectionFactoryDecorator.getShared(conf, "shared-key", decoratedFactory);
+    JdbcConnectionFactory second = PooledConnectionFactoryDecorator.getShared(conf, "shared-key", mock(JdbcConnectionFactory.class));
+
+    assertTrue(first instanceof PooledConnectionFactoryDecorator);
+    assertSame(first, second);
+  }
+
+  @Test
+  public void testKeyDependsOnPasswordAndProperties() {
+    Properties props = new Properties();
+    props.setProperty("ssl", "true");
+    String key = PooledConnectionFactoryDecorator.getKey("org.example.Driver", "jdbc:example://db", "user", "secret",
+        props);
+
+    Properties sameProps = new Properties();
+    sameProps.setProperty("ssl", "true");
+    assertEquals(key, PooledConnectionFactoryDecorator.getKey("org.example.Driver", "jdbc:example://db", "user",
+        "secret", sameProps));
+
+    assertNotEquals(key, PooledConnectionFactoryDecorator.getKey("org.example.Driver", "jdbc:example://db", "user",
+        "other", props));
+    assertNotEquals(key, PooledConnectionFactoryDecorator.getKey("org.example.Driver", "jdbc:example://db", "user",
+        null, props));
+    assertNotEquals(key, PooledConnectionFactoryDecorator.getKey("org.example.Driver", "jdbc:example://db", "user",
+        "secret", new Properties()));
+    assertFalse(key.contains("secret"));
+  }
+
+  private Connection mockConnection() throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+    when(connection.isValid(anyInt())).thenReturn(true);
+    return connection;
+  }
+}
@@ -58,6 +58,8 @@ public class TestHiveServer2Client {
 
   private static final String LOAD_DATA_STATEMENT = "loadDataStatement";
 
+  private static final String ADD_PARTITION_STATEMENT = "addPartitionStatement";
+
   private static final List<String> TEST_COMMANDS = asList("command1", "command2", "command3");
 
   private HiveServer2Client hs2Client;
@@ -97,6 +99,7 @@ public void before() throws Exception {
 
     when(tableDefWriter.getCreateTableStmt()).thenReturn(CREATE_TABLE_STATEMENT);
     when(tableDefWriter.getLoadDataStmt()).thenReturn(LOAD_DATA_STATEMENT);
+    when(tableDefWriter.getLoadDataStmts()).thenReturn(asList(LOAD_DATA_STATEMENT));
     when(tableDefWriter.getFinalPath()).thenReturn(finalPath);
 
     hs2Client = new HiveServer2Client(sqoopOptions, tableDefWriter, hs2ConnectionFactory, hiveClientCommon);
@@ -112,6 +115,17 @@ public void testImportTableExecutesHiveImportWithCreateTableAndLoadDataCommands(
     verify(hs2ClientSpy, times(1)).executeHiveImport(asList(CREATE_TABLE_STATEMENT, LOAD_DATA_STATEMENT));
   }
 
+  @Test
+  public void testImportTableWithDirectLoadRegistersPartitionInsteadOfLoadingData() throws Exception {
+    when(configuration.getBoolean(HiveConfig.HIVE_DIRECT_LOAD, false)).thenReturn(true);
+    when(tableDefWriter.getAddPartitionStmt()).thenReturn(ADD_PARTITION_STATEMENT);
+    doNothing().when(hs2ClientSpy).executeHiveImport(anyList());
+
+    hs2ClientSpy.importTable();
+
+    verify(hs2ClientSpy, times(1)).executeHiveImport(asList(CREATE_TABLE_STATEMENT, ADD_PARTITION_STATEMENT));
+  }
+
   @Test
   public void testCreateTableExecutesHiveImportWithCreateTableCommandOnly() throws Exception {
     doNothing().when(hs2ClientSpy).executeHiveImport(anyList());
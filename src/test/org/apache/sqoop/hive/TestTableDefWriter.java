@@ -18,12 +18,22 @@
 
 package org.apache.sqoop.hive;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.sqoop.manager.ConnManager;
+import org.apache.sqoop.mapreduce.DynamicPartitions;
 import org.apache.sqoop.testcategories.sqooptest.UnitTest;
 import org.apache.sqoop.util.SqlTypeMap;
 
@@ -43,6 +53,7 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -91,6 +102,29 @@ public void before() {
     writer = new TableDefWriter(options, connManager, inputTable, outputTable, conf, false);
   }
 
+  private IMetaStoreClient mockMetaStoreClient() {
+    final IMetaStoreClient client = mock(IMetaStoreClient.class);
+    writer = new TableDefWriter(options, connManager, inputTable, outputTable, conf, false) {
+      @Override
+      protected IMetaStoreClient createMetaStoreClient() {
+        return client;
+      }
+    };
+    return client;
+  }
+
+  private Table newTable(String location, boolean transactional) {
+    Table table = new Table();
+    table.setSd(new StorageDescriptor());
+    table.getSd().setLocation(location);
+    Map<String, String> parameters = new HashMap<>();
+    if (transactional) {
+      parameters.put("transactional", "true");
+    }
+    table.setParameters(parameters);
+    return table;
+  }
+
   // Test getHiveOctalCharCode and expect an IllegalArgumentException.
   private void expectExceptionInCharCode(int charCode) {
     thrown.expect(IllegalArgumentException.class);
@@ -258,6 +292,122 @@ public void testHiveDatabase() throws Exception {
     assertTrue(createTable.contains("`db`.`outputTable`"));
   }
 
+  @Test
+  public void testAddPartitionStmt() throws Exception {
+    options.setHiveDatabaseName("db");
+    options.setHivePartitionKey("ds");
+    options.setHivePartitionValue("20110413");
+
+    assertEquals("ALTER TABLE `db`.`outputTable` ADD IF NOT EXISTS PARTITION (ds='20110413')",
+        writer.getAddPartitionStmt());
+  }
+
+  @Test
+  public void testAddPartitionStmtWithoutPartition() throws Exception {
+    assertNull(writer.getAddPartitionStmt());
+  }
+
+  @Test
+  public void testAddPartitionStmtEscapesValue() throws Exception {
+    options.setHivePartitionKey("ds");
+    options.setHivePartitionValue("it's a \\ test");
+
+    assertEquals("ALTER TABLE `outputTable` ADD IF NOT EXISTS PARTITION (ds='it\\'s a \\\\ test')",
+        writer.getAddPartitionStmt());
+  }
+
+  @Test
+  public void testTableLocationOfNewTableInDatabase() throws Exception {
+    IMetaStoreClient client = mockMetaStoreClient();
+    Database database = new Database();
+    database.setLocationUri("/warehouse/sales.db");
+    when(client.tableExists("Sales", "outputTable")).thenReturn(false);
+    when(client.getDatabase("Sales")).thenReturn(database);
+    options.setHiveDatabaseName("Sales");
+    options.setHivePartitionKey("ds");
+    options.setHivePartitionValue("2011/04/13");
+
+    assertTrue(writer.getTableLocation().toString().endsWith("/warehouse/sales.db/outputtable/ds=2011%2F04%2F13"));
+    verify(client).close();
+  }
+
+  @Test
+  public void testTableLocationOfNewExternalTable() throws Exception {
+    IMetaStoreClient client = mockMetaStoreClient();
+    when(client.tableExists("default", "outputTable")).thenReturn(false);
+    options.setHiveExternalTableDir("/external/dir");
+
+    assertTrue(writer.getTableLocation().toString().endsWith("/external/dir"));
+  }
+
+  @Test
+  public void testTableLocationFromMetastore() throws Exception {
+    IMetaStoreClient client = mockMetaStoreClient();
+    when(client.tableExists("default", "outputTable")).thenReturn(true);
+    when(client.getTable("default", "outputTable")).thenReturn(newTable("/custom/location", false));
+    when(client.getPartition("default", "outputTable", Collections.singletonList("20110413")))
+        .thenThrow(new NoSuchObjectException());
+    options.setHiveExternalTableDir("/ignored/dir");
+    options.setHivePartitionKey("ds");
+    options.setHivePartitionValue("20110413");
+
+    assertTrue(writer.getTableLocation().toString().endsWith("/custom/location/ds=20110413"));
+  }
+
+  @Test
+  public void testTableLocationOfExistingPartition() throws Exception {
+    IMetaStoreClient client = mockMetaStoreClient();
+    when(client.tableExists("default", "outputTable")).thenReturn(true);
+    when(client.getTable("default", "outputTable")).thenReturn(newTable("/custom/location", false));
+    Partition partition = new Partition();
+    partition.setSd(new StorageDescriptor());
+    partition.getSd().setLocation("/elsewhere/ds=20110413");
+    when(client.getPartition("default", "outputTable", Collections.singletonList("20110413")))
+        .thenReturn(partition);
+    options.setHivePartitionKey("ds");
+    options.setHivePartitionValue("20110413");
+
+    assertTrue(writer.getTableLocation().toString().endsWith("/elsewhere/ds=20110413"));
+  }
+
+  @Test
+  public void testTableLocationRefusesTransactionalTable() throws Exception {
+    IMetaStoreClient client = mockMetaStoreClient();
+    when(client.tableExists("default", "outputTable")).thenReturn(true);
+    when(client.getTable("default", "outputTable")).thenReturn(newTable("/acid/table", true));
+
+    thrown.expect(IOException.class);
+    thrown.expectMessage("transactional");
+    writer.getTableLocation();
+  }
+
+  @Test
+  public void testFinalPathIsTableLocationWithDirectLoad() throws Exception {
+    IMetaStoreClient client = mockMetaStoreClient();
+    when(client.tableExists("default", "outputTable")).thenReturn(true);
+    when(client.getTable("default", "outputTable")).thenReturn(newTable("/custom/location", false));
+    conf.setBoolean(HiveConfig.HIVE_DIRECT_LOAD, true);
+
+    assertEquals(writer.getTableLocation(), writer.getFinalPath());
+  }
+
+  @Test
+  public void testDynamicPartitionColumnIsPartitionKey() throws Exception {
+    conf.set(DynamicPartitions.COLUMN_KEY, "country");
+    options.setMapColumnHive("id=INT");
+
+    Map<String, Integer> colTypes = new SqlTypeMap<String, Integer>();
+    colTypes.put("id", Types.INTEGER);
+    colTypes.put("country", Types.VARCHAR);
+    setUpMockConnManager(HsqldbTestServer.getTableName(), colTypes);
+
+    String createTable = writer.getCreateTableStmt();
+
+    assertTrue(createTable.contains("( `id` INT) "));
+    assertTrue(createTable.contains("PARTITIONED BY (`country` STRING)"));
+    assertEquals("MSCK REPAIR TABLE `outputTable`", writer.getAddPartitionStmt());
+  }
+
   @Test
   public void testGetCreateTableStmtDiscardsConnection() throws Exception {
     writer.getCreateTableStmt();
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.lib.input.LineRecordReader;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that BGZF files are read in splits, each record by exactly one split,
+ * both with and without the block index.
+ */
+@Category(UnitTest.class)
+public class TestBgzfCodec {
+
+  private static final int RECORDS = 5000;
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private Configuration conf;
+  private FileSystem fs;
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    conf.set("io.compression.codecs", BgzfCodec.class.getName());
+    conf.setInt(BgzfCodec.BLOCK_SIZE_KEY, 1000);
+    fs = FileSystem.getLocal(conf);
+    file = new Path(tmp.getRoot().toURI().toString(), "part-m-00000.bgz");
+
+    BgzfCodec codec = new BgzfCodec();
+    codec.setConf(conf);
+    OutputStream fsOut = fs.create(file);
+    BgzfOutputStream out = (BgzfOutputStream) codec.createOutputStream(fsOut);
+    out.setIndexFile(fs, BgzfOutputStream.getIndexPath(file));
+    for (int i = 0; i < RECORDS; i++) {
+      out.write(("record number " + i + ",some text\n").getBytes());
+      // Blocks in the middle are full, and end within records.
+      if (i < 1000 || i >= 4000) {
+        out.endRecord();
+      }
+    }
+    out.close();
+  }
+
+  private List<String> readSplit(Configuration readConf, long start,
+      long length) throws IOException, InterruptedException {
+    List<String> records = new ArrayList<String>();
+    TaskAttemptContext context =
+        new TaskAttemptContextImpl(readConf, new TaskAttemptID());
+    LineRecordReader reader = new LineRecordReader();
+    reader.initialize(new FileSplit(file, start, length, null), context);
+    try {
+      while (reader.nextKeyValue()) {
+        records.add(reader.getCurrentValue().toString());
+      }
+    } finally {
+      reader.close();
+    }
+    return records;
+  }
+
+  private List<String> readSplits(long splitSize, boolean useIndex)
+      throws IOException, InterruptedException {
+    Configuration readConf = new Configuration(conf);
+    if (useIndex) {
+      readConf.set(BgzfCodec.INPUT_FILE_KEY, file.toString());
+    }
+    List<String> records = new ArrayList<String>();
+    long length = fs.getFileStatus(file).getLen();
+    for (long start = 0; start < length; start += splitSize) {
+      records.addAll(readSplit(readConf, start,
+          Math.min(splitSize, length - start)));
+    }
+    return records;
+  }
+
+  private void assertAllRecords(List<String> records) {
+    assertEquals(RECORDS, records.size());
+    for (int i = 0; i < RECORDS; i++) {
+      assertEquals("record number " + i + ",some text", records.get(i));
+    }
+  }
+
+  @Test
+  public void testCodecIsFoundByExtension() {
+    assertTrue(new CompressionCodecFactory(conf).getCodec(file)
+        instanceof BgzfCodec);
+  }
+
+  @Test
+  public void testSplitsWithIndex() throws Exception {
+    assertTrue(fs.exists(BgzfOutputStream.getIndexPath(file)));
+    assertAllRecords(readSplits(1000, true));
+    assertAllRecords(readSplits(4321, true));
+  }
+
+  @Test
+  public void testSplitsWithoutIndex() throws Exception {
+    fs.delete(BgzfOutputStream.getIndexPath(file), false);
+    assertAllRecords(readSplits(1000, false));
+    assertAllRecords(readSplits(4321, false));
+  }
+
+  @Test
+  public void testSplitsOnBlockBoundaries() throws Exception {
+    BgzfCodec codec = new BgzfCodec();
+    codec.setConf(conf);
+    List<String> records = new ArrayList<String>();
+    long length = fs.getFileStatus(file).getLen();
+    // Split exactly at the second block; it belongs to the second split.
+    BgzfInputStream in = (BgzfInputStream) codec.createInputStream(
+        fs.open(file), null, 1, length, null);
+    try {
+      long secondBlock = in.getAdjustedStart();
+      assertTrue(secondBlock > 1);
+      records.addAll(readSplit(conf, 0, secondBlock));
+      records.addAll(readSplit(conf, secondBlock, length - secondBlock));
+    } finally {
+      in.close();
+    }
+    assertAllRecords(records);
+  }
+}
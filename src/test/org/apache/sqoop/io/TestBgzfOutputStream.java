@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.apache.sqoop.testutil.BaseSqoopTestCase;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that BGZF output can be read back as gzip, both as a whole and from
+ * every block boundary.
+ */
+@Category(UnitTest.class)
+public class TestBgzfOutputStream {
+
+  private static final int BLOCK_SIZE = 1000;
+
+  private byte[] getRecords(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append("record number ").append(i).append(",some text\n");
+    }
+    return sb.toString().getBytes();
+  }
+
+  private byte[] gunzip(byte[] data, int off, int len) throws IOException {
+    InputStream in = new GZIPInputStream(
+        new ByteArrayInputStream(data, off, len));
+    try {
+      return IOUtils.toByteArray(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  @Test
+  public void testBlocksEndAtRecordsAndReadAsGzip() throws IOException {
+    byte[] records = getRecords(2000);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BgzfOutputStream out = new BgzfOutputStream(bytes, BLOCK_SIZE, 6);
+    int start = 0;
+    for (int i = 0; i < records.length; i++) {
+      if (records[i] == '\n') {
+        out.write(records, start, i + 1 - start);
+        out.endRecord();
+        start = i + 1;
+      }
+    }
+    List<long[]> index = out.getIndex();
+    out.close();
+
+    byte[] compressed = bytes.toByteArray();
+    assertArrayEquals(records, gunzip(compressed, 0, compressed.length));
+    assertTrue(index.size() > 10);
+
+    for (long[] entry : index) {
+      int offset = (int) entry[0];
+      // Every block carries the BGZF "BC" extra field.
+      assertEquals(0x1f, compressed[offset] & 0xff);
+      assertEquals(0x8b, compressed[offset + 1] & 0xff);
+      assertEquals('B', compressed[offset + 12]);
+      assertEquals('C', compressed[offset + 13]);
+      // and starts a record.
+      assertEquals('\n', records[(int) entry[1] - 1]);
+
+      byte[] tail = gunzip(compressed, offset, compressed.length - offset);
+      assertEquals(records.length - entry[1], tail.length);
+    }
+  }
+
+  @Test
+  public void testIncompressibleData() throws IOException {
+    byte[] data = new byte[3 * BgzfOutputStream.MAX_BLOCK_SIZE + 17];
+    new Random(42).nextBytes(data);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BgzfOutputStream out = new BgzfOutputStream(bytes);
+    out.write(data);
+    out.close();
+
+    byte[] compressed = bytes.toByteArray();
+    assertArrayEquals(data, gunzip(compressed, 0, compressed.length));
+  }
+
+  @Test
+  public void testSplittingOutputStreamSplitsBetweenBlocks() throws IOException {
+    Configuration conf = new Configuration();
+    conf.set("fs.default.name", "file:///");
+    conf.setInt(BgzfCodec.BLOCK_SIZE_KEY, BLOCK_SIZE);
+    FileSystem fs = FileSystem.getLocal(conf);
+    Path dir = new Path(BaseSqoopTestCase.getTempBaseDir(), "bgzfSplitTest");
+    fs.delete(dir, true);
+    fs.mkdirs(dir);
+
+    BgzfCodec codec = new BgzfCodec();
+    codec.setConf(conf);
+    byte[] records = getRecords(5000);
+    SplittingOutputStream out =
+        new SplittingOutputStream(conf, dir, "part-m-", 10000, codec);
+    int start = 0;
+    for (int i = 0; i < records.length; i++) {
+      if (records[i] == '\n') {
+        out.write(records, start, i + 1 - start);
+        out.allowSplit();
+        start = i + 1;
+      }
+    }
+    out.close();
+
+    ByteArrayOutputStream all = new ByteArrayOutputStream();
+    int files = 0;
+    FileStatus[] statuses = fs.listStatus(dir);
+    Arrays.sort(statuses);
+    for (FileStatus status : statuses) {
+      String name = status.getPath().getName();
+      if (!name.startsWith("part-m-")) {
+        continue;
+      }
+      files++;
+      assertTrue(fs.exists(BgzfOutputStream.getIndexPath(status.getPath())));
+      InputStream in = new GZIPInputStream(fs.open(status.getPath()));
+      try {
+        byte[] content = IOUtils.toByteArray(in);
+        // Every file holds whole records.
+        assertEquals('\n', content[content.length - 1]);
+        all.write(content);
+      } finally {
+        in.close();
+      }
+    }
+    assertTrue(files > 1);
+    assertArrayEquals(records, all.toByteArray());
+  }
+}
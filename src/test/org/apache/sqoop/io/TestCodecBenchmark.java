@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.io;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.manager.ConnManager;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the codec benchmark.
+ */
+@Category(UnitTest.class)
+public class TestCodecBenchmark {
+
+  private byte[] sample() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      sb.append(i).append(",name").append(i % 10).append('\n');
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testBenchmarkSkipsUnknownCodecs() {
+    byte[] sample = sample();
+    List<CodecBenchmark.Result> results = CodecBenchmark.benchmark(sample,
+        new String[] { "gzip", "bogus", "deflate" }, new Configuration());
+
+    assertEquals(2, results.size());
+    assertEquals("gzip", results.get(0).getCodecName());
+    assertEquals("deflate", results.get(1).getCodecName());
+    for (CodecBenchmark.Result result : results) {
+      assertTrue(result.getCompressedBytes() < sample.length);
+      assertTrue(result.getRatio() > 1.0);
+    }
+  }
+
+  private ConnManager manager(ResultSet rs) throws Exception {
+    ConnManager manager = mock(ConnManager.class);
+    when(manager.readTable("t", null)).thenReturn(rs);
+    return manager;
+  }
+
+  private ResultSet rows(Statement statement, Boolean... next)
+      throws Exception {
+    ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(metaData.getColumnCount()).thenReturn(1);
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getMetaData()).thenReturn(metaData);
+    when(rs.getStatement()).thenReturn(statement);
+    when(rs.getString(1)).thenReturn("abc");
+    when(rs.next()).thenReturn(next[0],
+        Arrays.copyOfRange(next, 1, next.length));
+    return rs;
+  }
+
+  @Test
+  public void testFullSampleCancelsQuery() throws Exception {
+    Statement statement = mock(Statement.class);
+    ResultSet rs = rows(statement, true, true, true, true);
+    ConnManager manager = manager(rs);
+
+    byte[] sample = CodecBenchmark.readSample(manager, "t", null, 8);
+    assertEquals("abc\nabc\n",
+        new String(sample, StandardCharsets.UTF_8));
+    verify(statement).cancel();
+    verify(rs).close();
+    verify(manager).release();
+  }
+
+  @Test
+  public void testWholeTableIsNotCancelled() throws Exception {
+    Statement statement = mock(Statement.class);
+    ResultSet rs = rows(statement, true, false);
+
+    byte[] sample = CodecBenchmark.readSample(manager(rs), "t", null, 1024);
+    assertEquals(4, sample.length);
+    verify(statement, never()).cancel();
+    verify(rs).close();
+  }
+
+  @Test
+  public void testRecommend() {
+    // 1 MB in 1 s, 4 MB in 1 s.
+    CodecBenchmark.Result dense =
+        new CodecBenchmark.Result("dense", 1 << 20, 1 << 16, 1000000000L);
+    CodecBenchmark.Result fast =
+        new CodecBenchmark.Result("fast", 4 << 20, 1 << 20, 1000000000L);
+    List<CodecBenchmark.Result> results = Arrays.asList(dense, fast);
+
+    assertEquals("dense", CodecBenchmark.recommend(results, 1.0)
+        .getCodecName());
+    assertEquals("fast", CodecBenchmark.recommend(results, 2.0)
+        .getCodecName());
+    // Nothing is fast enough: fall back to the fastest codec.
+    assertEquals("fast", CodecBenchmark.recommend(results, 100.0)
+        .getCodecName());
+    assertNull(CodecBenchmark.recommend(
+        Arrays.<CodecBenchmark.Result>asList(), 1.0));
+  }
+}
@@ -28,6 +28,7 @@
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Rule;
@@ -85,6 +86,24 @@ private void verifyShortName(String expected, String codecName)
       CodecMap.getCodecShortNameByName(codecName, new Configuration()));
   }
 
+  @Test
+  public void testCompressionLevel() {
+    Configuration conf = new Configuration();
+    assertFalse(CodecMap.configureCompressionLevel(CodecMap.ZSTD, conf));
+
+    conf.setInt(CodecMap.COMPRESSION_LEVEL_KEY, 9);
+    assertFalse(CodecMap.configureCompressionLevel("gzip", conf));
+    assertTrue(CodecMap.configureCompressionLevel(CodecMap.ZSTD, conf));
+    assertEquals(9, conf.getInt(CodecMap.ZSTD_LEVEL_KEY, 0));
+    assertTrue(CodecMap.configureCompressionLevel(CodecMap.BGZF, conf));
+    assertEquals(9, conf.getInt(BgzfCodec.LEVEL_KEY, 0));
+
+    // An explicit codec setting wins.
+    conf.setInt(CodecMap.ZSTD_LEVEL_KEY, 3);
+    assertFalse(CodecMap.configureCompressionLevel(CodecMap.ZSTD, conf));
+    assertEquals(3, conf.getInt(CodecMap.ZSTD_LEVEL_KEY, 0));
+  }
+
   @Test
   public void testUnrecognizedCodec() throws UnsupportedCodecException {
     thrown.expect(UnsupportedCodecException.class);
@@ -39,6 +39,7 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -123,5 +124,28 @@ public void testReadBlobRef()
       assertEquals(blobData[i], buf[i]);
     }
   }
-}
 
+  @Test
+  public void testLobCodec() {
+    assertNull(LargeObjectLoader.getLobCodec(conf, true));
+    conf.set(LargeObjectLoader.LOB_CODEC_KEY, "gzip");
+    conf.set(LargeObjectLoader.BLOB_CODEC_KEY, "none");
+    assertEquals("gzip", LargeObjectLoader.getLobCodec(conf, true));
+    assertNull(LargeObjectLoader.getLobCodec(conf, false));
+  }
+
+  @Test
+  public void testReadCompressedClobRef()
+      throws IOException, InterruptedException, SQLException {
+    conf.set(LargeObjectLoader.CLOB_CODEC_KEY, "deflate");
+    conf.setLong(LargeObjectLoader.MAX_INLINE_LOB_LEN_KEY, 4);
+    ClobRef clob = loader.readClobRef(0, new MockResultSet());
+    assertTrue(clob.isExternal());
+    loader.close();
+    Reader r = clob.getDataStream(conf, outDir);
+    char [] buf = new char[4096];
+    int chars = r.read(buf, 0, 4096);
+    r.close();
+    assertEquals(MockResultSet.CLOB_DATA, new String(buf, 0, chars));
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.manager;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.apache.sqoop.util.SqlTypeMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@Category(UnitTest.class)
+public class TestMetadataCache {
+
+  private static final String STMT = "SELECT t.* FROM FOO AS t WHERE 1=0";
+
+  private MetadataCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new MetadataCache();
+  }
+
+  @Test
+  public void testMissingStatementReturnsNull() {
+    assertNull(cache.getColumnNames(STMT));
+    assertNull(cache.getColumnInfo(STMT));
+    assertNull(cache.getColumnTypeNames(STMT));
+  }
+
+  @Test
+  public void testColumnNamesAreCopied() {
+    String[] names = { "A", "B" };
+    cache.putColumnNames(STMT, names);
+    names[0] = "X";
+
+    String[] cached = cache.getColumnNames(STMT);
+    assertArrayEquals(new String[] { "A", "B" }, cached);
+    cached[1] = "Y";
+    assertArrayEquals(new String[] { "A", "B" }, cache.getColumnNames(STMT));
+  }
+
+  @Test
+  public void testColumnInfoIsCopied() {
+    Map<String, List<Integer>> info = new SqlTypeMap<String, List<Integer>>();
+    info.put("A", new ArrayList<Integer>(Arrays.asList(Types.INTEGER, 10, 0)));
+    cache.putColumnInfo(STMT, info);
+
+    Map<String, List<Integer>> cached = cache.getColumnInfo(STMT);
+    cached.get("A").set(0, Types.VARCHAR);
+    assertEquals(Types.INTEGER,
+        cache.getColumnInfo(STMT).get("A").get(0).intValue());
+  }
+
+  @Test
+  public void testNullResultsAreNotCached() {
+    cache.putColumnNames(STMT, null);
+    cache.putColumnInfo(STMT, null);
+    cache.putColumnTypeNames(STMT, null);
+    assertNull(cache.getColumnNames(STMT));
+    assertNull(cache.getColumnInfo(STMT));
+    assertNull(cache.getColumnTypeNames(STMT));
+  }
+
+  @Test
+  public void testInvalidate() {
+    Map<String, String> typeNames = new HashMap<String, String>();
+    typeNames.put("A", "INTEGER");
+    cache.putColumnNames(STMT, new String[] { "A" });
+    cache.putColumnTypeNames(STMT, typeNames);
+    cache.putColumnNames("OTHER", new String[] { "B" });
+
+    cache.invalidate(STMT);
+    assertNull(cache.getColumnNames(STMT));
+    assertNull(cache.getColumnTypeNames(STMT));
+    assertArrayEquals(new String[] { "B" }, cache.getColumnNames("OTHER"));
+
+    cache.invalidateAll();
+    assertNull(cache.getColumnNames("OTHER"));
+  }
+}
@@ -96,6 +96,37 @@ public void testListColNames() {
     }
   }
 
+  @Test
+  public void testCachedColumnMetadataIsRefreshedAfterInvalidate()
+      throws SQLException {
+    String tableName = HsqldbTestServer.getTableName();
+    assertEquals(2, manager.getColumnNames(tableName).length);
+    assertEquals(2, manager.getColumnTypes(tableName).size());
+
+    Connection conn = manager.getConnection();
+    PreparedStatement statement = conn.prepareStatement(
+        "ALTER TABLE " + manager.escapeTableName(tableName)
+        + " ADD COLUMN INTFIELD3 INT");
+    try {
+      statement.executeUpdate();
+      conn.commit();
+    } finally {
+      statement.close();
+    }
+
+    // Still served from the cache.
+    assertEquals(2, manager.getColumnNames(tableName).length);
+    assertEquals(2, manager.getColumnTypes(tableName).size());
+
+    manager.invalidateMetadataCache(tableName);
+    String [] colNames = manager.getColumnNames(tableName);
+    assertEquals(3, colNames.length);
+    assertEquals("INTFIELD3", colNames[2]);
+    Map<String, Integer> types = manager.getColumnTypes(tableName);
+    assertEquals(3, types.size());
+    assertEquals(Types.INTEGER, types.get("INTFIELD3").intValue());
+  }
+
   @Test
   public void testListColTypes() {
     Map<String, Integer> types = manager.getColumnTypes(
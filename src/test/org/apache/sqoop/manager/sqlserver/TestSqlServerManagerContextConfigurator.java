@@ -26,10 +26,13 @@
 import org.apache.sqoop.manager.ExportJobContext;
 import org.apache.sqoop.manager.ImportJobContext;
 import org.apache.sqoop.manager.SqlServerManagerContextConfigurator;
+import org.apache.sqoop.mapreduce.ExportEngineOutputFormat;
 import org.apache.sqoop.mapreduce.SQLServerResilientExportOutputFormat;
 import org.apache.sqoop.mapreduce.SQLServerResilientUpdateOutputFormat;
 import org.apache.sqoop.mapreduce.db.DataDrivenDBInputFormat;
+import org.apache.sqoop.mapreduce.db.SQLServerConnectionFailureHandler;
 import org.apache.sqoop.mapreduce.db.SQLServerDBInputFormat;
+import org.apache.sqoop.mapreduce.sqlserver.SqlServerBulkCopyExportEngine;
 import org.apache.sqoop.mapreduce.sqlserver.SqlServerExportBatchOutputFormat;
 import org.apache.sqoop.testcategories.sqooptest.UnitTest;
 import org.junit.Before;
@@ -94,6 +97,22 @@ public void testNonResilientExportContextConfiguration() {
     assertThat(outputFormatClass).isSameAs(SqlServerExportBatchOutputFormat.class);
   }
 
+  @Test
+  public void testBulkCopyExportContextConfiguration() {
+    String[] extraArgs = {"--bulk-copy"};
+    options.setExtraArgs(extraArgs);
+
+    ExportJobContext context = new ExportJobContext("TABLE_NAME", "example.jar", options);
+    formatConfigurator.configureContextForExport(context);
+    Class outputFormatClass = context.getOutputFormatClass();
+    assertThat(outputFormatClass).isSameAs(ExportEngineOutputFormat.class);
+    Configuration conf = options.getConf();
+    assertThat(conf.get(ExportEngineOutputFormat.ENGINE_KEY))
+        .isEqualTo(SqlServerBulkCopyExportEngine.class.getName());
+    assertThat(conf.get(SQLServerResilientExportOutputFormat.EXPORT_FAILURE_HANDLER_CLASS))
+        .isEqualTo(SQLServerConnectionFailureHandler.class.getName());
+  }
+
   @Test
   public void testResilientUpdateContextConfiguration() {
     String[] extraArgs = {"--resilient"};
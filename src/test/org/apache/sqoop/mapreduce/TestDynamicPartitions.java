@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.lib.DelimiterSet;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the helpers of the dynamically partitioned Hive import.
+ */
+@Category(UnitTest.class)
+public class TestDynamicPartitions {
+
+  private static final DelimiterSet PLAIN = new DelimiterSet(',', '\n',
+      DelimiterSet.NULL_CHAR, DelimiterSet.NULL_CHAR, false);
+
+  private static final DelimiterSet ENCLOSED = new DelimiterSet(',', '\n',
+      '"', '\\', false);
+
+  @Test
+  public void testDropField() {
+    assertEquals("b,c\n", DynamicPartitions.dropField("a,b,c\n", 0, PLAIN));
+    assertEquals("a,c\n", DynamicPartitions.dropField("a,b,c\n", 1, PLAIN));
+    assertEquals("a,b\n", DynamicPartitions.dropField("a,b,c\n", 2, PLAIN));
+    assertEquals("\n", DynamicPartitions.dropField("a\n", 0, PLAIN));
+    assertEquals("a,,c\n", DynamicPartitions.dropField("a,,x,c\n", 2, PLAIN));
+  }
+
+  @Test
+  public void testDropFieldRespectsEnclosingAndEscaping() {
+    assertEquals("\"a,b\",c\n",
+        DynamicPartitions.dropField("\"a,b\",x,c\n", 1, ENCLOSED));
+    assertEquals("a\\,b,c\n",
+        DynamicPartitions.dropField("a\\,b,\"x,y\",c\n", 1, ENCLOSED));
+    assertEquals("a\n",
+        DynamicPartitions.dropField("a,\"x\ny\"\n", 1, ENCLOSED));
+  }
+
+  @Test
+  public void testPartitionName() {
+    assertEquals("country=US", DynamicPartitions.getPartitionName("country", "US"));
+    assertEquals("country=" + DynamicPartitions.DEFAULT_PARTITION_NAME,
+        DynamicPartitions.getPartitionName("country", null));
+    assertEquals("country=" + DynamicPartitions.DEFAULT_PARTITION_NAME,
+        DynamicPartitions.getPartitionName("country", ""));
+    assertEquals("path=a%2Fb%3Dc", DynamicPartitions.getPartitionName("path", "a/b=c"));
+  }
+
+  @Test
+  public void testPartitionValueRoundTrip() {
+    String value = "50% off: 'a/b'";
+    String name = DynamicPartitions.getPartitionName("promo", value);
+    assertFalse(name.substring("promo=".length()).contains("/"));
+    assertEquals(value, DynamicPartitions.getPartitionValue(name));
+  }
+
+  @Test
+  public void testConfigure() throws IOException {
+    Configuration conf = new Configuration();
+    conf.set(DynamicPartitions.COLUMN_KEY, "B");
+    assertTrue(DynamicPartitions.isEnabled(conf));
+
+    DynamicPartitions.configure(conf, new String[] {"A", "B", "C"}, ENCLOSED);
+
+    assertEquals(1, conf.getInt(DynamicPartitions.COLUMN_INDEX_KEY, -1));
+    DelimiterSet delimiters = DynamicPartitions.getDelimiters(conf);
+    assertEquals(',', delimiters.getFieldsTerminatedBy());
+    assertEquals('\n', delimiters.getLinesTerminatedBy());
+    assertEquals('"', delimiters.getEnclosedBy());
+    assertEquals('\\', delimiters.getEscapedBy());
+  }
+
+  @Test(expected = IOException.class)
+  public void testConfigureRejectsMissingColumn() throws IOException {
+    Configuration conf = new Configuration();
+    conf.set(DynamicPartitions.COLUMN_KEY, "D");
+
+    DynamicPartitions.configure(conf, new String[] {"A", "B", "C"}, PLAIN);
+  }
+}
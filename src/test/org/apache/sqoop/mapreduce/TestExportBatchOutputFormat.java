@@ -0,0 +1,214 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Category(UnitTest.class)
+public class TestExportBatchOutputFormat {
+
+  private static final String URL = "jdbc:sqoop-batch-test:db";
+
+  /** Hands out the mocked connection of the current test. */
+  public static class MockDriver implements Driver {
+    private static Connection connection;
+
+    @Override
+    public Connection connect(String url, Properties info) {
+      return acceptsURL(url) ? connection : null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return URL.equals(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException();
+    }
+  }
+
+  private Configuration conf;
+  private Driver driver;
+  private List<String> prepared;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new JobConf();
+    driver = new MockDriver();
+    DriverManager.registerDriver(driver);
+
+    prepared = new ArrayList<String>();
+    Connection connection = mock(Connection.class);
+    when(connection.prepareStatement(anyString())).thenAnswer(
+        new Answer<PreparedStatement>() {
+          @Override
+          public PreparedStatement answer(InvocationOnMock invocation) {
+            prepared.add((String) invocation.getArguments()[0]);
+            return mock(PreparedStatement.class);
+          }
+        });
+    MockDriver.connection = connection;
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    DriverManager.deregisterDriver(driver);
+    MockDriver.connection = null;
+  }
+
+  /** @return a record writer on the mocked connection. */
+  private ExportBatchOutputFormat<SqoopRecord, Object>
+      .ExportBatchRecordWriter<SqoopRecord, Object> writer(int rowsPerStmt)
+      throws Exception {
+    conf.set(DBConfiguration.DRIVER_CLASS_PROPERTY,
+        MockDriver.class.getName());
+    conf.set(DBConfiguration.URL_PROPERTY, URL);
+    conf.set(DBConfiguration.OUTPUT_TABLE_NAME_PROPERTY, "t");
+    conf.setStrings(DBConfiguration.OUTPUT_FIELD_NAMES_PROPERTY, "a", "b");
+    conf.setInt(AsyncSqlOutputFormat.RECORDS_PER_STATEMENT_KEY, rowsPerStmt);
+    conf.setBoolean(ExportBatchOutputFormat.MULTIROW_VALUES_KEY, true);
+    conf.setInt(ExportBatchOutputFormat.MAX_PARAMETERS_KEY, 6);
+    return new ExportBatchOutputFormat<SqoopRecord, Object>()
+        .new ExportBatchRecordWriter<SqoopRecord, Object>(
+        new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+  }
+
+  private List<SqoopRecord> records(int count) throws Exception {
+    SqoopRecord record = mock(SqoopRecord.class);
+    when(record.write(any(PreparedStatement.class), anyInt())).thenReturn(2);
+    return Collections.nCopies(count, record);
+  }
+
+  @Test
+  public void testSingleRowValuesByDefault() {
+    assertEquals(1, ExportBatchOutputFormat.getRowsPerValues(conf, 5));
+  }
+
+  @Test
+  public void testMultiRowValuesBoundedByParameterLimit() {
+    conf.setBoolean(ExportBatchOutputFormat.MULTIROW_VALUES_KEY, true);
+    assertEquals(400, ExportBatchOutputFormat.getRowsPerValues(conf, 5));
+
+    conf.setInt(ExportBatchOutputFormat.MAX_PARAMETERS_KEY, 32767);
+    assertEquals(ExportBatchOutputFormat.MAX_VALUES_ROWS,
+        ExportBatchOutputFormat.getRowsPerValues(conf, 5));
+  }
+
+  @Test
+  public void testMultiRowValuesWithWideRows() {
+    conf.setBoolean(ExportBatchOutputFormat.MULTIROW_VALUES_KEY, true);
+    assertEquals(1, ExportBatchOutputFormat.getRowsPerValues(conf, 3000));
+  }
+
+  @Test
+  public void testBatchHoldsSeveralMultiRowStatements() throws Exception {
+    // 6 parameters and 2 columns give 3 rows per VALUES clause.
+    ExportBatchOutputFormat<SqoopRecord, Object>
+        .ExportBatchRecordWriter<SqoopRecord, Object> writer = writer(10);
+    List<PreparedStatement> stmts =
+        writer.getPreparedStatements(records(10));
+
+    assertEquals(2, stmts.size());
+    verify(stmts.get(0), times(3)).addBatch();
+    verify(stmts.get(1), times(1)).addBatch();
+    assertEquals(2, prepared.size());
+    assertEquals("INSERT INTO t (a, b) VALUES (?, ?), (?, ?), (?, ?)",
+        prepared.get(0));
+    assertEquals("INSERT INTO t (a, b) VALUES (?, ?)", prepared.get(1));
+    writer.closeConnection(null);
+  }
+
+  @Test
+  public void testStatementsAlternateAndAreReused() throws Exception {
+    ExportBatchOutputFormat<SqoopRecord, Object>
+        .ExportBatchRecordWriter<SqoopRecord, Object> writer = writer(6);
+    PreparedStatement first =
+        writer.getPreparedStatements(records(6)).get(0);
+    PreparedStatement second =
+        writer.getPreparedStatements(records(6)).get(0);
+    PreparedStatement third =
+        writer.getPreparedStatements(records(6)).get(0);
+
+    // The execution thread may still run the previous batch, so two
+    // statements take turns.
+    assertEquals(2, prepared.size());
+    assertSame(first, third);
+    verify(third).clearBatch();
+    writer.closeConnection(null);
+    verify(first).close();
+    verify(second).close();
+  }
+}
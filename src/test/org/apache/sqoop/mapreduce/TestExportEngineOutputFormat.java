@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Category(UnitTest.class)
+public class TestExportEngineOutputFormat {
+
+  /**
+   * Engine recording the batches it receives.
+   */
+  public static class RecordingEngine implements ExportEngine {
+    private final List<Integer> batchSizes = new ArrayList<Integer>();
+    private final CountDownLatch release;
+    private final boolean fail;
+    private boolean committed;
+    private boolean closed;
+
+    public RecordingEngine() {
+      this(new CountDownLatch(0), false);
+    }
+
+    RecordingEngine(CountDownLatch release, boolean fail) {
+      this.release = release;
+      this.fail = fail;
+    }
+
+    @Override
+    public void open(TaskAttemptContext context) {
+    }
+
+    @Override
+    public void write(List<SqoopRecord> batch) throws IOException {
+      try {
+        release.await();
+      } catch (InterruptedException ie) {
+        throw new IOException(ie);
+      }
+      if (fail) {
+        throw new IOException("write failed");
+      }
+      batchSizes.add(batch.size());
+    }
+
+    @Override
+    public void commit() {
+      committed = true;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private Configuration conf;
+  private SqoopRecord record;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new Configuration();
+    record = mock(SqoopRecord.class);
+    when(record.clone()).thenReturn(record);
+  }
+
+  @Test
+  public void testGetEngineClass() throws IOException {
+    conf.set(ExportEngineOutputFormat.ENGINE_KEY, "JDBC");
+    assertEquals(JdbcBatchExportEngine.class,
+        ExportEngineOutputFormat.getEngineClass(conf));
+
+    conf.set(ExportEngineOutputFormat.ENGINE_KEY,
+        RecordingEngine.class.getName());
+    assertEquals(RecordingEngine.class,
+        ExportEngineOutputFormat.getEngineClass(conf));
+
+    conf.set(ExportEngineOutputFormat.ENGINE_KEY, String.class.getName());
+    try {
+      ExportEngineOutputFormat.getEngineClass(conf);
+      fail("String is not an export engine");
+    } catch (IOException expected) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testWritesBatchesAndCommits() throws Exception {
+    conf.setInt(ExportEngineOutputFormat.BATCH_RECORDS_KEY, 3);
+    RecordingEngine engine = new RecordingEngine();
+    ExportEngineOutputFormat.ExportEngineRecordWriter<SqoopRecord,
+        NullWritable> writer = new ExportEngineOutputFormat
+        .ExportEngineRecordWriter<SqoopRecord, NullWritable>(conf, engine);
+    for (int i = 0; i < 7; i++) {
+      writer.write(record, NullWritable.get());
+    }
+    writer.close(null);
+
+    assertEquals(3, engine.batchSizes.size());
+    assertEquals(Integer.valueOf(3), engine.batchSizes.get(0));
+    assertEquals(Integer.valueOf(1), engine.batchSizes.get(2));
+    assertTrue(engine.committed);
+    assertTrue(engine.closed);
+  }
+
+  @Test(timeout = 10000)
+  public void testBackpressure() throws Exception {
+    conf.setInt(ExportEngineOutputFormat.BATCH_RECORDS_KEY, 1);
+    conf.setInt(ExportEngineOutputFormat.MAX_IN_FLIGHT_KEY, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEngine engine = new RecordingEngine(release, false);
+    final ExportEngineOutputFormat.ExportEngineRecordWriter<SqoopRecord,
+        NullWritable> writer = new ExportEngineOutputFormat
+        .ExportEngineRecordWriter<SqoopRecord, NullWritable>(conf, engine);
+
+    final AtomicInteger written = new AtomicInteger();
+    Thread mapper = new Thread() {
+      @Override
+      public void run() {
+        try {
+          for (int i = 0; i < 4; i++) {
+            writer.write(record, NullWritable.get());
+            written.incrementAndGet();
+          }
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    mapper.start();
+
+    // One batch is being written and one is queued; the third blocks.
+    while (written.get() < 2
+        || mapper.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(200);
+    assertEquals(2, written.get());
+    assertTrue(mapper.isAlive());
+
+    release.countDown();
+    mapper.join();
+    writer.close(null);
+    assertEquals(4, engine.batchSizes.size());
+    assertTrue(engine.committed);
+  }
+
+  @Test
+  public void testEngineFailure() throws Exception {
+    conf.setInt(ExportEngineOutputFormat.BATCH_RECORDS_KEY, 1);
+    RecordingEngine engine = new RecordingEngine(new CountDownLatch(0), true);
+    ExportEngineOutputFormat.ExportEngineRecordWriter<SqoopRecord,
+        NullWritable> writer = new ExportEngineOutputFormat
+        .ExportEngineRecordWriter<SqoopRecord, NullWritable>(conf, engine);
+    try {
+      for (int i = 0; i < 3; i++) {
+        writer.write(record, NullWritable.get());
+      }
+    } catch (IOException expected) {
+      assertEquals("write failed", expected.getCause().getMessage());
+    }
+    try {
+      writer.close(null);
+      fail("The engine failure was not reported");
+    } catch (IOException expected) {
+      assertEquals("write failed", expected.getCause().getMessage());
+    }
+    assertFalse(engine.committed);
+    assertTrue(engine.closed);
+  }
+
+  @Test
+  public void testInsertStatement() {
+    assertEquals("INSERT INTO t (a, b) VALUES (?, ?)",
+        JdbcBatchExportEngine.getInsertStatement("t",
+            new String[] { "a", "b" }, 0));
+    assertEquals("INSERT INTO t VALUES (?, ?, ?)",
+        JdbcBatchExportEngine.getInsertStatement("t", null, 3));
+  }
+}
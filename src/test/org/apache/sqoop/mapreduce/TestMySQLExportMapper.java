@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.manager.MySQLUtils;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(UnitTest.class)
+public class TestMySQLExportMapper {
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    conf.set(MySQLUtils.TABLE_NAME_KEY, "employees");
+  }
+
+  @Test
+  public void testLoadDataStatementWithDefaultDelimiters() throws IOException {
+    assertEquals("LOAD DATA LOCAL INFILE 'sqoop-export' INTO TABLE `employees`"
+        + " FIELDS TERMINATED BY X'2c' LINES TERMINATED BY X'0a'",
+        MySQLExportMapper.getLoadDataStatement(conf));
+  }
+
+  @Test
+  public void testLoadDataStatementWithMySQLDelimitersAndColumns()
+      throws IOException {
+    conf.setInt(MySQLUtils.OUTPUT_FIELD_DELIM_KEY, '\t');
+    conf.setInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY, '\'');
+    conf.setInt(MySQLUtils.OUTPUT_ESCAPED_BY_KEY, '\\');
+    conf.setStrings(DBConfiguration.INPUT_FIELD_NAMES_PROPERTY,
+        "`id`", "`name`");
+    assertEquals("LOAD DATA LOCAL INFILE 'sqoop-export' INTO TABLE `employees`"
+        + " FIELDS TERMINATED BY X'09' OPTIONALLY ENCLOSED BY X'27'"
+        + " ESCAPED BY X'5c' LINES TERMINATED BY X'0a' (`id`,`name`)",
+        MySQLExportMapper.getLoadDataStatement(conf));
+  }
+
+  @Test
+  public void testLoadDataStatementWithRequiredEnclosing() throws IOException {
+    conf.setInt(MySQLUtils.OUTPUT_ENCLOSED_BY_KEY, '"');
+    conf.setBoolean(MySQLUtils.OUTPUT_ENCLOSE_REQUIRED_KEY, true);
+    assertEquals("LOAD DATA LOCAL INFILE 'sqoop-export' INTO TABLE `employees`"
+        + " FIELDS TERMINATED BY X'2c' ENCLOSED BY X'22'"
+        + " LINES TERMINATED BY X'0a'",
+        MySQLExportMapper.getLoadDataStatement(conf));
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadDataStatementWithoutTable() throws IOException {
+    MySQLExportMapper.getLoadDataStatement(new Configuration());
+  }
+}
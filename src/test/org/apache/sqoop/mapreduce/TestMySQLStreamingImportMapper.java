@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce;
+
+import java.nio.charset.CharacterCodingException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.lib.DelimiterSet;
+import org.apache.sqoop.lib.FieldFormatter;
+import org.apache.sqoop.manager.MySQLUtils;
+import org.apache.sqoop.mapreduce.db.DBConfiguration;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(UnitTest.class)
+public class TestMySQLStreamingImportMapper {
+
+  private static final String [] VALUES = {
+    "plain", "a,b", "line\nbreak", "it's", "back\\slash", "\"quoted\"", "",
+    "caf\u00e9",
+  };
+
+  private String formatRow(DelimiterSet delimiters, String... values)
+      throws CharacterCodingException {
+    MySQLStreamingImportMapper.RowFormatter formatter =
+        new MySQLStreamingImportMapper.RowFormatter(delimiters);
+    formatter.startRow();
+    for (int i = 0; i < values.length; i++) {
+      formatter.appendField(i == 0, values[i]);
+    }
+    return formatter.finishRow().toString();
+  }
+
+  private String expectedRow(DelimiterSet delimiters, String... values) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        sb.append(delimiters.getFieldsTerminatedBy());
+      }
+      sb.append(FieldFormatter.escapeAndEnclose(values[i], delimiters));
+    }
+    sb.append(delimiters.getLinesTerminatedBy());
+    return sb.toString();
+  }
+
+  private void assertMatchesFieldFormatter(DelimiterSet delimiters)
+      throws CharacterCodingException {
+    assertEquals(expectedRow(delimiters, VALUES),
+        formatRow(delimiters, VALUES));
+  }
+
+  @Test
+  public void testDefaultDelimiters() throws CharacterCodingException {
+    assertMatchesFieldFormatter(DelimiterSet.DEFAULT_DELIMITERS);
+  }
+
+  @Test
+  public void testMySQLDelimiters() throws CharacterCodingException {
+    assertMatchesFieldFormatter(DelimiterSet.MYSQL_DELIMITERS);
+  }
+
+  @Test
+  public void testEscapedWithoutEnclosing() throws CharacterCodingException {
+    assertMatchesFieldFormatter(new DelimiterSet(',', '\n',
+        DelimiterSet.NULL_CHAR, '\\', false));
+  }
+
+  @Test
+  public void testRequiredEnclosing() throws CharacterCodingException {
+    assertMatchesFieldFormatter(new DelimiterSet('\t', '\n', '"', '\\',
+        true));
+  }
+
+  @Test
+  public void testNullAndReuse() throws CharacterCodingException {
+    MySQLStreamingImportMapper.RowFormatter formatter =
+        new MySQLStreamingImportMapper.RowFormatter(
+            DelimiterSet.DEFAULT_DELIMITERS);
+    formatter.startRow();
+    formatter.appendField(true, "a very long first row to be overwritten");
+    formatter.finishRow();
+
+    formatter.startRow();
+    formatter.appendField(true, "1");
+    formatter.appendField(false, null);
+    assertEquals("1,NULL\n", formatter.finishRow().toString());
+  }
+
+  @Test
+  public void testSelectStatement() {
+    Configuration conf = new Configuration();
+    conf.set(MySQLUtils.TABLE_NAME_KEY, "employees");
+    conf.setStrings(DBConfiguration.INPUT_FIELD_NAMES_PROPERTY,
+        "`id`", "`name`");
+    conf.set(MySQLUtils.WHERE_CLAUSE_KEY, "id > 5");
+    assertEquals("SELECT `id`, `name` FROM `employees`"
+        + " WHERE id > 5 AND (`id` >= 10 AND `id` < 20)",
+        MySQLStreamingImportMapper.getSelectStatement(conf,
+            "`id` >= 10 AND `id` < 20"));
+  }
+}
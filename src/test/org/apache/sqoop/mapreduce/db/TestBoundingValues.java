@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the bounding values that can replace the bounding query.
+ */
+@Category(UnitTest.class)
+public class TestBoundingValues {
+
+  @Test
+  public void testConfigurationRoundTrip() {
+    Configuration conf = new Configuration();
+    assertNull(BoundingValues.get(conf));
+
+    new BoundingValues("ID", Types.INTEGER, "1", null, true,
+        BoundingValues.SOURCE_QUERY).store(conf);
+    BoundingValues bounds = BoundingValues.get(conf);
+    assertEquals("ID", bounds.getColumn());
+    assertEquals(Types.INTEGER, bounds.getSqlType());
+    assertEquals("1", bounds.getMin());
+    assertNull(bounds.getMax());
+    assertTrue(bounds.isExact());
+
+    BoundingValues.clear(conf);
+    assertNull(BoundingValues.get(conf));
+    assertEquals("ID", conf.get(BoundingValues.COLUMN_KEY));
+  }
+
+  @Test
+  public void testJsonRoundTrip() {
+    BoundingValues bounds = BoundingValues.fromJson(new BoundingValues("TS",
+        Types.TIMESTAMP, "2017-01-01 00:00:00.0", "2018-01-01 12:00:00.0",
+        true, BoundingValues.SOURCE_QUERY).toJson(), "cache");
+    assertEquals("TS", bounds.getColumn());
+    assertEquals(Types.TIMESTAMP, bounds.getSqlType());
+    assertEquals("2018-01-01 12:00:00.0", bounds.getMax());
+    assertFalse(bounds.isExact());
+    assertEquals("cache", bounds.getSource());
+
+    assertNull(BoundingValues.fromJson(null, "cache"));
+  }
+
+  @Test
+  public void testResultSet() throws SQLException {
+    ResultSet results = new BoundingValues("ID", Types.NUMERIC, "-5", "10.5",
+        false, "test").toResultSet();
+    assertTrue(results.next());
+    assertEquals(Types.NUMERIC, results.getMetaData().getColumnType(1));
+    assertTrue(results.getMetaData().isSigned(1));
+    assertEquals(-5L, results.getLong(1));
+    assertEquals(new BigDecimal("10.5"), results.getBigDecimal(2));
+    assertEquals("10.5", results.getString(2));
+    assertFalse(results.wasNull());
+    assertFalse(results.next());
+  }
+
+  @Test
+  public void testResultSetNulls() throws SQLException {
+    ResultSet results = new BoundingValues("ID", Types.BIGINT, null, null,
+        false, "test").toResultSet();
+    results.next();
+    assertEquals(0L, results.getLong(1));
+    assertTrue(results.wasNull());
+    assertNull(results.getString(2));
+  }
+
+  @Test
+  public void testResultSetDates() throws SQLException {
+    ResultSet results = new BoundingValues("D", Types.DATE, "2017-03-04",
+        "'2017-03-05 10:00:00'", false, "test").toResultSet();
+    results.next();
+    assertEquals(Timestamp.valueOf("2017-03-04 00:00:00"),
+        results.getTimestamp(1));
+    assertEquals(Timestamp.valueOf("2017-03-05 10:00:00"),
+        results.getTimestamp(2));
+  }
+
+  @Test
+  public void testWithMax() throws SQLException {
+    BoundingValues cached = new BoundingValues("ID", Types.INTEGER, "1",
+        "100", true, BoundingValues.SOURCE_CACHE);
+    ResultSet max = new BoundingValues("ID", Types.INTEGER, "250", null,
+        true, "test").toResultSet();
+    max.next();
+
+    BoundingValues refreshed = cached.withMax(max);
+    assertEquals("1", refreshed.getMin());
+    assertEquals("250", refreshed.getMax());
+    assertFalse(refreshed.isExact());
+  }
+
+  @Test
+  public void testOnlyTimeoutsAreTimeouts() {
+    assertTrue(DataDrivenDBInputFormat.isTimeout(
+        new SQLTimeoutException("timeout")));
+    assertTrue(DataDrivenDBInputFormat.isTimeout(
+        new SQLException("timeout", "HYT00")));
+    assertTrue(DataDrivenDBInputFormat.isTimeout(
+        new SQLException("canceling statement", "57014")));
+    assertFalse(DataDrivenDBInputFormat.isTimeout(
+        new SQLException("relation does not exist", "42P01")));
+    assertFalse(DataDrivenDBInputFormat.isTimeout(new SQLException()));
+  }
+
+  @Test
+  public void testOpenEdges() {
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+        "ID >= 0", "ID < 50"));
+    splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+        "ID >= 50", "ID <= 100"));
+
+    BoundingValues.openEdges(splits, "ID");
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit first =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(0);
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit last =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(1);
+    assertEquals("ID IS NOT NULL", first.getLowerClause());
+    assertEquals("ID < 50", first.getUpperClause());
+    assertEquals("ID >= 50", last.getLowerClause());
+    assertEquals("ID IS NOT NULL", last.getUpperClause());
+  }
+
+  @Test
+  public void testOpenEdgesKeepsNullSplit() {
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+        "ID >= 1", "ID <= 5"));
+    splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+        "ID IS NULL", "ID IS NULL"));
+
+    BoundingValues.openEdges(splits, "ID");
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit only =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(0);
+    assertEquals("ID IS NOT NULL", only.getLowerClause());
+    assertEquals("ID IS NOT NULL", only.getUpperClause());
+    assertEquals("ID IS NULL",
+        ((DataDrivenDBInputFormat.DataDrivenDBInputSplit) splits.get(1))
+        .getLowerClause());
+  }
+}
@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.sqoop.mapreduce.db.DBInputFormat.KeysetInputSplit;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the keyset splits of DBInputFormat.
+ */
+@Category(UnitTest.class)
+public class TestDBInputFormat {
+
+  /**
+   * @return the boundary rows of the given row numbers, with key
+   * 10 * row number.
+   */
+  private ResultSet keys(final long... rows) throws Exception {
+    ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(metaData.getColumnType(1)).thenReturn(Types.INTEGER);
+    ResultSet results = mock(ResultSet.class);
+    when(results.getMetaData()).thenReturn(metaData);
+
+    final int[] row = {0};
+    when(results.next()).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) {
+        return ++row[0] <= rows.length;
+      }
+    });
+    when(results.getBigDecimal(1)).thenAnswer(new Answer<BigDecimal>() {
+      @Override
+      public BigDecimal answer(InvocationOnMock invocation) {
+        return BigDecimal.valueOf(rows[row[0] - 1] * 10);
+      }
+    });
+    when(results.getLong(2)).thenAnswer(new Answer<Long>() {
+      @Override
+      public Long answer(InvocationOnMock invocation) {
+        return rows[row[0] - 1];
+      }
+    });
+    return results;
+  }
+
+  @Test
+  public void testKeysetSplitBoundaries() throws Exception {
+    List<InputSplit> splits =
+        DBInputFormat.getKeysetSplits(keys(3, 6), "id", 10, 3);
+
+    assertEquals(3, splits.size());
+    KeysetInputSplit first = (KeysetInputSplit) splits.get(0);
+    assertNull(first.getLowerKey());
+    assertEquals("30", first.getUpperKey());
+    assertEquals(0, first.getStart());
+    assertEquals(3, first.getEnd());
+    KeysetInputSplit second = (KeysetInputSplit) splits.get(1);
+    assertEquals("30", second.getLowerKey());
+    assertEquals("60", second.getUpperKey());
+    KeysetInputSplit last = (KeysetInputSplit) splits.get(2);
+    assertEquals("60", last.getLowerKey());
+    assertNull(last.getUpperKey());
+    assertEquals(6, last.getStart());
+    assertEquals(10, last.getEnd());
+  }
+
+  @Test
+  public void testFewerKeysThanSplits() throws Exception {
+    List<InputSplit> splits =
+        DBInputFormat.getKeysetSplits(keys(1), "id", 2, 4);
+
+    assertEquals(2, splits.size());
+    KeysetInputSplit last = (KeysetInputSplit) splits.get(1);
+    assertEquals("10", last.getLowerKey());
+    assertNull(last.getUpperKey());
+  }
+
+  @Test
+  public void testSingleSplit() throws Exception {
+    assertNull(DBInputFormat.getKeysetBoundaryQuery("t", null, "id", 5, 1));
+    List<InputSplit> splits =
+        DBInputFormat.getKeysetSplits(null, "id", 5, 1);
+
+    assertEquals(1, splits.size());
+    KeysetInputSplit split = (KeysetInputSplit) splits.get(0);
+    assertNull(split.getLowerKey());
+    assertNull(split.getUpperKey());
+    assertEquals(5, split.getLength());
+  }
+
+  @Test
+  public void testKeysetBoundaryQuery() throws Exception {
+    assertEquals("SELECT id, sqoop_rn FROM (SELECT id, ROW_NUMBER() OVER"
+        + " (ORDER BY id) AS sqoop_rn FROM t WHERE id IS NOT NULL"
+        + " AND (x > 1)) sqoop_keys WHERE sqoop_rn IN (3, 6)"
+        + " ORDER BY sqoop_rn",
+        DBInputFormat.getKeysetBoundaryQuery("t", "x > 1", "id", 10, 3));
+    assertEquals("SELECT id, sqoop_rn FROM (SELECT id, ROW_NUMBER() OVER"
+        + " (ORDER BY id) AS sqoop_rn FROM t WHERE id IS NOT NULL)"
+        + " sqoop_keys WHERE sqoop_rn IN (1) ORDER BY sqoop_rn",
+        DBInputFormat.getKeysetBoundaryQuery("t", null, "id", 2, 4));
+  }
+
+  @Test
+  public void testSplitSerialization() throws Exception {
+    KeysetInputSplit split = new KeysetInputSplit(5, 10, "id", Types.VARCHAR,
+        null, "m");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    split.write(new DataOutputStream(bytes));
+
+    KeysetInputSplit copy = new KeysetInputSplit();
+    copy.readFields(new DataInputStream(
+        new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals("id", copy.getKeyColumn());
+    assertNull(copy.getLowerKey());
+    assertEquals("m", copy.getUpperKey());
+    assertEquals(5, copy.getStart());
+    assertEquals(5, copy.getLength());
+  }
+
+  @Test
+  public void testKeysetSelectQuery() throws Exception {
+    DBConfiguration dbConf = new DBConfiguration(new Configuration());
+    dbConf.setInputOrderBy("name");
+
+    KeysetInputSplit split = new KeysetInputSplit(3, 6, "id", Types.INTEGER,
+        "30", "60");
+    DBRecordReader<DBInputFormat.NullDBWritable> reader =
+        new DBRecordReader<DBInputFormat.NullDBWritable>(split,
+        DBInputFormat.NullDBWritable.class, null, null, dbConf, "x > 1",
+        new String[] {"id", "name"}, "t");
+    assertEquals("SELECT id, name FROM t AS t WHERE (x > 1)"
+        + " AND id > ? AND id <= ? ORDER BY id", reader.getSelectQuery());
+
+    split = new KeysetInputSplit(0, 3, "id", Types.INTEGER, null, "30");
+    reader = new DBRecordReader<DBInputFormat.NullDBWritable>(split,
+        DBInputFormat.NullDBWritable.class, null, null, dbConf, null,
+        new String[] {"id"}, "t");
+    assertEquals("SELECT id FROM t AS t WHERE (id <= ? OR id IS NULL)"
+        + " ORDER BY id", reader.getSelectQuery());
+  }
+}
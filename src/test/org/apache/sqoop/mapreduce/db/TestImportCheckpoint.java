@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.mapreduce.db;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.sqoop.io.BgzfOutputStream;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@Category(UnitTest.class)
+public class TestImportCheckpoint {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private Configuration conf;
+  private FileSystem fs;
+  private ImportCheckpoint checkpoint;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    conf.set(DBConfiguration.INPUT_TABLE_NAME_PROPERTY, "T");
+    fs = FileSystem.getLocal(conf);
+    checkpoint = new ImportCheckpoint(
+        new Path(tmp.getRoot().toURI().toString(), "checkpoint"), conf);
+  }
+
+  private Job startRun() throws IOException {
+    Job job = Job.getInstance(conf);
+    checkpoint.configure(job);
+    return job;
+  }
+
+  private int getRun(Job job) {
+    return job.getConfiguration().getInt(
+        ImportCheckpoint.CHECKPOINT_RUN_KEY, -1);
+  }
+
+  private void completeTask(Job job, int task) throws IOException {
+    Path out = FileOutputFormat.getOutputPath(job);
+    fs.create(new Path(out, String.format("part-m-%05d.gz", task))).close();
+  }
+
+  private List<InputSplit> splits(String... bounds) {
+    List<InputSplit> splits = new ArrayList<InputSplit>();
+    for (int i = 0; i < bounds.length; i += 2) {
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+          bounds[i], bounds[i + 1]));
+    }
+    return splits;
+  }
+
+  @Test
+  public void testResumeImportsOnlyMissingRanges() throws IOException {
+    Job first = startRun();
+    assertEquals(0, getRun(first));
+    assertNull(checkpoint.getPendingSplits(0));
+    checkpoint.recordSplits(0, splits("ID >= 0", "ID < 10",
+        "ID >= 10", "ID < 20", "ID >= 20", "ID <= 30"));
+    completeTask(first, 1);
+
+    Job second = startRun();
+    assertEquals(1, getRun(second));
+    List<InputSplit> pending = checkpoint.getPendingSplits(1);
+    assertEquals(2, pending.size());
+    assertEquals("ID >= 0", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit)
+        pending.get(0)).getLowerClause());
+    assertEquals("ID >= 20", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit)
+        pending.get(1)).getLowerClause());
+    checkpoint.recordSplits(1, pending);
+    completeTask(second, 1);
+
+    Job third = startRun();
+    pending = checkpoint.getPendingSplits(getRun(third));
+    assertEquals(1, pending.size());
+    assertEquals("ID >= 0", ((DataDrivenDBInputFormat.DataDrivenDBInputSplit)
+        pending.get(0)).getLowerClause());
+    checkpoint.recordSplits(getRun(third), pending);
+    completeTask(third, 0);
+
+    Path dest = new Path(tmp.getRoot().toURI().toString(), "dest");
+    checkpoint.complete(dest, conf);
+    assertTrue(fs.exists(new Path(dest, "part-m-00000.gz")));
+    assertTrue(fs.exists(new Path(dest, "part-m-00001.gz")));
+    assertTrue(fs.exists(new Path(dest, "part-m-00002.gz")));
+    assertTrue(fs.exists(new Path(dest, "_SUCCESS")));
+    assertFalse(fs.exists(checkpoint.getDir()));
+  }
+
+  @Test
+  public void testBlockIndexFollowsDataFile() throws IOException {
+    Job job = startRun();
+    checkpoint.recordSplits(getRun(job), splits("1=1", "1=1"));
+    Path data = new Path(FileOutputFormat.getOutputPath(job),
+        "part-m-00003.bgz");
+    fs.create(data).close();
+    fs.create(BgzfOutputStream.getIndexPath(data)).close();
+
+    Path dest = new Path(tmp.getRoot().toURI().toString(), "dest");
+    checkpoint.complete(dest, conf);
+    Path moved = new Path(dest, "part-m-00000.bgz");
+    assertTrue(fs.exists(moved));
+    assertTrue(fs.exists(BgzfOutputStream.getIndexPath(moved)));
+  }
+
+  @Test
+  public void testChangedImportStartsOver() throws IOException {
+    Job first = startRun();
+    checkpoint.recordSplits(0, splits("1=1", "1=1"));
+    completeTask(first, 0);
+
+    conf.set(DBConfiguration.INPUT_CONDITIONS_PROPERTY, "ID > 5");
+    Job second = startRun();
+    assertEquals(0, getRun(second));
+    assertNull(checkpoint.getPendingSplits(0));
+  }
+}
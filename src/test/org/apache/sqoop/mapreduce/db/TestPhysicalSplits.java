@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.sqoop.config.ConfigurationConstants;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test physical splits and the PostgreSQL ctid splitter.
+ */
+@Category(UnitTest.class)
+public class TestPhysicalSplits {
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    conf.set(ConfigurationConstants.PROP_MAPREDUCE_FRAMEWORK_NAME, "yarn");
+    conf.setInt(ConfigurationConstants.PROP_MAPRED_MAP_TASKS, 4);
+  }
+
+  private ResultSet bounds(long low, long high) throws Exception {
+    ResultSet results = mock(ResultSet.class);
+    when(results.getLong(1)).thenReturn(low);
+    when(results.getLong(2)).thenReturn(high);
+    return results;
+  }
+
+  private String clauses(InputSplit split) {
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit dataDrivenSplit =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) split;
+    return dataDrivenSplit.getLowerClause() + " | "
+        + dataDrivenSplit.getUpperClause();
+  }
+
+  @Test
+  public void testConfigure() {
+    assertNull(PhysicalSplits.getSplitter(conf));
+
+    new PhysicalSplits("ctid", "SELECT 0, 10", PostgresqlCtidSplitter.class)
+        .configure(conf);
+    assertEquals("ctid", new DBConfiguration(conf).getInputOrderBy());
+    assertEquals("SELECT 0, 10",
+        new DBConfiguration(conf).getInputBoundingQuery());
+    assertTrue(PhysicalSplits.getSplitter(conf)
+        instanceof PostgresqlCtidSplitter);
+  }
+
+  @Test
+  public void testCtidSplits() throws Exception {
+    List<InputSplit> splits = new PostgresqlCtidSplitter().split(conf,
+        bounds(0, 10), "ctid");
+
+    assertEquals(4, splits.size());
+    assertEquals("1=1 | ctid < '(3,0)'::tid", clauses(splits.get(0)));
+    assertEquals("ctid >= '(3,0)'::tid | ctid < '(6,0)'::tid",
+        clauses(splits.get(1)));
+    assertEquals("ctid >= '(6,0)'::tid | ctid < '(9,0)'::tid",
+        clauses(splits.get(2)));
+    // relpages is an estimate, so the last split is open-ended.
+    assertEquals("ctid >= '(9,0)'::tid | 1=1", clauses(splits.get(3)));
+  }
+
+  @Test
+  public void testCtidSplitsWithoutPageCount() throws Exception {
+    List<InputSplit> splits = new PostgresqlCtidSplitter().split(conf,
+        bounds(0, 0), "ctid");
+
+    assertEquals(1, splits.size());
+    assertEquals("1=1 | 1=1", clauses(splits.get(0)));
+  }
+}
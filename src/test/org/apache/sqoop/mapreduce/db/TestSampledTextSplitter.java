@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.sqoop.config.ConfigurationConstants;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test that SampledTextSplitter turns sampled split points into splits.
+ */
+@Category(UnitTest.class)
+public class TestSampledTextSplitter {
+
+  private Configuration conf;
+  private DBConfiguration dbConf;
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    conf.set(ConfigurationConstants.PROP_MAPREDUCE_FRAMEWORK_NAME, "yarn");
+    conf.setInt(ConfigurationConstants.PROP_MAPRED_MAP_TASKS, 3);
+    conf.setBoolean(SampledTextSplitter.SAMPLED_TEXT_SPLITTER_KEY, true);
+    dbConf = new DBConfiguration(conf);
+    dbConf.setInputTableName("T");
+    dbConf.setInputConditions("X > 1");
+  }
+
+  private Connection connection(String... points) throws Exception {
+    ResultSet results = mock(ResultSet.class);
+    Boolean[] more = new Boolean[points.length];
+    for (int i = 0; i < points.length; i++) {
+      more[i] = i < points.length - 1;
+    }
+    if (points.length == 0) {
+      when(results.next()).thenReturn(false);
+    } else {
+      when(results.next()).thenReturn(true, more);
+      when(results.getString(1)).thenReturn(points[0],
+          Arrays.copyOfRange(points, 1, points.length));
+    }
+    Statement statement = mock(Statement.class);
+    when(statement.executeQuery(anyString())).thenReturn(results);
+    Connection connection = mock(Connection.class);
+    when(connection.createStatement()).thenReturn(statement);
+    return connection;
+  }
+
+  private String clauses(InputSplit split) {
+    DataDrivenDBInputFormat.DataDrivenDBInputSplit dataDrivenSplit =
+        (DataDrivenDBInputFormat.DataDrivenDBInputSplit) split;
+    return dataDrivenSplit.getLowerClause() + " | "
+        + dataDrivenSplit.getUpperClause();
+  }
+
+  @Test
+  public void testEnabledForTablesOnly() {
+    assertTrue(SampledTextSplitter.isEnabled(dbConf));
+    dbConf.setInputQuery("SELECT * FROM T WHERE $CONDITIONS");
+    assertFalse(SampledTextSplitter.isEnabled(dbConf));
+  }
+
+  @Test
+  public void testSplitPointsQuery() throws Exception {
+    SampledTextSplitter splitter = new SampledTextSplitter(connection(),
+        dbConf, "POSTGRESQL", false);
+    assertEquals("SELECT MAX(C) FROM (SELECT C, NTILE(3) OVER (ORDER BY C)"
+        + " AS SQOOP_TILE FROM T TABLESAMPLE SYSTEM (10)"
+        + " WHERE C IS NOT NULL AND (X > 1)) SQOOP_TILES"
+        + " GROUP BY SQOOP_TILE ORDER BY SQOOP_TILE",
+        splitter.getSplitPointsQuery("C", 3, 10));
+  }
+
+  @Test
+  public void testSplits() throws Exception {
+    SampledTextSplitter splitter = new SampledTextSplitter(
+        connection("a", "it's", "z"), dbConf, "POSTGRESQL", false);
+    List<InputSplit> splits = splitter.split(conf, null, "C");
+
+    assertEquals(3, splits.size());
+    assertEquals("1=1 | (C <= 'a') OR C IS NULL", clauses(splits.get(0)));
+    assertEquals("C > 'a' | C <= 'it''s'", clauses(splits.get(1)));
+    assertEquals("C > 'it''s' | 1=1", clauses(splits.get(2)));
+  }
+
+  @Test
+  public void testRepeatedSplitPoints() throws Exception {
+    SampledTextSplitter splitter = new SampledTextSplitter(
+        connection("a", "a", "b"), dbConf, "MICROSOFT SQL SERVER", true);
+    List<InputSplit> splits = splitter.split(conf, null, "C");
+
+    assertEquals(2, splits.size());
+    assertEquals("1=1 | (C <= N'a') OR C IS NULL", clauses(splits.get(0)));
+    assertEquals("C > N'a' | 1=1", clauses(splits.get(1)));
+  }
+
+  @Test
+  public void testEmptyTable() throws Exception {
+    SampledTextSplitter splitter = new SampledTextSplitter(connection(),
+        dbConf, "POSTGRESQL", false);
+    List<InputSplit> splits = splitter.split(conf, null, "C");
+
+    assertEquals(1, splits.size());
+    assertEquals("1=1 | 1=1", clauses(splits.get(0)));
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet.hadoop;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@Category(UnitTest.class)
+public class TestHadoopParquetExportJobConfigurator {
+
+  private static final Schema FILE_SCHEMA = AvroUtil.parseAvroSchema(
+      "{\"type\":\"record\",\"name\":\"T\",\"fields\":["
+      + "{\"name\":\"ID\",\"type\":[\"null\",\"int\"],\"default\":null},"
+      + "{\"name\":\"NAME\",\"type\":[\"null\",\"string\"],\"default\":null},"
+      + "{\"name\":\"PAYLOAD\",\"type\":[\"null\",\"bytes\"],\"default\":null}]}");
+
+  private MapWritable columns(String... names) {
+    MapWritable columnTypes = new MapWritable();
+    for (String name : names) {
+      columnTypes.put(new Text(name), new Text("String"));
+    }
+    return columnTypes;
+  }
+
+  @Test
+  public void testProjectionKeepsOnlyExportedColumns() {
+    Schema projection = HadoopParquetExportJobConfigurator.getProjection(
+        FILE_SCHEMA, columns("id", "name"));
+
+    assertEquals(2, projection.getFields().size());
+    assertEquals("ID", projection.getFields().get(0).name());
+    assertEquals("NAME", projection.getFields().get(1).name());
+    assertEquals(FILE_SCHEMA.getField("NAME").schema(),
+        projection.getField("NAME").schema());
+  }
+
+  @Test
+  public void testNoProjectionWhenAllColumnsExported() {
+    assertNull(HadoopParquetExportJobConfigurator.getProjection(
+        FILE_SCHEMA, columns("ID", "NAME", "PAYLOAD")));
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.parquet.hadoop;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.sqoop.avro.AvroUtil;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Category(UnitTest.class)
+public class TestSqoopRecordWriteSupport {
+
+  private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"T\","
+      + "\"fields\":["
+      + "{\"name\":\"ID\",\"type\":[\"null\",\"int\"],\"default\":null},"
+      + "{\"name\":\"NAME\",\"type\":[\"null\",\"string\"],\"default\":null},"
+      + "{\"name\":\"TS\",\"type\":[\"null\",\"long\"],\"default\":null}]}";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Configuration conf;
+  private SqoopRecordWriteSupport writeSupport;
+  private RecordConsumer consumer;
+  private WriteSupport.WriteContext writeContext;
+
+  /** Writes SqoopRecords to a Parquet file with the write support. */
+  private static class Builder
+      extends ParquetWriter.Builder<SqoopRecord, Builder> {
+    Builder(Path file) {
+      super(file);
+    }
+
+    @Override
+    protected Builder self() {
+      return this;
+    }
+
+    @Override
+    protected WriteSupport<SqoopRecord> getWriteSupport(Configuration conf) {
+      return new SqoopRecordWriteSupport();
+    }
+  }
+
+  @Before
+  public void setUp() {
+    conf = new Configuration();
+    conf.set(SqoopRecordWriteSupport.AVRO_SCHEMA_KEY, SCHEMA);
+    writeSupport = new SqoopRecordWriteSupport();
+    writeContext = writeSupport.init(conf);
+    consumer = mock(RecordConsumer.class);
+    writeSupport.prepareForWrite(consumer);
+  }
+
+  private SqoopRecord record(Object id, Object name, Object ts) {
+    // Insertion order deliberately differs from the schema order.
+    Map<String, Object> fields = new LinkedHashMap<>();
+    fields.put("TS", ts);
+    fields.put("NAME", name);
+    fields.put("ID", id);
+    SqoopRecord record = mock(SqoopRecord.class);
+    when(record.getFieldMap()).thenReturn(fields);
+    return record;
+  }
+
+  @Test
+  public void testSchemaAndMetadataMatchAvroPath() {
+    assertEquals(3, writeContext.getSchema().getFieldCount());
+    assertEquals(AvroUtil.parseAvroSchema(SCHEMA),
+        AvroUtil.parseAvroSchema(writeContext.getExtraMetaData()
+            .get(SqoopRecordWriteSupport.AVRO_SCHEMA_KEY)));
+  }
+
+  @Test
+  public void testWritesFieldsInSchemaOrder() {
+    writeSupport.write(record(7, "seven", new Timestamp(1234L)));
+
+    InOrder order = inOrder(consumer);
+    order.verify(consumer).startMessage();
+    order.verify(consumer).startField("ID", 0);
+    order.verify(consumer).addInteger(7);
+    order.verify(consumer).endField("ID", 0);
+    order.verify(consumer).startField("NAME", 1);
+    order.verify(consumer).addBinary(Binary.fromString("seven"));
+    order.verify(consumer).endField("NAME", 1);
+    order.verify(consumer).startField("TS", 2);
+    order.verify(consumer).addLong(1234L);
+    order.verify(consumer).endField("TS", 2);
+    order.verify(consumer).endMessage();
+  }
+
+  @Test
+  public void testNullsAreOmitted() {
+    writeSupport.write(record(null, "x", null));
+
+    verify(consumer, never()).startField(eq("ID"), anyInt());
+    verify(consumer, never()).startField(eq("TS"), anyInt());
+    verify(consumer).startField("NAME", 1);
+    verify(consumer, never()).addInteger(anyInt());
+    verify(consumer).endMessage();
+  }
+
+  @Test
+  public void testUnmatchedFieldFails() {
+    try {
+      SqoopRecordWriteSupport.resolveColumnNames(
+          AvroUtil.parseAvroSchema(SCHEMA), Arrays.asList("ID", "TS"));
+      fail("Expected the NAME field to be reported");
+    } catch (IOException ioe) {
+      assertTrue(ioe.getMessage(), ioe.getMessage().contains("NAME"));
+    }
+  }
+
+  @Test
+  public void testReadBackWithParquetAvro() throws Exception {
+    Path file = new Path(tempFolder.getRoot().getPath(), "t.parquet");
+    ParquetWriter<SqoopRecord> writer =
+        new Builder(file).withConf(conf).build();
+    try {
+      writer.write(record(7, "seven", new Timestamp(1234L)));
+      writer.write(record(null, "x", null));
+    } finally {
+      writer.close();
+    }
+
+    ParquetReader<GenericRecord> reader =
+        AvroParquetReader.<GenericRecord>builder(file).withConf(conf).build();
+    try {
+      GenericRecord first = reader.read();
+      assertEquals(7, first.get("ID"));
+      assertEquals("seven", first.get("NAME").toString());
+      assertEquals(1234L, first.get("TS"));
+      GenericRecord second = reader.read();
+      assertNull(second.get("ID"));
+      assertEquals("x", second.get("NAME").toString());
+      assertNull(second.get("TS"));
+      assertNull(reader.read());
+    } finally {
+      reader.close();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.apache.sqoop.mapreduce.postgresql.PostgreSQLBinaryCopyEncoder.ColumnType;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@Category(UnitTest.class)
+public class TestPostgreSQLBinaryCopyEncoder {
+
+  private PostgreSQLBinaryCopyEncoder encoder;
+
+  @Before
+  public void setUp() {
+    encoder = new PostgreSQLBinaryCopyEncoder(16);
+  }
+
+  private ByteBuffer encoded() {
+    return ByteBuffer.wrap(Arrays.copyOf(encoder.getBuffer(), encoder.size()));
+  }
+
+  @Test
+  public void testHeaderAndTrailer() {
+    encoder.writeHeader();
+    encoder.writeTrailer();
+    ByteBuffer buf = encoded();
+    assertEquals(11 + 4 + 4 + 2, buf.remaining());
+    byte[] signature = new byte[11];
+    buf.get(signature);
+    assertArrayEquals(new byte[] {'P', 'G', 'C', 'O', 'P', 'Y', '\n',
+        (byte) 0xff, '\r', '\n', 0}, signature);
+    assertEquals(0, buf.getInt());
+    assertEquals(0, buf.getInt());
+    assertEquals(-1, buf.getShort());
+  }
+
+  @Test
+  public void testIntegersAndNull() throws IOException {
+    encoder.startRow(3);
+    encoder.writeField(ColumnType.INT4, 42);
+    encoder.writeField(ColumnType.INT8, null);
+    encoder.writeField(ColumnType.INT2, 7);
+    ByteBuffer buf = encoded();
+    assertEquals(3, buf.getShort());
+    assertEquals(4, buf.getInt());
+    assertEquals(42, buf.getInt());
+    assertEquals(-1, buf.getInt());
+    assertEquals(2, buf.getInt());
+    assertEquals(7, buf.getShort());
+    assertEquals(0, buf.remaining());
+  }
+
+  @Test
+  public void testTextIsUtf8() throws IOException {
+    String value = "a\u00e9\u20ac\ud83d\ude00";
+    encoder.writeField(ColumnType.TEXT, value);
+    ByteBuffer buf = encoded();
+    byte[] expected = value.getBytes("UTF-8");
+    assertEquals(expected.length, buf.getInt());
+    byte[] actual = new byte[expected.length];
+    buf.get(actual);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testNumeric() throws IOException {
+    encoder.writeField(ColumnType.NUMERIC, new BigDecimal("-12345.678"));
+    ByteBuffer buf = encoded();
+    assertEquals(8 + 2 * 3, buf.getInt());
+    assertEquals(3, buf.getShort()); // ndigits
+    assertEquals(1, buf.getShort()); // weight
+    assertEquals(0x4000, buf.getShort()); // sign
+    assertEquals(3, buf.getShort()); // dscale
+    assertEquals(1, buf.getShort());
+    assertEquals(2345, buf.getShort());
+    assertEquals(6780, buf.getShort());
+  }
+
+  @Test
+  public void testSmallNumeric() throws IOException {
+    encoder.writeField(ColumnType.NUMERIC, new BigDecimal("0.00001"));
+    ByteBuffer buf = encoded();
+    assertEquals(8 + 2, buf.getInt());
+    assertEquals(1, buf.getShort());
+    assertEquals(-2, buf.getShort());
+    assertEquals(0, buf.getShort());
+    assertEquals(5, buf.getShort());
+    assertEquals(1000, buf.getShort());
+  }
+
+  @Test
+  public void testZeroNumeric() throws IOException {
+    encoder.writeField(ColumnType.NUMERIC, new BigDecimal("0.00"));
+    ByteBuffer buf = encoded();
+    assertEquals(8, buf.getInt());
+    assertEquals(0, buf.getShort());
+    assertEquals(0, buf.getShort());
+    assertEquals(0, buf.getShort());
+    assertEquals(2, buf.getShort());
+  }
+
+  @Test
+  public void testTimestampWithoutTimeZone() throws IOException {
+    encoder.writeField(ColumnType.TIMESTAMP,
+        Timestamp.valueOf("2000-01-02 00:00:00.000001"));
+    ByteBuffer buf = encoded();
+    assertEquals(8, buf.getInt());
+    assertEquals(86400L * 1000000L + 1L, buf.getLong());
+  }
+
+  @Test
+  public void testDate() throws IOException {
+    encoder.writeField(ColumnType.DATE, java.sql.Date.valueOf("1999-12-31"));
+    ByteBuffer buf = encoded();
+    assertEquals(4, buf.getInt());
+    assertEquals(-1, buf.getInt());
+  }
+
+  @Test(expected = IOException.class)
+  public void testWrongValueType() throws IOException {
+    encoder.writeField(ColumnType.BOOL, "true");
+  }
+
+  @Test
+  public void testTypeNames() {
+    assertEquals(ColumnType.INT4, PostgreSQLBinaryCopyEncoder.forTypeName("serial"));
+    assertEquals(ColumnType.TEXT, PostgreSQLBinaryCopyEncoder.forTypeName("bpchar"));
+    assertEquals(ColumnType.TIMESTAMPTZ,
+        PostgreSQLBinaryCopyEncoder.forTypeName("timestamptz"));
+    assertNull(PostgreSQLBinaryCopyEncoder.forTypeName("jsonb"));
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(UnitTest.class)
+public class TestPostgreSQLCopyExportEngine {
+
+  private String copyText(String line) {
+    StringBuilder sb = new StringBuilder();
+    PostgreSQLCopyExportEngine.appendCopyText(sb, line);
+    return sb.toString();
+  }
+
+  @Test
+  public void testEscapedDelimitersBecomeEscapeSequences() {
+    // As formatted with COPY_DELIMITERS: "a<TAB>b", "c<LF>d", "e\f".
+    assertEquals("a\\tb\tc\\nd\te\\\\f\n",
+        copyText("a\\\tb\tc\\\nd\te\\\\f\n"));
+  }
+
+  @Test
+  public void testCarriageReturnsAreEscaped() {
+    assertEquals("a\\rb\t\\\\\\r\n", copyText("a\rb\t\\\\\r\n"));
+  }
+
+  @Test
+  public void testCopyStatement() {
+    assertEquals("COPY t (a, b) FROM STDIN WITH (FORMAT text, "
+        + "ENCODING 'UTF-8', NULL 'it''s')",
+        PostgreSQLCopyExportEngine.getCopyStatement("t",
+        new String[] {"a", "b"}, "it's"));
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.postgresql;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.sqoop.SqoopOptions;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.manager.PostgresqlManager;
+import org.apache.sqoop.mapreduce.ExportEngineOutputFormat;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@Category(UnitTest.class)
+public class TestPostgreSQLTaskStaging {
+
+  private static final String TEMPLATE =
+      "\"public\".\"sqoop_0123_" + PostgreSQLTaskStaging.TASK_PLACEHOLDER
+      + "\"";
+
+  private Configuration conf;
+  private TaskAttemptID attemptId;
+  private Connection conn;
+  private Statement stmt;
+
+  @Before
+  public void setUp() throws SQLException {
+    conf = new Configuration(false);
+    conf.set(PostgreSQLTaskStaging.TASK_STAGING_TABLE_KEY, TEMPLATE);
+    attemptId = new TaskAttemptID("jt", 1, TaskType.MAP, 42, 3);
+    conn = mock(Connection.class);
+    stmt = mock(Statement.class);
+    when(conn.createStatement()).thenReturn(stmt);
+  }
+
+  @Test
+  public void testTableNameUsesTaskNumber() {
+    assertEquals("\"public\".\"sqoop_0123_000042\"",
+        PostgreSQLTaskStaging.getTableName(conf, attemptId));
+  }
+
+  @Test
+  public void testTableNameIgnoresAttemptNumber() {
+    TaskAttemptID retry = new TaskAttemptID("jt", 1, TaskType.MAP, 42, 4);
+    assertEquals(PostgreSQLTaskStaging.getTableName(conf, attemptId),
+        PostgreSQLTaskStaging.getTableName(conf, retry));
+  }
+
+  @Test
+  public void testPrepareWithoutStagingReturnsTarget() throws SQLException {
+    assertFalse(PostgreSQLTaskStaging.isEnabled(conf));
+    assertEquals("\"target\"", PostgreSQLTaskStaging.prepareCopyTable(conf,
+        conn, attemptId, "\"target\""));
+    verifyZeroInteractions(conn);
+  }
+
+  @Test
+  public void testPrepareRecreatesStagingTable() throws SQLException {
+    conf.setBoolean(PostgreSQLTaskStaging.TASK_STAGING_KEY, true);
+    assertTrue(PostgreSQLTaskStaging.isEnabled(conf));
+
+    String table = PostgreSQLTaskStaging.prepareCopyTable(conf, conn,
+        attemptId, "\"target\"");
+
+    assertEquals("\"public\".\"sqoop_0123_000042\"", table);
+    InOrder order = inOrder(stmt);
+    order.verify(stmt).executeUpdate("DROP TABLE IF EXISTS " + table);
+    order.verify(stmt).executeUpdate("CREATE UNLOGGED TABLE " + table
+        + " (LIKE \"target\" INCLUDING DEFAULTS)");
+    order.verify(stmt).close();
+  }
+
+  @Test
+  public void testMergeNamesColumnsAndDropsTables() throws SQLException {
+    PostgresqlManager manager = newManager();
+
+    manager.mergeTables(Arrays.asList("sqoop_0123_000000",
+        "sqoop_0123_000001"), "target");
+
+    InOrder order = inOrder(stmt, conn);
+    order.verify(stmt).executeUpdate("INSERT INTO \"target\" (\"id\", \"msg\")"
+        + " SELECT \"id\", \"msg\" FROM \"sqoop_0123_000000\"");
+    order.verify(stmt).executeUpdate("DROP TABLE \"sqoop_0123_000000\"");
+    order.verify(stmt).executeUpdate("INSERT INTO \"target\" (\"id\", \"msg\")"
+        + " SELECT \"id\", \"msg\" FROM \"sqoop_0123_000001\"");
+    order.verify(stmt).executeUpdate("DROP TABLE \"sqoop_0123_000001\"");
+    order.verify(conn).commit();
+    verify(conn, never()).rollback();
+  }
+
+  @Test
+  public void testMergeRollsBackOnFailure() throws SQLException {
+    PostgresqlManager manager = newManager();
+    SQLException failure = new SQLException("duplicate key", "23505");
+    when(stmt.executeUpdate(anyString())).thenThrow(failure);
+
+    try {
+      manager.mergeTables(Arrays.asList("sqoop_0123_000000"), "target");
+      fail("Expected the merge to fail");
+    } catch (SQLException ex) {
+      assertEquals(failure, ex);
+    }
+    verify(conn).rollback();
+    verify(conn, never()).commit();
+    verify(stmt).close();
+  }
+
+  @Test
+  public void testCopyExportEngineRejectsStaging() throws Exception {
+    conf.set(ExportEngineOutputFormat.ENGINE_KEY,
+        ExportEngineOutputFormat.POSTGRESQL_COPY_ENGINE);
+    conf.setBoolean(PostgreSQLTaskStaging.TASK_STAGING_KEY, true);
+    try {
+      new ExportEngineOutputFormat<SqoopRecord, NullWritable>()
+          .checkOutputSpecs(
+          new JobContextImpl(conf, attemptId.getJobID()));
+      fail("Expected the job to reject per-task staging");
+    } catch (IOException ioe) {
+      assertTrue(ioe.getMessage().contains(
+          PostgreSQLTaskStaging.TASK_STAGING_KEY));
+    }
+  }
+
+  private PostgresqlManager newManager() {
+    return new PostgresqlManager(new SqoopOptions()) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        return conn;
+      }
+
+      @Override
+      public String[] getColumnNamesForRawQuery(String query) {
+        return new String[] { "id", "msg" };
+      }
+    };
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.sqlserver;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.manager.SQLServerManager;
+import org.apache.sqoop.mapreduce.db.SQLFailureHandler;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Category(UnitTest.class)
+public class TestSqlServerBulkCopyExportEngine {
+
+  private static final List<SqoopRecord> BATCH =
+      Collections.singletonList(mock(SqoopRecord.class));
+
+  private Connection conn;
+  private Connection recovered;
+  private SQLFailureHandler handler;
+
+  /** Failures of the successive bulk copies; null means success. */
+  private LinkedList<SQLException> failures;
+  private int attempts;
+  private SqlServerBulkCopyExportEngine engine;
+
+  @Before
+  public void setUp() throws IOException {
+    conn = mock(Connection.class);
+    recovered = mock(Connection.class);
+    handler = mock(SQLFailureHandler.class);
+    when(handler.recover()).thenReturn(recovered);
+    failures = new LinkedList<SQLException>();
+    attempts = 0;
+
+    engine = new SqlServerBulkCopyExportEngine() {
+      @Override
+      void writeToServer(List<SqoopRecord> batch) throws SQLException {
+        attempts++;
+        SQLException failure = failures.poll();
+        if (null != failure) {
+          throw failure;
+        }
+      }
+    };
+    engine.conn = conn;
+    engine.failureHandler = handler;
+  }
+
+  @Test
+  public void testTableLock() {
+    Configuration conf = new Configuration(false);
+    assertFalse(SqlServerBulkCopyExportEngine.isTableLock(conf));
+
+    conf.setBoolean(SqlServerBulkCopyExportEngine.TABLE_LOCK_KEY, true);
+    assertTrue(SqlServerBulkCopyExportEngine.isTableLock(conf));
+  }
+
+  @Test
+  public void testTableLockFromHints() {
+    Configuration conf = new Configuration(false);
+    conf.set(SQLServerManager.TABLE_HINTS_PROP, "tablock");
+    assertTrue(SqlServerBulkCopyExportEngine.isTableLock(conf));
+
+    conf.set(SQLServerManager.TABLE_HINTS_PROP, "NOLOCK, TABLOCK");
+    assertTrue(SqlServerBulkCopyExportEngine.isTableLock(conf));
+
+    conf.set(SQLServerManager.TABLE_HINTS_PROP, "TABLOCKX");
+    assertFalse(SqlServerBulkCopyExportEngine.isTableLock(conf));
+
+    conf.set(SQLServerManager.TABLE_HINTS_PROP, "NOLOCK");
+    assertFalse(SqlServerBulkCopyExportEngine.isTableLock(conf));
+  }
+
+  @Test
+  public void testBatchIsCommitted() throws Exception {
+    engine.write(BATCH);
+    assertEquals(1, attempts);
+    verify(conn).commit();
+  }
+
+  @Test
+  public void testRetryOnNewConnection() throws Exception {
+    SQLException reset = new SQLException("Connection reset", "08S01");
+    when(handler.canHandleFailure(reset)).thenReturn(true);
+    failures.add(reset);
+
+    engine.write(BATCH);
+    assertEquals(2, attempts);
+    verify(conn, never()).commit();
+    verify(recovered).setAutoCommit(false);
+    verify(recovered).commit();
+  }
+
+  @Test
+  public void testRetriesAreLimited() throws Exception {
+    SQLException reset = new SQLException("Connection reset", "08S01");
+    when(handler.canHandleFailure(reset)).thenReturn(true);
+    for (int i = 0; i <= SqlServerBulkCopyExportEngine.RETRY_MAX; i++) {
+      failures.add(reset);
+    }
+
+    try {
+      engine.write(BATCH);
+      fail("Expected the write to fail");
+    } catch (IOException ioe) {
+      assertEquals(SqlServerBulkCopyExportEngine.RETRY_MAX + 1, attempts);
+    }
+  }
+
+  @Test
+  public void testUnrecoverableFailure() throws Exception {
+    SQLException failure = new SQLException("Invalid column", "42S22");
+    failures.add(failure);
+
+    try {
+      engine.write(BATCH);
+      fail("Expected the write to fail");
+    } catch (IOException ioe) {
+      assertEquals(failure, ioe.getCause());
+    }
+    verify(handler, never()).recover();
+  }
+
+  @Test
+  public void testConstraintViolationAfterFailedCommitIsIgnored()
+      throws Exception {
+    SQLException reset = new SQLException("Connection reset", "08S01");
+    when(handler.canHandleFailure(reset)).thenReturn(true);
+    doThrow(reset).when(conn).commit();
+    // The first attempt may have been committed before the reset.
+    failures.add(null);
+    failures.add(new SQLException("Duplicate key",
+        SqlServerBulkCopyExportEngine.SQLSTATE_CODE_CONSTRAINT_VIOLATION));
+
+    engine.write(BATCH);
+    assertEquals(2, attempts);
+    verify(recovered).rollback();
+    verify(recovered, never()).commit();
+  }
+
+  @Test
+  public void testConstraintViolationFailsOtherwise() throws Exception {
+    failures.add(new SQLException("Duplicate key",
+        SqlServerBulkCopyExportEngine.SQLSTATE_CODE_CONSTRAINT_VIOLATION));
+
+    try {
+      engine.write(BATCH);
+      fail("Expected the write to fail");
+    } catch (IOException ioe) {
+      assertEquals(1, attempts);
+    }
+    verify(conn, never()).rollback();
+  }
+}
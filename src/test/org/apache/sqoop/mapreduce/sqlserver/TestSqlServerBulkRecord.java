@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.mapreduce.sqlserver;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.Arrays;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.sqoop.lib.SqoopRecord;
+import org.apache.sqoop.manager.SQLServerManager;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@Category(UnitTest.class)
+public class TestSqlServerBulkRecord {
+
+  private SqoopRecord record(final Integer id, final String name)
+      throws Exception {
+    SqoopRecord record = mock(SqoopRecord.class);
+    doAnswer(new Answer<Integer>() {
+      @Override
+      public Integer answer(InvocationOnMock invocation) throws Throwable {
+        PreparedStatement stmt = (PreparedStatement) invocation
+            .getArguments()[0];
+        stmt.setInt(1, id);
+        if (null == name) {
+          stmt.setNull(2, Types.VARCHAR);
+        } else {
+          stmt.setString(2, name);
+        }
+        return 2;
+      }
+    }).when(record).write(any(PreparedStatement.class), eq(0));
+    return record;
+  }
+
+  @Test
+  public void testRowsAndMetadata() throws Exception {
+    SqlServerBulkRecord records = new SqlServerBulkRecord(
+        Arrays.asList(record(1, "one"), record(2, null)),
+        new String[] { "id", "name" },
+        new int[] { Types.INTEGER, Types.VARCHAR },
+        new int[] { 10, 20 }, new int[] { 0, 0 });
+    ISQLServerBulkRecord bulkRecord = (ISQLServerBulkRecord) records
+        .newProxy(ISQLServerBulkRecord.class);
+
+    assertEquals(2, bulkRecord.getColumnOrdinals().size());
+    assertEquals("name", bulkRecord.getColumnName(2));
+    assertEquals(Types.INTEGER, bulkRecord.getColumnType(1));
+    assertEquals(20, bulkRecord.getPrecision(2));
+    assertFalse(bulkRecord.isAutoIncrement(1));
+
+    assertTrue(bulkRecord.next());
+    assertArrayEquals(new Object[] { 1, "one" }, bulkRecord.getRowData());
+    assertTrue(bulkRecord.next());
+    assertArrayEquals(new Object[] { 2, null }, bulkRecord.getRowData());
+    assertFalse(bulkRecord.next());
+  }
+
+  @Test
+  public void testTableLock() {
+    Configuration conf = new Configuration();
+    assertFalse(SqlServerBulkCopyExportEngine.isTableLock(conf));
+
+    conf.set(SQLServerManager.TABLE_HINTS_PROP, "NOLOCK");
+    assertFalse(SqlServerBulkCopyExportEngine.isTableLock(conf));
+
+    conf.set(SQLServerManager.TABLE_HINTS_PROP, "ROWLOCK, tablock");
+    assertTrue(SqlServerBulkCopyExportEngine.isTableLock(conf));
+
+    conf.unset(SQLServerManager.TABLE_HINTS_PROP);
+    conf.setBoolean(SqlServerBulkCopyExportEngine.TABLE_LOCK_KEY, true);
+    assertTrue(SqlServerBulkCopyExportEngine.isTableLock(conf));
+  }
+}
@@ -33,6 +33,8 @@
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.util.Shell;
 import org.apache.sqoop.testcategories.sqooptest.IntegrationTest;
 import org.apache.sqoop.testutil.BaseSqoopTestCase;
@@ -43,6 +45,7 @@
 
 import org.apache.sqoop.SqoopOptions;
 import org.apache.sqoop.TestConnFactory.DummyManager;
+import org.apache.sqoop.lib.SqoopRecord;
 import org.apache.sqoop.manager.ConnManager;
 import org.apache.sqoop.testutil.DirUtil;
 import org.apache.sqoop.testutil.HsqldbTestServer;
@@ -589,6 +592,109 @@ public void testEqualsMethod() throws IOException, ClassNotFoundException,
     }
   }
 
+  /**
+   * Test that with primitive fields enabled, integer columns are stored as
+   * primitives while nulls still survive the accessors, equals(), clone(),
+   * the Writable round trip, toString() and parse().
+   */
+  @Test
+  public void testPrimitiveFields() throws Exception {
+    options.getConf().setBoolean(
+        ClassWriter.PROPERTY_CODEGEN_PRIMITIVE_FIELDS, true);
+
+    String [] argv = {
+      "--bindir",
+      JAR_GEN_DIR,
+      "--outdir",
+      CODE_GEN_DIR,
+      "--class-name",
+      OVERRIDE_CLASS_AND_PACKAGE_NAME,
+    };
+
+    File ormJarFile = runGenerationTest(argv, OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    ClassLoader prevClassLoader = ClassLoaderStack.addJarFile(
+        ormJarFile.getCanonicalPath(),
+        OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    Class tableClass = Class.forName(
+        OVERRIDE_CLASS_AND_PACKAGE_NAME,
+        true,
+        Thread.currentThread().getContextClassLoader());
+
+    assertEquals(int.class,
+        tableClass.getDeclaredField("INTFIELD1").getType());
+    Method getter1 = tableClass.getMethod("get_INTFIELD1");
+    Method getter2 = tableClass.getMethod("get_INTFIELD2");
+    Method setter1 = tableClass.getMethod("set_INTFIELD1", Integer.class);
+
+    SqoopRecord record = (SqoopRecord) tableClass.newInstance();
+    assertNull(getter1.invoke(record));
+    setter1.invoke(record, Integer.valueOf(42));
+    assertEquals(Integer.valueOf(42), getter1.invoke(record));
+    assertNull(getter2.invoke(record));
+
+    SqoopRecord copy = (SqoopRecord) record.clone();
+    assertTrue(record.equals(copy));
+    setter1.invoke(copy, (Integer) null);
+    assertNull(getter1.invoke(copy));
+    assertEquals(Integer.valueOf(42), getter1.invoke(record));
+    assertFalse(record.equals(copy));
+
+    DataOutputBuffer out = new DataOutputBuffer();
+    record.write(out);
+    DataInputBuffer in = new DataInputBuffer();
+    in.reset(out.getData(), out.getLength());
+    SqoopRecord read = (SqoopRecord) tableClass.newInstance();
+    read.readFields(in);
+    assertTrue(record.equals(read));
+
+    String text = record.toString(false);
+    assertEquals("42,null", text);
+    SqoopRecord parsed = (SqoopRecord) tableClass.newInstance();
+    parsed.parse(text);
+    assertTrue(record.equals(parsed));
+
+    if (null != prevClassLoader) {
+      ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
+    }
+  }
+
+  /**
+   * Test that fields can be looked up once by name and then set by index.
+   */
+  @Test
+  public void testPositionalSetField() throws Exception {
+    String [] argv = {
+      "--bindir",
+      JAR_GEN_DIR,
+      "--outdir",
+      CODE_GEN_DIR,
+      "--class-name",
+      OVERRIDE_CLASS_AND_PACKAGE_NAME,
+    };
+
+    File ormJarFile = runGenerationTest(argv, OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    ClassLoader prevClassLoader = ClassLoaderStack.addJarFile(
+        ormJarFile.getCanonicalPath(),
+        OVERRIDE_CLASS_AND_PACKAGE_NAME);
+    Class tableClass = Class.forName(
+        OVERRIDE_CLASS_AND_PACKAGE_NAME,
+        true,
+        Thread.currentThread().getContextClassLoader());
+
+    SqoopRecord record = (SqoopRecord) tableClass.newInstance();
+    assertEquals(0, record.getFieldIndex("INTFIELD1"));
+    assertEquals(1, record.getFieldIndex("INTFIELD2"));
+    assertEquals(-1, record.getFieldIndex("NOSUCHFIELD"));
+
+    record.setField(record.getFieldIndex("INTFIELD2"), Integer.valueOf(5));
+    assertEquals(Integer.valueOf(5), record.getFieldMap().get("INTFIELD2"));
+    assertNull(record.getFieldMap().get("INTFIELD1"));
+
+    if (null != prevClassLoader) {
+      ClassLoaderStack.setCurrentClassLoader(prevClassLoader);
+    }
+  }
+
   private static final String USERMAPPING_CLASS_AND_PACKAGE_NAME =
       "usermapping.pkg.prefix.classname";
 
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sqoop.util;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.sqoop.mapreduce.MergeJob;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@Category(UnitTest.class)
+public class TestIncrementalDeltas {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private Configuration conf;
+  private FileSystem fs;
+  private Path base;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    fs = FileSystem.getLocal(conf);
+    base = new Path(tmp.getRoot().toURI().toString(), "base");
+    fs.mkdirs(base);
+    fs.create(new Path(base, "part-m-00000")).close();
+  }
+
+  private Path importDir(String name) throws IOException {
+    Path dir = new Path(tmp.getRoot().toURI().toString(), name);
+    fs.mkdirs(dir);
+    fs.create(new Path(dir, "part-m-00000")).close();
+    return dir;
+  }
+
+  @Test
+  public void testCommitAppendsToManifest() throws IOException {
+    IncrementalDeltas deltas = new IncrementalDeltas(base, conf);
+    assertTrue(deltas.getDeltas().isEmpty());
+
+    Path first = deltas.commit(importDir("run1"));
+    Path second = deltas.commit(importDir("run2"));
+
+    List<Path> committed = new IncrementalDeltas(base, conf).getDeltas();
+    assertEquals(2, committed.size());
+    assertEquals("delta-00000", committed.get(0).getName());
+    assertEquals("delta-00001", committed.get(1).getName());
+    assertEquals(first, committed.get(0));
+    assertEquals(second, committed.get(1));
+    assertTrue(fs.exists(new Path(second, "part-m-00000")));
+    assertFalse(fs.exists(new Path(tmp.getRoot().toURI().toString(), "run1")));
+  }
+
+  @Test
+  public void testDeltaLayoutSurvivesFullCompaction() throws IOException {
+    IncrementalDeltas deltas = new IncrementalDeltas(base, conf);
+    assertFalse(deltas.hasDeltaLayout());
+    deltas.commit(importDir("run1"));
+    assertTrue(deltas.hasDeltaLayout());
+
+    deltas.replaceBase(importDir("merged"), deltas.getDeltas(),
+        new Path(tmp.getRoot().toURI().toString(), "old"));
+
+    assertTrue(deltas.hasDeltaLayout());
+    assertTrue(deltas.getDeltas().isEmpty());
+  }
+
+  @Test
+  public void testReplaceBaseKeepsNewerDeltas() throws IOException {
+    IncrementalDeltas deltas = new IncrementalDeltas(base, conf);
+    deltas.commit(importDir("run1"));
+    List<Path> compacted = deltas.getDeltas();
+    deltas.commit(importDir("run2"));
+
+    Path merged = importDir("merged");
+    fs.create(new Path(merged, "part-r-00000")).close();
+    deltas.replaceBase(merged, compacted,
+        new Path(tmp.getRoot().toURI().toString(), "old"));
+
+    assertTrue(fs.exists(new Path(base, "part-r-00000")));
+    List<Path> remaining = deltas.getDeltas();
+    assertEquals(1, remaining.size());
+    assertEquals("delta-00001", remaining.get(0).getName());
+    assertTrue(fs.exists(new Path(remaining.get(0), "part-m-00000")));
+  }
+
+  @Test
+  public void testCommitWaitsForLock() throws IOException {
+    conf.setLong(DirectoryLock.TIMEOUT_KEY, 0);
+    IncrementalDeltas deltas = new IncrementalDeltas(base, conf);
+    DirectoryLock lock = DirectoryLock.acquire(fs, base, conf);
+    try {
+      deltas.commit(importDir("run1"));
+      fail("Expected the commit to time out on the lock");
+    } catch (IOException ioe) {
+      assertTrue(deltas.getDeltas().isEmpty());
+    } finally {
+      lock.close();
+    }
+
+    deltas.commit(importDir("run1"));
+    assertEquals(1, deltas.getDeltas().size());
+    assertFalse(fs.exists(DirectoryLock.getLockPath(base)));
+  }
+
+  @Test
+  public void testMergeGenerations() throws IOException {
+    conf.set(MergeJob.MERGE_OLD_PATH_KEY, "file:/data/t");
+    conf.setStrings(MergeJob.MERGE_DELTA_PATHS_KEY,
+        "file:/data/t/_deltas/delta-00000", "file:/data/t/_deltas/delta-00001");
+
+    assertEquals(0, MergeJob.getGeneration(conf,
+        new Path("file:/data/t/part-m-00000")));
+    assertEquals(1, MergeJob.getGeneration(conf,
+        new Path("file:/data/t/_deltas/delta-00000/part-m-00000")));
+    assertEquals(2, MergeJob.getGeneration(conf,
+        new Path("file:/data/t/_deltas/delta-00001/part-m-00000")));
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.sqoop.util;
+
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.sqoop.testcategories.sqooptest.UnitTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@Category(UnitTest.class)
+public class TestPhaseCounters {
+
+  @Test
+  public void testHistogramBuckets() {
+    PhaseCounters counters = new PhaseCounters(true);
+    counters.add(PhaseCounters.Phase.FETCH, 500L);
+    counters.add(PhaseCounters.Phase.FETCH, 10L * 1000);
+    counters.add(PhaseCounters.Phase.FETCH, 5L * 1000 * 1000);
+    counters.add(PhaseCounters.Phase.FETCH, 2L * 1000 * 1000 * 1000);
+
+    assertEquals(4, counters.getCount(PhaseCounters.Phase.FETCH));
+    assertEquals(2005010500L, counters.getNanos(PhaseCounters.Phase.FETCH));
+    assertArrayEquals(new long[] {1, 1, 0, 1, 1},
+        counters.getBuckets(PhaseCounters.Phase.FETCH));
+    assertEquals(0, counters.getCount(PhaseCounters.Phase.WRITE));
+  }
+
+  @Test
+  public void testDisabledCountersRecordNothing() {
+    PhaseCounters counters = new PhaseCounters(false);
+    long start = counters.start();
+    counters.stop(PhaseCounters.Phase.DECODE, start);
+    assertEquals(0, counters.getCount(PhaseCounters.Phase.DECODE));
+    assertNull(counters.format());
+    assertEquals("No phase timings recorded", counters.toString());
+  }
+
+  @Test
+  public void testAddAll() {
+    PhaseCounters a = new PhaseCounters(true);
+    PhaseCounters b = new PhaseCounters(true);
+    a.add(PhaseCounters.Phase.BIND, 100L);
+    b.add(PhaseCounters.Phase.BIND, 200L);
+    b.add(PhaseCounters.Phase.EXECUTE, 300L);
+    a.addAll(b);
+
+    assertEquals(2, a.getCount(PhaseCounters.Phase.BIND));
+    assertEquals(300L, a.getNanos(PhaseCounters.Phase.BIND));
+    assertEquals(1, a.getCount(PhaseCounters.Phase.EXECUTE));
+  }
+
+  @Test
+  public void testFormatBreakdown() {
+    Counters jobCounters = new Counters();
+    assertNull(PhaseCounters.formatBreakdown(jobCounters));
+
+    jobCounters.findCounter(PhaseCounters.COUNTER_GROUP, "FETCH_NANOS")
+        .increment(3000000000L);
+    jobCounters.findCounter(PhaseCounters.COUNTER_GROUP, "FETCH_COUNT")
+        .increment(1000);
+    jobCounters.findCounter(PhaseCounters.COUNTER_GROUP, "WRITE_NANOS")
+        .increment(1000000000L);
+    jobCounters.findCounter(PhaseCounters.COUNTER_GROUP, "WRITE_COUNT")
+        .increment(1000);
+
+    String breakdown = PhaseCounters.formatBreakdown(jobCounters);
+    assertTrue(breakdown, breakdown.contains("fetch: 3 s (75%)"));
+    assertTrue(breakdown, breakdown.contains("write: 1 s (25%)"));
+    // Summarizing must not add counters for the phases never recorded.
+    assertEquals(4,
+        jobCounters.getGroup(PhaseCounters.COUNTER_GROUP).size());
+  }
+}